@@ -22,9 +22,6 @@ package org.verapdf.as;
 
 import org.verapdf.cos.filters.COSFilterASCIIHexEncode;
 
-import java.util.HashMap;
-import java.util.Map;
-
 /**
  * Class represents predefined PDF name. Also it caches known PDF names.
  *
@@ -32,8 +29,7 @@ import java.util.Map;
  */
 public class ASAtom implements Comparable<ASAtom> {
 
-    private static final Map<String, ASAtom> PREDEFINED_PDF_NAMES = new HashMap<>();
-    private static final Map<String, ASAtom> CACHED_PDF_NAMES = new HashMap<>();
+    private static final ASAtomTable PDF_NAMES = new ASAtomTable();
 
     // A
     public static final ASAtom A = new ASAtom("A");
@@ -598,6 +594,7 @@ public class ASAtom implements Comparable<ASAtom> {
     public static final ASAtom ZAPF_DINGBATS = new ASAtom("ZapfDingbats");
 
     private String value;
+    private final boolean predefined;
 
     private ASAtom(String value) {
         this(value, true);
@@ -605,15 +602,16 @@ public class ASAtom implements Comparable<ASAtom> {
 
     private ASAtom(String value, boolean predefinedValue) {
         this.value = value;
+        this.predefined = predefinedValue;
         if (predefinedValue) {
-            PREDEFINED_PDF_NAMES.put(value, this);
-        } else {
-            if (!CACHED_PDF_NAMES.containsKey(value)) {
-                CACHED_PDF_NAMES.put(value, this);
-            }
+            PDF_NAMES.put(this, true);
         }
     }
 
+    static ASAtom createCachedASAtom(String value) {
+        return new ASAtom(value, false);
+    }
+
     /**
      * Gets PDF name from string. Also caches it if necessary.
      *
@@ -624,17 +622,27 @@ public class ASAtom implements Comparable<ASAtom> {
         if (value == null) {
             return null;
         }
+        return PDF_NAMES.get(value);
+    }
 
-        if (PREDEFINED_PDF_NAMES.containsKey(value)) {
-            return PREDEFINED_PDF_NAMES.get(value);
-        } else if (CACHED_PDF_NAMES.containsKey(value)) {
-            return CACHED_PDF_NAMES.get(value);
-        } else {
-            ASAtom result = new ASAtom(value, false);
-            result.value = value;
-            CACHED_PDF_NAMES.put(value, result);
-            return result;
+    /**
+     * Gets PDF name from bytes, for example from tokenizer buffer. If name is
+     * already known, then no objects are created. Name bytes are converted
+     * to string in the same way as by {@link String#String(byte[])}.
+     *
+     * @param bytes  is array containing PDF name.
+     * @param offset is offset of the name in array.
+     * @param length is length of the name.
+     * @return PDF name as ASAtom.
+     */
+    public static ASAtom getASAtom(byte[] bytes, int offset, int length) {
+        for (int i = offset; i < offset + length; ++i) {
+            if (bytes[i] < 0) {
+                // non ASCII names depend on default charset
+                return getASAtom(new String(bytes, offset, length));
+            }
         }
+        return PDF_NAMES.get(bytes, offset, length);
     }
 
     /**
@@ -644,6 +652,14 @@ public class ASAtom implements Comparable<ASAtom> {
         return value;
     }
 
+    /**
+     * @return true if this is one of predefined names declared in this class.
+     * Predefined names are never removed from cache.
+     */
+    public boolean isPredefined() {
+        return predefined;
+    }
+
     private void setValue(String value) {
         this.value = value;
     }
@@ -0,0 +1,200 @@
+/**
+ * This file is part of veraPDF Parser, a module of the veraPDF project.
+ * Copyright (c) 2015, veraPDF Consortium <info@verapdf.org>
+ * All rights reserved.
+ *
+ * veraPDF Parser is free software: you can redistribute it and/or modify
+ * it under the terms of either:
+ *
+ * The GNU General public license GPLv3+.
+ * You should have received a copy of the GNU General Public License
+ * along with veraPDF Parser as the LICENSE.GPL file in the root of the source
+ * tree.  If not, see http://www.gnu.org/licenses/ or
+ * https://www.gnu.org/licenses/gpl-3.0.en.html.
+ *
+ * The Mozilla Public License MPLv2+.
+ * You should have received a copy of the Mozilla Public License along with
+ * veraPDF Parser as the LICENSE.MPL file in the root of the source tree.
+ * If a copy of the MPL was not distributed with this file, you can obtain one at
+ * http://mozilla.org/MPL/2.0/.
+ */
+package org.verapdf.as;
+
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+
+/**
+ * Thread-safe intern table of ASAtoms. Predefined names are held strongly,
+ * other names are held through weak references, so they are removed from the
+ * table once no PDF object uses them. Names can be looked up either by string
+ * or by ASCII bytes, in the latter case no objects are created for names that
+ * are already in the table.
+ */
+final class ASAtomTable {
+
+	private static final int SEGMENTS_NUMBER = 16;
+	private static final int INITIAL_SEGMENT_CAPACITY = 256;
+
+	private final Segment[] segments;
+
+	ASAtomTable() {
+		this.segments = new Segment[SEGMENTS_NUMBER];
+		for (int i = 0; i < SEGMENTS_NUMBER; ++i) {
+			this.segments[i] = new Segment();
+		}
+	}
+
+	/**
+	 * Adds name to the table. Predefined names are never removed.
+	 */
+	void put(ASAtom atom, boolean isPredefined) {
+		String value = atom.getValue();
+		int hash = value.hashCode();
+		getSegment(hash).put(atom, hash, isPredefined);
+	}
+
+	/**
+	 * Gets interned ASAtom for given string or creates and interns new one.
+	 */
+	ASAtom get(String value) {
+		int hash = value.hashCode();
+		return getSegment(hash).get(value, hash);
+	}
+
+	/**
+	 * Gets interned ASAtom for name represented by given bytes or creates and
+	 * interns new one. Each byte is treated as a character, so bytes should
+	 * be ASCII.
+	 */
+	ASAtom get(byte[] bytes, int offset, int length) {
+		int hash = 0;
+		for (int i = offset; i < offset + length; ++i) {
+			hash = 31 * hash + bytes[i];
+		}
+		return getSegment(hash).get(bytes, offset, length, hash);
+	}
+
+	private Segment getSegment(int hash) {
+		// spread hash so that segment doesn't depend only on low bits
+		int h = hash ^ (hash >>> 16);
+		return this.segments[(h >>> 8) & (SEGMENTS_NUMBER - 1)];
+	}
+
+	private static final class Entry extends WeakReference<ASAtom> {
+		private final int hash;
+		private final ASAtom predefined;
+		private Entry next;
+
+		private Entry(ASAtom atom, int hash, boolean isPredefined,
+		              ReferenceQueue<ASAtom> queue, Entry next) {
+			super(atom, queue);
+			this.hash = hash;
+			this.predefined = isPredefined ? atom : null;
+			this.next = next;
+		}
+	}
+
+	private static final class Segment {
+		private final ReferenceQueue<ASAtom> queue = new ReferenceQueue<>();
+		private Entry[] table = new Entry[INITIAL_SEGMENT_CAPACITY];
+		private int count = 0;
+
+		synchronized void put(ASAtom atom, int hash, boolean isPredefined) {
+			expungeStaleEntries();
+			String value = atom.getValue();
+			int index = hash & (table.length - 1);
+			for (Entry e = table[index]; e != null; e = e.next) {
+				ASAtom existing = e.get();
+				if (e.hash == hash && existing != null && existing.getValue().equals(value)) {
+					return;
+				}
+			}
+			addEntry(atom, hash, isPredefined, index);
+		}
+
+		synchronized ASAtom get(String value, int hash) {
+			int index = hash & (table.length - 1);
+			for (Entry e = table[index]; e != null; e = e.next) {
+				ASAtom atom = e.get();
+				if (e.hash == hash && atom != null && atom.getValue().equals(value)) {
+					return atom;
+				}
+			}
+			expungeStaleEntries();
+			ASAtom atom = ASAtom.createCachedASAtom(value);
+			addEntry(atom, hash, false, hash & (table.length - 1));
+			return atom;
+		}
+
+		synchronized ASAtom get(byte[] bytes, int offset, int length, int hash) {
+			int index = hash & (table.length - 1);
+			for (Entry e = table[index]; e != null; e = e.next) {
+				ASAtom atom = e.get();
+				if (e.hash == hash && atom != null && matches(atom.getValue(), bytes, offset, length)) {
+					return atom;
+				}
+			}
+			expungeStaleEntries();
+			char[] chars = new char[length];
+			for (int i = 0; i < length; ++i) {
+				chars[i] = (char) bytes[offset + i];
+			}
+			ASAtom atom = ASAtom.createCachedASAtom(new String(chars));
+			addEntry(atom, hash, false, hash & (table.length - 1));
+			return atom;
+		}
+
+		private void addEntry(ASAtom atom, int hash, boolean isPredefined, int index) {
+			table[index] = new Entry(atom, hash, isPredefined, queue, table[index]);
+			if (++count > table.length * 3 / 4) {
+				resize();
+			}
+		}
+
+		private void resize() {
+			Entry[] newTable = new Entry[table.length << 1];
+			for (Entry head : table) {
+				Entry e = head;
+				while (e != null) {
+					Entry next = e.next;
+					int index = e.hash & (newTable.length - 1);
+					e.next = newTable[index];
+					newTable[index] = e;
+					e = next;
+				}
+			}
+			table = newTable;
+		}
+
+		private void expungeStaleEntries() {
+			Entry stale;
+			while ((stale = (Entry) queue.poll()) != null) {
+				int index = stale.hash & (table.length - 1);
+				Entry prev = null;
+				for (Entry e = table[index]; e != null; prev = e, e = e.next) {
+					if (e == stale) {
+						if (prev == null) {
+							table[index] = e.next;
+						} else {
+							prev.next = e.next;
+						}
+						count--;
+						break;
+					}
+				}
+			}
+		}
+
+		private static boolean matches(String value, byte[] bytes, int offset, int length) {
+			if (value.length() != length) {
+				return false;
+			}
+			for (int i = 0; i < length; ++i) {
+				if (value.charAt(i) != bytes[offset + i]) {
+					return false;
+				}
+			}
+			return true;
+		}
+	}
+}
@@ -21,6 +21,7 @@
 package org.verapdf.as.filters;
 
 import org.verapdf.as.ASAtom;
+import org.verapdf.as.filters.io.ASBufferedInFilter;
 import org.verapdf.as.filters.io.ASBufferingOutFilter;
 import org.verapdf.as.io.ASInputStream;
 import org.verapdf.as.io.ASOutputStream;
@@ -51,16 +52,31 @@ public class ASFilterFactory implements IASFilterFactory{
     @Override
     public ASInFilter getInFilter(ASInputStream inputStream,
                                   COSDictionary decodeParams) throws IOException {
+        return getInFilter(inputStream, decodeParams, ASBufferedInFilter.getThreadBufferSize());
+    }
+
+    /**
+     * Gets decoded stream from the given one using filters with given buffer
+     * size.
+     * @param inputStream is an encoded stream.
+     * @param bufferSize is size of filter buffer.
+     * @return decoded stream.
+     * @throws IOException if decode filter for given stream is not supported.
+     */
+    @Override
+    public ASInFilter getInFilter(ASInputStream inputStream, COSDictionary decodeParams,
+                                  int bufferSize) throws IOException {
         switch (filterType.getValue()) {
             case "ASCIIHexDecode":
-                return new COSFilterASCIIHexDecode(inputStream);
+                return new COSFilterASCIIHexDecode(inputStream, bufferSize);
             case "FlateDecode":
-                return new COSPredictorDecode(new COSFilterFlateDecode(inputStream), decodeParams);
+                return new COSPredictorDecode(new COSFilterFlateDecode(inputStream, bufferSize),
+                        decodeParams, bufferSize);
             case "ASCII85Decode":
-                return new COSFilterASCII85Decode(inputStream);
+                return new COSFilterASCII85Decode(inputStream, bufferSize);
             case "LZWDecode":
                 return new COSPredictorDecode(new COSFilterLZWDecode(inputStream,
-                        decodeParams), decodeParams);
+                        decodeParams, bufferSize), decodeParams, bufferSize);
             default:
                 throw new IOException("Filter " + filterType.getValue() +
                         " is not supported.");
@@ -43,6 +43,20 @@ public interface IASFilterFactory {
 	 */
 	ASInFilter getInFilter(ASInputStream inputStream, COSDictionary decodeParams) throws IOException;
 
+	/**
+	 * Gets input filter from given encoded stream with specified decode
+	 * parameters and size of filter buffer.
+	 *
+	 * @param inputStream  is encoded data.
+	 * @param decodeParams is dictionary with parameters for filter.
+	 * @param bufferSize   is size of filter buffer.
+	 * @return stream with decoded data.
+	 */
+	default ASInFilter getInFilter(ASInputStream inputStream, COSDictionary decodeParams,
+								   int bufferSize) throws IOException {
+		return getInFilter(inputStream, decodeParams);
+	}
+
 	/**
 	 * Gets output filter with encoded data.
 	 *
@@ -24,6 +24,7 @@ import org.verapdf.as.filters.ASInFilter;
 import org.verapdf.as.io.ASInputStream;
 import org.verapdf.as.io.ASMemoryInStream;
 import org.verapdf.parser.NotSeekableBaseParser;
+import org.verapdf.tools.StaticResources;
 
 import java.io.IOException;
 import java.util.Arrays;
@@ -67,8 +68,15 @@ public class ASBufferedInFilter extends ASInFilter {
     protected byte[] buffer;
     private int bufferBegin, bufferEnd;
 
+    /**
+     * Creates filter with buffer size taken from reader options of document
+     * processed in current thread. It should be used only if document of
+     * filtered data is unknown.
+     *
+     * @param stream is stream to be filtered.
+     */
     public ASBufferedInFilter(ASInputStream stream) throws IOException {
-        this(stream, BF_BUFFER_SIZE);
+        this(stream, getThreadBufferSize());
     }
 
     public ASBufferedInFilter(ASInputStream stream, int buffCapacity) {
@@ -282,6 +290,15 @@ public class ASBufferedInFilter extends ASInFilter {
         }
     }
 
+    /**
+     * @return filter buffer size from reader options of document processed in
+     * current thread. It is used for filters of data whose document is
+     * unknown.
+     */
+    public static int getThreadBufferSize() {
+        return StaticResources.getReaderOptions().getFilterBufferSize();
+    }
+
     public static byte[] concatenate(byte[] one, int lengthOne, byte[] two, int lengthTwo) {
         if (lengthTwo == -1) {
             lengthTwo = 0;
@@ -0,0 +1,183 @@
+/**
+ * This file is part of veraPDF Parser, a module of the veraPDF project.
+ * Copyright (c) 2015, veraPDF Consortium <info@verapdf.org>
+ * All rights reserved.
+ *
+ * veraPDF Parser is free software: you can redistribute it and/or modify
+ * it under the terms of either:
+ *
+ * The GNU General public license GPLv3+.
+ * You should have received a copy of the GNU General Public License
+ * along with veraPDF Parser as the LICENSE.GPL file in the root of the source
+ * tree.  If not, see http://www.gnu.org/licenses/ or
+ * https://www.gnu.org/licenses/gpl-3.0.en.html.
+ *
+ * The Mozilla Public License MPLv2+.
+ * You should have received a copy of the Mozilla Public License along with
+ * veraPDF Parser as the LICENSE.MPL file in the root of the source tree.
+ * If a copy of the MPL was not distributed with this file, you can obtain one at
+ * http://mozilla.org/MPL/2.0/.
+ */
+package org.verapdf.cos;
+
+import java.util.*;
+
+/**
+ * Map that keeps small number of entries in one array of interleaved keys
+ * and values, which takes much less memory than HashMap for typical PDF
+ * dictionaries. When the map grows bigger, entries are moved into HashMap.
+ * Small maps iterate in insertion order.
+ */
+class ArrayMap<K, V> extends AbstractMap<K, V> {
+
+    static final int MAX_ARRAY_SIZE = 8;
+
+    private static final Object[] EMPTY_TABLE = new Object[0];
+
+    // keys are at even and values are at odd positions
+    private Object[] table = EMPTY_TABLE;
+    private int size;
+    private Map<K, V> delegate;
+
+    @Override
+    public int size() {
+        return this.delegate != null ? this.delegate.size() : this.size;
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        return this.delegate != null ? this.delegate.containsKey(key) : indexOf(key) >= 0;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public V get(Object key) {
+        if (this.delegate != null) {
+            return this.delegate.get(key);
+        }
+        int index = indexOf(key);
+        return index >= 0 ? (V) this.table[2 * index + 1] : null;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public V put(K key, V value) {
+        if (this.delegate != null) {
+            return this.delegate.put(key, value);
+        }
+        int index = indexOf(key);
+        if (index >= 0) {
+            V old = (V) this.table[2 * index + 1];
+            this.table[2 * index + 1] = value;
+            return old;
+        }
+        if (this.size == MAX_ARRAY_SIZE) {
+            Map<K, V> map = new HashMap<>();
+            for (int i = 0; i < this.size; ++i) {
+                map.put((K) this.table[2 * i], (V) this.table[2 * i + 1]);
+            }
+            map.put(key, value);
+            this.delegate = map;
+            this.table = EMPTY_TABLE;
+            this.size = 0;
+            return null;
+        }
+        if (2 * this.size == this.table.length) {
+            this.table = Arrays.copyOf(this.table, Math.max(4, 2 * this.table.length));
+        }
+        this.table[2 * this.size] = key;
+        this.table[2 * this.size + 1] = value;
+        this.size++;
+        return null;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public V remove(Object key) {
+        if (this.delegate != null) {
+            return this.delegate.remove(key);
+        }
+        int index = indexOf(key);
+        if (index < 0) {
+            return null;
+        }
+        V old = (V) this.table[2 * index + 1];
+        removeAt(index);
+        return old;
+    }
+
+    @Override
+    public void clear() {
+        this.delegate = null;
+        this.table = EMPTY_TABLE;
+        this.size = 0;
+    }
+
+    @Override
+    public Set<Entry<K, V>> entrySet() {
+        return new AbstractSet<Entry<K, V>>() {
+            @Override
+            public Iterator<Entry<K, V>> iterator() {
+                return delegate != null ? delegate.entrySet().iterator() : new ArrayIterator();
+            }
+
+            @Override
+            public int size() {
+                return ArrayMap.this.size();
+            }
+        };
+    }
+
+    private int indexOf(Object key) {
+        for (int i = 0; i < this.size; ++i) {
+            if (Objects.equals(key, this.table[2 * i])) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private void removeAt(int index) {
+        System.arraycopy(this.table, 2 * index + 2, this.table, 2 * index, 2 * (this.size - index - 1));
+        this.size--;
+        this.table[2 * this.size] = null;
+        this.table[2 * this.size + 1] = null;
+    }
+
+    private class ArrayIterator implements Iterator<Entry<K, V>> {
+        private int next = 0;
+        private int current = -1;
+
+        @Override
+        public boolean hasNext() {
+            return this.next < size;
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public Entry<K, V> next() {
+            if (this.next >= size) {
+                throw new NoSuchElementException();
+            }
+            this.current = this.next++;
+            final int index = this.current;
+            return new SimpleEntry<K, V>((K) table[2 * index], (V) table[2 * index + 1]) {
+                @Override
+                public V setValue(V value) {
+                    table[2 * index + 1] = value;
+                    return super.setValue(value);
+                }
+            };
+        }
+
+        @Override
+        public void remove() {
+            if (this.current < 0) {
+                throw new IllegalStateException();
+            }
+            removeAt(this.current);
+            this.next = this.current;
+            this.current = -1;
+        }
+    }
+}
@@ -50,6 +50,14 @@ public abstract class COSBase {
 		this.indirectKey = indirectKey;
 	}
 
+	/**
+	 * @return this object or, if this object is immutable instance shared
+	 * between several COSObjects, its modifiable copy.
+	 */
+	COSBase unshare() {
+		return this;
+	}
+
 	// VISITOR DESIGN PATTERN
 	public abstract void accept(final IVisitor visitor);
 	public abstract Object accept(final ICOSVisitor visitor);
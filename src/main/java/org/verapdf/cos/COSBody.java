@@ -23,39 +23,285 @@ package org.verapdf.cos;
 import java.util.*;
 
 /**
+ * Objects of the document indexed by object number. Objects are kept in
+ * array, objects that don't fit into it (other generations of the same object
+ * number, very sparse or very big object numbers) are kept in additional map.
+ * <p>
+ * Body can be bounded. In this case objects that can be read again from
+ * document source are kept in LRU cache of limited size instead of the array,
+ * other objects are always kept.
+ *
  * @author Timur Kamalov
  */
 public class COSBody {
 
+	private static final int MAX_DENSE_GENERATION = Character.MAX_VALUE;
+	private static final int MAX_DENSE_GAP = 1024;
+
+	private COSObject[] objects;
+	private char[] generations;
 	private Map<COSKey, COSObject> table;
+	private LinkedHashMap<COSKey, RereadableObject> rereadableObjects;
+	private int maxRereadableObjects;
 
 	public COSBody() {
-		this.table = new HashMap<>();
+		this(16);
+	}
+
+	/**
+	 * @param expectedSize is expected greatest object number plus one.
+	 */
+	public COSBody(int expectedSize) {
+		this(expectedSize, 0);
+	}
+
+	/**
+	 * @param expectedSize         is expected greatest object number plus one.
+	 * @param maxRereadableObjects is maximal number of objects that can be
+	 *                             read again from document source kept in
+	 *                             body. Zero means that all objects are kept.
+	 */
+	public COSBody(int expectedSize, final int maxRereadableObjects) {
+		// in bounded body array holds only objects that can't be read again
+		int capacity = maxRereadableObjects > 0 ? 16 : Math.max(16, expectedSize);
+		this.objects = new COSObject[capacity];
+		this.generations = new char[capacity];
+		if (maxRereadableObjects > 0) {
+			this.maxRereadableObjects = maxRereadableObjects;
+			this.rereadableObjects = new LinkedHashMap<COSKey, RereadableObject>(16, 0.75f, true) {
+				@Override
+				protected boolean removeEldestEntry(Map.Entry<COSKey, RereadableObject> eldest) {
+					if (size() > maxRereadableObjects) {
+						eldest.getValue().invalidate();
+						return true;
+					}
+					return false;
+				}
+			};
+		}
+	}
+
+	/**
+	 * @return true if objects that can be read again from document source may
+	 * be removed from body.
+	 */
+	public boolean isBounded() {
+		return this.rereadableObjects != null;
 	}
 
 	public List<COSObject> getAll() {
-		return new ArrayList<>(table.values());
+		List<COSObject> res = new ArrayList<>();
+		for (COSObject object : this.objects) {
+			if (object != null) {
+				res.add(object);
+			}
+		}
+		if (this.table != null) {
+			res.addAll(this.table.values());
+		}
+		if (this.rereadableObjects != null) {
+			for (RereadableObject object : this.rereadableObjects.values()) {
+				res.add(object.object);
+			}
+		}
+		return res;
 	}
 
 	public COSObject get(final COSKey key) {
-		COSObject value = this.table.get(key);
-		return value != null ? value : new COSObject();
+		int number = key.getNumber();
+		if (number >= 0 && number < this.objects.length) {
+			COSObject value = this.objects[number];
+			if (value != null && this.generations[number] == key.getGeneration()) {
+				return value;
+			}
+		}
+		if (this.table != null) {
+			COSObject value = this.table.get(key);
+			if (value != null) {
+				return value;
+			}
+		}
+		if (this.rereadableObjects != null) {
+			RereadableObject value = this.rereadableObjects.get(key);
+			if (value != null) {
+				return value.object;
+			}
+		}
+		return new COSObject();
+	}
+
+	/**
+	 * @return entry of bounded body that holds object with given key, if this
+	 * object can be read again from document source, or null otherwise.
+	 */
+	public RereadableObject getRereadable(final COSKey key) {
+		return this.rereadableObjects != null ? this.rereadableObjects.get(key) : null;
+	}
+
+	/**
+	 * Sets object that can be read again from document source. In bounded body
+	 * least recently used such objects are removed when their number exceeds
+	 * the limit.
+	 */
+	public void setRereadable(final COSKey key, final COSObject object) {
+		if (this.rereadableObjects != null) {
+			if (this.rereadableObjects.size() >= this.maxRereadableObjects) {
+				refreshAccessedObjects();
+			}
+			invalidate(this.rereadableObjects.put(key, new RereadableObject(object)));
+		} else {
+			set(key, object);
+		}
+	}
+
+	/**
+	 * Makes sure that given object is never removed from bounded body, for
+	 * example because it is modified and can't be read again from document
+	 * source.
+	 */
+	public void pin(final COSObject object) {
+		if (this.rereadableObjects == null) {
+			return;
+		}
+		COSKey key = object.isIndirect() ? object.getObjectKey() : getRereadableObjectKey(object);
+		if (key != null) {
+			RereadableObject value = this.rereadableObjects.remove(key);
+			if (value != null) {
+				value.invalidate();
+				set(key, value.object);
+			}
+		}
 	}
 
 	public void set(final COSKey key, final COSObject object) {
-		table.put(key, object);
+		if (this.rereadableObjects != null) {
+			invalidate(this.rereadableObjects.remove(key));
+		}
+		int number = key.getNumber();
+		int generation = key.getGeneration();
+		if (number >= 0 && generation >= 0 && generation <= MAX_DENSE_GENERATION && ensureCapacity(number)) {
+			if (this.objects[number] == null || this.generations[number] == generation) {
+				this.objects[number] = object;
+				this.generations[number] = (char) generation;
+				return;
+			}
+		}
+		if (this.table == null) {
+			this.table = new HashMap<>();
+		}
+		this.table.put(key, object);
 	}
 
 	public COSKey getKeyForObject(COSObject obj) {
 		if (obj.isIndirect()) {
 			return obj.getObjectKey();
 		} else {
-			for (COSKey key : this.table.keySet()) {
-				if (this.table.get(key) == obj) {
-                    return key;
-                }
+			for (int i = 0; i < this.objects.length; ++i) {
+				if (this.objects[i] != null && this.objects[i] == obj) {
+					return new COSKey(i, this.generations[i]);
+				}
+			}
+			if (this.table != null) {
+				for (Map.Entry<COSKey, COSObject> entry : this.table.entrySet()) {
+					if (entry.getValue() == obj) {
+						return entry.getKey();
+					}
+				}
+			}
+			return getRereadableObjectKey(obj);
+		}
+	}
+
+	private COSKey getRereadableObjectKey(COSObject obj) {
+		if (this.rereadableObjects != null) {
+			for (Map.Entry<COSKey, RereadableObject> entry : this.rereadableObjects.entrySet()) {
+				if (entry.getValue().object == obj) {
+					return entry.getKey();
+				}
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * Moves objects accessed through their entries, see
+	 * {@link RereadableObject#getObject()}, from the head of LRU order to its
+	 * tail, as if they were got from body.
+	 */
+	private void refreshAccessedObjects() {
+		List<COSKey> accessedKeys = null;
+		for (Map.Entry<COSKey, RereadableObject> entry : this.rereadableObjects.entrySet()) {
+			RereadableObject value = entry.getValue();
+			if (!value.accessed) {
+				break;
+			}
+			value.accessed = false;
+			if (accessedKeys == null) {
+				accessedKeys = new ArrayList<>();
+			}
+			accessedKeys.add(entry.getKey());
+		}
+		if (accessedKeys != null) {
+			for (COSKey key : accessedKeys) {
+				this.rereadableObjects.get(key);
+			}
+		}
+	}
+
+	private static void invalidate(RereadableObject object) {
+		if (object != null) {
+			object.invalidate();
+		}
+	}
+
+	private boolean ensureCapacity(int number) {
+		int length = this.objects.length;
+		if (number < length) {
+			return true;
+		}
+		// object numbers far beyond existing ones are likely to be broken,
+		// they shouldn't cause allocation of huge arrays
+		if (number - length > Math.max(length, MAX_DENSE_GAP) || number >= Integer.MAX_VALUE - 8) {
+			return false;
+		}
+		int newLength = (int) Math.min(Math.max((long) number + 1, (long) length << 1), Integer.MAX_VALUE - 8);
+		this.objects = Arrays.copyOf(this.objects, newLength);
+		this.generations = Arrays.copyOf(this.generations, newLength);
+		return true;
+	}
+
+	/**
+	 * Object of bounded body that can be read again from document source. It
+	 * becomes invalid when it is removed from body or replaced by another
+	 * object, so it can be used to cache the object resolved by its key.
+	 */
+	public static final class RereadableObject {
+		private final COSObject object;
+		private volatile boolean valid = true;
+		private boolean accessed;
+
+		private RereadableObject(COSObject object) {
+			this.object = object;
+		}
+
+		/**
+		 * Access is recorded, so that LRU position of the object is refreshed
+		 * before least recently used objects are removed from body.
+		 *
+		 * @return object or null if it is not kept in body anymore.
+		 */
+		public COSObject getObject() {
+			if (!this.valid) {
+				return null;
+			}
+			if (!this.accessed) {
+				this.accessed = true;
 			}
-			return null;
+			return this.object;
+		}
+
+		private void invalidate() {
+			this.valid = false;
 		}
 	}
 }
@@ -46,7 +46,7 @@ public class COSBoolean extends COSDirect {
     }
 
     public static COSObject construct(final boolean initValue) {
-        return new COSObject(new COSBoolean(initValue));
+        return new COSObject(initValue ? TRUE : FALSE);
     }
 
     public void accept(final IVisitor visitor) {
@@ -62,6 +62,9 @@ public class COSBoolean extends COSDirect {
     }
 
     public boolean setBoolean(final boolean value) {
+        if (isShared()) {
+            return false;
+        }
         set(value);
         return true;
     }
@@ -71,9 +74,21 @@ public class COSBoolean extends COSDirect {
     }
 
     public void set(final boolean value) {
+        if (isShared()) {
+            throw new IllegalStateException("Shared boolean object can't be modified");
+        }
         this.value = value;
     }
 
+    @Override
+    COSBase unshare() {
+        return isShared() ? new COSBoolean(this.value) : this;
+    }
+
+    private boolean isShared() {
+        return this == TRUE || this == FALSE;
+    }
+
     @Override
     public boolean equals(Object o) {
         if (this == o) return true;
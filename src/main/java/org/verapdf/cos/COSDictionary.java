@@ -35,7 +35,7 @@ public class COSDictionary extends COSDirect {
 
     protected COSDictionary() {
         super();
-        this.entries = new HashMap<>();
+        this.entries = new ArrayMap<>();
     }
 
     protected COSDictionary(final ASAtom key, final COSObject value) {
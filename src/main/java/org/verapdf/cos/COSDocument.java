@@ -22,15 +22,20 @@ package org.verapdf.cos;
 
 import org.verapdf.as.ASAtom;
 import org.verapdf.as.filters.io.ASBufferedInFilter;
+import org.verapdf.cos.filters.FlateCodecPool;
 import org.verapdf.cos.visitor.Writer;
 import org.verapdf.cos.xref.COSXRefTable;
 import org.verapdf.exceptions.LoopedException;
+import org.verapdf.io.DecodedStreamsCache;
 import org.verapdf.io.IReader;
 import org.verapdf.io.InternalInputStream;
+import org.verapdf.io.ObjectStreamsCache;
 import org.verapdf.io.Reader;
+import org.verapdf.io.ReaderOptions;
 import org.verapdf.io.SeekableInputStream;
 import org.verapdf.pd.PDDocument;
 import org.verapdf.pd.encryption.StandardSecurityHandler;
+import org.verapdf.tools.StaticResources;
 import org.verapdf.tools.resource.ASFileStreamCloser;
 import org.verapdf.tools.resource.FileResourceHandler;
 
@@ -39,6 +44,7 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
 import java.util.*;
+import java.util.function.Consumer;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
@@ -63,6 +69,8 @@ public class COSDocument {
 	private List<COSObject> changedObjects;
 	private List<COSObject> addedObjects;
 	private FileResourceHandler resourceHandler;
+	private ReaderOptions readerOptions;
+	private DecodedStreamsCache decodedStreamsCache;
 
 	private byte postEOFDataSize;
 
@@ -82,29 +90,61 @@ public class COSDocument {
 		this.changedObjects = new ArrayList<>();
 		this.addedObjects = new ArrayList<>();
 		this.resourceHandler = new FileResourceHandler();
+		this.readerOptions = new ReaderOptions();
 	}
 
 	public COSDocument(final String fileName, final PDDocument document) throws IOException {
+		this(fileName, document, new ReaderOptions());
+	}
+
+	public COSDocument(final InputStream fileStream, final PDDocument document) throws IOException {
+		this(fileStream, document, new ReaderOptions());
+	}
+
+	public COSDocument(final String fileName, final PDDocument document,
+					   final ReaderOptions readerOptions) throws IOException {
 		this.resourceHandler = new FileResourceHandler();
+		// idle inflaters hold native memory, it is freed when document is closed
+		this.resourceHandler.addResource(FlateCodecPool.getIdleCodecsCloser());
+		initReaderOptions(readerOptions);
 		initReader(fileName);
 
 		initCOSDocument(document);
 	}
 
-	public COSDocument(final InputStream fileStream, final PDDocument document) throws IOException {
+	public COSDocument(final InputStream fileStream, final PDDocument document,
+					   final ReaderOptions readerOptions) throws IOException {
 		this.resourceHandler = new FileResourceHandler();
+		// idle inflaters hold native memory, it is freed when document is closed
+		this.resourceHandler.addResource(FlateCodecPool.getIdleCodecsCloser());
+		initReaderOptions(readerOptions);
 		initReader(fileStream);
 
 		initCOSDocument(document);
 	}
 
+	private void initReaderOptions(final ReaderOptions readerOptions) {
+		this.readerOptions = readerOptions == null ? new ReaderOptions() : readerOptions;
+		// used only for data whose document is unknown, e.g. font data
+		// parsed in this thread
+		StaticResources.setReaderOptions(this.readerOptions);
+		if (this.readerOptions.getDecodedStreamsCacheSize() > 0) {
+			this.decodedStreamsCache = new DecodedStreamsCache(this.readerOptions.getDecodedStreamsCacheSize(),
+					this.readerOptions.getDecodedStreamsInMemoryLimit());
+			this.resourceHandler.addResource(this.decodedStreamsCache);
+		}
+	}
+
 	private void initCOSDocument(final PDDocument document) {
 		this.doc = document;
-		this.body = new COSBody();
+		List<COSKey> keys = this.reader.getKeys();
+		// broken cross reference table can contain huge object numbers
+		this.body = new COSBody((int) Math.min(this.reader.getGreatestKeyNumberFromXref() + 1L,
+				2L * keys.size() + 1024), this.readerOptions.getObjectsCacheSize());
 
 		this.header = this.reader.getHeader();
 		this.xref = new COSXRefTable();
-		this.xref.set(this.reader.getKeys());
+		this.xref.set(keys);
 		this.trailer = reader.getTrailer();
 		this.firstTrailer = reader.getFirstTrailer();
 		this.lastTrailer = reader.getLastTrailer();
@@ -114,12 +154,23 @@ public class COSDocument {
 	}
 
 	private void initReader(final InputStream fileStream) throws IOException {
-		this.reader = new Reader(this, fileStream);
+		if (fileStream instanceof SeekableInputStream) {
+			this.reader = new Reader(this, (SeekableInputStream) fileStream);
+		} else {
+			SeekableInputStream source;
+			try {
+				source = SeekableInputStream.getSeekableStream(fileStream, this.readerOptions);
+			} finally {
+				fileStream.close();
+			}
+			this.reader = new Reader(this, source);
+		}
 		this.resourceHandler.addResource(this.reader);
 	}
 
 	private void initReader(final String fileName) throws IOException {
-		this.reader = new Reader(this, fileName);
+		this.reader = new Reader(this,
+				SeekableInputStream.getSeekableStream(fileName, this.readerOptions));
 		this.resourceHandler.addResource(this.reader);
 	}
 
@@ -134,44 +185,33 @@ public class COSDocument {
 	public List<COSObject> getObjects() {
 		List<COSObject> result = new ArrayList<>();
 		for (COSKey key : this.xref.getAllKeys()) {
-			COSObject obj = this.body.get(key);
-			if (!obj.empty()) {
+			COSObject obj = getObjectOrNull(key);
+			if (obj != null) {
 				result.add(obj);
-			} else {
-				try {
-					COSObject newObj = this.reader.getObject(key);
-
-					this.body.set(key, newObj);
-					result.add(newObj);
-				} catch (IOException e) {
-					LOGGER.log(Level.FINE, "Error while parsing object : " + key.getNumber() +
-							" " + key.getGeneration(), e);
-				} catch (StackOverflowError e) {
-					// TODO: double check this StackOverfrow catching
-					throw new LoopedException("Loop in getting object from reader", e);
-				}
 			}
 		}
 		return result;
 	}
 
+	/**
+	 * Passes all objects of the document to given consumer in order of object
+	 * numbers. Unlike {@link #getObjects()}, no list of objects is created, so
+	 * if number of kept objects is limited by reader options, objects that
+	 * are already processed can be removed from memory.
+	 */
+	public void forEachObject(Consumer<COSObject> consumer) {
+		for (COSKey key : this.xref.getAllKeys()) {
+			COSObject obj = getObjectOrNull(key);
+			if (obj != null) {
+				consumer.accept(obj);
+			}
+		}
+	}
+
 	public List<COSObject> getObjectsByType(ASAtom type) {
 		List<COSObject> result = new ArrayList<>();
 		for (COSKey key : this.xref.getAllKeys()) {
-			COSObject obj = this.body.get(key);
-			if (!obj.empty()) {
-				addObjectWithTypeKeyCheck(result, obj, type);
-			} else {
-				try {
-					COSObject newObj = this.reader.getObject(key);
-
-					this.body.set(key, newObj);
-					addObjectWithTypeKeyCheck(result, obj, type);
-				} catch (IOException e) {
-					LOGGER.log(Level.FINE, "Error while parsing object : " + key.getNumber() +
-							" " + key.getGeneration(), e);
-				}
-			}
+			addObjectWithTypeKeyCheck(result, getObjectOrNull(key), type);
 		}
 		return result;
 	}
@@ -189,24 +229,35 @@ public class COSDocument {
 	public Map<COSKey, COSObject> getObjectsMap() {
 		Map<COSKey, COSObject> result = new HashMap<>();
 		for (COSKey key : this.xref.getAllKeys()) {
-			COSObject obj = this.body.get(key);
-			if (!obj.empty()) {
+			COSObject obj = getObjectOrNull(key);
+			if (obj != null) {
 				result.put(key, obj);
-			} else {
-				try {
-					COSObject newObj = this.reader.getObject(key);
-
-					this.body.set(key, newObj);
-					result.put(key, newObj);
-				} catch (IOException e) {
-					LOGGER.log(Level.FINE, "Error while parsing object : " + key.getNumber() +
-							" " + key.getGeneration(), e);
-				}
 			}
 		}
 		return result;
 	}
 
+	private COSObject getObjectOrNull(final COSKey key) {
+		COSObject obj = this.body.get(key);
+		if (!obj.empty()) {
+			return obj;
+		}
+		try {
+			COSObject newObj = this.reader.getObject(key);
+			if (newObj != null) {
+				this.body.setRereadable(key, newObj);
+			}
+			return newObj;
+		} catch (IOException e) {
+			LOGGER.log(Level.FINE, "Error while parsing object : " + key.getNumber() +
+					" " + key.getGeneration(), e);
+		} catch (StackOverflowError e) {
+			// TODO: double check this StackOverfrow catching
+			throw new LoopedException("Loop in getting object from reader", e);
+		}
+		return null;
+	}
+
 	public COSObject getObject(final COSKey key) {
 		try {
 			COSObject obj = this.body.get(key);
@@ -218,8 +269,8 @@ public class COSDocument {
 			if (newObj == null) {
 				return new COSObject();
 			}
-			this.body.set(key, newObj);
-			return this.body.get(key);
+			this.body.setRereadable(key, newObj);
+			return newObj;
 		} catch (IOException e) {
 			//TODO : maybe not runtime, maybe no exception at all
 			throw new RuntimeException("Error while parsing object : " + key.getNumber() +
@@ -236,6 +287,19 @@ public class COSDocument {
 		this.xref.newKey(key);
 	}
 
+	/**
+	 * @return entry of bounded body with object of given key or null if this
+	 * object is not kept in bounded body. It is used to cache resolved
+	 * indirect references.
+	 */
+	COSBody.RereadableObject getRereadableObject(final COSKey key) {
+		return this.body.getRereadable(key);
+	}
+
+	boolean isBodyBounded() {
+		return this.body.isBounded();
+	}
+
 	public COSKey setObject(COSObject obj) {
 		COSKey key = obj.getKey();
 
@@ -379,6 +443,7 @@ public class COSDocument {
 	public void addObject(COSObject obj) {
 		if (obj != null && !obj.empty()) {
 			this.addedObjects.add(obj);
+			this.body.pin(obj);
 		}
 	}
 
@@ -389,6 +454,7 @@ public class COSDocument {
 	public void addChangedObject(COSObject obj) {
 		if (obj != null && !obj.empty() && !isObjectChanged(obj)) {
 			this.changedObjects.add(obj);
+			this.body.pin(obj);
 		}
 	}
 
@@ -430,7 +496,43 @@ public class COSDocument {
 		return resourceHandler;
 	}
 
+	/**
+	 * @return cache of decoded object streams of this document, or null if
+	 * document is not read from a source.
+	 */
+	public ObjectStreamsCache getObjectStreamsCache() {
+		return this.reader == null ? null : this.reader.getObjectStreamsCache();
+	}
+
+	/**
+	 * @return cache of decoded data of streams of this document, or null if
+	 * decoded data is not cached.
+	 */
+	public DecodedStreamsCache getDecodedStreamsCache() {
+		return this.decodedStreamsCache;
+	}
+
+	public ReaderOptions getReaderOptions() {
+		return readerOptions;
+	}
+
 	public SortedSet<Long> getStartXRefs() {
 		return this.reader.getStartXRefs();
 	}
+
+	/**
+	 * @return keys of objects, which offsets in cross reference information
+	 * were repaired while reading the document, mapped to repaired offsets.
+	 */
+	public Map<COSKey, Long> getRepairedOffsets() {
+		return this.reader == null ? Collections.<COSKey, Long>emptyMap() : this.reader.getRepairedOffsets();
+	}
+
+	/**
+	 * @return offset of object with given key in cross reference information
+	 * before it was repaired, or null if it is unknown.
+	 */
+	public Long getOriginalOffset(COSKey key) {
+		return this.reader == null ? null : this.reader.getOriginalOffset(key);
+	}
 }
@@ -21,6 +21,7 @@
 package org.verapdf.cos;
 
 import org.verapdf.as.ASAtom;
+import org.verapdf.as.filters.io.ASBufferedInFilter;
 import org.verapdf.as.io.ASInputStream;
 import org.verapdf.as.io.ASOutputStream;
 import org.verapdf.cos.filters.COSFilterRegistry;
@@ -53,6 +54,20 @@ public class COSFilters extends PDObject {
 
 	public ASInputStream getInputStream(ASInputStream inputStream,
 										COSObject decodeParams) throws IOException {
+		return getInputStream(inputStream, decodeParams, ASBufferedInFilter.getThreadBufferSize());
+	}
+
+	/**
+	 * Gets stream with data decoded by these filters using filter buffers of
+	 * given size.
+	 *
+	 * @param inputStream  is encoded data.
+	 * @param decodeParams is DecodeParms value of stream.
+	 * @param bufferSize   is size of filter buffers.
+	 * @return stream with decoded data.
+	 */
+	public ASInputStream getInputStream(ASInputStream inputStream, COSObject decodeParams,
+										int bufferSize) throws IOException {
 		List<COSDictionary> decodeParameters = null;
 		if(!decodeParams.empty()) {
 			if(decodeParams.getType().equals(COSObjType.COS_DICT)) {
@@ -84,7 +99,7 @@ public class COSFilters extends PDObject {
 		}
 		for (int i = 0; i < entries.size(); ++i) {
 			inputStream = COSFilterRegistry.getDecodeFilter(entries.get(i),
-					inputStream, decodeParameters.get(i));
+					inputStream, decodeParameters.get(i), bufferSize);
 
 			//TODO : if (!is.Get()) break;
 		}
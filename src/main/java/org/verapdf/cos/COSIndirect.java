@@ -25,6 +25,7 @@ import org.verapdf.as.io.ASInputStream;
 import org.verapdf.cos.visitor.ICOSVisitor;
 import org.verapdf.cos.visitor.IVisitor;
 
+import java.lang.ref.WeakReference;
 import java.util.Collection;
 import java.util.Set;
 
@@ -36,6 +37,9 @@ public class COSIndirect extends COSBase {
     private COSKey key;
     private COSDocument document;
     private COSObject child;
+    // object of bounded body of document resolved by key. It is weakly
+    // referenced, so objects removed from body can be garbage collected
+    private WeakReference<COSBody.RereadableObject> resolved;
 
     protected COSIndirect() {
         super();
@@ -361,15 +365,38 @@ public class COSIndirect extends COSBase {
     public boolean setKey(final COSKey key, final COSDocument document) {
         this.key = key;
         this.document = document;
+        this.resolved = null;
         return true;
     }
 
     public COSObject getDirect() {
-        return this.document != null ? this.document.getObject(key) : this.child;
+        return this.document != null ? resolve() : this.child;
     }
 
     public COSBase getDirectBase() {
-        return this.document != null ? this.document.getObject(key).get() : this.child.get();
+        return getDirect().get();
+    }
+
+    private COSObject resolve() {
+        COSDocument document = this.document;
+        if (!document.isBodyBounded()) {
+            // objects of unbounded body are found by array index
+            return document.getObject(this.key);
+        }
+        WeakReference<COSBody.RereadableObject> resolved = this.resolved;
+        COSBody.RereadableObject rereadable = resolved != null ? resolved.get() : null;
+        COSObject object = rereadable != null ? rereadable.getObject() : null;
+        if (object != null) {
+            return object;
+        }
+        object = document.getObject(this.key);
+        rereadable = document.getRereadableObject(this.key);
+        if (rereadable != null && rereadable.getObject() == object) {
+            this.resolved = new WeakReference<>(rereadable);
+        } else if (resolved != null) {
+            this.resolved = null;
+        }
+        return object;
     }
 
     public boolean setDirect(final COSObject value) {
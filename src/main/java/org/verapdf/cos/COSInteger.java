@@ -28,6 +28,17 @@ import org.verapdf.cos.visitor.IVisitor;
  */
 public class COSInteger extends COSNumber {
 
+    private static final int MIN_SHARED_VALUE = -128;
+    private static final int MAX_SHARED_VALUE = 1023;
+    // small integers are very common, objects for them are shared
+    private static final COSInteger[] SHARED = new COSInteger[MAX_SHARED_VALUE - MIN_SHARED_VALUE + 1];
+
+    static {
+        for (int i = 0; i < SHARED.length; ++i) {
+            SHARED[i] = new COSInteger(i + MIN_SHARED_VALUE);
+        }
+    }
+
     private long value;
 
     protected COSInteger(final long value) {
@@ -39,6 +50,9 @@ public class COSInteger extends COSNumber {
     }
 
     public static COSObject construct(final long initValue) {
+        if (initValue >= MIN_SHARED_VALUE && initValue <= MAX_SHARED_VALUE) {
+            return new COSObject(SHARED[(int) initValue - MIN_SHARED_VALUE]);
+        }
         return new COSObject(new COSInteger(initValue));
     }
 
@@ -55,6 +69,9 @@ public class COSInteger extends COSNumber {
     }
 
     public boolean setInteger(final long value) {
+        if (isShared()) {
+            return false;
+        }
         set(value);
         return true;
     }
@@ -64,6 +81,9 @@ public class COSInteger extends COSNumber {
     }
 
     public boolean setReal(final double value) {
+        if (isShared()) {
+            return false;
+        }
         set((long) value);
         return true;
     }
@@ -73,9 +93,22 @@ public class COSInteger extends COSNumber {
     }
 
     public void set(final long value) {
+        if (isShared()) {
+            throw new IllegalStateException("Shared integer object can't be modified");
+        }
         this.value = value;
     }
 
+    @Override
+    COSBase unshare() {
+        return isShared() ? new COSInteger(this.value) : this;
+    }
+
+    private boolean isShared() {
+        return this.value >= MIN_SHARED_VALUE && this.value <= MAX_SHARED_VALUE
+                && SHARED[(int) this.value - MIN_SHARED_VALUE] == this;
+    }
+
     public String toString() {
         return String.valueOf(this.value);
     }
@@ -24,11 +24,18 @@ import org.verapdf.as.ASAtom;
 import org.verapdf.cos.visitor.ICOSVisitor;
 import org.verapdf.cos.visitor.IVisitor;
 
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
 /**
  * @author Timur Kamalov
  */
 public class COSName extends COSDirect {
 
+    // objects for predefined names are shared, other names can be removed
+    // from ASAtom cache, so they are not kept here
+    private static final ConcurrentMap<ASAtom, COSName> SHARED = new ConcurrentHashMap<>();
+
     private ASAtom value;
 
     protected COSName() {
@@ -58,11 +65,26 @@ public class COSName extends COSDirect {
     }
 
     public static COSObject construct(final ASAtom value) {
+        if (value != null && value.isPredefined()) {
+            return new COSObject(getShared(value));
+        }
         return new COSObject(new COSName(value));
     }
 
     public static COSObject construct(final String value) {
-        return new COSObject(new COSName(value));
+        return construct(ASAtom.getASAtom(value));
+    }
+
+    private static COSName getShared(final ASAtom value) {
+        COSName res = SHARED.get(value);
+        if (res == null) {
+            res = new COSName(value);
+            COSName existing = SHARED.putIfAbsent(value, res);
+            if (existing != null) {
+                res = existing;
+            }
+        }
+        return res;
     }
 
     public void accept(final IVisitor visitor) {
@@ -79,6 +101,9 @@ public class COSName extends COSDirect {
     }
 
     public boolean setName(final ASAtom value) {
+        if (isShared()) {
+            return false;
+        }
         set(value);
         return true;
     }
@@ -88,11 +113,23 @@ public class COSName extends COSDirect {
     }
 
     public void set(final ASAtom value) {
+        if (isShared()) {
+            throw new IllegalStateException("Shared name object can't be modified");
+        }
         this.value = value;
     }
 
     public void set(final String value) {
-        this.value = ASAtom.getASAtom(value);
+        set(ASAtom.getASAtom(value));
+    }
+
+    @Override
+    COSBase unshare() {
+        return isShared() ? new COSName(this.value) : this;
+    }
+
+    private boolean isShared() {
+        return this.value != null && this.value.isPredefined() && SHARED.get(this.value) == this;
     }
 
     //! String data exchange
@@ -104,6 +141,9 @@ public class COSName extends COSDirect {
     }
 
     public boolean setString(final String value) {
+        if (isShared()) {
+            return false;
+        }
         set(value);
         return true;
     }
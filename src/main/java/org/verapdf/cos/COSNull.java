@@ -35,7 +35,12 @@ public class COSNull extends COSDirect {
     }
 
     public static COSObject construct() {
-        return new COSObject(new COSNull());
+        return new COSObject(NULL);
+    }
+
+    @Override
+    COSBase unshare() {
+        return this == NULL ? new COSNull() : this;
     }
 
     public void accept(final IVisitor visitor) {
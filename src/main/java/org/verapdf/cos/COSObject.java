@@ -34,13 +34,9 @@ public class COSObject {
 
 	private final static COSObject EMPTY = new COSObject();
 
+	// pdf/a validation specific flags are kept in COSObjectFlags
 	private COSBase base;
 
-	//pdf/a validation specific things
-	private boolean isHeaderOfObjectComplyPDFA = true;
-	private boolean isEndOfObjectComplyPDFA = true;
-	private boolean isHeaderFormatComplyPDFA = true;
-
 	public COSObject() {
 	}
 
@@ -89,6 +85,7 @@ public class COSObject {
 
 	public void setObjectKey(final COSKey key) {
 		if (this.base != null) {
+			this.base = this.base.unshare();
 			this.base.setObjectKey(key);
 		}
 	}
@@ -111,7 +108,8 @@ public class COSObject {
 	}
 
 	public void setBoolean(final boolean value) {
-		if(this.base == null || !this.base.setBoolean(value)) {
+		unshare();
+		if (this.base == null || !this.base.setBoolean(value)) {
 			this.base = new COSBoolean(value);
 		}
 	}
@@ -122,6 +120,7 @@ public class COSObject {
 	}
 
 	public void setInteger(final long value) {
+		unshare();
 		if (this.base == null || !this.base.setInteger(value)) {
 			this.base = new COSInteger(value);
 		}
@@ -133,6 +132,7 @@ public class COSObject {
 	}
 
 	public void setReal(final double value) {
+		unshare();
 		if (this.base == null || !this.base.setReal(value)) {
 			this.base = new COSReal(value);
 		}
@@ -150,6 +150,7 @@ public class COSObject {
 	}
 
 	public void setString(final String value, final boolean isHex) {
+		unshare();
 		if (this.base == null || !this.base.setString(value, isHex)) {
 			this.base = new COSString();
 			this.base.setString(value);
@@ -162,6 +163,7 @@ public class COSObject {
 	}
 
 	public void setName(final ASAtom value) {
+		unshare();
 		if (this.base == null || !this.base.setName(value)) {
 			this.base = new COSName(value);
 		}
@@ -460,29 +462,35 @@ public class COSObject {
 		return EMPTY;
 	}
 
+	private void unshare() {
+		if (this.base != null) {
+			this.base = this.base.unshare();
+		}
+	}
+
 	//GETTERS & SETTERS
 	public Boolean isHeaderOfObjectComplyPDFA() {
-		return this.isHeaderOfObjectComplyPDFA;
+		return COSObjectFlags.get(this, COSObjectFlags.HEADER_OF_OBJECT);
 	}
 
 	public void setIsHeaderOfObjectComplyPDFA(Boolean isHeaderOfObjectComplyPDFA) {
-		this.isHeaderOfObjectComplyPDFA = isHeaderOfObjectComplyPDFA;
+		COSObjectFlags.set(this, COSObjectFlags.HEADER_OF_OBJECT, isHeaderOfObjectComplyPDFA);
 	}
 
 	public Boolean isEndOfObjectComplyPDFA() {
-		return this.isEndOfObjectComplyPDFA;
+		return COSObjectFlags.get(this, COSObjectFlags.END_OF_OBJECT);
 	}
 
 	public void setIsEndOfObjectComplyPDFA(Boolean isEndOfObjectComplyPDFA) {
-		this.isEndOfObjectComplyPDFA = isEndOfObjectComplyPDFA;
+		COSObjectFlags.set(this, COSObjectFlags.END_OF_OBJECT, isEndOfObjectComplyPDFA);
 	}
 
 	public Boolean isHeaderFormatComplyPDFA() {
-		return this.isHeaderFormatComplyPDFA;
+		return COSObjectFlags.get(this, COSObjectFlags.HEADER_FORMAT);
 	}
 
 	public void setIsHeaderFormatComplyPDFA(Boolean isHeaderFormatComplyPDFA) {
-		this.isHeaderFormatComplyPDFA = isHeaderFormatComplyPDFA;
+		COSObjectFlags.set(this, COSObjectFlags.HEADER_FORMAT, isHeaderFormatComplyPDFA);
 	}
 
 	@Override
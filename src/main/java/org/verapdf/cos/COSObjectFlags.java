@@ -0,0 +1,222 @@
+/**
+ * This file is part of veraPDF Parser, a module of the veraPDF project.
+ * Copyright (c) 2015, veraPDF Consortium <info@verapdf.org>
+ * All rights reserved.
+ *
+ * veraPDF Parser is free software: you can redistribute it and/or modify
+ * it under the terms of either:
+ *
+ * The GNU General public license GPLv3+.
+ * You should have received a copy of the GNU General Public License
+ * along with veraPDF Parser as the LICENSE.GPL file in the root of the source
+ * tree.  If not, see http://www.gnu.org/licenses/ or
+ * https://www.gnu.org/licenses/gpl-3.0.en.html.
+ *
+ * The Mozilla Public License MPLv2+.
+ * You should have received a copy of the Mozilla Public License along with
+ * veraPDF Parser as the LICENSE.MPL file in the root of the source tree.
+ * If a copy of the MPL was not distributed with this file, you can obtain one at
+ * http://mozilla.org/MPL/2.0/.
+ */
+package org.verapdf.cos;
+
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+
+/**
+ * Side table of PDF/A compliance flags of COSObjects. Almost all objects
+ * have all flags set to true, so only objects with other values are kept
+ * here, which keeps COSObject itself small. Objects are compared by identity
+ * and held through weak references.
+ * <p>
+ * Table is split into segments by identity hash of object, each segment is
+ * changed under its own lock, so that documents processed in parallel don't
+ * contend for one monitor. Flags are read without locking: every change of
+ * a segment is followed by write of its volatile table field, and chains of
+ * entries are never relinked, entries are copied on resize.
+ */
+final class COSObjectFlags {
+
+	static final int HEADER_OF_OBJECT = 0;
+	static final int END_OF_OBJECT = 1;
+	static final int HEADER_FORMAT = 2;
+
+	// each flag takes two bits: default value (true), false or null
+	private static final int FLAG_BITS = 2;
+	private static final int FLAG_MASK = 3;
+	private static final int VALUE_TRUE = 0;
+	private static final int VALUE_FALSE = 1;
+	private static final int VALUE_NULL = 2;
+
+	// queue is shared by all segments, entries know their segment
+	private static final ReferenceQueue<COSObject> QUEUE = new ReferenceQueue<>();
+
+	private static final int SEGMENT_BITS = 4;
+	private static final COSObjectFlags[] SEGMENTS = new COSObjectFlags[1 << SEGMENT_BITS];
+
+	static {
+		for (int i = 0; i < SEGMENTS.length; ++i) {
+			SEGMENTS[i] = new COSObjectFlags();
+		}
+	}
+
+	private volatile Entry[] table = new Entry[16];
+	private volatile int count = 0;
+
+	private COSObjectFlags() {
+	}
+
+	static Boolean get(COSObject object, int flag) {
+		int hash = System.identityHashCode(object);
+		COSObjectFlags segment = getSegment(hash);
+		if (segment.count == 0) {
+			return Boolean.TRUE;
+		}
+		// entries of collected objects are removed here as well, so that
+		// count returns to zero without calls of set()
+		Entry stale = (Entry) QUEUE.poll();
+		if (stale != null) {
+			stale.segment.removeStaleEntry(stale);
+			expungeStaleEntries();
+		}
+		int value = (segment.getFlags(object, hash) >>> (flag * FLAG_BITS)) & FLAG_MASK;
+		switch (value) {
+			case VALUE_FALSE:
+				return Boolean.FALSE;
+			case VALUE_NULL:
+				return null;
+			default:
+				return Boolean.TRUE;
+		}
+	}
+
+	static void set(COSObject object, int flag, Boolean value) {
+		int encoded = value == null ? VALUE_NULL : (value ? VALUE_TRUE : VALUE_FALSE);
+		int hash = System.identityHashCode(object);
+		COSObjectFlags segment = getSegment(hash);
+		if (encoded == VALUE_TRUE && segment.count == 0) {
+			return;
+		}
+		// stale entries are removed before taking the lock of segment, locks
+		// of two segments are never held together
+		expungeStaleEntries();
+		segment.set(object, hash, flag * FLAG_BITS, encoded);
+	}
+
+	/**
+	 * @return number of objects with non-default flags.
+	 */
+	static int size() {
+		int res = 0;
+		for (COSObjectFlags segment : SEGMENTS) {
+			res += segment.count;
+		}
+		return res;
+	}
+
+	private static COSObjectFlags getSegment(int hash) {
+		return SEGMENTS[(hash * 0x9E3779B9) >>> (Integer.SIZE - SEGMENT_BITS)];
+	}
+
+	private synchronized void set(COSObject object, int hash, int shift, int encoded) {
+		Entry[] table = this.table;
+		int index = hash & (table.length - 1);
+		Entry prev = null;
+		for (Entry e = table[index]; e != null; prev = e, e = e.next) {
+			if (e.get() == object) {
+				e.flags = (byte) ((e.flags & ~(FLAG_MASK << shift)) | (encoded << shift));
+				if (e.flags == 0) {
+					remove(table, e, prev, index);
+				}
+				this.table = table;
+				return;
+			}
+		}
+		if (encoded != VALUE_TRUE) {
+			table[index] = new Entry(this, object, hash, (byte) (encoded << shift), table[index]);
+			if (++this.count > table.length * 3 / 4) {
+				table = resize(table);
+			}
+			this.table = table;
+		}
+	}
+
+	private int getFlags(COSObject object, int hash) {
+		Entry[] table = this.table;
+		for (Entry e = table[hash & (table.length - 1)]; e != null; e = e.next) {
+			if (e.get() == object) {
+				return e.flags;
+			}
+		}
+		return 0;
+	}
+
+	private void remove(Entry[] table, Entry entry, Entry prev, int index) {
+		if (prev == null) {
+			table[index] = entry.next;
+		} else {
+			prev.next = entry.next;
+		}
+		entry.clear();
+		this.count--;
+	}
+
+	/**
+	 * Entries are copied into new table, so readers of old table still see
+	 * consistent chains.
+	 */
+	private Entry[] resize(Entry[] table) {
+		Entry[] newTable = new Entry[table.length << 1];
+		for (Entry head : table) {
+			for (Entry e = head; e != null; e = e.next) {
+				COSObject object = e.get();
+				if (object == null) {
+					this.count--;
+					continue;
+				}
+				int index = e.hash & (newTable.length - 1);
+				newTable[index] = new Entry(this, object, e.hash, e.flags, newTable[index]);
+			}
+		}
+		return newTable;
+	}
+
+	private static void expungeStaleEntries() {
+		Entry stale;
+		while ((stale = (Entry) QUEUE.poll()) != null) {
+			stale.segment.removeStaleEntry(stale);
+		}
+	}
+
+	/**
+	 * Removes given entry, if it is still in the table. Entries replaced by
+	 * their copies on resize are not there anymore.
+	 */
+	private synchronized void removeStaleEntry(Entry stale) {
+		Entry[] table = this.table;
+		int index = stale.hash & (table.length - 1);
+		Entry prev = null;
+		for (Entry e = table[index]; e != null; prev = e, e = e.next) {
+			if (e == stale) {
+				remove(table, e, prev, index);
+				this.table = table;
+				return;
+			}
+		}
+	}
+
+	private static final class Entry extends WeakReference<COSObject> {
+		private final COSObjectFlags segment;
+		private final int hash;
+		private volatile byte flags;
+		private volatile Entry next;
+
+		private Entry(COSObjectFlags segment, COSObject object, int hash, byte flags, Entry next) {
+			super(object, QUEUE);
+			this.segment = segment;
+			this.hash = hash;
+			this.flags = flags;
+			this.next = next;
+		}
+	}
+}
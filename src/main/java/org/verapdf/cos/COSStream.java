@@ -27,9 +27,12 @@ import org.verapdf.as.io.ASMemoryInStream;
 import org.verapdf.as.io.ASOutputStream;
 import org.verapdf.cos.visitor.ICOSVisitor;
 import org.verapdf.cos.visitor.IVisitor;
+import org.verapdf.io.DecodedStreamsCache;
 import org.verapdf.io.InternalInputStream;
 import org.verapdf.io.InternalOutputStream;
+import org.verapdf.io.ReaderOptions;
 import org.verapdf.io.SeekableInputStream;
+import org.verapdf.tools.StaticResources;
 
 import java.io.File;
 import java.io.IOException;
@@ -50,6 +53,8 @@ public class COSStream extends COSDictionary {
 	private boolean streamKeywordCRLFCompliant = true;
 	private boolean endstreamKeywordCRLFCompliant = true;
 	private long realStreamSize;
+	private DecodedStreamsCache decodedStreamsCache;
+	private ReaderOptions readerOptions;
 
 	protected COSStream() {
 		super();
@@ -147,17 +152,28 @@ public class COSStream extends COSDictionary {
 				this.stream.reset();
 				return ASInputStream.createStreamFromStream(this.stream);
 			}
-			ASInputStream result = getFilters().getInputStream(
-					ASInputStream.createStreamFromStream(stream),
-					this.getKey(ASAtom.DECODE_PARMS));
-			result.reset();
-			return result;
+			if (this.decodedStreamsCache != null) {
+				ASInputStream cached = this.decodedStreamsCache.get(this);
+				if (cached != null) {
+					return cached;
+				}
+				return this.decodedStreamsCache.put(this, getDecodedData());
+			}
+			return getDecodedData();
 		} catch (IOException e) {
 			LOGGER.log(Level.FINE, "Can't get stream data", e);
 			return null;
 		}
 	}
 
+	private ASInputStream getDecodedData() throws IOException {
+		ASInputStream result = getFilters().getInputStream(
+				ASInputStream.createStreamFromStream(stream),
+				this.getKey(ASAtom.DECODE_PARMS), getReaderOptions().getFilterBufferSize());
+		result.reset();
+		return result;
+	}
+
 	@Override
 	public boolean setData(final ASInputStream stream) {
 		COSFilters filters = getFilters();
@@ -177,6 +193,7 @@ public class COSStream extends COSDictionary {
 
 	@Override
 	public boolean setData(final ASInputStream stream, FilterFlags flags) {
+		invalidateDecodedData();
 		this.stream = stream;
 		this.flags = flags;
 		return true;
@@ -238,9 +255,47 @@ public class COSStream extends COSDictionary {
 	}
 
 	public void setFilterFlags(final FilterFlags flags) {
+		invalidateDecodedData();
 		this.flags = flags;
 	}
 
+	/**
+	 * Sets cache of decoded data of document streams. Decoded data is cached
+	 * as long as stream data, Filter and DecodeParms values are not changed.
+	 *
+	 * @param decodedStreamsCache is cache of decoded data or null if decoded
+	 *                            data of this stream should not be cached.
+	 */
+	public void setDecodedStreamsCache(DecodedStreamsCache decodedStreamsCache) {
+		invalidateDecodedData();
+		this.decodedStreamsCache = decodedStreamsCache;
+	}
+
+	/**
+	 * Sets reader options of document of this stream. They are used to decode
+	 * stream data in any thread.
+	 *
+	 * @param readerOptions is reader options of document or null if document
+	 *                      of stream is unknown.
+	 */
+	public void setReaderOptions(ReaderOptions readerOptions) {
+		this.readerOptions = readerOptions;
+	}
+
+	/**
+	 * @return reader options of document of this stream or reader options of
+	 * document processed in current thread if document of stream is unknown.
+	 */
+	public ReaderOptions getReaderOptions() {
+		return this.readerOptions != null ? this.readerOptions : StaticResources.getReaderOptions();
+	}
+
+	private void invalidateDecodedData() {
+		if (this.decodedStreamsCache != null) {
+			this.decodedStreamsCache.invalidate(this);
+		}
+	}
+
 	public long getLength() {
 		return getIntegerKey(ASAtom.LENGTH).longValue();
 	}
@@ -71,7 +71,19 @@ public class COSFilterAESDecryptionDefault extends ASBufferedInFilter {
                                          byte[] encryptionKey, boolean decryptingCOSStream,
                                          ASAtom method)
             throws IOException, GeneralSecurityException {
-        super(stream);
+        this(stream, objectKey, encryptionKey, decryptingCOSStream, method, getThreadBufferSize());
+    }
+
+    /**
+     * Constructor with given size of filter buffer.
+     *
+     * @param bufferSize is size of filter buffer.
+     */
+    public COSFilterAESDecryptionDefault(ASInputStream stream, COSKey objectKey,
+                                         byte[] encryptionKey, boolean decryptingCOSStream,
+                                         ASAtom method, int bufferSize)
+            throws IOException, GeneralSecurityException {
+        super(stream, bufferSize);
         this.decryptingCOSStream = decryptingCOSStream;
         if (method == ASAtom.AESV2) {
             prepareInitAES128(objectKey, encryptionKey);
@@ -119,8 +131,8 @@ public class COSFilterAESDecryptionDefault extends ASBufferedInFilter {
             }
 
             if (!isDecryptFinished) {
-                byte[] encData = new byte[BF_BUFFER_SIZE];
-                int encDataLength = this.bufferPopArray(encData, BF_BUFFER_SIZE);
+                byte[] encData = new byte[getBufferCapacity()];
+                int encDataLength = this.bufferPopArray(encData, encData.length);
                 this.decryptedBytes = this.aes.update(encData, 0, encDataLength);
             }
             this.decryptedPointer = 0;
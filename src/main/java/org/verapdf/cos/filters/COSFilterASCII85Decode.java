@@ -45,7 +45,17 @@ public class COSFilterASCII85Decode extends ASBufferedInFilter {
      * @throws IOException
      */
     public COSFilterASCII85Decode(ASInputStream stream) throws IOException {
-        super(stream);
+        this(stream, getThreadBufferSize());
+    }
+
+    /**
+     * Constructor from encoded stream with given size of filter buffer.
+     *
+     * @param stream     is stream with ASCII85 encoded data.
+     * @param bufferSize is size of filter buffer.
+     */
+    public COSFilterASCII85Decode(ASInputStream stream, int bufferSize) throws IOException {
+        super(stream, bufferSize);
         reader = new COSFilterASCIIReader(stream, false);
     }
 
@@ -62,7 +62,17 @@ public class COSFilterASCIIHexDecode extends ASBufferedInFilter {
      * @throws IOException
      */
     public COSFilterASCIIHexDecode(ASInputStream stream) throws IOException {
-        super(stream);
+        this(stream, getThreadBufferSize());
+    }
+
+    /**
+     * Constructor from encoded stream with given size of filter buffer.
+     *
+     * @param stream     is stream with ASCII Hex encoded data.
+     * @param bufferSize is size of filter buffer.
+     */
+    public COSFilterASCIIHexDecode(ASInputStream stream, int bufferSize) throws IOException {
+        super(stream, bufferSize);
         reader = new COSFilterASCIIReader(stream, true);
     }
 
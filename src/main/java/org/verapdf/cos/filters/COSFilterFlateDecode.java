@@ -43,8 +43,18 @@ public class COSFilterFlateDecode extends ASBufferedInFilter {
      * @throws IOException
      */
     public COSFilterFlateDecode(ASInputStream stream) throws IOException {
-        super(stream);
-        inflater = new Inflater();
+        this(stream, getThreadBufferSize());
+    }
+
+    /**
+     * Constructor from encoded stream with given size of filter buffer.
+     *
+     * @param stream     is stream with flate encoded data.
+     * @param bufferSize is size of filter buffer.
+     */
+    public COSFilterFlateDecode(ASInputStream stream, int bufferSize) throws IOException {
+        super(stream, bufferSize);
+        inflater = FlateCodecPool.getInflater();
     }
 
     /**
@@ -58,6 +68,9 @@ public class COSFilterFlateDecode extends ASBufferedInFilter {
      */
     @Override
     public int read(byte[] buffer, int size) throws IOException {
+        if (inflater == null) {
+            return -1;
+        }
         int bytesFed = 0;
         if (inflater.getRemaining() == 0) {
             bytesFed = (int) this.feedBuffer(getBufferCapacity());
@@ -90,6 +103,22 @@ public class COSFilterFlateDecode extends ASBufferedInFilter {
     @Override
     public void reset() throws IOException {
         super.reset();
-        this.inflater.reset();
+        if (this.inflater != null) {
+            this.inflater.reset();
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * Inflater is returned to the pool, so no data can be read after closing.
+     */
+    @Override
+    public void close() throws IOException {
+        if (this.inflater != null) {
+            FlateCodecPool.returnInflater(this.inflater);
+            this.inflater = null;
+        }
+        super.close();
     }
 }
@@ -46,19 +46,7 @@ public class COSFilterFlateEncode extends ASBufferingOutFilter {
      */
     @Override
     public long write(byte[] buffer) throws IOException {
-        Deflater deflater = new Deflater();
-        deflater.setInput(buffer);
-        deflater.finish();
-        int res = 0;
-        int deflated = -1;
-        while (deflated != 0) {
-            deflated = deflater.deflate(this.internalBuffer, 0,
-                    this.internalBuffer.length);
-            this.getStoredOutputStream().write(this.internalBuffer, 0, deflated);
-            res += deflated;
-        }
-        deflater.finish();
-        return res;
+        return write(buffer, 0, buffer.length);
     }
 
     /**
@@ -72,18 +60,21 @@ public class COSFilterFlateEncode extends ASBufferingOutFilter {
      */
     @Override
     public long write(byte[] buffer, int offset, int size) throws IOException {
-        Deflater deflater = new Deflater();
-        deflater.setInput(buffer, offset, size);
-        deflater.finish();
-        int res = 0;
-        int deflated = -1;
-        while (deflated != 0) {
-            deflated = deflater.deflate(this.internalBuffer, 0,
-                    this.internalBuffer.length);
-            this.getStoredOutputStream().write(this.internalBuffer, 0, deflated);
-            res += deflated;
+        Deflater deflater = FlateCodecPool.getDeflater();
+        try {
+            deflater.setInput(buffer, offset, size);
+            deflater.finish();
+            int res = 0;
+            int deflated = -1;
+            while (deflated != 0) {
+                deflated = deflater.deflate(this.internalBuffer, 0,
+                        this.internalBuffer.length);
+                this.getStoredOutputStream().write(this.internalBuffer, 0, deflated);
+                res += deflated;
+            }
+            return res;
+        } finally {
+            FlateCodecPool.returnDeflater(deflater);
         }
-        deflater.finish();
-        return res;
     }
 }
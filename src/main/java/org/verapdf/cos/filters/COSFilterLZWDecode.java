@@ -25,27 +25,25 @@ import org.verapdf.as.filters.io.ASBufferedInFilter;
 import org.verapdf.as.io.ASInputStream;
 import org.verapdf.cos.COSDictionary;
 
-import javax.imageio.stream.MemoryCacheImageInputStream;
-import java.io.EOFException;
 import java.io.IOException;
-import java.util.ArrayList;
-import java.util.Arrays;
-import java.util.List;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
 /**
- * This class implements LZW decoding.
+ * This class implements LZW decoding. LZW table is kept in arrays of prefix
+ * codes and last bytes of entries, decoded entries are written directly into
+ * the buffer of caller. Only entry that doesn't fit into the buffer is
+ * written into internal buffer.
  *
  * @author Sergey Shemyakov
  */
 public class COSFilterLZWDecode extends ASBufferedInFilter {
 
-    private Logger LOGGER = Logger.getLogger(COSFilterLZWDecode.class.getCanonicalName());
+    private static final Logger LOGGER = Logger.getLogger(COSFilterLZWDecode.class.getCanonicalName());
 
     private static final int CLEAR_TABLE_MARKER = 256;
     private static final int EOD = 257;
-    private static final int INITIAL_LZW_TABLE_SIZE = 4096;
+    private static final int INITIAL_LZW_TABLE_SIZE = 258;
     private static final int MAX_LZW_TABLE_SIZE = 4096;
 
     private static final int BITS_12 = 12;
@@ -57,13 +55,28 @@ public class COSFilterLZWDecode extends ASBufferedInFilter {
     private static final int SIZE_THRESHOLD_11_BITS = 1024;
     private static final int SIZE_THRESHOLD_12_BITS = 2048;
 
-    private MemoryCacheImageInputStream bitStream;
-    private List<byte[]> lzwTable;
-    private byte[] leftoverData;
-    private int codeLengthBits = 9;
-    private int earlyChange;
-    private long thisWord = -1;
-    private long previousWord = -1;
+    // entry with code c is entry with code prefixes[c] followed by suffixes[c]
+    private final int[] prefixes = new int[MAX_LZW_TABLE_SIZE];
+    private final byte[] suffixes = new byte[MAX_LZW_TABLE_SIZE];
+    private final byte[] firstBytes = new byte[MAX_LZW_TABLE_SIZE];
+    private final int[] lengths = new int[MAX_LZW_TABLE_SIZE];
+    private int tableSize;
+
+    private final byte[] input = new byte[BF_BUFFER_SIZE];
+    private int inputPosition;
+    private int inputEnd;
+    private int bitBuffer;
+    private int bitsInBuffer;
+
+    // part of the last decoded entry that didn't fit into the buffer of caller
+    private final byte[] leftoverData = new byte[MAX_LZW_TABLE_SIZE + 1];
+    private int leftoverPosition;
+    private int leftoverEnd;
+
+    private int codeLengthBits = BITS_9;
+    private final int earlyChange;
+    private int previousWord = -1;
+    private boolean isEOD = false;
 
     /**
      * Constructor from LZW encoded data stream and decode parameters
@@ -73,7 +86,19 @@ public class COSFilterLZWDecode extends ASBufferedInFilter {
      * @param decodeParams is decode parameters dictionary.
      */
     public COSFilterLZWDecode(ASInputStream stream, COSDictionary decodeParams) throws IOException {
-        super(stream);
+        this(stream, decodeParams, getThreadBufferSize());
+    }
+
+    /**
+     * Constructor from encoded stream with given size of filter buffer.
+     *
+     * @param stream       is stream with LZW encoded data.
+     * @param decodeParams is decode parameters dictionary of stream.
+     * @param bufferSize   is size of filter buffer.
+     */
+    public COSFilterLZWDecode(ASInputStream stream, COSDictionary decodeParams,
+                              int bufferSize) throws IOException {
+        super(stream, bufferSize);
         Long earlyChangeFromDecodeParams = decodeParams.getIntegerKey(ASAtom.EARLY_CHANGE);
         // 0 and 1 are only possible values.
         // In other cases we use default value 1.
@@ -83,8 +108,13 @@ public class COSFilterLZWDecode extends ASBufferedInFilter {
         } else {
             this.earlyChange = 0;
         }
-        this.bitStream = new MemoryCacheImageInputStream(stream);
-        initLZWTable();
+        for (int i = 0; i < 256; ++i) {
+            this.prefixes[i] = -1;
+            this.suffixes[i] = (byte) i;
+            this.firstBytes[i] = (byte) i;
+            this.lengths[i] = 1;
+        }
+        this.tableSize = INITIAL_LZW_TABLE_SIZE;
     }
 
     /**
@@ -92,26 +122,39 @@ public class COSFilterLZWDecode extends ASBufferedInFilter {
      */
     @Override
     public int read(byte[] buffer, int size) throws IOException {
-        int position = 0;
         int actualSize = Math.min(buffer.length, size);
-        byte[] nextChunk;
-        while (true) {
-            nextChunk = getNextChunk();
-            if (nextChunk == null) {
-                return position == 0 ? -1 : position;
+        if (actualSize <= 0) {
+            return 0;
+        }
+        int position = 0;
+        if (this.leftoverPosition < this.leftoverEnd) {
+            int toWrite = Math.min(actualSize, this.leftoverEnd - this.leftoverPosition);
+            System.arraycopy(this.leftoverData, this.leftoverPosition, buffer, 0, toWrite);
+            this.leftoverPosition += toWrite;
+            position = toWrite;
+        }
+        while (position < actualSize && !this.isEOD) {
+            int word = readCode();
+            if (word == -1) {
+                LOGGER.log(Level.FINE, "Unexpected end of LZW data.");
+                this.isEOD = true;
+                break;
             }
-            if (position + nextChunk.length > actualSize) {
-                int toWrite = actualSize - position;
-                byte[] newLeftover = new byte[nextChunk.length - toWrite];
-                System.arraycopy(nextChunk, 0, buffer, position, toWrite);
-                position += toWrite;
-                System.arraycopy(nextChunk, toWrite, newLeftover, 0, nextChunk.length - toWrite);
-                this.leftoverData = newLeftover;
-                return position;
+            if (word == CLEAR_TABLE_MARKER) {
+                this.tableSize = INITIAL_LZW_TABLE_SIZE;
+                this.codeLengthBits = BITS_9;
+                this.previousWord = -1;
+                continue;
+            }
+            if (word == EOD) {
+                this.isEOD = true;
+                break;
             }
-            System.arraycopy(nextChunk, 0, buffer, position, nextChunk.length);
-            position += nextChunk.length;
+            position += decodeWord(word, buffer, position, actualSize);
+            this.codeLengthBits = calculateCodeLength();
+            this.previousWord = word;
         }
+        return position == 0 ? -1 : position;
     }
 
     /**
@@ -119,12 +162,16 @@ public class COSFilterLZWDecode extends ASBufferedInFilter {
      */
     @Override
     public int skip(int size) throws IOException {
-        byte[] buf = new byte[BF_BUFFER_SIZE];
-        int read = this.read(buf, size);
-        while (read != size) {
-            read += this.read(buf, size - read);
+        byte[] buf = new byte[Math.min(size, BF_BUFFER_SIZE)];
+        int skipped = 0;
+        while (skipped < size) {
+            int read = this.read(buf, Math.min(buf.length, size - skipped));
+            if (read == -1) {
+                break;
+            }
+            skipped += read;
         }
-        return read;
+        return skipped;
     }
 
     /**
@@ -133,84 +180,110 @@ public class COSFilterLZWDecode extends ASBufferedInFilter {
     @Override
     public void reset() throws IOException {
         super.reset();
-        this.bitStream = new MemoryCacheImageInputStream(this.getInputStream());
-        this.codeLengthBits = 9;
-        this.leftoverData = null;
+        this.inputPosition = 0;
+        this.inputEnd = 0;
+        this.bitBuffer = 0;
+        this.bitsInBuffer = 0;
+        this.leftoverPosition = 0;
+        this.leftoverEnd = 0;
+        this.codeLengthBits = BITS_9;
         this.previousWord = -1;
-        initLZWTable();
+        this.isEOD = false;
+        this.tableSize = INITIAL_LZW_TABLE_SIZE;
     }
 
-    private byte[] getNextChunk() throws IOException {
-        if (leftoverData != null) {
-            byte[] res = Arrays.copyOf(leftoverData, leftoverData.length);
-            this.leftoverData = null;
-            return res;
-        }
-        try {
-            thisWord = this.bitStream.readBits(codeLengthBits);
-            if (thisWord == CLEAR_TABLE_MARKER) {
-                this.codeLengthBits = 9;
-                initLZWTable();
-                this.previousWord = -1;
-                return getNextChunk();
-            } else if (thisWord == EOD) {
-                return null;
+    /**
+     * Adds entry for given word to the table and writes it into buffer. Part
+     * of entry that doesn't fit into the buffer is kept as leftover data.
+     *
+     * @return number of bytes written into buffer.
+     */
+    private int decodeWord(int word, byte[] buffer, int position, int size) throws IOException {
+        int entry;
+        // byte written after entry when it can't be added into full table
+        int extraByte = -1;
+        if (word < this.tableSize) {
+            entry = word;
+            if (this.previousWord != -1) {
+                addEntry(this.previousWord, this.firstBytes[word]);
+            }
+        } else {
+            if (this.previousWord == -1) {
+                throw new IOException("Error in decoding LZW: first symbol in message can't be decoded.");
+            }
+            if (addEntry(this.previousWord, this.firstBytes[this.previousWord])) {
+                entry = this.tableSize - 1;
             } else {
-                byte[] res = getChunkFromLZWTable();
-                this.codeLengthBits = calculateCodeLength();
-                previousWord = thisWord;
-                return res;
+                entry = this.previousWord;
+                extraByte = this.firstBytes[this.previousWord] & 0xFF;
             }
-        } catch (EOFException e) {
-            LOGGER.log(Level.FINE, "Unexpected end of LZW data.");
-            return null;
+        }
+        int length = this.lengths[entry] + (extraByte == -1 ? 0 : 1);
+        if (position + length <= size) {
+            writeEntry(entry, extraByte, buffer, position);
+            return length;
+        }
+        writeEntry(entry, extraByte, this.leftoverData, 0);
+        int toWrite = size - position;
+        System.arraycopy(this.leftoverData, 0, buffer, position, toWrite);
+        this.leftoverPosition = toWrite;
+        this.leftoverEnd = length;
+        return toWrite;
+    }
+
+    private boolean addEntry(int prefix, byte suffix) {
+        if (this.tableSize >= MAX_LZW_TABLE_SIZE) {
+            return false;
+        }
+        int code = this.tableSize++;
+        this.prefixes[code] = prefix;
+        this.suffixes[code] = suffix;
+        this.firstBytes[code] = this.firstBytes[prefix];
+        this.lengths[code] = this.lengths[prefix] + 1;
+        return true;
+    }
+
+    private void writeEntry(int entry, int extraByte, byte[] buffer, int position) {
+        int end = position + this.lengths[entry];
+        if (extraByte != -1) {
+            buffer[end] = (byte) extraByte;
+        }
+        int code = entry;
+        for (int i = end - 1; i >= position; --i) {
+            buffer[i] = this.suffixes[code];
+            code = this.prefixes[code];
         }
     }
 
-    private byte[] getChunkFromLZWTable() throws IOException {
-        if (thisWord < lzwTable.size()) {
-            byte[] res = lzwTable.get((int) thisWord);
-            if (previousWord != -1) {
-                byte[] previous = lzwTable.get((int) previousWord);
-                byte[] newWord = Arrays.copyOf(previous, previous.length + 1);
-                newWord[previous.length] = res[0];
-                if (lzwTable.size() < MAX_LZW_TABLE_SIZE) {
-                    lzwTable.add(newWord);
+    /**
+     * @return next code of current length or -1 if there is not enough data.
+     */
+    private int readCode() throws IOException {
+        while (this.bitsInBuffer < this.codeLengthBits) {
+            if (this.inputPosition == this.inputEnd) {
+                int read = this.getInputStream().read(this.input, this.input.length);
+                if (read <= 0) {
+                    return -1;
                 }
+                this.inputPosition = 0;
+                this.inputEnd = read;
             }
-            return res;
-        } else {
-            if (previousWord == -1) {
-                throw new IOException("Error in decoding LZW: first symbol in message can't be decoded.");
-            }
-            byte[] previous = lzwTable.get((int) previousWord);
-            byte[] res = Arrays.copyOf(previous, previous.length + 1);
-            res[previous.length] = previous[0];
-            if (lzwTable.size() < MAX_LZW_TABLE_SIZE) {
-                lzwTable.add(res);
-            }
-            return res;
+            this.bitBuffer = (this.bitBuffer << 8) | (this.input[this.inputPosition++] & 0xFF);
+            this.bitsInBuffer += 8;
         }
+        this.bitsInBuffer -= this.codeLengthBits;
+        return (this.bitBuffer >>> this.bitsInBuffer) & ((1 << this.codeLengthBits) - 1);
     }
 
     private int calculateCodeLength() {
-        int size = lzwTable.size() + earlyChange;
+        int size = this.tableSize + this.earlyChange;
         if (size >= SIZE_THRESHOLD_12_BITS) {
             return BITS_12;
         } else if (size >= SIZE_THRESHOLD_11_BITS) {
             return BITS_11;
-        } else if (size >= SIZE_THRESHOLD_10_BITS ) {
+        } else if (size >= SIZE_THRESHOLD_10_BITS) {
             return BITS_10;
         }
         return BITS_9;
     }
-
-    private void initLZWTable() {
-        this.lzwTable = new ArrayList<>(INITIAL_LZW_TABLE_SIZE);
-        for (int i = 0; i < 256; ++i) {
-            this.lzwTable.add(new byte[]{(byte) i});
-        }
-        this.lzwTable.add(null);
-        this.lzwTable.add(null);
-    }
 }
@@ -56,7 +56,18 @@ public class COSFilterRC4DecryptionDefault extends ASBufferedInFilter {
     public COSFilterRC4DecryptionDefault(ASInputStream stream, COSKey objectKey,
                                          byte[] encryptionKey)
             throws IOException, NoSuchAlgorithmException {
-        super(stream);
+        this(stream, objectKey, encryptionKey, getThreadBufferSize());
+    }
+
+    /**
+     * Constructor with given size of filter buffer.
+     *
+     * @param bufferSize is size of filter buffer.
+     */
+    public COSFilterRC4DecryptionDefault(ASInputStream stream, COSKey objectKey,
+                                         byte[] encryptionKey, int bufferSize)
+            throws IOException, NoSuchAlgorithmException {
+        super(stream, bufferSize);
         initRC4(objectKey, encryptionKey);
     }
 
@@ -79,7 +90,7 @@ public class COSFilterRC4DecryptionDefault extends ASBufferedInFilter {
                 return -1;
             }
         }
-        byte[] encData = new byte[BF_BUFFER_SIZE];
+        byte[] encData = new byte[getBufferCapacity()];
         int encDataLength = this.bufferPopArray(encData, size);
         if (encDataLength >= 0) {
             byte[] res = rc4.process(encData, 0, encDataLength);
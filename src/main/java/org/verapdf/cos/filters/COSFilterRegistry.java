@@ -85,12 +85,29 @@ public class COSFilterRegistry {
 	public static ASInFilter getDecodeFilter(final ASAtom filterName,
 											 final ASInputStream inputStream,
 											 COSDictionary decodeParams) throws IOException {
+		return getDecodeFilter(filterName, inputStream, decodeParams, ASBufferedInFilter.getThreadBufferSize());
+	}
+
+	/**
+	 * Gets decode filter from given input stream with given parameters and
+	 * size of filter buffer.
+	 *
+	 * @param filterName is name of filter to decode stream with.
+	 * @param inputStream is a stream with encoded data.
+	 * @param decodeParams is dictionary with decoding parameters.
+	 * @param bufferSize is size of filter buffer.
+	 * @return filter with decoded data.
+	 */
+	public static ASInFilter getDecodeFilter(final ASAtom filterName,
+											 final ASInputStream inputStream,
+											 COSDictionary decodeParams,
+											 int bufferSize) throws IOException {
 		final IASFilterFactory filterFactory = factoryByName(filterName);
 		if (filterFactory != null) {
-			return filterFactory.getInFilter(inputStream, decodeParams);
+			return filterFactory.getInFilter(inputStream, decodeParams, bufferSize);
 		}
 		LOGGER.log(Level.FINE, "Trying to use unimplemented decoding filter.");
-		ASBufferedInFilter res = new ASBufferedInFilter(inputStream);
+		ASBufferedInFilter res = new ASBufferedInFilter(inputStream, bufferSize);
 		res.initialize();
 		return res;
 	}
@@ -26,9 +26,13 @@ import org.verapdf.as.io.ASInputStream;
 import org.verapdf.cos.COSDictionary;
 
 import java.io.IOException;
+import java.util.Arrays;
 
 /**
  * This filter represents predictor that is applied to Flate and LZW encodings.
+ * Rows are decoded into two buffers that are swapped after each row, each
+ * buffer is prefixed with one zero pixel so that filters don't need special
+ * handling of the first pixel in a row.
  *
  * @author Sergey Shemyakov
  */
@@ -39,10 +43,27 @@ public class COSPredictorDecode extends ASBufferedInFilter {
     private static final int BITS_PER_COMPONENT_DEFAULT = 8;
     private static final int COLUMNS_DEFAULT = 1;
 
+    private static final byte PREDICTOR_TIFF = 2;
+    private static final byte PREDICTOR_PNG_MIN = 10;
+
+    private static final int PNG_NONE = 0;
+    private static final int PNG_SUB = 1;
+    private static final int PNG_UP = 2;
+    private static final int PNG_AVERAGE = 3;
+    private static final int PNG_PAETH = 4;
+
     private int bitsPerComponent, bytesPerChar,
             lineLength;
     private byte predictor;
-    private byte[] previousLine = null;
+    // rows have bytesPerChar leading zero bytes, data starts at bytesPerChar
+    private byte[] currentRow;
+    private byte[] previousRow;
+    // number of data bytes of current row read from encoded stream
+    private int rowFilled;
+    // PNG filter type of current row or -1 if it is not read yet
+    private int rowFilter = -1;
+    // number of bytes of the last decoded row that were already returned
+    private int decodedPosition;
     private boolean streamEnded = false;
 
     /**
@@ -54,7 +75,19 @@ public class COSPredictorDecode extends ASBufferedInFilter {
      */
     public COSPredictorDecode(ASInputStream stream,
                               COSDictionary decodeParams) throws IOException {
-        super(stream);
+        this(stream, decodeParams, getThreadBufferSize());
+    }
+
+    /**
+     * Constructor from stream with given size of filter buffer.
+     *
+     * @param stream       is stream with data to which predictor is applied.
+     * @param decodeParams is decode parameters dictionary of stream.
+     * @param bufferSize   is size of filter buffer.
+     */
+    public COSPredictorDecode(ASInputStream stream, COSDictionary decodeParams,
+                              int bufferSize) throws IOException {
+        super(stream, bufferSize);
         initializePredictorArguments(
                 predictorFromParams(decodeParams),
                 colorsFromParams(decodeParams),
@@ -69,9 +102,11 @@ public class COSPredictorDecode extends ASBufferedInFilter {
         int bitsPerChar = colors * bitsPerComponent;
         this.bytesPerChar = (bitsPerChar + 7) / 8;
         this.lineLength = (columns * bitsPerChar + 7) / 8;
-        if (previousLine == null) {
-            previousLine = new byte[lineLength];
+        if (isRowPredictor()) {
+            this.currentRow = new byte[bytesPerChar + lineLength];
+            this.previousRow = new byte[bytesPerChar + lineLength];
         }
+        this.decodedPosition = lineLength;
     }
 
     /**
@@ -79,139 +114,168 @@ public class COSPredictorDecode extends ASBufferedInFilter {
      */
     @Override
     public int read(byte[] buffer, int size) throws IOException {
-        if (streamEnded) {
-            return -1;
-        }
-        if (this.bufferSize() == 0) {
-            if (this.feedBuffer(getBufferCapacity()) == -1) {
-                this.streamEnded = true;
+        if (!isRowPredictor()) {
+            if (streamEnded || (this.bufferSize() == 0 && !feedEncodedData())) {
+                return -1;
             }
+            return bufferPopArray(buffer, size);
         }
-        if (predictor == 1) {
-            int popped = bufferPopArray(buffer, size);
-            if (this.bufferSize() == 0) {
-                if (this.feedBuffer(getBufferCapacity()) == -1) {
-                    this.streamEnded = true;
-                }
+        int outputPointer = 0;
+        while (outputPointer < size) {
+            if (decodedPosition < lineLength) {
+                int toCopy = Math.min(lineLength - decodedPosition, size - outputPointer);
+                System.arraycopy(previousRow, bytesPerChar + decodedPosition,
+                        buffer, outputPointer, toCopy);
+                decodedPosition += toCopy;
+                outputPointer += toCopy;
+            } else if (!decodeRow()) {
+                break;
             }
-            return popped;
         }
-        int outputPointer = 0;
-        byte linePredictor = predictor;
-        byte[] currentLine = new byte[lineLength];
+        return outputPointer == 0 && size > 0 ? -1 : outputPointer;
+    }
 
-        while (!streamEnded) {
+    /**
+     * Reads next row from encoded data and decodes it. Decoded row becomes
+     * previous row.
+     *
+     * @return false if there is no complete row left in the stream.
+     */
+    private boolean decodeRow() throws IOException {
+        if (lineLength <= 0) {
+            return false;
+        }
+        boolean isPNG = predictor >= PREDICTOR_PNG_MIN;
+        if (rowFilled == 0 && rowFilter == -1 && this.bufferSize() > lineLength) {
+            // whole row is available in encoded data
+            int begin = getBufferBegin();
+            if (isPNG) {
+                rowFilter = this.buffer[begin++] & 0xFF;
+            }
+            System.arraycopy(this.buffer, begin, currentRow, bytesPerChar, lineLength);
+            processBuffer(isPNG ? lineLength + 1 : lineLength);
+            rowFilled = lineLength;
+        }
+        while (rowFilled < lineLength || (isPNG && rowFilter == -1)) {
+            if (streamEnded || (this.bufferSize() == 0 && !feedEncodedData())) {
+                return false;
+            }
+            if (isPNG && rowFilter == -1) {
+                rowFilter = bufferPop() & 0xFF;
+                continue;
+            }
+            int toCopy = Math.min(this.bufferSize(), lineLength - rowFilled);
+            System.arraycopy(this.buffer, getBufferBegin(),
+                    currentRow, bytesPerChar + rowFilled, toCopy);
+            processBuffer(toCopy);
+            rowFilled += toCopy;
+        }
+        if (isPNG) {
+            decodePNGRow(rowFilter);
+        } else {
+            decodeTIFFRow();
+        }
+        byte[] decoded = currentRow;
+        currentRow = previousRow;
+        previousRow = decoded;
+        rowFilled = 0;
+        rowFilter = -1;
+        decodedPosition = 0;
+        return true;
+    }
 
-            // Determine if PNG predictor
-            if (predictor >= 10) {
-                if (bufferSize() == 0) {
-                    if (this.feedBuffer(getBufferCapacity()) == -1) {
-                        this.streamEnded = true;
-                        break;
+    private void decodePNGRow(int filter) {
+        byte[] cur = currentRow;
+        byte[] prev = previousRow;
+        int bpc = bytesPerChar;
+        int end = bpc + lineLength;
+        switch (filter) {
+            case PNG_NONE:
+                break;
+            case PNG_SUB:
+                if (bpc == 1) {
+                    decodeSubSingleByte(cur, end);
+                } else {
+                    for (int i = bpc; i < end; i++) {
+                        cur[i] += cur[i - bpc];
                     }
                 }
-                // each line starts with type 0 - 4
-                linePredictor = bufferPop();
-                linePredictor += 10;
-            }
-
-            int read;
-            if ((read = bufferPopArray(currentLine, lineLength)) != lineLength) {
-                if (this.feedBuffer(this.getBufferCapacity()) == -1) {
-                    this.streamEnded = true;
-                    break;
+                break;
+            case PNG_UP:
+                for (int i = bpc; i < end; i++) {
+                    cur[i] += prev[i];
                 }
-                byte[] extraBytes = new byte[lineLength - read];
-                int readAgain;
-                if ((readAgain = bufferPopArray(extraBytes, extraBytes.length)) != extraBytes.length) {
-                    this.streamEnded = true;
-                    break;
+                break;
+            case PNG_AVERAGE:
+                for (int i = bpc; i < end; i++) {
+                    cur[i] += ((cur[i - bpc] & 0xFF) + (prev[i] & 0xFF)) >>> 1;
                 }
-                System.arraycopy(extraBytes, 0, currentLine, read, readAgain);
-            }
-
-            switch (linePredictor) {
-                case 2: // TIFF
-                    if (bitsPerComponent == 16) {
-                        for (int i = 0; i < lineLength; i += 2) {
-                            int value = (currentLine[i] << 8) + currentLine[i + 1];
-                            int left = i - bytesPerChar >= 0 ?
-                                    ((currentLine[i - bytesPerChar] << 8) +
-                                            currentLine[i - bytesPerChar + 1]) : 0;
-                            currentLine[i] = (byte) ((value + left) >> 8);
-                            currentLine[i + 1] = (byte) (value + left);
-                        }
-                        break;
-                    } else if (bitsPerComponent == 8) {
-                        for (int i = 0; i < lineLength; i++) {
-                            byte value = currentLine[i];
-                            byte left = i - bytesPerChar >= 0 ?
-                                    currentLine[i - bytesPerChar] : 0;
-                            currentLine[i] = (byte) (value + left);
-                        }
-                        break;
+                break;
+            case PNG_PAETH:
+                for (int i = bpc; i < end; i++) {
+                    int left = cur[i - bpc] & 0xFF;
+                    int up = prev[i] & 0xFF;
+                    int upLeft = prev[i - bpc] & 0xFF;
+                    int leftDiff = Math.abs(up - upLeft);
+                    int upDiff = Math.abs(left - upLeft);
+                    int upLeftDiff = Math.abs(left + up - 2 * upLeft);
+                    if (leftDiff <= upDiff && leftDiff <= upLeftDiff) {
+                        cur[i] += left;
+                    } else if (upDiff <= upLeftDiff) {
+                        cur[i] += up;
                     } else {
-                        throw new IOException(bitsPerComponent + " bits per component can't be processed.");
-                    }
-                case 10: // None
-                    break;
-                case 11: // Sub
-                    for (int i = 0; i < lineLength; i++) {
-                        byte value = currentLine[i];
-                        byte left = i - bytesPerChar >= 0 ?
-                                currentLine[i - bytesPerChar] : 0;
-                        currentLine[i] = (byte) (value + left);
+                        cur[i] += upLeft;
                     }
-                    break;
-                case 12: // Up
-                    for (int i = 0; i < lineLength; i++) {
-                        byte value = currentLine[i];
-                        byte up = previousLine[i];
-                        currentLine[i] = (byte) (value + up);
-                    }
-                    break;
-                case 13: // Avg
-                    for (int i = 0; i < lineLength; i++) {
-                        byte value = currentLine[i];
-                        byte left = i - bytesPerChar >= 0 ?
-                                currentLine[i - bytesPerChar] : 0;
-                        byte up = previousLine[i];
-                        currentLine[i] = (byte) (value + (left + up) / 2);
-                    }
-                    break;
-                case 14: // Paeth
-                    for (int i = 0; i < lineLength; i++) {
-                        byte value = currentLine[i];
-                        byte left = i - bytesPerChar >= 0 ?
-                                currentLine[i - bytesPerChar] : 0;
-                        byte up = previousLine[i];
-                        byte upLeft = i - bytesPerChar >= 0 ?
-                                previousLine[i - bytesPerChar] : 0;
-                        int res = left + up - upLeft;
-                        int leftDiff = Math.abs(res - left);
-                        int upDiff = Math.abs(res - up);
-                        int upLeftDiff = Math.abs(res - upLeft);
+                }
+                break;
+            default:
+                break;
+        }
+    }
 
-                        if (leftDiff <= upDiff && leftDiff <= upLeftDiff) {
-                            currentLine[i] = (byte) (value + left);
-                        } else if (upDiff <= upLeftDiff) {
-                            currentLine[i] = (byte) (value + up);
-                        } else {
-                            currentLine[i] = (byte) (value + upLeft);
-                        }
-                    }
-                    break;
-                default:
-                    break;
+    private void decodeTIFFRow() throws IOException {
+        byte[] cur = currentRow;
+        int bpc = bytesPerChar;
+        int end = bpc + lineLength;
+        if (bitsPerComponent == 8) {
+            if (bpc == 1) {
+                decodeSubSingleByte(cur, end);
+            } else {
+                for (int i = bpc; i < end; i++) {
+                    cur[i] += cur[i - bpc];
+                }
             }
-            System.arraycopy(currentLine, 0, buffer, outputPointer, lineLength);
-            System.arraycopy(currentLine, 0, previousLine, 0, lineLength);
-            outputPointer += lineLength;
-            if (outputPointer + lineLength > size) {
-                return outputPointer;
+        } else if (bitsPerComponent == 16) {
+            for (int i = bpc; i < end; i += 2) {
+                int value = ((cur[i] & 0xFF) << 8) + (cur[i + 1] & 0xFF)
+                        + ((cur[i - bpc] & 0xFF) << 8) + (cur[i - bpc + 1] & 0xFF);
+                cur[i] = (byte) (value >> 8);
+                cur[i + 1] = (byte) value;
             }
+        } else {
+            throw new IOException(bitsPerComponent + " bits per component can't be processed.");
+        }
+    }
+
+    // one byte per pixel, that is 8 bit grayscale, xref streams and so on
+    private static void decodeSubSingleByte(byte[] row, int end) {
+        byte left = 0;
+        for (int i = 1; i < end; i++) {
+            left += row[i];
+            row[i] = left;
         }
-        return outputPointer;
+    }
+
+    private boolean feedEncodedData() throws IOException {
+        if (this.feedBuffer(getBufferCapacity()) <= 0) {
+            this.streamEnded = true;
+            return false;
+        }
+        return true;
+    }
+
+    private boolean isRowPredictor() {
+        return predictor == PREDICTOR_TIFF || predictor >= PREDICTOR_PNG_MIN;
     }
 
     private static byte predictorFromParams(COSDictionary decodeParams) {
@@ -253,5 +317,11 @@ public class COSPredictorDecode extends ASBufferedInFilter {
     public void reset() throws IOException {
         super.reset();
         this.streamEnded = false;
+        this.rowFilled = 0;
+        this.rowFilter = -1;
+        this.decodedPosition = lineLength;
+        if (previousRow != null) {
+            Arrays.fill(previousRow, (byte) 0);
+        }
     }
 }
@@ -0,0 +1,177 @@
+/**
+ * This file is part of veraPDF Parser, a module of the veraPDF project.
+ * Copyright (c) 2015, veraPDF Consortium <info@verapdf.org>
+ * All rights reserved.
+ *
+ * veraPDF Parser is free software: you can redistribute it and/or modify
+ * it under the terms of either:
+ *
+ * The GNU General public license GPLv3+.
+ * You should have received a copy of the GNU General Public License
+ * along with veraPDF Parser as the LICENSE.GPL file in the root of the source
+ * tree.  If not, see http://www.gnu.org/licenses/ or
+ * https://www.gnu.org/licenses/gpl-3.0.en.html.
+ *
+ * The Mozilla Public License MPLv2+.
+ * You should have received a copy of the Mozilla Public License along with
+ * veraPDF Parser as the LICENSE.MPL file in the root of the source tree.
+ * If a copy of the MPL was not distributed with this file, you can obtain one at
+ * http://mozilla.org/MPL/2.0/.
+ */
+package org.verapdf.cos.filters;
+
+import java.io.Closeable;
+import java.util.ArrayDeque;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * Thread-safe pool of Inflaters and Deflaters used by Flate filters. Each
+ * Inflater and Deflater holds native zlib memory that is freed only by
+ * end() call or by finalization, so they are reused instead of being created
+ * for each stream. Returned objects are reset, objects that don't fit into
+ * the pool are ended.
+ */
+public final class FlateCodecPool {
+
+    /**
+     * Maximal number of idle Inflaters and idle Deflaters kept in the pool.
+     */
+    public static final int MAX_IDLE_SIZE = 32;
+
+    /**
+     * Number of idle Inflaters and idle Deflaters that are kept in the pool
+     * when document is closed.
+     */
+    public static final int MIN_IDLE_SIZE = 4;
+
+    private static final ArrayDeque<Inflater> INFLATERS = new ArrayDeque<>();
+    private static final ArrayDeque<Deflater> DEFLATERS = new ArrayDeque<>();
+
+    private static final Closeable IDLE_CODECS_CLOSER = new Closeable() {
+        @Override
+        public void close() {
+            FlateCodecPool.trim(MIN_IDLE_SIZE);
+        }
+    };
+
+    private FlateCodecPool() {
+    }
+
+    /**
+     * @return idle Inflater from the pool or new Inflater if the pool is empty.
+     */
+    public static Inflater getInflater() {
+        synchronized (INFLATERS) {
+            Inflater res = INFLATERS.pollLast();
+            if (res != null) {
+                return res;
+            }
+        }
+        return new Inflater();
+    }
+
+    /**
+     * Resets given Inflater and returns it to the pool. If the pool is full,
+     * Inflater is ended.
+     *
+     * @param inflater is Inflater obtained by {@link #getInflater()} that is
+     *                 not used anymore.
+     */
+    public static void returnInflater(Inflater inflater) {
+        inflater.reset();
+        synchronized (INFLATERS) {
+            if (INFLATERS.size() < MAX_IDLE_SIZE) {
+                INFLATERS.addLast(inflater);
+                return;
+            }
+        }
+        inflater.end();
+    }
+
+    /**
+     * @return idle Deflater from the pool or new Deflater if the pool is empty.
+     */
+    public static Deflater getDeflater() {
+        synchronized (DEFLATERS) {
+            Deflater res = DEFLATERS.pollLast();
+            if (res != null) {
+                return res;
+            }
+        }
+        return new Deflater();
+    }
+
+    /**
+     * Resets given Deflater and returns it to the pool. If the pool is full,
+     * Deflater is ended.
+     *
+     * @param deflater is Deflater obtained by {@link #getDeflater()} that is
+     *                 not used anymore.
+     */
+    public static void returnDeflater(Deflater deflater) {
+        deflater.reset();
+        synchronized (DEFLATERS) {
+            if (DEFLATERS.size() < MAX_IDLE_SIZE) {
+                DEFLATERS.addLast(deflater);
+                return;
+            }
+        }
+        deflater.end();
+    }
+
+    /**
+     * @return number of idle Inflaters in the pool.
+     */
+    public static int getIdleInflatersNumber() {
+        synchronized (INFLATERS) {
+            return INFLATERS.size();
+        }
+    }
+
+    /**
+     * @return number of idle Deflaters in the pool.
+     */
+    public static int getIdleDeflatersNumber() {
+        synchronized (DEFLATERS) {
+            return DEFLATERS.size();
+        }
+    }
+
+    /**
+     * Ends all idle Inflaters and Deflaters and removes them from the pool.
+     * Objects that are currently in use are not affected.
+     */
+    public static void clear() {
+        trim(0);
+    }
+
+    /**
+     * Ends idle Inflaters and Deflaters so that at most given number of each
+     * of them stays in the pool. The least recently returned ones are ended.
+     *
+     * @param idleSize is number of idle Inflaters and Deflaters to keep.
+     */
+    public static void trim(int idleSize) {
+        synchronized (INFLATERS) {
+            while (INFLATERS.size() > idleSize) {
+                INFLATERS.pollFirst().end();
+            }
+        }
+        synchronized (DEFLATERS) {
+            while (DEFLATERS.size() > idleSize) {
+                DEFLATERS.pollFirst().end();
+            }
+        }
+    }
+
+    /**
+     * @return closeable that trims the pool to {@link #MIN_IDLE_SIZE}, it is
+     * added to resource handler of document so that idle native zlib memory
+     * is freed when document is closed. The pool is shared by all documents,
+     * so a few idle objects are kept for documents that are still open.
+     */
+    public static Closeable getIdleCodecsCloser() {
+        return IDLE_CODECS_CLOSER;
+    }
+}
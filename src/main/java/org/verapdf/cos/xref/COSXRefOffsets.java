@@ -0,0 +1,223 @@
+/**
+ * This file is part of veraPDF Parser, a module of the veraPDF project.
+ * Copyright (c) 2015, veraPDF Consortium <info@verapdf.org>
+ * All rights reserved.
+ *
+ * veraPDF Parser is free software: you can redistribute it and/or modify
+ * it under the terms of either:
+ *
+ * The GNU General public license GPLv3+.
+ * You should have received a copy of the GNU General Public License
+ * along with veraPDF Parser as the LICENSE.GPL file in the root of the source
+ * tree.  If not, see http://www.gnu.org/licenses/ or
+ * https://www.gnu.org/licenses/gpl-3.0.en.html.
+ *
+ * The Mozilla Public License MPLv2+.
+ * You should have received a copy of the Mozilla Public License along with
+ * veraPDF Parser as the LICENSE.MPL file in the root of the source tree.
+ * If a copy of the MPL was not distributed with this file, you can obtain one at
+ * http://mozilla.org/MPL/2.0/.
+ */
+package org.verapdf.cos.xref;
+
+import org.verapdf.cos.COSKey;
+
+import java.util.*;
+
+/**
+ * Offsets of objects from cross reference table indexed by object number.
+ * Offsets are kept in primitive array, generations and entry types are kept
+ * in compact side tables. Entries that don't fit into this representation
+ * (several generations of one object number, very sparse or very big object
+ * numbers) are kept in additional map.
+ * <p>
+ * Like in cross reference streams, positive offset is offset of object in
+ * the document and negative offset is number of object stream (with minus)
+ * containing the object.
+ */
+public class COSXRefOffsets {
+
+	private static final byte TYPE_ABSENT = 0;
+	private static final byte TYPE_IN_USE = 1;
+	private static final byte TYPE_COMPRESSED = 2;
+
+	private static final int MAX_DENSE_GENERATION = Character.MAX_VALUE;
+	private static final int MAX_DENSE_GAP = 1024;
+	private static final int MAX_INITIAL_SIZE = 1 << 20;
+
+	private long[] offsets;
+	private char[] generations;
+	private byte[] types;
+	private int size;
+	private Map<COSKey, Long> overflow;
+
+	public COSXRefOffsets() {
+		this(16);
+	}
+
+	/**
+	 * @param expectedSize is expected greatest object number plus one, for
+	 *                     example Size value from trailer.
+	 */
+	public COSXRefOffsets(long expectedSize) {
+		int capacity = (int) Math.max(16, Math.min(expectedSize, MAX_INITIAL_SIZE));
+		this.offsets = new long[capacity];
+		this.generations = new char[capacity];
+		this.types = new byte[capacity];
+		this.size = 0;
+	}
+
+	public void put(final int number, final int generation, final long offset) {
+		if (isDense(number, generation) && ensureCapacity(number)) {
+			if (this.types[number] == TYPE_ABSENT) {
+				// key could get into overflow while the slot was held by another generation
+				if (this.overflow != null && this.overflow.remove(new COSKey(number, generation)) != null) {
+					this.size--;
+				}
+				this.offsets[number] = offset;
+				this.generations[number] = (char) generation;
+				this.types[number] = offset < 0 ? TYPE_COMPRESSED : TYPE_IN_USE;
+				this.size++;
+				return;
+			} else if (this.generations[number] == generation) {
+				this.offsets[number] = offset;
+				this.types[number] = offset < 0 ? TYPE_COMPRESSED : TYPE_IN_USE;
+				return;
+			}
+		}
+		if (this.overflow == null) {
+			this.overflow = new HashMap<>();
+		}
+		if (this.overflow.put(new COSKey(number, generation), offset) == null) {
+			this.size++;
+		}
+	}
+
+	public void remove(final int number, final int generation) {
+		if (isPresentInDenseTable(number, generation)) {
+			this.types[number] = TYPE_ABSENT;
+			this.offsets[number] = 0;
+			this.generations[number] = 0;
+			this.size--;
+		} else if (this.overflow != null && this.overflow.remove(new COSKey(number, generation)) != null) {
+			this.size--;
+		}
+	}
+
+	public boolean containsKey(final COSKey key) {
+		int number = key.getNumber();
+		if (isPresentInDenseTable(number, key.getGeneration())) {
+			return true;
+		}
+		return this.overflow != null && this.overflow.containsKey(key);
+	}
+
+	/**
+	 * @return offset of object with given key or 0 if there is no such
+	 * object.
+	 */
+	public long getOffset(final COSKey key) {
+		int number = key.getNumber();
+		if (isPresentInDenseTable(number, key.getGeneration())) {
+			return this.offsets[number];
+		}
+		if (this.overflow != null) {
+			Long value = this.overflow.get(key);
+			return value != null ? value : 0;
+		}
+		return 0;
+	}
+
+	public int size() {
+		return this.size;
+	}
+
+	public void clear() {
+		Arrays.fill(this.offsets, 0);
+		Arrays.fill(this.generations, (char) 0);
+		Arrays.fill(this.types, TYPE_ABSENT);
+		this.size = 0;
+		this.overflow = null;
+	}
+
+	/**
+	 * @return list of keys of all objects in the table sorted by numbers.
+	 */
+	public List<COSKey> getKeys() {
+		List<COSKey> res = new ArrayList<>(this.size);
+		for (int i = 0; i < this.types.length; ++i) {
+			if (this.types[i] != TYPE_ABSENT) {
+				res.add(new COSKey(i, this.generations[i]));
+			}
+		}
+		if (this.overflow != null) {
+			res.addAll(this.overflow.keySet());
+		}
+		return res;
+	}
+
+	/**
+	 * @return numbers of object streams that contain objects from the table.
+	 */
+	public SortedSet<Integer> getObjectStreamNumbers() {
+		SortedSet<Integer> res = new TreeSet<>();
+		for (int i = 0; i < this.types.length; ++i) {
+			if (this.types[i] == TYPE_COMPRESSED) {
+				res.add((int) -this.offsets[i]);
+			}
+		}
+		if (this.overflow != null) {
+			for (Long offset : this.overflow.values()) {
+				if (offset < 0) {
+					res.add((int) -offset);
+				}
+			}
+		}
+		return res;
+	}
+
+	/**
+	 * @return greatest object number in the table or 0 if table is empty.
+	 */
+	public int getGreatestNumber() {
+		int res = 0;
+		for (int i = this.types.length - 1; i > 0; --i) {
+			if (this.types[i] != TYPE_ABSENT) {
+				res = i;
+				break;
+			}
+		}
+		if (this.overflow != null) {
+			for (COSKey key : this.overflow.keySet()) {
+				res = Math.max(res, key.getNumber());
+			}
+		}
+		return res;
+	}
+
+	private boolean isPresentInDenseTable(int number, int generation) {
+		return number >= 0 && number < this.types.length && this.types[number] != TYPE_ABSENT
+				&& this.generations[number] == generation;
+	}
+
+	private static boolean isDense(int number, int generation) {
+		return number >= 0 && generation >= 0 && generation <= MAX_DENSE_GENERATION;
+	}
+
+	private boolean ensureCapacity(int number) {
+		int length = this.types.length;
+		if (number < length) {
+			return true;
+		}
+		// object numbers far beyond existing ones are likely to be broken,
+		// they shouldn't cause allocation of huge arrays
+		if (number - length > Math.max(length, MAX_DENSE_GAP) || number >= Integer.MAX_VALUE - 8) {
+			return false;
+		}
+		int newLength = (int) Math.min(Math.max((long) number + 1, (long) length << 1), Integer.MAX_VALUE - 8);
+		this.offsets = Arrays.copyOf(this.offsets, newLength);
+		this.generations = Arrays.copyOf(this.generations, newLength);
+		this.types = Arrays.copyOf(this.types, newLength);
+		return true;
+	}
+}
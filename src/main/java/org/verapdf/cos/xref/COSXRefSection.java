@@ -78,6 +78,17 @@ public class COSXRefSection {
 		}
 	}
 
+	public void addTo(final COSXRefOffsets offsets) {
+		for (Map.Entry<Integer, COSXRefEntry> entry : this.entries.entrySet()) {
+			COSXRefEntry value = entry.getValue();
+			if (value.free == 'n') {
+				offsets.put(entry.getKey(), value.generation, value.offset);
+			} else {
+				offsets.remove(entry.getKey(), value.generation - 1);
+			}
+		}
+	}
+
 	public List<COSXRefRange> getRange() {
 		List<COSXRefRange> result = new ArrayList<>();
 
@@ -95,29 +95,47 @@ public class ICCProfile extends PDObject {
 
 	public ICCProfile(COSObject profileStream) {
 		super(profileStream);
-		initializeProfileHeader();
+		try (ASInputStream data = this.getObject().getData(COSStream.FilterFlags.DECODE)) {
+			initializeProfileHeader(data);
+		} catch (IOException e) {
+			this.isLooksValid = false;
+			LOGGER.log(Level.FINE, "Exception during obtaining ICCProfile header", e);
+		}
 	}
 
-	private void initializeProfileHeader() {
-		try (ASInputStream data = this.getObject().getData(COSStream.FilterFlags.DECODE)) {
-			byte[] temp = new byte[HEADER_LENGTH];
-			int count = Math.max(data.read(temp, HEADER_LENGTH), 0);
-			if (count == HEADER_LENGTH) {
-				this.profileHeader = temp;
-			} else {
-				this.profileHeader = Arrays.copyOf(temp, count);
-			}
-			this.creationDate = parseCreationDate(this.profileHeader);
-			if (this.profileHeader.length != HEADER_LENGTH) {
-				this.isLooksValid = false;
-			}
-			parseTags(data);
+	/**
+	 * Constructs ICC profile from already decoded data of profile stream.
+	 * Data is not read from the document, so profile can be constructed in
+	 * any thread.
+	 *
+	 * @param profileStream is ICC profile stream.
+	 * @param profileData   is decoded data of profile stream.
+	 */
+	public ICCProfile(COSObject profileStream, ASInputStream profileData) {
+		super(profileStream);
+		try {
+			initializeProfileHeader(profileData);
 		} catch (IOException e) {
 			this.isLooksValid = false;
 			LOGGER.log(Level.FINE, "Exception during obtaining ICCProfile header", e);
 		}
 	}
 
+	private void initializeProfileHeader(ASInputStream data) throws IOException {
+		byte[] temp = new byte[HEADER_LENGTH];
+		int count = Math.max(data.read(temp, HEADER_LENGTH), 0);
+		if (count == HEADER_LENGTH) {
+			this.profileHeader = temp;
+		} else {
+			this.profileHeader = Arrays.copyOf(temp, count);
+		}
+		this.creationDate = parseCreationDate(this.profileHeader);
+		if (this.profileHeader.length != HEADER_LENGTH) {
+			this.isLooksValid = false;
+		}
+		parseTags(data);
+	}
+
 	/**
 	 * @return true if all necessary fields can be obtained from icc profile header
 	 */
@@ -23,6 +23,7 @@ package org.verapdf.io;
 import org.verapdf.cos.COSKey;
 import org.verapdf.cos.COSTrailer;
 import org.verapdf.cos.xref.COSXRefInfo;
+import org.verapdf.cos.xref.COSXRefOffsets;
 
 import java.util.*;
 
@@ -32,7 +33,7 @@ import java.util.*;
 public class COSXRefTableReader {
 
 	private long startXRef;
-	private Map<COSKey, Long> offsets;
+	private COSXRefOffsets offsets;
 	private COSTrailer trailer;
 
 	private SortedSet<Long> startXRefs;
@@ -42,7 +43,7 @@ public class COSXRefTableReader {
 
 	public COSXRefTableReader() {
 		this.startXRef = 0;
-		this.offsets = new HashMap<>();
+		this.offsets = new COSXRefOffsets();
 		this.trailer = new COSTrailer();
 		this.startXRefs = new TreeSet<>();
 	}
@@ -70,6 +71,7 @@ public class COSXRefTableReader {
 		COSXRefInfo lastInfo = infos.get(infos.size()-1);
 		this.startXRef = lastInfo.getStartXRef();
 		this.trailer = lastInfo.getTrailer();
+		this.offsets = new COSXRefOffsets(getExpectedSize(this.trailer));
 
 		Map<Long, COSTrailer> trailers = new HashMap<>();
 		for (COSXRefInfo info : infos) {
@@ -96,7 +98,7 @@ public class COSXRefTableReader {
 	public void set(final COSXRefInfo info) {
 		this.startXRef = info.getStartXRef();
 
-		this.offsets.clear();
+		this.offsets = new COSXRefOffsets(getExpectedSize(info.getTrailer()));
 		info.getXRefSection().addTo(this.offsets);
 
 		this.trailer = info.getTrailer();
@@ -107,12 +109,19 @@ public class COSXRefTableReader {
 	}
 
 	public List<COSKey> getKeys() {
-		return new ArrayList<>(offsets.keySet());
+		return this.offsets.getKeys();
+	}
+
+	public int getGreatestKeyNumber() {
+		return this.offsets.getGreatestNumber();
+	}
+
+	public SortedSet<Integer> getObjectStreamNumbers() {
+		return this.offsets.getObjectStreamNumbers();
 	}
 
 	public long getOffset(final COSKey key) {
-		Long value = this.offsets.get(key);
-		return value != null ? value : 0;
+		return this.offsets.getOffset(key);
 	}
 
 	public boolean containsKey(final COSKey key) {
@@ -134,4 +143,9 @@ public class COSXRefTableReader {
 	public SortedSet<Long> getStartXRefs() {
 		return Collections.unmodifiableSortedSet(this.startXRefs);
 	}
+
+	private static long getExpectedSize(final COSTrailer trailer) {
+		Long size = trailer == null ? null : trailer.getSize();
+		return size != null ? size : 0;
+	}
 }
@@ -0,0 +1,336 @@
+/**
+ * This file is part of veraPDF Parser, a module of the veraPDF project.
+ * Copyright (c) 2015, veraPDF Consortium <info@verapdf.org>
+ * All rights reserved.
+ *
+ * veraPDF Parser is free software: you can redistribute it and/or modify
+ * it under the terms of either:
+ *
+ * The GNU General public license GPLv3+.
+ * You should have received a copy of the GNU General Public License
+ * along with veraPDF Parser as the LICENSE.GPL file in the root of the source
+ * tree.  If not, see http://www.gnu.org/licenses/ or
+ * https://www.gnu.org/licenses/gpl-3.0.en.html.
+ *
+ * The Mozilla Public License MPLv2+.
+ * You should have received a copy of the Mozilla Public License along with
+ * veraPDF Parser as the LICENSE.MPL file in the root of the source tree.
+ * If a copy of the MPL was not distributed with this file, you can obtain one at
+ * http://mozilla.org/MPL/2.0/.
+ */
+package org.verapdf.io;
+
+import org.verapdf.as.io.ASInputStream;
+import org.verapdf.tools.IntReference;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedByInterruptException;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.FileChannel;
+
+/**
+ * SeekableInputStream for reading data from file channel. Data is read with
+ * positional reads, so there is no shared file pointer: every substream keeps
+ * its own offset and buffer. Substreams of the same file can be read from
+ * different threads concurrently, though each single stream should be used
+ * by one thread at a time.
+ * <p>
+ * If a reading thread is interrupted, FileChannel is closed by the JDK. The
+ * interrupted read fails with ClosedByInterruptException, but the channel is
+ * reopened, so the stream and its substreams remain usable for other threads
+ * and for the same thread after its interrupted status is cleared.
+ */
+public class ChannelSeekableInputStream extends SeekableInputStream {
+
+	private final static String READ_ONLY_MODE = "r";
+	private static final int DEFAULT_BUFFER_SIZE = 2048;
+
+	private final SharedChannel channel;
+	private final int bufferSize;
+	private ByteBuffer buffer;
+
+	private long bufferFrom;
+	private long bufferTo;
+	private long offset;
+
+	private final boolean isTempFile;
+	private final IntReference numOfFileUsers;
+	private final String filePath;
+	private final long fromOffset;
+	private final long size;
+
+	public ChannelSeekableInputStream(final File file) throws IOException {
+		this(file, false);
+	}
+
+	public ChannelSeekableInputStream(final File file, boolean isTempFile) throws IOException {
+		this(file, 0, isTempFile);
+	}
+
+	public ChannelSeekableInputStream(final File file, int numOfFileUsers, boolean isTempFile) throws IOException {
+		this(file, numOfFileUsers, isTempFile, DEFAULT_BUFFER_SIZE);
+	}
+
+	public ChannelSeekableInputStream(final File file, int numOfFileUsers, boolean isTempFile,
+	                                  int bufferSize) throws IOException {
+		this(new SharedChannel(file.getAbsolutePath()), 0, Long.MAX_VALUE,
+		     new IntReference(numOfFileUsers), file.getAbsolutePath(), isTempFile, bufferSize);
+	}
+
+	public ChannelSeekableInputStream(final String fileName) throws IOException {
+		this(new File(fileName));
+	}
+
+	private ChannelSeekableInputStream(final SharedChannel channel, long fromOffset, long size,
+	                                   IntReference numOfFileUsers, String filePath,
+	                                   boolean isTempFile, int bufferSize) throws IOException {
+		this.channel = channel;
+		this.bufferSize = bufferSize;
+		this.bufferFrom = 0;
+		this.bufferTo = 0;
+		this.offset = 0;
+
+		this.isTempFile = isTempFile;
+		this.numOfFileUsers = numOfFileUsers;
+		synchronized (this.numOfFileUsers) {
+			this.numOfFileUsers.increment();
+		}
+		this.filePath = filePath;
+		this.fromOffset = fromOffset;
+
+		long streamLeft = this.channel.size() - fromOffset;
+		if (streamLeft < 0) {
+			throw new IOException("Offset is greater than full stream size");
+		}
+		this.size = size < 0 ? streamLeft : Math.min(size, streamLeft);
+	}
+
+	@Override
+	public int read() throws IOException {
+		checkClosed("Reading");
+		if (isStreamEnd()) {
+			return -1;
+		}
+
+		int res = buffer.get((int) (offset - bufferFrom));
+		offset++;
+		return res & 0xFF;
+	}
+
+	@Override
+	public int read(byte[] buffer, int size) throws IOException {
+		checkClosed("Reading");
+		if (buffer.length < size) {
+			throw new IllegalArgumentException("Destination buffer size is less than size to be read");
+		}
+
+		int curPos = 0;
+		int left = size;
+		while (left > 0) {
+			int read = append(buffer, curPos, left);
+			if (read == -1) {
+				break;
+			}
+			curPos += read;
+			left -= read;
+		}
+
+		return curPos == 0 ? -1 : curPos;
+	}
+
+	private int append(byte[] buffer, int from, int size) throws IOException {
+		if (isStreamEnd()) {
+			return -1;
+		}
+		int toBeRead = Math.min(size, (int) (bufferTo - offset));
+		System.arraycopy(this.buffer.array(), (int) (offset - bufferFrom), buffer, from, toBeRead);
+		offset += toBeRead;
+		return toBeRead;
+	}
+
+	@Override
+	public int skip(int size) throws IOException {
+		checkClosed("Skipping");
+		long newOffset = Math.min(offset + size, getStreamLength());
+		int skipped = (int) (newOffset - offset);
+		seek(newOffset);
+		return skipped;
+	}
+
+	@Override
+	public void reset() throws IOException {
+		checkClosed("Reset");
+		this.seek(0);
+	}
+
+	@Override
+	public void seek(long offset) throws IOException {
+		checkClosed("Seeking");
+		if (offset > this.getStreamLength()) {
+			throw new IllegalArgumentException("Destination offset is greater than stream length");
+		}
+		this.offset = offset < 0 ? 0 : offset;
+	}
+
+	@Override
+	public int peek() throws IOException {
+		checkClosed("Peeking");
+		if (isStreamEnd()) {
+			return -1;
+		}
+		return buffer.get((int) (offset - bufferFrom)) & 0xFF;
+	}
+
+	@Override
+	public long getOffset() throws IOException {
+		checkClosed("Offset obtaining");
+		return this.offset;
+	}
+
+	@Override
+	public long getStreamLength() throws IOException {
+		checkClosed("Stream length obtaining");
+		return size;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 *
+	 * Returned stream reads the same file channel, but has its own offset and
+	 * buffer, so it doesn't interfere with this stream.
+	 */
+	@Override
+	public ASInputStream getStream(long startOffset, long length) throws IOException {
+		return new ChannelSeekableInputStream(this.channel, startOffset, length, numOfFileUsers,
+		                                      filePath, isTempFile, bufferSize);
+	}
+
+	@Override
+	public void closeResource() throws IOException {
+		if (!isSourceClosed) {
+			isSourceClosed = true;
+			this.buffer = null;
+			synchronized (this.numOfFileUsers) {
+				this.numOfFileUsers.decrement();
+				if (this.numOfFileUsers.equals(0)) {
+					this.channel.close();
+					if (isTempFile) {
+						File tmp = new File(filePath);
+						if (!tmp.delete()) {
+							tmp.deleteOnExit();
+						}
+					}
+				}
+			}
+		}
+	}
+
+	private boolean isStreamEnd() throws IOException {
+		if ((offset >= bufferFrom) && (offset < bufferTo)) {
+			return false;
+		}
+		int read = feedBuffer();
+		this.bufferFrom = offset;
+		this.bufferTo = read == -1 ? offset : offset + read;
+		return read <= 0;
+	}
+
+	private void checkClosed(String streamUsage) throws IOException {
+		if (isSourceClosed) {
+			throw new IOException(streamUsage + " can't be performed; stream is closed");
+		}
+	}
+
+	private int feedBuffer() throws IOException {
+		long left = getStreamLength() - offset;
+		if (left <= 0) {
+			return -1;
+		}
+		if (this.buffer == null) {
+			this.buffer = ByteBuffer.allocate(this.bufferSize);
+		}
+
+		long realOffset = fromOffset + offset;
+		this.buffer.clear();
+		this.buffer.limit((int) Math.min(this.bufferSize, left));
+		FileChannel fileChannel = this.channel.get();
+		while (this.buffer.hasRemaining()) {
+			int read;
+			try {
+				read = fileChannel.read(this.buffer, realOffset + this.buffer.position());
+			} catch (ClosedByInterruptException e) {
+				// this thread is interrupted, but other users of the file shouldn't fail
+				this.channel.reopen(fileChannel);
+				throw e;
+			} catch (ClosedChannelException e) {
+				// channel was closed by interruption of another thread
+				fileChannel = this.channel.reopen(fileChannel);
+				continue;
+			}
+			if (read == -1) {
+				break;
+			}
+		}
+		int read = this.buffer.position();
+		return read == 0 ? -1 : read;
+	}
+
+	/**
+	 * File channel shared by the stream and all its substreams.
+	 */
+	private static final class SharedChannel {
+		private final String path;
+		private RandomAccessFile file;
+		private volatile FileChannel channel;
+		private boolean isClosed;
+
+		private SharedChannel(String path) throws IOException {
+			this.path = path;
+			this.file = new RandomAccessFile(path, READ_ONLY_MODE);
+			this.channel = this.file.getChannel();
+		}
+
+		private FileChannel get() {
+			return this.channel;
+		}
+
+		private long size() throws IOException {
+			FileChannel fileChannel = this.channel;
+			try {
+				return fileChannel.size();
+			} catch (ClosedByInterruptException e) {
+				reopen(fileChannel);
+				throw e;
+			} catch (ClosedChannelException e) {
+				return reopen(fileChannel).size();
+			}
+		}
+
+		/**
+		 * Opens the file again if given channel is still the current one and
+		 * the file was not closed explicitly.
+		 *
+		 * @return current channel.
+		 */
+		private synchronized FileChannel reopen(FileChannel closedChannel) throws IOException {
+			if (this.isClosed) {
+				throw new ClosedChannelException();
+			}
+			if (this.channel == closedChannel) {
+				// file descriptor is already released together with the channel
+				this.file.close();
+				this.file = new RandomAccessFile(this.path, READ_ONLY_MODE);
+				this.channel = this.file.getChannel();
+			}
+			return this.channel;
+		}
+
+		private synchronized void close() throws IOException {
+			this.isClosed = true;
+			this.file.close();
+		}
+	}
+}
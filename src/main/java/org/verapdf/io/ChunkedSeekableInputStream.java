@@ -0,0 +1,206 @@
+/**
+ * This file is part of veraPDF Parser, a module of the veraPDF project.
+ * Copyright (c) 2015, veraPDF Consortium <info@verapdf.org>
+ * All rights reserved.
+ *
+ * veraPDF Parser is free software: you can redistribute it and/or modify
+ * it under the terms of either:
+ *
+ * The GNU General public license GPLv3+.
+ * You should have received a copy of the GNU General Public License
+ * along with veraPDF Parser as the LICENSE.GPL file in the root of the source
+ * tree.  If not, see http://www.gnu.org/licenses/ or
+ * https://www.gnu.org/licenses/gpl-3.0.en.html.
+ *
+ * The Mozilla Public License MPLv2+.
+ * You should have received a copy of the Mozilla Public License along with
+ * veraPDF Parser as the LICENSE.MPL file in the root of the source tree.
+ * If a copy of the MPL was not distributed with this file, you can obtain one at
+ * http://mozilla.org/MPL/2.0/.
+ */
+package org.verapdf.io;
+
+import org.verapdf.tools.IntReference;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+/**
+ * Base class for seekable streams that hold data in a sequence of byte
+ * buffers of equal size (except the last one). Substreams share buffers of
+ * parent stream.
+ */
+abstract class ChunkedSeekableInputStream extends SeekableInputStream {
+
+	private final ByteBuffer[] chunks;
+	private final int chunkShift;
+	private final long chunkMask;
+	// duplicate of the last read chunk, so that its position can be changed
+	private ByteBuffer view;
+	private int viewIndex = -1;
+
+	private long offset;
+	private final long fromOffset;
+	private final long size;
+
+	protected final IntReference numOfChunksUsers;
+
+	/**
+	 * Creates stream that contains all data from given chunks.
+	 *
+	 * @param chunks     is array of buffers with data. Each buffer except the
+	 *                   last one should have capacity 2^chunkShift.
+	 * @param chunkShift is binary logarithm of chunk size.
+	 */
+	protected ChunkedSeekableInputStream(ByteBuffer[] chunks, int chunkShift, int numOfChunksUsers) {
+		this.chunks = chunks;
+		this.chunkShift = chunkShift;
+		this.chunkMask = (1L << chunkShift) - 1;
+		this.offset = 0;
+		this.fromOffset = 0;
+		long length = 0;
+		for (ByteBuffer chunk : chunks) {
+			length += chunk.limit();
+		}
+		this.size = length;
+		this.numOfChunksUsers = new IntReference(numOfChunksUsers);
+		this.numOfChunksUsers.increment();
+	}
+
+	/**
+	 * Creates substream of given stream. No data is copied.
+	 *
+	 * @param parent     is stream which data is shared.
+	 * @param fromOffset is offset of substream beginning in parent data.
+	 * @param size       is size of substream.
+	 */
+	protected ChunkedSeekableInputStream(ChunkedSeekableInputStream parent,
+	                                     long fromOffset, long size) throws IOException {
+		this.chunks = parent.chunks;
+		this.chunkShift = parent.chunkShift;
+		this.chunkMask = parent.chunkMask;
+		this.offset = 0;
+		this.fromOffset = fromOffset;
+		this.numOfChunksUsers = parent.numOfChunksUsers;
+		this.numOfChunksUsers.increment();
+
+		long streamLeft = parent.fromOffset + parent.size - fromOffset;
+		if (streamLeft < 0) {
+			throw new IOException("Offset is greater than full stream size");
+		}
+		this.size = size < 0 ? streamLeft : Math.min(size, streamLeft);
+	}
+
+	@Override
+	public int read() throws IOException {
+		checkClosed("Reading");
+		if (offset >= size) {
+			return -1;
+		}
+		long position = fromOffset + offset;
+		int res = chunks[(int) (position >>> chunkShift)].get((int) (position & chunkMask));
+		offset++;
+		return res & 0xFF;
+	}
+
+	@Override
+	public int read(byte[] buffer, int size) throws IOException {
+		checkClosed("Reading");
+		if (buffer.length < size) {
+			throw new IllegalArgumentException("Destination buffer size is less than size to be read");
+		}
+		int toBeRead = (int) Math.min(size, this.size - offset);
+		if (toBeRead <= 0) {
+			return -1;
+		}
+
+		int curPos = 0;
+		while (curPos < toBeRead) {
+			long position = fromOffset + offset;
+			ByteBuffer view = getView((int) (position >>> chunkShift));
+			view.position((int) (position & chunkMask));
+			int read = Math.min(toBeRead - curPos, view.remaining());
+			view.get(buffer, curPos, read);
+			curPos += read;
+			offset += read;
+		}
+		return curPos;
+	}
+
+	@Override
+	public int skip(int size) throws IOException {
+		checkClosed("Skipping");
+		long newOffset = Math.min(offset + size, getStreamLength());
+		int skipped = (int) (newOffset - offset);
+		seek(newOffset);
+		return skipped;
+	}
+
+	@Override
+	public void reset() throws IOException {
+		checkClosed("Reset");
+		this.seek(0);
+	}
+
+	@Override
+	public void seek(long offset) throws IOException {
+		checkClosed("Seeking");
+		if (offset > this.getStreamLength()) {
+			throw new IllegalArgumentException("Destination offset is greater than stream length");
+		}
+		this.offset = offset < 0 ? 0 : offset;
+	}
+
+	@Override
+	public int peek() throws IOException {
+		checkClosed("Peeking");
+		if (offset >= size) {
+			return -1;
+		}
+		long position = fromOffset + offset;
+		return chunks[(int) (position >>> chunkShift)].get((int) (position & chunkMask)) & 0xFF;
+	}
+
+	@Override
+	public long getOffset() throws IOException {
+		checkClosed("Offset obtaining");
+		return this.offset;
+	}
+
+	@Override
+	public long getStreamLength() throws IOException {
+		checkClosed("Stream length obtaining");
+		return size;
+	}
+
+	@Override
+	public void closeResource() throws IOException {
+		if (!isSourceClosed) {
+			isSourceClosed = true;
+			this.view = null;
+			this.numOfChunksUsers.decrement();
+			if (this.numOfChunksUsers.equals(0)) {
+				releaseChunks();
+			}
+		}
+	}
+
+	/**
+	 * Called when the last stream using chunks is closed.
+	 */
+	protected abstract void releaseChunks() throws IOException;
+
+	private ByteBuffer getView(int chunkIndex) {
+		if (this.viewIndex != chunkIndex) {
+			this.view = this.chunks[chunkIndex].duplicate();
+			this.viewIndex = chunkIndex;
+		}
+		return this.view;
+	}
+
+	private void checkClosed(String streamUsage) throws IOException {
+		if (isSourceClosed) {
+			throw new IOException(streamUsage + " can't be performed; stream is closed");
+		}
+	}
+}
@@ -0,0 +1,444 @@
+/**
+ * This file is part of veraPDF Parser, a module of the veraPDF project.
+ * Copyright (c) 2015, veraPDF Consortium <info@verapdf.org>
+ * All rights reserved.
+ *
+ * veraPDF Parser is free software: you can redistribute it and/or modify
+ * it under the terms of either:
+ *
+ * The GNU General public license GPLv3+.
+ * You should have received a copy of the GNU General Public License
+ * along with veraPDF Parser as the LICENSE.GPL file in the root of the source
+ * tree.  If not, see http://www.gnu.org/licenses/ or
+ * https://www.gnu.org/licenses/gpl-3.0.en.html.
+ *
+ * The Mozilla Public License MPLv2+.
+ * You should have received a copy of the Mozilla Public License along with
+ * veraPDF Parser as the LICENSE.MPL file in the root of the source tree.
+ * If a copy of the MPL was not distributed with this file, you can obtain one at
+ * http://mozilla.org/MPL/2.0/.
+ */
+package org.verapdf.io;
+
+import org.verapdf.as.ASAtom;
+import org.verapdf.as.filters.io.ASBufferedInFilter;
+import org.verapdf.as.io.ASInputStream;
+import org.verapdf.as.io.ASMemoryInStream;
+import org.verapdf.cos.COSObject;
+import org.verapdf.cos.COSStream;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Cache of decoded data of streams of one document, bounded by total size of
+ * decoded data. Small decoded data is kept on the heap, larger data is
+ * written into temp file that is mapped into memory. When the size is
+ * exceeded, least recently used data is released, its stream is decoded
+ * again on next access.
+ * <p>
+ * Cached data is bound to Filter and DecodeParms values of stream, if they
+ * are replaced cached data is not used anymore.
+ */
+public class DecodedStreamsCache implements Closeable {
+
+	private static final Logger LOGGER = Logger.getLogger(DecodedStreamsCache.class.getCanonicalName());
+
+	private final long maxDecodedSize;
+	private final int inMemoryLimit;
+	private final LinkedHashMap<StreamKey, Entry> entries;
+	private long decodedSize;
+
+	private long hitCount;
+	private long missCount;
+	private long evictionCount;
+
+	/**
+	 * @param maxDecodedSize is maximal total size of cached decoded data in
+	 *                       bytes. Data of larger streams is not cached.
+	 * @param inMemoryLimit  is maximal size of decoded data kept on the heap.
+	 *                       Larger data is written into temp file.
+	 */
+	public DecodedStreamsCache(long maxDecodedSize, int inMemoryLimit) {
+		this.maxDecodedSize = maxDecodedSize;
+		this.inMemoryLimit = inMemoryLimit;
+		this.entries = new LinkedHashMap<>(16, 0.75f, true);
+	}
+
+	/**
+	 * Gets cached decoded data of given stream.
+	 *
+	 * @return new stream with decoded data or null if stream should be
+	 * decoded.
+	 */
+	public synchronized ASInputStream get(COSStream stream) throws IOException {
+		StreamKey key = new StreamKey(stream);
+		Entry entry = this.entries.get(key);
+		if (entry == null) {
+			this.missCount++;
+			return null;
+		}
+		if (!entry.isValidFor(stream)) {
+			remove(key);
+			this.missCount++;
+			return null;
+		}
+		this.hitCount++;
+		return entry.getStream();
+	}
+
+	/**
+	 * Reads given decoded data of stream and caches it. Given data is closed
+	 * once it is cached. If decoded data exceeds the maximal size of the cache
+	 * or can't be decoded completely, it is not cached and returned stream
+	 * continues to read given data after the part that is already decoded.
+	 *
+	 * @param stream  is stream whose data is cached.
+	 * @param decoded is decoded data of stream.
+	 * @return new stream with decoded data.
+	 */
+	public ASInputStream put(COSStream stream, ASInputStream decoded) throws IOException {
+		ASInputStream read;
+		try {
+			read = read(decoded);
+		} catch (IOException e) {
+			close(decoded);
+			throw e;
+		}
+		if (read instanceof UncachedStream) {
+			return read;
+		}
+		close(decoded);
+		SeekableInputStream data = (SeekableInputStream) read;
+		try {
+			long size = data.getStreamLength();
+			Entry entry = new Entry(data, getValue(stream, ASAtom.FILTER), getValue(stream, ASAtom.DECODE_PARMS), size);
+			ASInputStream res = entry.getStream();
+			synchronized (this) {
+				StreamKey key = new StreamKey(stream);
+				remove(key);
+				this.entries.put(key, entry);
+				this.decodedSize += size;
+				evict(key);
+			}
+			return res;
+		} catch (IOException e) {
+			close(data);
+			throw e;
+		}
+	}
+
+	/**
+	 * Releases cached data of given stream, if there is any.
+	 */
+	public synchronized void invalidate(COSStream stream) {
+		remove(new StreamKey(stream));
+	}
+
+	/**
+	 * Releases all cached data.
+	 */
+	@Override
+	public synchronized void close() {
+		for (Entry entry : this.entries.values()) {
+			close(entry.data);
+		}
+		this.entries.clear();
+		this.decodedSize = 0;
+	}
+
+	/**
+	 * @return number of decoded data requests served from the cache.
+	 */
+	public synchronized long getHitCount() {
+		return hitCount;
+	}
+
+	/**
+	 * @return number of decoded data requests that required decoding.
+	 */
+	public synchronized long getMissCount() {
+		return missCount;
+	}
+
+	/**
+	 * @return number of entries released to fit into the size limit.
+	 */
+	public synchronized long getEvictionCount() {
+		return evictionCount;
+	}
+
+	/**
+	 * @return total size of decoded data currently held in the cache.
+	 */
+	public synchronized long getDecodedSize() {
+		return decodedSize;
+	}
+
+	/**
+	 * @return read data as SeekableInputStream or UncachedStream if data
+	 * exceeds the maximal size of the cache or can't be decoded completely.
+	 */
+	private ASInputStream read(ASInputStream decoded) throws IOException {
+		byte[] temp = new byte[ASBufferedInFilter.BF_BUFFER_SIZE];
+		byte[] buffer = new byte[ASBufferedInFilter.BF_BUFFER_SIZE];
+		int length = 0;
+		int read;
+		try {
+			while ((read = decoded.read(temp, temp.length)) != -1) {
+				if (length + read > this.inMemoryLimit) {
+					break;
+				}
+				if (length + read > buffer.length) {
+					buffer = Arrays.copyOf(buffer, Math.max(length + read, Math.min(buffer.length << 1, this.inMemoryLimit)));
+				}
+				System.arraycopy(temp, 0, buffer, length, read);
+				length += read;
+				if (length > this.maxDecodedSize) {
+					return new UncachedStream(new ASMemoryInStream(buffer, length, false), decoded, null);
+				}
+			}
+		} catch (IOException e) {
+			return new UncachedStream(new ASMemoryInStream(buffer, length, false), decoded, e);
+		}
+		if (read == -1) {
+			return new ASMemoryInStream(buffer, length, false);
+		}
+		return spill(buffer, length, temp, read, decoded);
+	}
+
+	private ASInputStream spill(byte[] buffer, int length, byte[] temp, int read,
+	                            ASInputStream decoded) throws IOException {
+		File tmpFile = File.createTempFile("tmp_pdf_file", ".pdf");
+		long size = length;
+		IOException decodingError = null;
+		try (FileOutputStream output = new FileOutputStream(tmpFile)) {
+			output.write(buffer, 0, length);
+			int count = read;
+			while (count != -1) {
+				output.write(temp, 0, count);
+				size += count;
+				if (size > this.maxDecodedSize) {
+					break;
+				}
+				try {
+					count = decoded.read(temp, temp.length);
+				} catch (IOException e) {
+					decodingError = e;
+					break;
+				}
+			}
+		} catch (IOException e) {
+			if (!tmpFile.delete()) {
+				tmpFile.deleteOnExit();
+			}
+			throw e;
+		}
+		SeekableInputStream data = new MappedSeekableInputStream(tmpFile, true);
+		if (size > this.maxDecodedSize || decodingError != null) {
+			return new UncachedStream(data, decoded, decodingError);
+		}
+		return data;
+	}
+
+	private void remove(StreamKey key) {
+		Entry entry = this.entries.remove(key);
+		if (entry != null) {
+			this.decodedSize -= entry.size;
+			close(entry.data);
+		}
+	}
+
+	private void evict(StreamKey current) {
+		Iterator<Map.Entry<StreamKey, Entry>> iterator = this.entries.entrySet().iterator();
+		while (this.decodedSize > this.maxDecodedSize && iterator.hasNext()) {
+			Map.Entry<StreamKey, Entry> next = iterator.next();
+			if (next.getKey().equals(current)) {
+				continue;
+			}
+			iterator.remove();
+			this.decodedSize -= next.getValue().size;
+			this.evictionCount++;
+			close(next.getValue().data);
+		}
+	}
+
+	/**
+	 * Data is shared with streams returned from the cache, it is released
+	 * when all of them are closed.
+	 */
+	private static void close(ASInputStream data) {
+		try {
+			data.close();
+		} catch (IOException e) {
+			LOGGER.log(Level.FINE, "Error while releasing decoded stream data", e);
+		}
+	}
+
+	/**
+	 * @return value of given key in stream dictionary or null if there is no
+	 * such key.
+	 */
+	private static COSObject getValue(COSStream stream, ASAtom key) {
+		COSObject res = stream.getKey(key);
+		return res == null || res.empty() ? null : res;
+	}
+
+	private static final class Entry {
+		private final SeekableInputStream data;
+		private final COSObject filter;
+		private final COSObject decodeParms;
+		private final long size;
+
+		private Entry(SeekableInputStream data, COSObject filter, COSObject decodeParms, long size) {
+			this.data = data;
+			this.filter = filter;
+			this.decodeParms = decodeParms;
+			this.size = size;
+		}
+
+		private boolean isValidFor(COSStream stream) {
+			return getValue(stream, ASAtom.FILTER) == this.filter
+					&& getValue(stream, ASAtom.DECODE_PARMS) == this.decodeParms;
+		}
+
+		private ASInputStream getStream() throws IOException {
+			if (this.data instanceof ASMemoryInStream) {
+				return new ASMemoryInStream((ASMemoryInStream) this.data, 0, (int) this.size);
+			}
+			return this.data.getStream(0, this.size);
+		}
+	}
+
+	/**
+	 * Decoded data that is not cached. Already read part of data is followed
+	 * by the rest of data of decoder, or by error that occurred while reading
+	 * it.
+	 */
+	private static final class UncachedStream extends ASInputStream {
+		private final SeekableInputStream head;
+		private final ASInputStream decoder;
+		private IOException decodingError;
+
+		private UncachedStream(SeekableInputStream head, ASInputStream decoder, IOException decodingError) {
+			this.head = head;
+			this.decoder = decoder;
+			this.decodingError = decodingError;
+		}
+
+		@Override
+		public int read() throws IOException {
+			if (!this.head.isEOF()) {
+				return this.head.read();
+			}
+			checkDecodingError();
+			return this.decoder.read();
+		}
+
+		@Override
+		public int read(byte[] buffer, int size) throws IOException {
+			int res = 0;
+			if (!this.head.isEOF()) {
+				res = this.head.read(buffer, size);
+				if (res == size) {
+					return res;
+				}
+			}
+			if (res > 0 && this.decodingError != null) {
+				return res;
+			}
+			checkDecodingError();
+			byte[] rest = res == 0 ? buffer : new byte[size - res];
+			int read = this.decoder.read(rest, size - res);
+			if (read <= 0) {
+				return res == 0 ? read : res;
+			}
+			if (rest != buffer) {
+				System.arraycopy(rest, 0, buffer, res, read);
+			}
+			return res + read;
+		}
+
+		@Override
+		public int skip(int size) throws IOException {
+			int res = this.head.skip(size);
+			if (res < size && this.decodingError == null) {
+				res += this.decoder.skip(size - res);
+			}
+			return res;
+		}
+
+		/**
+		 * Data is read from decoder from the beginning after reset.
+		 */
+		@Override
+		public void reset() throws IOException {
+			this.decoder.reset();
+			this.head.seek(this.head.getStreamLength());
+			this.decodingError = null;
+		}
+
+		@Override
+		public void closeResource() throws IOException {
+			this.head.closeResource();
+			this.decoder.closeResource();
+		}
+
+		@Override
+		public void incrementResourceUsers() {
+			this.head.incrementResourceUsers();
+			this.decoder.incrementResourceUsers();
+		}
+
+		@Override
+		public void decrementResourceUsers() {
+			this.head.decrementResourceUsers();
+			this.decoder.decrementResourceUsers();
+		}
+
+		@Override
+		public void close() throws IOException {
+			if (!this.isClosed) {
+				this.isClosed = true;
+				this.head.close();
+				this.decoder.close();
+			}
+		}
+
+		private void checkDecodingError() throws IOException {
+			if (this.decodingError != null) {
+				throw this.decodingError;
+			}
+		}
+	}
+
+	/**
+	 * Streams are compared by identity, as equals() of COSStream compares
+	 * their contents.
+	 */
+	private static final class StreamKey {
+		private final COSStream stream;
+
+		private StreamKey(COSStream stream) {
+			this.stream = stream;
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			return obj instanceof StreamKey && ((StreamKey) obj).stream == this.stream;
+		}
+
+		@Override
+		public int hashCode() {
+			return System.identityHashCode(this.stream);
+		}
+	}
+}
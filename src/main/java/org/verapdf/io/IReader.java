@@ -28,6 +28,7 @@ import org.verapdf.cos.COSTrailer;
 import java.io.Closeable;
 import java.io.IOException;
 import java.util.List;
+import java.util.Map;
 import java.util.SortedSet;
 
 /**
@@ -62,4 +63,10 @@ public interface IReader extends Closeable {
 	long getLastTrailerOffset();
 
 	int getGreatestKeyNumberFromXref();
+
+	ObjectStreamsCache getObjectStreamsCache();
+
+	Map<COSKey, Long> getRepairedOffsets();
+
+	Long getOriginalOffset(final COSKey key);
 }
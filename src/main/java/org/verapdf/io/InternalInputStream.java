@@ -35,10 +35,14 @@ import java.io.*;
 public class InternalInputStream extends SeekableInputStream {
 
 	private final static String READ_ONLY_MODE = "r";
-	private static int DEFAULT_BUFFER_SIZE = 2048;
+	static final int DEFAULT_BUFFER_SIZE = 2048;
 
 	private RandomAccessFile stream;
 	private byte[] buffer;
+	// number of bytes read into buffer at once, it is not greater than buffer length
+	private int readSize;
+	private final int minBufferSize;
+	private final int maxBufferSize;
 
 	private long bufferFrom;
 	private long bufferTo;
@@ -63,6 +67,22 @@ public class InternalInputStream extends SeekableInputStream {
 		     new IntReference(numOfFileUsers), file.getAbsolutePath(), isTempFile);
 	}
 
+	/**
+	 * Creates stream from file with given buffer sizes. If maximal buffer size
+	 * is greater than buffer size, then buffer is adaptive: it grows while
+	 * data is read sequentially and shrinks back when random access occurs.
+	 *
+	 * @param file          is file to read.
+	 * @param bufferSize    is initial (and minimal) size of buffer.
+	 * @param maxBufferSize is maximal size of buffer.
+	 */
+	public InternalInputStream(final File file, int numOfFileUsers, boolean isTempFile,
+	                           int bufferSize, int maxBufferSize) throws IOException {
+		this(new RandomAccessFile(file, READ_ONLY_MODE), 0, Long.MAX_VALUE,
+		     new IntReference(numOfFileUsers), file.getAbsolutePath(), isTempFile,
+		     bufferSize, maxBufferSize);
+	}
+
 	public InternalInputStream(final String fileName) throws IOException {
 		this(fileName, 0);
 	}
@@ -80,8 +100,16 @@ public class InternalInputStream extends SeekableInputStream {
 	public InternalInputStream(final RandomAccessFile stream, long fromOffset, long size,
 	                           IntReference numOfFileUsers, String filePath,
 	                           boolean isTempFile, int bufferSize) throws IOException {
+		this(stream, fromOffset, size, numOfFileUsers, filePath, isTempFile, bufferSize, bufferSize);
+	}
+
+	public InternalInputStream(final RandomAccessFile stream, long fromOffset, long size,
+	                           IntReference numOfFileUsers, String filePath,
+	                           boolean isTempFile, int bufferSize, int maxBufferSize) throws IOException {
 		this.stream = stream;
-		this.buffer = new byte[bufferSize];
+		this.minBufferSize = bufferSize;
+		this.readSize = bufferSize;
+		this.maxBufferSize = Math.max(bufferSize, maxBufferSize);
 		this.bufferFrom = 0;
 		this.bufferTo = 0;
 		this.offset = 0;
@@ -97,6 +125,8 @@ public class InternalInputStream extends SeekableInputStream {
 			throw new IOException("Offset is greater than full stream size");
 		}
 		this.size = size < 0 ? streamLeft : Math.min(size, streamLeft);
+		// buffer is allocated once with maximal size, only amount of data read into it changes
+		this.buffer = new byte[(int) Math.min(this.maxBufferSize, Math.max(this.size, this.minBufferSize))];
 	}
 
 	/**
@@ -198,7 +228,8 @@ public class InternalInputStream extends SeekableInputStream {
 
 	@Override
 	public ASInputStream getStream(long startOffset, long length) throws IOException {
-		return new InternalInputStream(this.stream, startOffset, length, numOfFileUsers, filePath, isTempFile);
+		return new InternalInputStream(this.stream, startOffset, length, numOfFileUsers, filePath, isTempFile,
+		                               minBufferSize, maxBufferSize);
 	}
 
 	@Override
@@ -240,14 +271,31 @@ public class InternalInputStream extends SeekableInputStream {
 			return -1;
 		}
 
+		if (this.maxBufferSize > this.minBufferSize) {
+			adaptBufferSize();
+		}
+
 		long realOffset = fromOffset + offset;
 		if (this.stream.getFilePointer() != realOffset) {
 			this.stream.seek(realOffset);
 		}
-		int read = this.stream.read(this.buffer);
+		int read = this.stream.read(this.buffer, 0, this.readSize);
 		return (int) Math.min(read, left);
 	}
 
+	/**
+	 * Doubles amount of data read into buffer if data is read sequentially,
+	 * i. e. requested data directly follows data in buffer, and resets it to
+	 * minimal buffer size otherwise.
+	 */
+	private void adaptBufferSize() {
+		if (offset == bufferTo && bufferTo != 0) {
+			this.readSize = (int) Math.min(2L * this.readSize, this.buffer.length);
+		} else {
+			this.readSize = Math.min(this.minBufferSize, this.buffer.length);
+		}
+	}
+
     @Override
 	public long getStreamLength() throws IOException {
 		checkClosed("Stream length obtaining");
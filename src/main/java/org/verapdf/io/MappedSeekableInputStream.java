@@ -0,0 +1,113 @@
+/**
+ * This file is part of veraPDF Parser, a module of the veraPDF project.
+ * Copyright (c) 2015, veraPDF Consortium <info@verapdf.org>
+ * All rights reserved.
+ *
+ * veraPDF Parser is free software: you can redistribute it and/or modify
+ * it under the terms of either:
+ *
+ * The GNU General public license GPLv3+.
+ * You should have received a copy of the GNU General Public License
+ * along with veraPDF Parser as the LICENSE.GPL file in the root of the source
+ * tree.  If not, see http://www.gnu.org/licenses/ or
+ * https://www.gnu.org/licenses/gpl-3.0.en.html.
+ *
+ * The Mozilla Public License MPLv2+.
+ * You should have received a copy of the Mozilla Public License along with
+ * veraPDF Parser as the LICENSE.MPL file in the root of the source tree.
+ * If a copy of the MPL was not distributed with this file, you can obtain one at
+ * http://mozilla.org/MPL/2.0/.
+ */
+package org.verapdf.io;
+
+import org.verapdf.as.io.ASInputStream;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+
+/**
+ * SeekableInputStream for reading data from file mapped into memory.
+ * File is mapped in chunks, so files larger than 2 GB are supported. Substreams
+ * share mappings of parent stream, so no data is copied on their creation.
+ */
+public class MappedSeekableInputStream extends ChunkedSeekableInputStream {
+
+	private final static String READ_ONLY_MODE = "r";
+	private final static int DEFAULT_CHUNK_SHIFT = 30;	// 1 GB chunks
+
+	private final boolean isTempFile;
+	private final String filePath;
+
+	public MappedSeekableInputStream(final File file) throws IOException {
+		this(file, false);
+	}
+
+	public MappedSeekableInputStream(final File file, boolean isTempFile) throws IOException {
+		this(file, 0, isTempFile);
+	}
+
+	public MappedSeekableInputStream(final File file, int numOfFileUsers, boolean isTempFile) throws IOException {
+		this(file, numOfFileUsers, isTempFile, DEFAULT_CHUNK_SHIFT);
+	}
+
+	public MappedSeekableInputStream(final String fileName) throws IOException {
+		this(new File(fileName));
+	}
+
+	MappedSeekableInputStream(final File file, int numOfFileUsers, boolean isTempFile,
+	                          int chunkShift) throws IOException {
+		super(map(file, chunkShift), chunkShift, numOfFileUsers);
+		this.isTempFile = isTempFile;
+		this.filePath = file.getAbsolutePath();
+	}
+
+	private MappedSeekableInputStream(final MappedSeekableInputStream parent,
+	                                  long fromOffset, long size) throws IOException {
+		super(parent, fromOffset, size);
+		this.isTempFile = parent.isTempFile;
+		this.filePath = parent.filePath;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 *
+	 * Returned stream shares memory mapping with this stream, so no data is
+	 * copied.
+	 */
+	@Override
+	public ASInputStream getStream(long startOffset, long length) throws IOException {
+		return new MappedSeekableInputStream(this, startOffset, length);
+	}
+
+	@Override
+	protected void releaseChunks() {
+		if (isTempFile) {
+			// mapping is released only after garbage collection, so file
+			// can be locked on some platforms
+			File tmp = new File(filePath);
+			if (!tmp.delete()) {
+				tmp.deleteOnExit();
+			}
+		}
+	}
+
+	private static ByteBuffer[] map(File file, int chunkShift) throws IOException {
+		try (RandomAccessFile raf = new RandomAccessFile(file, READ_ONLY_MODE);
+		     FileChannel channel = raf.getChannel()) {
+			long length = channel.size();
+			long chunkSize = 1L << chunkShift;
+			int numOfChunks = (int) ((length + chunkSize - 1) >>> chunkShift);
+			ByteBuffer[] res = new ByteBuffer[numOfChunks];
+			for (int i = 0; i < numOfChunks; ++i) {
+				long position = i * chunkSize;
+				res[i] = channel.map(FileChannel.MapMode.READ_ONLY, position,
+				                     Math.min(chunkSize, length - position));
+			}
+			// mapping stays valid after channel is closed
+			return res;
+		}
+	}
+}
@@ -0,0 +1,160 @@
+/**
+ * This file is part of veraPDF Parser, a module of the veraPDF project.
+ * Copyright (c) 2015, veraPDF Consortium <info@verapdf.org>
+ * All rights reserved.
+ *
+ * veraPDF Parser is free software: you can redistribute it and/or modify
+ * it under the terms of either:
+ *
+ * The GNU General public license GPLv3+.
+ * You should have received a copy of the GNU General Public License
+ * along with veraPDF Parser as the LICENSE.GPL file in the root of the source
+ * tree.  If not, see http://www.gnu.org/licenses/ or
+ * https://www.gnu.org/licenses/gpl-3.0.en.html.
+ *
+ * The Mozilla Public License MPLv2+.
+ * You should have received a copy of the Mozilla Public License along with
+ * veraPDF Parser as the LICENSE.MPL file in the root of the source tree.
+ * If a copy of the MPL was not distributed with this file, you can obtain one at
+ * http://mozilla.org/MPL/2.0/.
+ */
+package org.verapdf.io;
+
+import org.verapdf.parser.DecodedObjectStreamParser;
+
+import java.io.IOException;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Cache of parsers of decoded object streams, bounded by total size of
+ * decoded data. When the size is exceeded, least recently used parsers are
+ * closed, their object streams are decoded again on next access.
+ */
+public class ObjectStreamsCache {
+
+	private static final Logger LOGGER = Logger.getLogger(ObjectStreamsCache.class.getCanonicalName());
+
+	private final long maxDecodedSize;
+	private final LinkedHashMap<Long, DecodedObjectStreamParser> parsers;
+	private long decodedSize;
+
+	private long hitCount;
+	private long missCount;
+	private long evictionCount;
+
+	/**
+	 * @param maxDecodedSize is maximal total size of decoded data in bytes.
+	 *                       The most recently used object stream is kept
+	 *                       even if it is larger.
+	 */
+	public ObjectStreamsCache(long maxDecodedSize) {
+		this.maxDecodedSize = maxDecodedSize;
+		this.parsers = new LinkedHashMap<>(16, 0.75f, true);
+	}
+
+	/**
+	 * Gets parser of object stream with given number.
+	 *
+	 * @return parser or null if stream should be decoded.
+	 */
+	DecodedObjectStreamParser get(long streamNumber) {
+		DecodedObjectStreamParser parser = this.parsers.get(Long.valueOf(streamNumber));
+		if (parser == null || parser.isDataReleased()) {
+			this.missCount++;
+			return null;
+		}
+		this.hitCount++;
+		return parser;
+	}
+
+	/**
+	 * Adds parser of object stream with given number. Least recently used
+	 * parsers are closed if total size of decoded data exceeds the limit.
+	 */
+	void put(long streamNumber, DecodedObjectStreamParser parser) {
+		DecodedObjectStreamParser old = this.parsers.put(Long.valueOf(streamNumber), parser);
+		if (old != null && old != parser) {
+			this.decodedSize -= old.getDecodedDataSize();
+			close(old);
+		}
+		this.decodedSize += parser.getDecodedDataSize();
+		evict(parser);
+	}
+
+	/**
+	 * Releases decoded data of parser when all objects of its stream are
+	 * parsed. Index of object offsets is kept.
+	 */
+	void releaseIfMaterialized(DecodedObjectStreamParser parser) {
+		if (parser.isFullyMaterialized() && !parser.isDataReleased()) {
+			this.decodedSize -= parser.getDecodedDataSize();
+			close(parser);
+		}
+	}
+
+	/**
+	 * Closes all parsers.
+	 */
+	void clear() {
+		for (DecodedObjectStreamParser parser : this.parsers.values()) {
+			close(parser);
+		}
+		this.parsers.clear();
+		this.decodedSize = 0;
+	}
+
+	/**
+	 * @return number of object stream requests served from the cache.
+	 */
+	public long getHitCount() {
+		return hitCount;
+	}
+
+	/**
+	 * @return number of object stream requests that required decoding.
+	 */
+	public long getMissCount() {
+		return missCount;
+	}
+
+	/**
+	 * @return number of parsers closed to fit into the size limit.
+	 */
+	public long getEvictionCount() {
+		return evictionCount;
+	}
+
+	/**
+	 * @return total size of decoded data currently held in the cache.
+	 */
+	public long getDecodedSize() {
+		return decodedSize;
+	}
+
+	private void evict(DecodedObjectStreamParser current) {
+		Iterator<Map.Entry<Long, DecodedObjectStreamParser>> iterator = this.parsers.entrySet().iterator();
+		while (this.decodedSize > this.maxDecodedSize && iterator.hasNext()) {
+			DecodedObjectStreamParser parser = iterator.next().getValue();
+			long size = parser.getDecodedDataSize();
+			if (parser == current || size == 0) {
+				continue;
+			}
+			iterator.remove();
+			this.decodedSize -= size;
+			this.evictionCount++;
+			close(parser);
+		}
+	}
+
+	private static void close(DecodedObjectStreamParser parser) {
+		try {
+			parser.releaseData();
+		} catch (IOException e) {
+			LOGGER.log(Level.FINE, "Error while closing object stream", e);
+		}
+	}
+}
@@ -0,0 +1,147 @@
+/**
+ * This file is part of veraPDF Parser, a module of the veraPDF project.
+ * Copyright (c) 2015, veraPDF Consortium <info@verapdf.org>
+ * All rights reserved.
+ *
+ * veraPDF Parser is free software: you can redistribute it and/or modify
+ * it under the terms of either:
+ *
+ * The GNU General public license GPLv3+.
+ * You should have received a copy of the GNU General Public License
+ * along with veraPDF Parser as the LICENSE.GPL file in the root of the source
+ * tree.  If not, see http://www.gnu.org/licenses/ or
+ * https://www.gnu.org/licenses/gpl-3.0.en.html.
+ *
+ * The Mozilla Public License MPLv2+.
+ * You should have received a copy of the Mozilla Public License along with
+ * veraPDF Parser as the LICENSE.MPL file in the root of the source tree.
+ * If a copy of the MPL was not distributed with this file, you can obtain one at
+ * http://mozilla.org/MPL/2.0/.
+ */
+package org.verapdf.io;
+
+import org.verapdf.as.filters.io.ASBufferedInFilter;
+import org.verapdf.as.io.ASInputStream;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * SeekableInputStream that holds data in direct (off-heap) memory blocks.
+ * It is used for not seekable input instead of temp file, so that data is
+ * not written to disk. Substreams share memory blocks of parent stream.
+ */
+public class OffHeapSeekableInputStream extends ChunkedSeekableInputStream {
+
+	private static final int BLOCK_SHIFT = 16;	// 64 KB blocks
+
+	private OffHeapSeekableInputStream(ByteBuffer[] blocks) {
+		super(blocks, BLOCK_SHIFT, 0);
+	}
+
+	private OffHeapSeekableInputStream(OffHeapSeekableInputStream parent,
+	                                   long fromOffset, long size) throws IOException {
+		super(parent, fromOffset, size);
+	}
+
+	/**
+	 * Reads all data from given stream into off-heap memory. If total amount
+	 * of data exceeds memory limit, then data is written into temp file and
+	 * InternalInputStream is returned.
+	 *
+	 * @param alreadyRead is byte array of data that was already read from the
+	 *                    beginning of stream.
+	 * @param stream      is data left in stream.
+	 * @param memoryLimit is maximal amount of bytes to keep in memory.
+	 * @return seekable stream with all data.
+	 */
+	public static SeekableInputStream create(byte[] alreadyRead, InputStream stream,
+	                                         long memoryLimit) throws IOException {
+		List<ByteBuffer> blocks = new ArrayList<>();
+		long total = alreadyRead.length;
+		if (total > memoryLimit) {
+			return InternalInputStream.createConcatenated(alreadyRead, stream);
+		}
+		append(blocks, alreadyRead, alreadyRead.length);
+
+		byte[] buffer = new byte[ASBufferedInFilter.BF_BUFFER_SIZE];
+		int read;
+		while ((read = stream.read(buffer)) != -1) {
+			total += read;
+			if (total > memoryLimit) {
+				return spill(blocks, buffer, read, stream);
+			}
+			append(blocks, buffer, read);
+		}
+
+		ByteBuffer[] res = new ByteBuffer[blocks.size()];
+		for (int i = 0; i < res.length; ++i) {
+			ByteBuffer block = blocks.get(i);
+			block.flip();
+			res[i] = block;
+		}
+		return new OffHeapSeekableInputStream(res);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 *
+	 * Returned stream shares memory blocks with this stream, so no data is
+	 * copied.
+	 */
+	@Override
+	public ASInputStream getStream(long startOffset, long length) throws IOException {
+		return new OffHeapSeekableInputStream(this, startOffset, length);
+	}
+
+	@Override
+	protected void releaseChunks() {
+		// direct buffers are freed when they are garbage collected
+	}
+
+	private static void append(List<ByteBuffer> blocks, byte[] data, int length) {
+		int written = 0;
+		while (written < length) {
+			ByteBuffer last = blocks.isEmpty() ? null : blocks.get(blocks.size() - 1);
+			if (last == null || !last.hasRemaining()) {
+				last = ByteBuffer.allocateDirect(1 << BLOCK_SHIFT);
+				blocks.add(last);
+			}
+			int toWrite = Math.min(length - written, last.remaining());
+			last.put(data, written, toWrite);
+			written += toWrite;
+		}
+	}
+
+	private static SeekableInputStream spill(List<ByteBuffer> blocks, byte[] buffer,
+	                                         int read, InputStream stream) throws IOException {
+		File tmpFile = File.createTempFile("tmp_pdf_file", ".pdf");
+		try (FileOutputStream output = new FileOutputStream(tmpFile)) {
+			FileChannel channel = output.getChannel();
+			for (ByteBuffer block : blocks) {
+				block.flip();
+				while (block.hasRemaining()) {
+					channel.write(block);
+				}
+			}
+			blocks.clear();
+			output.write(buffer, 0, read);
+			int n;
+			while ((n = stream.read(buffer)) != -1) {
+				output.write(buffer, 0, n);
+			}
+		} catch (IOException e) {
+			if (!tmpFile.delete()) {
+				tmpFile.deleteOnExit();
+			}
+			throw e;
+		}
+		return new InternalInputStream(tmpFile, true);
+	}
+}
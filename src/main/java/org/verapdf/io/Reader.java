@@ -22,22 +22,31 @@ package org.verapdf.io;
 
 import org.verapdf.as.ASAtom;
 import org.verapdf.as.exceptions.StringExceptions;
+import org.verapdf.as.io.ASInputStream;
 import org.verapdf.cos.*;
 import org.verapdf.cos.xref.COSXRefInfo;
 import org.verapdf.exceptions.InvalidPasswordException;
+import org.verapdf.exceptions.LoopedException;
 import org.verapdf.parser.DecodedObjectStreamParser;
 import org.verapdf.parser.PDFParser;
 import org.verapdf.parser.XRefReader;
 import org.verapdf.pd.encryption.PDEncryption;
 import org.verapdf.pd.encryption.StandardSecurityHandler;
+import org.verapdf.tools.StaticResources;
 import org.verapdf.tools.resource.FileResourceHandler;
 
 import java.io.IOException;
 import java.io.InputStream;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
@@ -50,13 +59,16 @@ public class Reader extends XRefReader {
 
 	private PDFParser parser;
 	private COSHeader header;
-	private Map<Long, DecodedObjectStreamParser> objectStreams;
+	private ObjectStreamsCache objectStreams;
+	private boolean isObjectStreamsPreloadDone = false;
+	private final Map<COSKey, Long> repairedOffsets = new LinkedHashMap<>();
+	private final Map<COSKey, Long> originalOffsets = new HashMap<>();
 
 	public Reader(final COSDocument document, final String fileName) throws IOException {
 		super();
 		this.parser = new PDFParser(document, fileName);
 		try {
-			this.objectStreams = new HashMap<>();
+			this.objectStreams = new ObjectStreamsCache(getReaderOptions().getObjectStreamsCacheSize());
 			init();
 		} catch (IOException e) {	// If exception is thrown in init() someone
 			// should close document stream
@@ -68,10 +80,22 @@ public class Reader extends XRefReader {
 	public Reader(final COSDocument document, final InputStream fileStream) throws IOException {
 		super();
 		this.parser = new PDFParser(document, fileStream);
-		this.objectStreams = new HashMap<>();
+		this.objectStreams = new ObjectStreamsCache(getReaderOptions().getObjectStreamsCacheSize());
 		init();
 	}
 
+	public Reader(final COSDocument document, final SeekableInputStream source) throws IOException {
+		super();
+		this.parser = new PDFParser(document, source);
+		try {
+			this.objectStreams = new ObjectStreamsCache(getReaderOptions().getObjectStreamsCacheSize());
+			init();
+		} catch (IOException e) {
+			this.parser.closeInputStream();
+			throw e;
+		}
+	}
+
 	//PUBLIC METHODS
 	@Override
 	public COSHeader getHeader() {
@@ -85,21 +109,39 @@ public class Reader extends XRefReader {
 					key.getGeneration() + " that is not present in the document");
 			return null;
 		}
-		long offset = getOffset(key).longValue();
+		long xrefOffset = getXRefOffset(key);
+		long offset = xrefOffset;
 		if (offset == 0) {
 			return new COSObject();
 		} else if(offset > 0) {
 			if (header.getHeaderOffset() > 0) {
 				offset += header.getHeaderOffset();
 			}
-			COSObject result = getObject(offset);
+			boolean isRecovery = isXRefRecovery();
+			COSObject result = isRecovery && offset >= getPDFSource().getStreamLength() ?
+					new COSObject() : getObject(offset);
+			if (result.empty() && isRecovery) {
+				long repairedOffset = this.parser.findObjectOffset(key);
+				if (repairedOffset >= 0 && repairedOffset != offset) {
+					LOGGER.log(Level.WARNING, "Object " + key.getNumber() + " " + key.getGeneration() +
+							" is not found at offset " + offset + ", offset is repaired to " + repairedOffset);
+					result = getObject(repairedOffset);
+					long headerOffset = header.getHeaderOffset();
+					addRepairedOffset(key, Long.valueOf(xrefOffset),
+							headerOffset > 0 ? repairedOffset - headerOffset : repairedOffset);
+				}
+			}
 			result.setObjectKey(key);
 			return result;
 		}
 		//TODO : set object key
-		DecodedObjectStreamParser parser = objectStreams.get(Long.valueOf(-offset));
+		if (!this.isObjectStreamsPreloadDone) {
+			this.isObjectStreamsPreloadDone = true;
+			preloadObjectStreams();
+		}
+		DecodedObjectStreamParser parser = objectStreams.get(-offset);
 		if(parser != null) {
-			return parser.getObject(key);
+			return getObjectFromStream(parser, key);
 		}
 		COSKey newKey = new COSKey(- (int)offset, 0);
 		COSObject object = getObject(newKey);
@@ -113,8 +155,221 @@ public class Reader extends XRefReader {
 				objectStream.getData(COSStream.FilterFlags.DECODE),
 				objectStream, new COSKey((int) -offset, 0),
 				this.parser.getDocument());
-		objectStreams.put(Long.valueOf(-offset), parser);
-		return parser.getObject(key);
+		objectStreams.put(-offset, parser);
+		return getObjectFromStream(parser, key);
+	}
+
+	private COSObject getObjectFromStream(DecodedObjectStreamParser parser, COSKey key) throws IOException {
+		COSObject res = parser.getObject(key);
+		// objects are cached in document, so decoded data is not needed anymore
+		this.objectStreams.releaseIfMaterialized(parser);
+		return res;
+	}
+
+	/**
+	 * Decodes all object streams referenced from cross reference information
+	 * in parallel, if executor for this is set in reader options. Stream
+	 * objects and their raw data are read sequentially, only decoding is done
+	 * by executor. Preloading stops when decoded data reaches the size of
+	 * object streams cache.
+	 */
+	private void preloadObjectStreams() {
+		ReaderOptions readerOptions = getReaderOptions();
+		ExecutorService executor = readerOptions.getObjectStreamsPreloadExecutor();
+		if (executor == null) {
+			return;
+		}
+		long maxSize = readerOptions.getObjectStreamsCacheSize();
+		long preloadedSize = 0;
+		long queuedSize = 0;
+		Map<Integer, Future<DecodedObjectStreamParser>> tasks = new LinkedHashMap<>();
+		for (Integer number : getObjectStreamNumbers()) {
+			if (preloadedSize + queuedSize >= maxSize) {
+				// estimated sizes of queued streams are replaced by real ones
+				long size = putPreloadedObjectStreams(tasks);
+				if (size < 0) {
+					return;
+				}
+				preloadedSize += size;
+				queuedSize = 0;
+				if (preloadedSize >= maxSize) {
+					break;
+				}
+			}
+			try {
+				COSKey key = new COSKey(number.intValue(), 0);
+				COSObject object = getObject(key);
+				if (object == null || object.getType() != COSObjType.COS_STREAM) {
+					continue;
+				}
+				COSStream stream = (COSStream) object.getDirectBase();
+				// indirect values can't be resolved from other threads
+				if (hasIndirectDecodingValues(stream)) {
+					continue;
+				}
+				SeekableInputStream rawData = SeekableInputStream.getSeekableStream(
+						stream.getData(COSStream.FilterFlags.RAW_DATA));
+				tasks.put(number, executor.submit(new ObjectStreamDecoder(stream, rawData, key,
+						this.parser.getDocument(), readerOptions)));
+				queuedSize += getDecodedSizeEstimate(stream, rawData);
+			} catch (IOException | RuntimeException e) {
+				LOGGER.log(Level.FINE, "Object stream " + number + " can't be preloaded", e);
+			}
+		}
+		putPreloadedObjectStreams(tasks);
+	}
+
+	/**
+	 * Waits for decoding tasks and puts their results into object streams
+	 * cache. Tasks map is cleared.
+	 *
+	 * @return total size of decoded data or -1 if waiting was interrupted.
+	 */
+	private long putPreloadedObjectStreams(Map<Integer, Future<DecodedObjectStreamParser>> tasks) {
+		long res = 0;
+		for (Map.Entry<Integer, Future<DecodedObjectStreamParser>> task : tasks.entrySet()) {
+			try {
+				DecodedObjectStreamParser parser = task.getValue().get();
+				res += parser.getDecodedDataSize();
+				this.objectStreams.put(task.getKey().longValue(), parser);
+			} catch (ExecutionException e) {
+				LOGGER.log(Level.FINE, "Object stream " + task.getKey() + " can't be preloaded", e.getCause());
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				LOGGER.log(Level.FINE, "Preloading of object streams is interrupted", e);
+				return -1;
+			}
+		}
+		tasks.clear();
+		return res;
+	}
+
+	/**
+	 * @return decoded length from /DL entry or length of raw data, which is
+	 * usually not greater than decoded length.
+	 */
+	private static long getDecodedSizeEstimate(COSStream stream, SeekableInputStream rawData) throws IOException {
+		Long decodedLength = stream.getIntegerKey(ASAtom.DL);
+		if (decodedLength != null && decodedLength.longValue() > 0) {
+			return decodedLength.longValue();
+		}
+		return rawData.getStreamLength();
+	}
+
+	private static boolean hasIndirectDecodingValues(COSStream stream) {
+		ASAtom[] keys = {ASAtom.N, ASAtom.FIRST, ASAtom.FILTER, ASAtom.DECODE_PARMS};
+		for (ASAtom key : keys) {
+			if (containsIndirect(stream.getKey(key), 2)) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	private static boolean containsIndirect(COSObject object, int depth) {
+		if (object.empty()) {
+			return false;
+		}
+		if (object.isIndirect().booleanValue()) {
+			return true;
+		}
+		if (depth > 0) {
+			COSObjType type = object.getType();
+			if (type == COSObjType.COS_DICT) {
+				for (COSObject value : object.getValues()) {
+					if (containsIndirect(value, depth - 1)) {
+						return true;
+					}
+				}
+			} else if (type == COSObjType.COS_ARRAY) {
+				for (int i = 0; i < object.size().intValue(); ++i) {
+					if (containsIndirect(object.at(i), depth - 1)) {
+						return true;
+					}
+				}
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Decodes data of object stream in the same way as
+	 * {@link COSStream#getData(COSStream.FilterFlags)} does, but from raw data
+	 * read in advance. Reader options of the document are set for executor
+	 * thread during decoding.
+	 */
+	private static class ObjectStreamDecoder implements Callable<DecodedObjectStreamParser> {
+
+		private final COSStream stream;
+		private final SeekableInputStream rawData;
+		private final COSKey key;
+		private final COSDocument document;
+		private final ReaderOptions readerOptions;
+
+		private ObjectStreamDecoder(COSStream stream, SeekableInputStream rawData,
+									COSKey key, COSDocument document, ReaderOptions readerOptions) {
+			this.stream = stream;
+			this.rawData = rawData;
+			this.key = key;
+			this.document = document;
+			this.readerOptions = readerOptions;
+		}
+
+		@Override
+		public DecodedObjectStreamParser call() throws IOException {
+			ReaderOptions previousReaderOptions = StaticResources.getReaderOptions();
+			StaticResources.setReaderOptions(this.readerOptions);
+			try {
+				ASInputStream data = this.rawData;
+				if (this.stream.getFilterFlags() == COSStream.FilterFlags.RAW_DATA) {
+					data = this.stream.getFilters().getInputStream(this.rawData,
+							this.stream.getKey(ASAtom.DECODE_PARMS));
+				}
+				try {
+					return new DecodedObjectStreamParser(data, this.stream, this.key, this.document);
+				} finally {
+					data.close();
+				}
+			} finally {
+				StaticResources.setReaderOptions(previousReaderOptions);
+			}
+		}
+	}
+
+	/**
+	 * @return cache of decoded object streams of the document.
+	 */
+	@Override
+	public ObjectStreamsCache getObjectStreamsCache() {
+		return this.objectStreams;
+	}
+
+	/**
+	 * @return keys of objects, which offsets in cross reference information
+	 * were repaired by scanning the document, mapped to repaired offsets.
+	 * Offsets have the same form as in cross reference information, negative
+	 * values are numbers of object streams.
+	 */
+	@Override
+	public Map<COSKey, Long> getRepairedOffsets() {
+		return Collections.unmodifiableMap(this.repairedOffsets);
+	}
+
+	/**
+	 * @return offset of object with given key in cross reference information
+	 * before it was repaired, or null if object was not present there or it
+	 * is not repaired.
+	 */
+	@Override
+	public Long getOriginalOffset(final COSKey key) {
+		return this.originalOffsets.get(key);
+	}
+
+	private void addRepairedOffset(COSKey key, Long originalOffset, long repairedOffset) {
+		this.repairedOffsets.put(key, Long.valueOf(repairedOffset));
+		if (originalOffset != null) {
+			this.originalOffsets.put(key, originalOffset);
+		}
 	}
 
 	@Override
@@ -146,7 +401,18 @@ public class Reader extends XRefReader {
 		this.header = this.parser.getHeader();
 
 		List<COSXRefInfo> infos = new ArrayList<>();
-		this.parser.getXRefInfo(infos);
+		try {
+			this.parser.getXRefInfo(infos);
+		} catch (IOException | LoopedException e) {
+			if (!isXRefRecovery()) {
+				throw e;
+			}
+			LOGGER.log(Level.WARNING, "Cross reference information can't be read, it is reconstructed by scanning the document", e);
+			// offsets read before the failure are kept to report repaired ones
+			COSXRefTableReader readOffsets = new COSXRefTableReader(infos);
+			this.parser.getXRefInfoFromScan(infos);
+			addRepairedOffsets(readOffsets, infos.get(0));
+		}
 		setXRefInfo(infos);
 
 		if(this.parser.isEncrypted()) {
@@ -164,6 +430,18 @@ public class Reader extends XRefReader {
 		}
 	}
 
+	private void addRepairedOffsets(COSXRefTableReader readOffsets, COSXRefInfo scannedInfo) {
+		Map<COSKey, Long> scannedOffsets = new LinkedHashMap<>();
+		scannedInfo.getXRefSection().addTo(scannedOffsets);
+		for (Map.Entry<COSKey, Long> entry : scannedOffsets.entrySet()) {
+			COSKey key = entry.getKey();
+			Long originalOffset = readOffsets.containsKey(key) ? Long.valueOf(readOffsets.getOffset(key)) : null;
+			if (!entry.getValue().equals(originalOffset)) {
+				addRepairedOffset(key, originalOffset, entry.getValue().longValue());
+			}
+		}
+	}
+
 	private boolean docCanBeDecrypted() {
 		try {
 			COSObject cosEncrypt = this.parser.getEncryption();
@@ -187,23 +465,25 @@ public class Reader extends XRefReader {
 		}
 	}
 
+	private boolean isXRefRecovery() {
+		return getReaderOptions().isXRefRecovery();
+	}
+
+	private ReaderOptions getReaderOptions() {
+		COSDocument document = this.parser.getDocument();
+		ReaderOptions options = document == null ? null : document.getReaderOptions();
+		return options == null ? new ReaderOptions() : options;
+	}
+
 	@Override
 	public int getGreatestKeyNumberFromXref() {
-		int res = 1;
-		for (COSKey key : this.getKeys()) {
-			if (key.getNumber() > res) {
-				res = key.getNumber();
-			}
-		}
-		return res;
+		return Math.max(1, getGreatestKeyNumber());
 	}
 
 	@Override
 	public void close() throws IOException {
 		if (objectStreams != null) {
-			for (Map.Entry<Long, DecodedObjectStreamParser> entry : this.objectStreams.entrySet()) {
-				entry.getValue().closeInputStream();
-			}
+			this.objectStreams.clear();
 		}
 	}
 }
@@ -0,0 +1,340 @@
+/**
+ * This file is part of veraPDF Parser, a module of the veraPDF project.
+ * Copyright (c) 2015, veraPDF Consortium <info@verapdf.org>
+ * All rights reserved.
+ *
+ * veraPDF Parser is free software: you can redistribute it and/or modify
+ * it under the terms of either:
+ *
+ * The GNU General public license GPLv3+.
+ * You should have received a copy of the GNU General Public License
+ * along with veraPDF Parser as the LICENSE.GPL file in the root of the source
+ * tree.  If not, see http://www.gnu.org/licenses/ or
+ * https://www.gnu.org/licenses/gpl-3.0.en.html.
+ *
+ * The Mozilla Public License MPLv2+.
+ * You should have received a copy of the Mozilla Public License along with
+ * veraPDF Parser as the LICENSE.MPL file in the root of the source tree.
+ * If a copy of the MPL was not distributed with this file, you can obtain one at
+ * http://mozilla.org/MPL/2.0/.
+ */
+package org.verapdf.io;
+
+import org.verapdf.as.filters.io.ASBufferedInFilter;
+import org.verapdf.tools.FontProgramCache;
+
+import java.util.concurrent.ExecutorService;
+
+/**
+ * Options that control how document data is read. Options are passed on
+ * creation of PDDocument or COSDocument, default values correspond to the
+ * behaviour of parser without options.
+ */
+public class ReaderOptions {
+
+	/**
+	 * Maximal buffer size for adaptive buffering of file streams.
+	 */
+	public static final int DEFAULT_MAX_FILE_BUFFER_SIZE = 65536;
+
+	/**
+	 * Maximal total size of decoded object streams kept in memory.
+	 */
+	public static final long DEFAULT_OBJECT_STREAMS_CACHE_SIZE = 32L * 1024 * 1024;
+
+	/**
+	 * Maximal size of decoded stream data kept on the heap by decoded streams
+	 * cache.
+	 */
+	public static final int DEFAULT_DECODED_STREAMS_IN_MEMORY_LIMIT = 1024 * 1024;
+
+	/**
+	 * Way in which document file is accessed.
+	 */
+	public enum FileAccess {
+		/**
+		 * File is read through RandomAccessFile with internal buffer, see
+		 * {@link InternalInputStream}.
+		 */
+		BUFFERED,
+		/**
+		 * File is mapped into memory, see {@link MappedSeekableInputStream}.
+		 */
+		MEMORY_MAPPED,
+		/**
+		 * File is read with positional reads from file channel, see
+		 * {@link ChannelSeekableInputStream}.
+		 */
+		POSITIONAL
+	}
+
+	private FileAccess fileAccess = FileAccess.BUFFERED;
+	private int fileBufferSize = InternalInputStream.DEFAULT_BUFFER_SIZE;
+	private int maxFileBufferSize = DEFAULT_MAX_FILE_BUFFER_SIZE;
+	private boolean adaptiveBuffering = false;
+	private int filterBufferSize = ASBufferedInFilter.BF_BUFFER_SIZE;
+	private int inMemoryStreamLimit = SeekableInputStream.MAX_BUFFER_SIZE;
+	private long offHeapStreamLimit = 0;
+	private boolean xrefRecovery = false;
+	private long objectStreamsCacheSize = DEFAULT_OBJECT_STREAMS_CACHE_SIZE;
+	private ExecutorService objectStreamsPreloadExecutor = null;
+	private FontProgramCache fontProgramCache = null;
+	private long decodedStreamsCacheSize = 0;
+	private int decodedStreamsInMemoryLimit = DEFAULT_DECODED_STREAMS_IN_MEMORY_LIMIT;
+	private int objectsCacheSize = 0;
+
+	/**
+	 * @return the way document file is accessed.
+	 */
+	public FileAccess getFileAccess() {
+		return fileAccess;
+	}
+
+	/**
+	 * @param fileAccess is the way document file should be accessed.
+	 */
+	public void setFileAccess(FileAccess fileAccess) {
+		this.fileAccess = fileAccess == null ? FileAccess.BUFFERED : fileAccess;
+	}
+
+	/**
+	 * @return size of read buffer of file streams. If adaptive buffering is
+	 * enabled, this is the minimal buffer size.
+	 */
+	public int getFileBufferSize() {
+		return fileBufferSize;
+	}
+
+	/**
+	 * @param fileBufferSize is size of read buffer of file streams.
+	 */
+	public void setFileBufferSize(int fileBufferSize) {
+		this.fileBufferSize = checkPositive(fileBufferSize, "File buffer size");
+	}
+
+	/**
+	 * @return maximal size of read buffer of file streams in adaptive mode.
+	 */
+	public int getMaxFileBufferSize() {
+		return Math.max(maxFileBufferSize, fileBufferSize);
+	}
+
+	/**
+	 * @param maxFileBufferSize is maximal size of read buffer of file streams
+	 *                          in adaptive mode.
+	 */
+	public void setMaxFileBufferSize(int maxFileBufferSize) {
+		this.maxFileBufferSize = checkPositive(maxFileBufferSize, "Maximal file buffer size");
+	}
+
+	/**
+	 * @return true if read buffer of file streams grows on sequential access
+	 * and shrinks on random access.
+	 */
+	public boolean isAdaptiveBuffering() {
+		return adaptiveBuffering;
+	}
+
+	/**
+	 * @param adaptiveBuffering is true if read buffer of file streams should
+	 *                          grow on sequential access and shrink on random
+	 *                          access.
+	 */
+	public void setAdaptiveBuffering(boolean adaptiveBuffering) {
+		this.adaptiveBuffering = adaptiveBuffering;
+	}
+
+	/**
+	 * @return size of buffer used by decode filters.
+	 */
+	public int getFilterBufferSize() {
+		return filterBufferSize;
+	}
+
+	/**
+	 * @param filterBufferSize is size of buffer used by decode filters.
+	 */
+	public void setFilterBufferSize(int filterBufferSize) {
+		this.filterBufferSize = checkPositive(filterBufferSize, "Filter buffer size");
+	}
+
+	/**
+	 * @return maximal size of not seekable stream that is kept in memory.
+	 * Larger streams are written into temp file.
+	 */
+	public int getInMemoryStreamLimit() {
+		return inMemoryStreamLimit;
+	}
+
+	/**
+	 * @param inMemoryStreamLimit is maximal size of not seekable stream that
+	 *                            is kept in memory. Negative value means no
+	 *                            limit.
+	 */
+	public void setInMemoryStreamLimit(int inMemoryStreamLimit) {
+		this.inMemoryStreamLimit = inMemoryStreamLimit;
+	}
+
+	/**
+	 * @return maximal size of not seekable stream that is kept in off-heap
+	 * memory. Zero means that off-heap memory is not used.
+	 */
+	public long getOffHeapStreamLimit() {
+		return offHeapStreamLimit;
+	}
+
+	/**
+	 * @param offHeapStreamLimit is maximal size of not seekable stream that is
+	 *                           kept in off-heap memory when it exceeds
+	 *                           in-memory stream limit. Larger streams are
+	 *                           written into temp file. Zero means that
+	 *                           off-heap memory is not used.
+	 */
+	public void setOffHeapStreamLimit(long offHeapStreamLimit) {
+		this.offHeapStreamLimit = Math.max(0, offHeapStreamLimit);
+	}
+
+	/**
+	 * @return true if broken cross reference information and broken object
+	 * offsets are recovered by scanning the document.
+	 */
+	public boolean isXRefRecovery() {
+		return xrefRecovery;
+	}
+
+	/**
+	 * @param xrefRecovery is true if cross reference information should be
+	 *                     reconstructed by scanning the document when it
+	 *                     can't be read, and objects not found at their
+	 *                     offsets should be looked for in the document.
+	 */
+	public void setXRefRecovery(boolean xrefRecovery) {
+		this.xrefRecovery = xrefRecovery;
+	}
+
+	/**
+	 * @return maximal total size of decoded object streams kept in memory.
+	 */
+	public long getObjectStreamsCacheSize() {
+		return objectStreamsCacheSize;
+	}
+
+	/**
+	 * @param objectStreamsCacheSize is maximal total size of decoded object
+	 *                               streams kept in memory. Least recently
+	 *                               used streams are decoded again when
+	 *                               needed.
+	 */
+	public void setObjectStreamsCacheSize(long objectStreamsCacheSize) {
+		this.objectStreamsCacheSize = Math.max(0, objectStreamsCacheSize);
+	}
+
+	/**
+	 * @return executor used to decode object streams on document opening, or
+	 * null if object streams are decoded on first access.
+	 */
+	public ExecutorService getObjectStreamsPreloadExecutor() {
+		return objectStreamsPreloadExecutor;
+	}
+
+	/**
+	 * @param objectStreamsPreloadExecutor is executor used to decode all
+	 *                                     object streams in parallel on
+	 *                                     document opening. Null means that
+	 *                                     object streams are decoded on first
+	 *                                     access. Executor is not shut down
+	 *                                     by parser. Decoded streams are
+	 *                                     subject to object streams cache
+	 *                                     size.
+	 */
+	public void setObjectStreamsPreloadExecutor(ExecutorService objectStreamsPreloadExecutor) {
+		this.objectStreamsPreloadExecutor = objectStreamsPreloadExecutor;
+	}
+
+	/**
+	 * @return cache of font programs shared between documents, or null if
+	 * font programs are cached only within document.
+	 */
+	public FontProgramCache getFontProgramCache() {
+		return fontProgramCache;
+	}
+
+	/**
+	 * @param fontProgramCache is cache of font programs shared between all
+	 *                         documents opened with it. Font programs are
+	 *                         parsed when they are added to the cache. Null
+	 *                         means that font programs are cached only within
+	 *                         document.
+	 */
+	public void setFontProgramCache(FontProgramCache fontProgramCache) {
+		this.fontProgramCache = fontProgramCache;
+	}
+
+	/**
+	 * @return maximal total size of decoded stream data cached for document.
+	 * Zero means that decoded data is not cached.
+	 */
+	public long getDecodedStreamsCacheSize() {
+		return decodedStreamsCacheSize;
+	}
+
+	/**
+	 * @param decodedStreamsCacheSize is maximal total size of decoded stream
+	 *                                data cached for document, so that
+	 *                                streams read several times are decoded
+	 *                                once. Least recently used data is
+	 *                                decoded again when needed. Zero means
+	 *                                that decoded data is not cached.
+	 */
+	public void setDecodedStreamsCacheSize(long decodedStreamsCacheSize) {
+		this.decodedStreamsCacheSize = Math.max(0, decodedStreamsCacheSize);
+	}
+
+	/**
+	 * @return maximal size of decoded data of one stream kept on the heap by
+	 * decoded streams cache.
+	 */
+	public int getDecodedStreamsInMemoryLimit() {
+		return decodedStreamsInMemoryLimit;
+	}
+
+	/**
+	 * @param decodedStreamsInMemoryLimit is maximal size of decoded data of
+	 *                                    one stream kept on the heap by
+	 *                                    decoded streams cache. Larger data
+	 *                                    is written into temp file mapped
+	 *                                    into memory.
+	 */
+	public void setDecodedStreamsInMemoryLimit(int decodedStreamsInMemoryLimit) {
+		this.decodedStreamsInMemoryLimit = checkPositive(decodedStreamsInMemoryLimit,
+				"Decoded streams in-memory limit");
+	}
+
+	/**
+	 * @return maximal number of parsed objects read from document source that
+	 * are kept in memory. Zero means that all parsed objects are kept.
+	 */
+	public int getObjectsCacheSize() {
+		return objectsCacheSize;
+	}
+
+	/**
+	 * @param objectsCacheSize is maximal number of parsed objects read from
+	 *                         document source that are kept in memory. Least
+	 *                         recently used objects are parsed again when
+	 *                         needed, so objects modified after reading
+	 *                         should be registered as changed objects of
+	 *                         document. Zero means that all parsed objects
+	 *                         are kept.
+	 */
+	public void setObjectsCacheSize(int objectsCacheSize) {
+		this.objectsCacheSize = Math.max(0, objectsCacheSize);
+	}
+
+	private static int checkPositive(int value, String name) {
+		if (value <= 0) {
+			throw new IllegalArgumentException(name + " should be positive");
+		}
+		return value;
+	}
+}
@@ -24,6 +24,7 @@ import org.verapdf.as.filters.io.ASBufferedInFilter;
 import org.verapdf.as.io.ASInputStream;
 import org.verapdf.as.io.ASMemoryInStream;
 
+import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
 
@@ -36,7 +37,7 @@ import java.io.InputStream;
  */
 public abstract class SeekableInputStream extends ASInputStream {
 
-    private static final int MAX_BUFFER_SIZE = 10240;
+    static final int MAX_BUFFER_SIZE = 10240;
 
     /**
      * Goes to a particular byte in stream.
@@ -151,10 +152,62 @@ public abstract class SeekableInputStream extends ASInputStream {
      * @return SeekableStream that contains data of passed stream.
      */
     public static SeekableInputStream getSeekableStream(InputStream stream) throws IOException {
+        return getSeekableStream(stream, MAX_BUFFER_SIZE, 0);
+    }
+
+    /**
+     * Returns ASMemoryInStream, OffHeapSeekableInputStream or
+     * InternalInputStream constructed from given stream depending on stream
+     * length and reader options.
+     *
+     * @param stream  is stream to turn into seekable stream.
+     * @param options is reader options that contain limits for in-memory and
+     *                off-heap stream size.
+     * @return SeekableStream that contains data of passed stream.
+     */
+    public static SeekableInputStream getSeekableStream(InputStream stream,
+                                                        ReaderOptions options) throws IOException {
+        return getSeekableStream(stream, options.getInMemoryStreamLimit(),
+                options.getOffHeapStreamLimit());
+    }
+
+    /**
+     * Opens file with given name in the way specified by reader options.
+     *
+     * @param fileName is name of file to open.
+     * @param options  is reader options.
+     * @return SeekableStream that contains data of file.
+     */
+    public static SeekableInputStream getSeekableStream(String fileName,
+                                                        ReaderOptions options) throws IOException {
+        File file = new File(fileName);
+        switch (options.getFileAccess()) {
+            case MEMORY_MAPPED:
+                return new MappedSeekableInputStream(file);
+            case POSITIONAL:
+                return new ChannelSeekableInputStream(file, 0, false,
+                        options.getFileBufferSize());
+            default:
+                return new InternalInputStream(file, 0, false, options.getFileBufferSize(),
+                        options.isAdaptiveBuffering() ? options.getMaxFileBufferSize() :
+                                options.getFileBufferSize());
+        }
+    }
+
+    private static SeekableInputStream getSeekableStream(InputStream stream, int maxBufferSize,
+                                                         long offHeapLimit) throws IOException {
+        if (stream instanceof ASMemoryInStream) {
+            ASMemoryInStream memoryStream = (ASMemoryInStream) stream;
+            // buffer owned by the stream can't change, so it is shared
+            // instead of being copied
+            if (memoryStream.isCopiedBuffer() && memoryStream.getOffset() == 0) {
+                return new ASMemoryInStream(memoryStream, 0, (int) memoryStream.getStreamLength());
+            }
+        }
         int totalRead = 0;
         byte[] buffer = new byte[0];
         byte[] temp = new byte[ASBufferedInFilter.BF_BUFFER_SIZE];
-        while (MAX_BUFFER_SIZE < 0 || totalRead < MAX_BUFFER_SIZE) {
+        while (maxBufferSize < 0 || totalRead < maxBufferSize) {
             int read = stream.read(temp);
             if (read == -1) {
                 return new ASMemoryInStream(buffer, buffer.length, false);
@@ -162,6 +215,9 @@ public abstract class SeekableInputStream extends ASInputStream {
             buffer = ASBufferedInFilter.concatenate(buffer, buffer.length, temp, read);
             totalRead += read;
         }
+        if (offHeapLimit > 0) {
+            return OffHeapSeekableInputStream.create(buffer, stream, offHeapLimit);
+        }
         return InternalInputStream.createConcatenated(buffer, stream);
     }
 }
@@ -574,40 +574,57 @@ public class BaseParser {
 	}
 
 	protected void readNumber() throws IOException {
-		try {
-			initializeToken();
-			this.token.clearValue();
-			this.token.type = Token.Type.TT_INTEGER;
-			byte ch;
-			while (!this.source.isEOF()) {
-				ch = this.source.readByte();
-				if (CharTable.isTokenDelimiter(ch)) {
-					this.source.unread();
-					break;
-				}
-				if (ch >= '0' && ch <= '9') {
-					appendToToken(ch);
-				} else if (ch == '.') {
-					this.token.type = Token.Type.TT_REAL;
-					appendToToken(ch);
+		initializeToken();
+		this.token.clearValue();
+		this.token.type = Token.Type.TT_INTEGER;
+		// value is accumulated while reading to avoid number parsing from string
+		long mantissa = 0;
+		int fractionDigits = 0;
+		boolean hasDigits = false;
+		boolean isOverflowed = false;
+		boolean isValid = true;
+		byte ch;
+		while (!this.source.isEOF()) {
+			ch = this.source.readByte();
+			if (CharTable.isTokenDelimiter(ch)) {
+				this.source.unread();
+				break;
+			}
+			if (ch >= '0' && ch <= '9') {
+				appendToToken(ch);
+				hasDigits = true;
+				int digit = ch - '0';
+				if (mantissa <= (Long.MAX_VALUE - digit) / 10) {
+					mantissa = mantissa * 10 + digit;
 				} else {
-					this.source.unread();
-					break;
+					isOverflowed = true;
 				}
-			}
-			if (this.token.type == Token.Type.TT_INTEGER) {
-				long value = Long.valueOf(this.token.getValue()).longValue();
-				this.token.integer = value;
-				this.token.real = value;
+				if (this.token.type == Token.Type.TT_REAL) {
+					fractionDigits++;
+				}
+			} else if (ch == '.') {
+				if (this.token.type == Token.Type.TT_REAL) {
+					isValid = false;	// second decimal point
+				}
+				this.token.type = Token.Type.TT_REAL;
+				appendToToken(ch);
 			} else {
-				double value = Double.valueOf(this.token.getValue()).doubleValue();
-				this.token.integer = Math.round(value);
-				this.token.real = value;
+				this.source.unread();
+				break;
 			}
-		} catch (NumberFormatException e) {
-			LOGGER.log(Level.FINE, "", e);
+		}
+		if (!hasDigits || !isValid ||
+				(isOverflowed && this.token.type == Token.Type.TT_INTEGER)) {
+			LOGGER.log(Level.FINE, "Invalid number " + this.token.getValue());
 			this.token.integer = Math.round(Double.MAX_VALUE);
 			this.token.real = Double.MAX_VALUE;
+		} else if (this.token.type == Token.Type.TT_INTEGER) {
+			this.token.integer = mantissa;
+			this.token.real = mantissa;
+		} else {
+			double value = this.token.toReal(mantissa, fractionDigits, isOverflowed);
+			this.token.integer = Math.round(value);
+			this.token.real = value;
 		}
 	}
 
@@ -622,11 +639,11 @@ public class BaseParser {
 	}
 
 	protected void appendToToken(final byte ch) {
-		this.token.append((char) (ch & 0xff));
+		this.token.append(ch);
 	}
 
 	private void appendToToken(final int ch) {
-		this.token.append((char) ch);
+		this.token.append((byte) ch);
 	}
 
 	public static byte[] getRawBytes(String string) {
@@ -78,6 +78,11 @@ public class COSParser extends BaseParser {
 		this.document = document;
 	}
 
+	public COSParser(final COSDocument document, final SeekableInputStream seekableInputStream) throws IOException {
+		this(seekableInputStream);
+		this.document = document;
+	}
+
 	public COSObject nextObject() throws IOException {
 		if (!this.objects.isEmpty()) {
 			COSObject result = this.objects.peek();
@@ -168,7 +173,7 @@ public class COSParser extends BaseParser {
 				}
 			return this.decryptCOSString(res);
 			case TT_NAME:
-				return COSName.construct(token.getValue());
+				return COSName.construct(token.getASAtomValue());
 			case TT_OPENARRAY:
 				this.flag = false;
 				return getArray();
@@ -222,7 +227,7 @@ public class COSParser extends BaseParser {
 		if (token.type != Token.Type.TT_NAME) {
 			return new COSObject();
 		}
-		return COSName.construct(token.getValue());
+		return COSName.construct(token.getASAtomValue());
 	}
 
 	protected COSObject getDictionary() throws IOException {
@@ -266,6 +271,21 @@ public class COSParser extends BaseParser {
 		return dict;
 	}
 
+	/**
+	 * Binds stream to reader options and decoded streams cache of document.
+	 */
+	private void setDocumentResources(COSObject stream) {
+		if (this.document != null) {
+			COSBase base = stream.getDirectBase();
+			if (base instanceof COSStream) {
+				((COSStream) base).setReaderOptions(this.document.getReaderOptions());
+				if (this.document.getDecodedStreamsCache() != null) {
+					((COSStream) base).setDecodedStreamsCache(this.document.getDecodedStreamsCache());
+				}
+			}
+		}
+	}
+
 	protected COSObject getStream(COSObject dict) throws IOException {
 		if (this.flag) {
 			nextToken();
@@ -292,6 +312,7 @@ public class COSParser extends BaseParser {
 			dict.setRealStreamSize(size);
 			ASInputStream stm = super.getRandomAccess(size);
 			dict.setData(stm);
+			setDocumentResources(dict);
 			if (stm instanceof InternalInputStream) {
 				this.document.addFileResource(new ASFileStreamCloser(stm));
 			}
@@ -317,6 +338,7 @@ public class COSParser extends BaseParser {
 							source.seek(streamStartOffset);
 							ASInputStream stm = super.getRandomAccess(realStreamSize);
 							dict.setData(stm);
+							setDocumentResources(dict);
 							source.seek(possibleEndStreamOffset);
 							if (stm instanceof InternalInputStream) {
 								this.document.addFileResource(new ASFileStreamCloser(stm));
@@ -25,10 +25,7 @@ import org.verapdf.as.io.ASInputStream;
 import org.verapdf.cos.*;
 
 import java.io.IOException;
-import java.util.ArrayList;
-import java.util.HashMap;
-import java.util.List;
-import java.util.Map;
+import java.util.*;
 
 /**
  * This class reads objects from decoded object stream.
@@ -38,7 +35,13 @@ import java.util.Map;
 public class DecodedObjectStreamParser extends COSParser {
 
     private COSStream objectStream;
-    private Map<Integer, Long> internalOffsets;
+    // numbers of objects in ascending order and their offsets in decoded data
+    private int[] objectNumbers;
+    private long[] objectOffsets;
+    private boolean[] materialized;
+    private int materializedCount;
+    private final long decodedDataSize;
+    private boolean isDataReleased;
 
     /**
      * Constructor from decoded object stream data and COSStream.
@@ -53,7 +56,7 @@ public class DecodedObjectStreamParser extends COSParser {
                                      COSKey streamKey, COSDocument doc) throws IOException {
         super(doc, inputStream);
         this.objectStream = objectStream;
-        this.internalOffsets = new HashMap<>();
+        this.decodedDataSize = this.source.getStreamLength();
         try {
             calculateInternalOffsets();
         } catch (IOException e) {
@@ -65,6 +68,7 @@ public class DecodedObjectStreamParser extends COSParser {
     private void calculateInternalOffsets() throws IOException {
         int n = (int) ((COSInteger) this.objectStream.getKey(ASAtom.N).getDirectBase()).get();
         long first = ((COSInteger) this.objectStream.getKey(ASAtom.FIRST).getDirectBase()).get();
+        Map<Integer, Long> internalOffsets = new TreeMap<>();
         for (int i = 0; i < n; ++i) {
             Long objNum, objOffset;
             skipSpaces(false);
@@ -75,26 +79,68 @@ public class DecodedObjectStreamParser extends COSParser {
             objOffset = getToken().integer;
             internalOffsets.put(objNum.intValue(), objOffset + first);
         }
+        this.objectNumbers = new int[internalOffsets.size()];
+        this.objectOffsets = new long[internalOffsets.size()];
+        int i = 0;
+        for (Map.Entry<Integer, Long> entry : internalOffsets.entrySet()) {
+            this.objectNumbers[i] = entry.getKey();
+            this.objectOffsets[i] = entry.getValue();
+            ++i;
+        }
+        this.materialized = new boolean[this.objectNumbers.length];
     }
 
     /**
      * @return true if object stream contains object with number <code>objNum</code>.
      */
     public boolean containsObject(int objNum) {
-        return this.internalOffsets.containsKey(objNum);
+        return Arrays.binarySearch(this.objectNumbers, objNum) >= 0;
     }
 
     /**
      * @return list of keys of all objects, contained inside this object stream.
      */
     public List<COSKey> getInternalObjectsKeys() {
-        List<COSKey> res = new ArrayList<>();
-        for (Map.Entry<Integer, Long> entry : internalOffsets.entrySet()) {
-            res.add(new COSKey(entry.getKey(), 0));  // Object inside streams shall have generation 0
+        List<COSKey> res = new ArrayList<>(this.objectNumbers.length);
+        for (int objectNumber : this.objectNumbers) {
+            res.add(new COSKey(objectNumber, 0));  // Object inside streams shall have generation 0
         }
         return res;
     }
 
+    /**
+     * @return size of decoded object stream data held by this parser.
+     */
+    public long getDecodedDataSize() {
+        return this.isDataReleased ? 0 : this.decodedDataSize;
+    }
+
+    /**
+     * @return true if every object of this object stream has been parsed.
+     */
+    public boolean isFullyMaterialized() {
+        return this.materializedCount == this.materialized.length;
+    }
+
+    /**
+     * @return true if decoded data was released, so objects can't be parsed
+     * anymore.
+     */
+    public boolean isDataReleased() {
+        return this.isDataReleased;
+    }
+
+    /**
+     * Closes decoded object stream data. Only the index of object offsets is
+     * kept after this call.
+     */
+    public void releaseData() throws IOException {
+        if (!this.isDataReleased) {
+            this.isDataReleased = true;
+            closeInputStream();
+        }
+    }
+
     /**
      * Parses object from object stream.
      *
@@ -103,16 +149,24 @@ public class DecodedObjectStreamParser extends COSParser {
      * @return object for given key or empty COSObject if key is not present.
      */
     public COSObject getObject(COSKey key) throws IOException {
-        int objNum = key.getNumber();
-        if (!this.internalOffsets.containsKey(objNum)) {
+        int index = Arrays.binarySearch(this.objectNumbers, key.getNumber());
+        if (index < 0) {
             return new COSObject();
         }
-        this.source.seek(internalOffsets.get(objNum));
+        if (this.isDataReleased) {
+            throw new IOException("Data of object stream containing object " + key.getNumber() +
+                    " " + key.getGeneration() + " is released");
+        }
+        this.source.seek(this.objectOffsets[index]);
         this.flag = true;
         this.objects.clear();   // In case if some COSInteger was read before.
         this.integers.clear();
         COSObject res = nextObject();
         res.setObjectKey(key);
+        if (!this.materialized[index]) {
+            this.materialized[index] = true;
+            this.materializedCount++;
+        }
         return res;
     }
 }
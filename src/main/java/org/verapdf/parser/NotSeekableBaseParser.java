@@ -76,11 +76,11 @@ public class NotSeekableBaseParser implements Closeable {
     }
 
     private void appendToToken(final byte ch) {
-        this.token.append((char) (ch & 0xff));
+        this.token.append(ch);
     }
 
     private void appendToToken(final int ch) {
-        this.token.append((char) ch);
+        this.token.append((byte) ch);
     }
 
     protected Token getToken() {
@@ -534,42 +534,69 @@ public class NotSeekableBaseParser implements Closeable {
     }
 
     protected void readNumber() throws IOException {
-        try {
-            int radix = 10;
-            initializeToken();
-            this.token.clearValue();
-            this.token.type = Token.Type.TT_INTEGER;
-            byte ch;
-            while (!this.source.isEOF()) {
-                ch = this.source.readByte();
-                if (CharTable.isTokenDelimiter(ch)) {
-                    this.source.unread();
-                    break;
-                }
-                if (ch >= '0' && ch <= '9') {
-                    appendToToken(ch);
-                } else if (ch == '.') {
-                    this.token.type = Token.Type.TT_REAL;
-                    appendToToken(ch);
-                } else if (ch == '#' && isPSParser) {
-                    radix = (int) this.token.integer;
-                    token.clearValue();
+        int radix = 10;
+        initializeToken();
+        this.token.clearValue();
+        this.token.type = Token.Type.TT_INTEGER;
+        // value is accumulated while reading to avoid number parsing from string
+        long mantissa = 0;
+        int fractionDigits = 0;
+        boolean hasDigits = false;
+        boolean isOverflowed = false;
+        boolean isValid = true;
+        byte ch;
+        while (!this.source.isEOF()) {
+            ch = this.source.readByte();
+            if (CharTable.isTokenDelimiter(ch)) {
+                this.source.unread();
+                break;
+            }
+            if (ch >= '0' && ch <= '9') {
+                appendToToken(ch);
+                hasDigits = true;
+                int digit = ch - '0';
+                if (digit >= radix) {
+                    isValid = false;
+                } else if (mantissa <= (Long.MAX_VALUE - digit) / radix) {
+                    mantissa = mantissa * radix + digit;
                 } else {
-                    this.source.unread();
-                    break;
+                    isOverflowed = true;
                 }
-            }
-            if (this.token.type == Token.Type.TT_INTEGER) {
-                long value = Long.valueOf(this.token.getValue(), radix).longValue();
-                this.token.integer = value;
-                this.token.real = value;
+                if (this.token.type == Token.Type.TT_REAL) {
+                    fractionDigits++;
+                }
+            } else if (ch == '.') {
+                if (this.token.type == Token.Type.TT_REAL || radix != 10) {
+                    isValid = false;
+                }
+                this.token.type = Token.Type.TT_REAL;
+                appendToToken(ch);
+            } else if (ch == '#' && isPSParser) {
+                // PostScript radix number, e. g. 8#1777
+                radix = (int) mantissa;
+                if (this.token.type != Token.Type.TT_INTEGER ||
+                        radix < Character.MIN_RADIX || radix > Character.MAX_RADIX) {
+                    isValid = false;
+                    radix = 10;
+                }
+                mantissa = 0;
+                hasDigits = false;
+                token.clearValue();
             } else {
-                double value = Double.valueOf(this.token.getValue()).doubleValue();
-                this.token.integer = Math.round(value);
-                this.token.real = value;
+                this.source.unread();
+                break;
             }
-        } catch (NumberFormatException e) {
-            LOGGER.log(Level.FINE, "", e);
+        }
+        if (!hasDigits || !isValid ||
+                (isOverflowed && this.token.type == Token.Type.TT_INTEGER)) {
+            LOGGER.log(Level.FINE, "Invalid number " + this.token.getValue());
+        } else if (this.token.type == Token.Type.TT_INTEGER) {
+            this.token.integer = mantissa;
+            this.token.real = mantissa;
+        } else {
+            double value = this.token.toReal(mantissa, fractionDigits, isOverflowed);
+            this.token.integer = Math.round(value);
+            this.token.real = value;
         }
     }
 }
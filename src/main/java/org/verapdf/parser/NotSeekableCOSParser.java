@@ -100,7 +100,7 @@ public class NotSeekableCOSParser extends NotSeekableBaseParser {
                 break;
             case TT_KEYWORD: {
                 if (token.keyword == null && isPSParser) {
-                    return PSObject.getPSObject(COSName.construct(token.getValue()), true);
+                    return PSObject.getPSObject(COSName.construct(token.getASAtomValue()), true);
                 } else if (token.keyword == null) {
                     break;
                 }
@@ -143,7 +143,7 @@ public class NotSeekableCOSParser extends NotSeekableBaseParser {
                 }
                 return this.decryptCOSString(res);
             case TT_NAME:
-                return COSName.construct(token.getValue());
+                return COSName.construct(token.getASAtomValue());
             case TT_OPENARRAY:
                 this.flag = false;
                 return getArray();
@@ -201,7 +201,7 @@ public class NotSeekableCOSParser extends NotSeekableBaseParser {
         if (token.type != Token.Type.TT_NAME) {
             return new COSObject();
         }
-        return COSName.construct(token.getValue());
+        return COSName.construct(token.getASAtomValue());
     }
 
     protected COSObject getDictionary() throws IOException {
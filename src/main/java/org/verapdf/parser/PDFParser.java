@@ -26,6 +26,7 @@ import org.verapdf.as.exceptions.StringExceptions;
 import org.verapdf.cos.*;
 import org.verapdf.cos.xref.COSXRefEntry;
 import org.verapdf.cos.xref.COSXRefInfo;
+import org.verapdf.cos.xref.COSXRefRange;
 import org.verapdf.cos.xref.COSXRefSection;
 import org.verapdf.exceptions.LoopedException;
 import org.verapdf.io.SeekableInputStream;
@@ -58,6 +59,7 @@ public class PDFParser extends COSParser {
     private boolean isEncrypted;
     private COSObject encryption;
     private Long lastTrailerOffset = 0L;
+    private XRefScanner scanner;
 
     public PDFParser(final String filename) throws IOException {
         super(filename);
@@ -75,6 +77,18 @@ public class PDFParser extends COSParser {
         super(document, fileStream);
     }
 
+    /**
+     * Creates parser that reads document from given seekable stream. This
+     * allows to choose the way of data reading, e. g. to use
+     * {@link org.verapdf.io.MappedSeekableInputStream} for large files.
+     *
+     * @param document is COSDocument to be parsed.
+     * @param source is stream with document data.
+     */
+    public PDFParser(final COSDocument document, final SeekableInputStream source) throws IOException {
+        super(document, source);
+    }
+
     public COSHeader getHeader() throws IOException {
         return parseHeader();
     }
@@ -220,6 +234,145 @@ public class PDFParser extends COSParser {
         this.getXRefInfo(infos, new HashSet<Long>(), Long.valueOf(0L));
     }
 
+    /**
+     * Reconstructs cross reference information by scanning the whole document.
+     * It is used if startxref, cross reference table or stream of the
+     * document are broken. Objects found in the document, compressed objects
+     * from cross reference streams found in the document and the last trailer
+     * containing Root entry are used.
+     *
+     * @param infos is list that is filled with reconstructed cross reference
+     *              information. All previous content is removed.
+     */
+    public void getXRefInfoFromScan(List<COSXRefInfo> infos) throws IOException {
+        XRefScanner scanner = getScanner();
+        COSXRefInfo info = new COSXRefInfo();
+        COSXRefSection section = info.getXRefSection();
+
+        COSXRefSection objects = scanner.getObjects();
+        int greatestNumber = 0;
+        for (COSXRefRange range : objects.getRange()) {
+            for (int number = range.start; number < range.next(); ++number) {
+                COSXRefEntry entry = objects.getEntry(number);
+                if (entry.free == 'n') {
+                    section.addEntry(number, new COSXRefEntry(entry.offset - this.offsetShift, entry.generation));
+                    greatestNumber = Math.max(greatestNumber, number);
+                }
+            }
+        }
+
+        this.isEncrypted = false;
+        this.encryption = null;
+        COSTrailer trailer = null;
+        long trailerOffset = 0;
+        for (Long xrefOffset : scanner.getXRefStreamOffsets()) {
+            COSXRefInfo streamInfo;
+            try {
+                streamInfo = parseXRefStream(xrefOffset.longValue());
+            } catch (IOException e) {
+                LOGGER.log(Level.FINE, "Can't parse cross reference stream at offset " + xrefOffset, e);
+                continue;
+            }
+            COSXRefSection streamSection = streamInfo.getXRefSection();
+            long relativeOffset = xrefOffset.longValue() - this.offsetShift;
+            for (COSXRefRange range : streamSection.getRange()) {
+                for (int number = range.start; number < range.next(); ++number) {
+                    COSXRefEntry entry = streamSection.getEntry(number);
+                    if (entry.free != 'n' || entry.offset >= 0) {
+                        continue;
+                    }
+                    // compressed object overrides objects that precede cross reference stream
+                    COSXRefEntry existing = section.getEntry(number);
+                    if (existing == null || existing.free != 'n' || existing.offset < relativeOffset) {
+                        section.addEntry(number, entry);
+                        greatestNumber = Math.max(greatestNumber, number);
+                    }
+                }
+            }
+            if (streamInfo.getTrailer().knownKey(ASAtom.ROOT)
+                    && xrefOffset.longValue() > trailerOffset) {
+                trailer = streamInfo.getTrailer();
+                trailerOffset = xrefOffset.longValue();
+            }
+        }
+        for (Long offset : scanner.getTrailerOffsets()) {
+            if (offset.longValue() < trailerOffset) {
+                continue;
+            }
+            clear();
+            this.source.seek(offset.longValue());
+            COSObject obj = nextObject();
+            if (obj.getType() == COSObjType.COS_DICT && obj.knownKey(ASAtom.ROOT).booleanValue()) {
+                trailer = new COSTrailer();
+                trailer.setObject(obj);
+                trailerOffset = offset.longValue();
+            }
+        }
+
+        if (trailer == null) {
+            trailer = new COSTrailer();
+        }
+        COSObject root = trailer.getRoot();
+        COSKey rootKey = root == null ? null : root.getObjectKey();
+        if ((rootKey == null || section.getEntry(rootKey.getNumber()) == null)
+                && !scanner.getCatalogKeys().isEmpty()) {
+            List<COSKey> catalogKeys = scanner.getCatalogKeys();
+            trailer.setRoot(COSIndirect.construct(catalogKeys.get(catalogKeys.size() - 1), this.document));
+        }
+        if (trailer.getSize() == null) {
+            trailer.getObject().setIntegerKey(ASAtom.SIZE, Long.valueOf(greatestNumber + 1L));
+        }
+        if (trailer.knownKey(ASAtom.ENCRYPT)) {
+            this.isEncrypted = true;
+            this.encryption = trailer.getEncrypt();
+        }
+        if (this.lastTrailerOffset == 0) {
+            this.lastTrailerOffset = trailerOffset;
+        }
+
+        info.setStartXRef(trailerOffset == 0 ? 0 : trailerOffset - this.offsetShift);
+        info.setTrailer(trailer.getObject());
+        infos.clear();
+        infos.add(info);
+    }
+
+    /**
+     * Looks for object with given key by scanning the whole document. Scanning
+     * is performed once, next calls use its results.
+     *
+     * @param key is key of object to find.
+     * @return offset of the last occurrence of object in the document or -1
+     * if object is not found.
+     */
+    public long findObjectOffset(final COSKey key) throws IOException {
+        COSXRefEntry entry = getScanner().getObjects().getEntry(key.getNumber());
+        if (entry != null && entry.free == 'n' && entry.generation == key.getGeneration()) {
+            return entry.offset;
+        }
+        return -1;
+    }
+
+    private XRefScanner getScanner() throws IOException {
+        if (this.scanner == null) {
+            XRefScanner res = new XRefScanner(this.source);
+            res.scan();
+            this.scanner = res;
+        }
+        return this.scanner;
+    }
+
+    private COSXRefInfo parseXRefStream(final long offset) throws IOException {
+        clear();
+        this.source.seek(offset);
+        nextToken();
+        if (this.getToken().type != Token.Type.TT_INTEGER) {
+            throw new IOException("PDFParser::GetXRefSection(...)" + StringExceptions.CAN_NOT_LOCATE_XREF_TABLE);
+        }
+        COSXRefInfo res = new COSXRefInfo();
+        parseXrefStream(res);
+        return res;
+    }
+
     public COSObject getObject(final long offset) throws IOException {
         clear();
 
@@ -509,6 +662,10 @@ public class PDFParser extends COSParser {
             offset += offsetShift;
         }
 
+        if (offset.longValue() > source.getStreamLength()) {
+            throw new IOException("PDFParser::GetXRefInfo(...)" + StringExceptions.START_XREF_VALIDATION);
+        }
+
         //we will skip eol marker in any case
         source.seek(offset.longValue() - 1);
 
@@ -20,6 +20,9 @@
  */
 package org.verapdf.parser;
 
+import org.verapdf.as.ASAtom;
+
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.Map;
 
@@ -34,7 +37,17 @@ public class Token {
 	public long integer;
 	public double real;
 
-	private StringBuilder token = new StringBuilder();
+	private static final int INITIAL_BUFFER_SIZE = 64;
+	// 2^53, maximal integer that is exactly represented by double
+	private static final long MAX_EXACT_DOUBLE_MANTISSA = 1L << 53;
+	// powers of 10 that are exactly represented by double
+	private static final double[] POWERS_OF_TEN = {
+			1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11,
+			1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22
+	};
+
+	private byte[] token = new byte[INITIAL_BUFFER_SIZE];
+	private int length = 0;
 
 	//fields specific for pdf/a validation of strings
 	private boolean containsOnlyHex = true;
@@ -42,27 +55,55 @@ public class Token {
 
 	public void toKeyword() {
 		this.type = Type.TT_KEYWORD;
-		this.keyword = getKeyword(token.toString());
+		this.keyword = getKeyword(this.token, this.length);
+	}
+
+	public void append(byte b) {
+		if (this.length == this.token.length) {
+			this.token = Arrays.copyOf(this.token, this.token.length << 1);
+		}
+		this.token[this.length++] = b;
 	}
 
 	public void append(char c) {
-		this.token.append(c);
+		append((byte) c);
 	}
 
 	public String getValue() {
-		return new String(getByteValue());
+		return new String(this.token, 0, this.length);
+	}
+
+	/**
+	 * @return token value as ASAtom. For known names no objects are created.
+	 */
+	public ASAtom getASAtomValue() {
+		return ASAtom.getASAtom(this.token, 0, this.length);
 	}
 
 	public byte[] getByteValue() {
-		byte[] res = new byte[this.token.length()];
-		for (int i = 0; i < token.length(); i++) {
-			res[i] = (byte) token.charAt(i);
-		}
-		return res;
+		return Arrays.copyOf(this.token, this.length);
 	}
 
 	public void clearValue() {
-		this.token.setLength(0);
+		this.length = 0;
+	}
+
+	/**
+	 * Converts decimal number, accumulated while reading token, into double.
+	 * Number is represented as mantissa divided by 10^fractionDigits. If the
+	 * result can't be computed exactly in this way, token value is parsed.
+	 *
+	 * @param mantissa       is all digits of number read as integer.
+	 * @param fractionDigits is number of digits after decimal point.
+	 * @param isOverflowed   is true if mantissa doesn't contain all digits.
+	 * @return double value of number.
+	 */
+	double toReal(long mantissa, int fractionDigits, boolean isOverflowed) {
+		if (!isOverflowed && mantissa <= MAX_EXACT_DOUBLE_MANTISSA &&
+				fractionDigits < POWERS_OF_TEN.length) {
+			return mantissa / POWERS_OF_TEN[fractionDigits];
+		}
+		return Double.parseDouble(getValue());
 	}
 
 	public enum Type {
@@ -122,6 +163,62 @@ public class Token {
 		return KEYWORDS.get(keyword);
 	}
 
+	/**
+	 * Gets keyword represented by first length bytes of given array without
+	 * creation of intermediate string.
+	 *
+	 * @return keyword or null if bytes don't represent any keyword.
+	 */
+	private static Keyword getKeyword(final byte[] bytes, final int length) {
+		switch (length) {
+			case 1:
+				switch (bytes[0]) {
+					case 'R':
+						return Keyword.KW_R;
+					case 'n':
+						return Keyword.KW_N;
+					case 'f':
+						return Keyword.KW_F;
+					default:
+						return null;
+				}
+			case 3:
+				return matches(bytes, "obj") ? Keyword.KW_OBJ : null;
+			case 4:
+				if (matches(bytes, "null")) {
+					return Keyword.KW_NULL;
+				} else if (matches(bytes, "true")) {
+					return Keyword.KW_TRUE;
+				}
+				return matches(bytes, "xref") ? Keyword.KW_XREF : null;
+			case 5:
+				return matches(bytes, "false") ? Keyword.KW_FALSE : null;
+			case 6:
+				if (matches(bytes, "stream")) {
+					return Keyword.KW_STREAM;
+				}
+				return matches(bytes, "endobj") ? Keyword.KW_ENDOBJ : null;
+			case 7:
+				return matches(bytes, "trailer") ? Keyword.KW_TRAILER : null;
+			case 9:
+				if (matches(bytes, "endstream")) {
+					return Keyword.KW_ENDSTREAM;
+				}
+				return matches(bytes, "startxref") ? Keyword.KW_STARTXREF : null;
+			default:
+				return null;
+		}
+	}
+
+	private static boolean matches(final byte[] bytes, final String keyword) {
+		for (int i = 0; i < keyword.length(); ++i) {
+			if (bytes[i] != keyword.charAt(i)) {
+				return false;
+			}
+		}
+		return true;
+	}
+
 	//GETTERS & SETTERS
 	public boolean isContainsOnlyHex() {
 		return containsOnlyHex;
@@ -141,9 +238,11 @@ public class Token {
 
 	public void setByteValue(byte[] array) {
 		clearValue();
-		for (byte b : array) {
-			this.token.append((char) b);
+		if (this.token.length < array.length) {
+			this.token = new byte[array.length];
 		}
+		System.arraycopy(array, 0, this.token, 0, array.length);
+		this.length = array.length;
 	}
 
 }
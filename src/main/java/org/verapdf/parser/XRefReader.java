@@ -88,6 +88,18 @@ public abstract class XRefReader implements IReader {
 		return this.xref.getOffset(key);
 	}
 
+	protected long getXRefOffset(final COSKey key) {
+		return this.xref.getOffset(key);
+	}
+
+	protected SortedSet<Integer> getObjectStreamNumbers() {
+		return this.xref.getObjectStreamNumbers();
+	}
+
+	protected int getGreatestKeyNumber() {
+		return this.xref.getGreatestKeyNumber();
+	}
+
 	protected boolean containsKey(final COSKey key) {
 		return this.xref.containsKey(key);
 	}
@@ -0,0 +1,234 @@
+/**
+ * This file is part of veraPDF Parser, a module of the veraPDF project.
+ * Copyright (c) 2015, veraPDF Consortium <info@verapdf.org>
+ * All rights reserved.
+ *
+ * veraPDF Parser is free software: you can redistribute it and/or modify
+ * it under the terms of either:
+ *
+ * The GNU General public license GPLv3+.
+ * You should have received a copy of the GNU General Public License
+ * along with veraPDF Parser as the LICENSE.GPL file in the root of the source
+ * tree.  If not, see http://www.gnu.org/licenses/ or
+ * https://www.gnu.org/licenses/gpl-3.0.en.html.
+ *
+ * The Mozilla Public License MPLv2+.
+ * You should have received a copy of the Mozilla Public License along with
+ * veraPDF Parser as the LICENSE.MPL file in the root of the source tree.
+ * If a copy of the MPL was not distributed with this file, you can obtain one at
+ * http://mozilla.org/MPL/2.0/.
+ */
+package org.verapdf.parser;
+
+import org.verapdf.as.CharTable;
+import org.verapdf.cos.COSKey;
+import org.verapdf.cos.xref.COSXRefSection;
+import org.verapdf.io.SeekableInputStream;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Scans the whole document once looking for object headers "N G obj",
+ * "trailer" keywords, cross reference streams and catalog dictionaries. It
+ * is used to reconstruct cross reference table of documents with broken
+ * cross reference information. Data is read sequentially in large chunks
+ * and searched on byte level, no tokens are created.
+ */
+class XRefScanner {
+
+	private static final int CHUNK_SIZE = 1 << 20;
+	// max length of "number generation " before "obj" keyword
+	private static final int LOOK_BEHIND = 32;
+	private static final int MAX_NUMBER_DIGITS = 10;
+	private static final int MAX_GENERATION_DIGITS = 5;
+
+	private static final byte[] OBJ = "obj".getBytes();
+	private static final byte[] TRAILER = "trailer".getBytes();
+	private static final byte[] XREF = "/XRef".getBytes();
+	private static final byte[] CATALOG = "/Catalog".getBytes();
+
+	private final SeekableInputStream source;
+
+	private final COSXRefSection objects = new COSXRefSection();
+	private final List<Long> trailerOffsets = new ArrayList<>();
+	private final List<Long> xrefStreamOffsets = new ArrayList<>();
+	private final List<COSKey> catalogKeys = new ArrayList<>();
+
+	private long lastObjectOffset = -1;
+	private COSKey lastObjectKey;
+
+	XRefScanner(SeekableInputStream source) {
+		this.source = source;
+	}
+
+	/**
+	 * Scans the document. Offsets found are absolute offsets in the stream.
+	 */
+	void scan() throws IOException {
+		long length = this.source.getStreamLength();
+		byte[] buffer = new byte[(int) Math.min(CHUNK_SIZE + LOOK_BEHIND, length + LOOK_BEHIND)];
+		long processedTo = 0;
+		long chunkStart = 0;
+		while (processedTo < length) {
+			this.source.seek(chunkStart);
+			int toRead = (int) Math.min(buffer.length, length - chunkStart);
+			int read = this.source.read(buffer, toRead);
+			if (read <= 0) {
+				break;
+			}
+			int start = (int) (processedTo - chunkStart);
+			// keywords at the end of chunk are processed in next chunk, when
+			// byte after them is available
+			int end = chunkStart + read >= length ? read : read - CATALOG.length;
+			if (end <= start) {
+				end = read;
+			}
+			for (int i = start; i < end; ++i) {
+				switch (buffer[i]) {
+					case 'o':
+						if (matches(buffer, read, i, OBJ)) {
+							processObjectHeader(buffer, i, chunkStart);
+						}
+						break;
+					case 't':
+						if (matches(buffer, read, i, TRAILER) && isDelimiterBefore(buffer, i, chunkStart)) {
+							this.trailerOffsets.add(chunkStart + i + TRAILER.length);
+						}
+						break;
+					case '/':
+						if (this.lastObjectKey != null) {
+							if (matches(buffer, read, i, XREF)) {
+								addIfNotLast(this.xrefStreamOffsets, this.lastObjectOffset);
+							} else if (matches(buffer, read, i, CATALOG)) {
+								addIfNotLast(this.catalogKeys, this.lastObjectKey);
+							}
+						}
+						break;
+					default:
+						break;
+				}
+			}
+			processedTo = chunkStart + end;
+			chunkStart = processedTo - LOOK_BEHIND;
+		}
+	}
+
+	/**
+	 * @return section containing offsets of objects found. If object with
+	 * the same number occurs several times, the last occurrence is used.
+	 */
+	COSXRefSection getObjects() {
+		return this.objects;
+	}
+
+	/**
+	 * @return offsets of data right after "trailer" keywords in order of
+	 * occurrence.
+	 */
+	List<Long> getTrailerOffsets() {
+		return this.trailerOffsets;
+	}
+
+	/**
+	 * @return offsets of objects that are cross reference streams in order of
+	 * occurrence.
+	 */
+	List<Long> getXRefStreamOffsets() {
+		return this.xrefStreamOffsets;
+	}
+
+	/**
+	 * @return keys of objects that contain /Catalog name in order of
+	 * occurrence.
+	 */
+	List<COSKey> getCatalogKeys() {
+		return this.catalogKeys;
+	}
+
+	private void processObjectHeader(byte[] buffer, int objPos, long chunkStart) {
+		int pos = objPos - 1;
+		int min = Math.max(0, objPos - LOOK_BEHIND);
+		if (pos < min || !CharTable.isSpace(buffer[pos] & 0xFF)) {
+			return;
+		}
+		while (pos >= min && CharTable.isSpace(buffer[pos] & 0xFF)) {
+			pos--;
+		}
+		int generationEnd = pos;
+		while (pos >= min && isDigit(buffer[pos])) {
+			pos--;
+		}
+		int generationLength = generationEnd - pos;
+		if (generationLength == 0 || generationLength > MAX_GENERATION_DIGITS
+				|| pos < min || !CharTable.isSpace(buffer[pos] & 0xFF)) {
+			return;
+		}
+		int generationStart = pos + 1;
+		while (pos >= min && CharTable.isSpace(buffer[pos] & 0xFF)) {
+			pos--;
+		}
+		int numberEnd = pos;
+		while (pos >= min && isDigit(buffer[pos])) {
+			pos--;
+		}
+		int numberLength = numberEnd - pos;
+		if (numberLength == 0 || numberLength > MAX_NUMBER_DIGITS) {
+			return;
+		}
+		int numberStart = pos + 1;
+		if (!isDelimiterBefore(buffer, numberStart, chunkStart)) {
+			return;
+		}
+		long number = parseNumber(buffer, numberStart, numberEnd);
+		if (number > Integer.MAX_VALUE) {
+			return;
+		}
+		int generation = (int) parseNumber(buffer, generationStart, generationEnd);
+		COSKey key = new COSKey((int) number, generation);
+		long offset = chunkStart + numberStart;
+		this.objects.add(key, offset);
+		this.lastObjectKey = key;
+		this.lastObjectOffset = offset;
+	}
+
+	private static boolean matches(byte[] buffer, int length, int pos, byte[] pattern) {
+		if (pos + pattern.length > length) {
+			return false;
+		}
+		for (int i = 1; i < pattern.length; ++i) {
+			if (buffer[pos + i] != pattern[i]) {
+				return false;
+			}
+		}
+		int next = pos + pattern.length;
+		return next == length || !CharTable.isRegular(buffer[next] & 0xFF);
+	}
+
+	private static boolean isDelimiterBefore(byte[] buffer, int pos, long chunkStart) {
+		if (pos == 0) {
+			// beginning of chunk is beginning of file or is look behind area
+			return chunkStart == 0;
+		}
+		return !CharTable.isRegular(buffer[pos - 1] & 0xFF);
+	}
+
+	private static <T> void addIfNotLast(List<T> list, T value) {
+		if (list.isEmpty() || !list.get(list.size() - 1).equals(value)) {
+			list.add(value);
+		}
+	}
+
+	private static boolean isDigit(byte b) {
+		return b >= '0' && b <= '9';
+	}
+
+	private static long parseNumber(byte[] buffer, int from, int to) {
+		long res = 0;
+		for (int i = from; i <= to; ++i) {
+			res = res * 10 + (buffer[i] - '0');
+		}
+		return res;
+	}
+}
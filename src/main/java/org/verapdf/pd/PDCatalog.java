@@ -42,6 +42,7 @@ import java.util.List;
 public class PDCatalog extends PDObject {
 
 	private PDPageTree pages;
+	private volatile PDStructTreeRoot structTreeRoot;
 
 	public PDCatalog() {
 		super();
@@ -71,12 +72,30 @@ public class PDCatalog extends PDObject {
 		return null;
 	}
 
+	/**
+	 * @return structure tree root of the document. The same object is
+	 * returned while StructTreeRoot entry holds the same dictionary, so its
+	 * role map and parent tree are computed once per document.
+	 */
 	public PDStructTreeRoot getStructTreeRoot() {
 		COSObject base = getKey(ASAtom.STRUCT_TREE_ROOT);
-		if (base != null && base.getType() == COSObjType.COS_DICT) {
-			return new PDStructTreeRoot(base);
+		if (base == null || base.getType() != COSObjType.COS_DICT) {
+			return null;
 		}
-		return null;
+		PDStructTreeRoot res = this.structTreeRoot;
+		if (res == null || res.getObject().getDirectBase() != base.getDirectBase()) {
+			res = new PDStructTreeRoot(base);
+			this.structTreeRoot = res;
+		}
+		return res;
+	}
+
+	/**
+	 * Drops cached structure tree root, for example after it is modified in
+	 * place.
+	 */
+	protected void updateFromObject() {
+		this.structTreeRoot = null;
 	}
 
 	public List<PDOutputIntent> getOutputIntents() {
@@ -26,6 +26,7 @@ import org.verapdf.cos.COSIndirect;
 import org.verapdf.cos.COSObject;
 import org.verapdf.cos.visitor.IndirectWriter;
 import org.verapdf.cos.visitor.Writer;
+import org.verapdf.io.ReaderOptions;
 import org.verapdf.io.SeekableInputStream;
 import org.verapdf.pd.form.PDAcroForm;
 import org.verapdf.pd.structure.PDStructTreeRoot;
@@ -36,6 +37,7 @@ import java.io.InputStream;
 import java.io.OutputStream;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.ExecutorService;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
@@ -65,6 +67,16 @@ public class PDDocument {
 		this.document = new COSDocument(fileStream, this);
 	}
 
+	public PDDocument(final String filename, final ReaderOptions readerOptions) throws IOException {
+		this.catalog = new PDCatalog();
+		this.document = new COSDocument(filename, this, readerOptions);
+	}
+
+	public PDDocument(final InputStream fileStream, final ReaderOptions readerOptions) throws IOException {
+		this.catalog = new PDCatalog();
+		this.document = new COSDocument(fileStream, this, readerOptions);
+	}
+
 	private void constructDocument() {
 		document = new COSDocument(this);
 		document.setHeader(PDF_HEADER_DEFAULT);
@@ -157,6 +169,22 @@ public class PDDocument {
 		return this.getCatalog().getPageTree().getPage(number);
 	}
 
+	/**
+	 * Parses embedded CMaps, ICC profiles and font programs used in
+	 * resources of all pages on given executor. Parsed objects are cached for
+	 * the calling thread, so later traversal of document in this thread
+	 * doesn't parse them again. Document objects are read only in the calling
+	 * thread.
+	 *
+	 * @param executor is executor used for parsing.
+	 */
+	public void preloadResources(final ExecutorService executor) {
+		if (document == null || executor == null) {
+			return;
+		}
+		new ResourcesPreloader(executor, this.document.getReaderOptions()).preload(this.getPages());
+	}
+
 	public void addPage(final PDPage page, final int number) {
 		if (document == null) {
 			return;
@@ -38,6 +38,7 @@ public class PDNameTreeNode extends PDObject {
 
 	private List<PDNameTreeNode> kids = null;
 	private Map<String, COSObject> names = null;
+	private KidsLimits kidsLimits = null;
 
 	private PDNameTreeNode(COSObject obj, Set<COSKey> parents) {
 		super(obj);
@@ -81,6 +82,77 @@ public class PDNameTreeNode extends PDObject {
 		return Collections.emptyList();
 	}
 
+	/**
+	 * Gets object with given name from this node and it's kids. Kids are
+	 * chosen by binary search over their Limits if all kids have Limits in
+	 * ascending order, otherwise every kid with suitable Limits is searched.
+	 *
+	 * @param key is name of the object.
+	 * @return object for given name or null if there is no such object.
+	 */
+	public COSObject getObject(String key) {
+		if (key == null) {
+			return null;
+		}
+		if (knownKey(ASAtom.NAMES)) {
+			if (this.names == null) {
+				this.names = parseNames();
+			}
+			return this.names.get(key);
+		}
+		if (this.kids == null) {
+			this.kids = parseKids();
+		}
+		if (this.kids.isEmpty()) {
+			return null;
+		}
+		if (this.kidsLimits == null) {
+			this.kidsLimits = new KidsLimits(this.kids);
+		}
+		KidsLimits limits = this.kidsLimits;
+		if (limits.isSorted) {
+			int low = 0;
+			int high = this.kids.size() - 1;
+			while (low <= high) {
+				int middle = (low + high) >>> 1;
+				if (key.compareTo(limits.lower[middle]) < 0) {
+					high = middle - 1;
+				} else if (key.compareTo(limits.upper[middle]) > 0) {
+					low = middle + 1;
+				} else {
+					return this.kids.get(middle).getObject(key);
+				}
+			}
+			return null;
+		}
+		for (int i = 0; i < this.kids.size(); ++i) {
+			if (limits.lower[i] == null || (key.compareTo(limits.lower[i]) >= 0
+					&& key.compareTo(limits.upper[i]) <= 0)) {
+				COSObject res = this.kids.get(i).getObject(key);
+				if (res != null) {
+					return res;
+				}
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * @return array of two strings representing limits of this node or null
+	 * if proper limits array is not present.
+	 */
+	public String[] getLimitsArray() {
+		COSObject limits = getKey(ASAtom.LIMITS);
+		if (limits != null && limits.getType() == COSObjType.COS_ARRAY && limits.size() >= 2) {
+			String lower = limits.at(0).getString();
+			String upper = limits.at(1).getString();
+			if (lower != null && upper != null) {
+				return new String[]{lower, upper};
+			}
+		}
+		return null;
+	}
+
 	public Map<String, COSObject> getNames() {
 		if (this.names == null) {
 			this.names = parseNames();
@@ -104,4 +176,34 @@ public class PDNameTreeNode extends PDObject {
 		}
 		return Collections.emptyMap();
 	}
+
+	/**
+	 * Limits of kids of the node. If limits of some kid are absent, its lower
+	 * and upper limits are null.
+	 */
+	private static final class KidsLimits {
+		private final String[] lower;
+		private final String[] upper;
+		private final boolean isSorted;
+
+		private KidsLimits(List<PDNameTreeNode> kids) {
+			int size = kids.size();
+			this.lower = new String[size];
+			this.upper = new String[size];
+			boolean sorted = true;
+			for (int i = 0; i < size; ++i) {
+				String[] limits = kids.get(i).getLimitsArray();
+				if (limits == null || limits[0].compareTo(limits[1]) > 0) {
+					sorted = false;
+					continue;
+				}
+				this.lower[i] = limits[0];
+				this.upper[i] = limits[1];
+				if (i > 0 && (this.upper[i - 1] == null || this.upper[i - 1].compareTo(limits[0]) >= 0)) {
+					sorted = false;
+				}
+			}
+			this.isSorted = sorted;
+		}
+	}
 }
@@ -0,0 +1,334 @@
+/**
+ * This file is part of veraPDF Parser, a module of the veraPDF project.
+ * Copyright (c) 2015, veraPDF Consortium <info@verapdf.org>
+ * All rights reserved.
+ *
+ * veraPDF Parser is free software: you can redistribute it and/or modify
+ * it under the terms of either:
+ *
+ * The GNU General public license GPLv3+.
+ * You should have received a copy of the GNU General Public License
+ * along with veraPDF Parser as the LICENSE.GPL file in the root of the source
+ * tree.  If not, see http://www.gnu.org/licenses/ or
+ * https://www.gnu.org/licenses/gpl-3.0.en.html.
+ *
+ * The Mozilla Public License MPLv2+.
+ * You should have received a copy of the Mozilla Public License along with
+ * veraPDF Parser as the LICENSE.MPL file in the root of the source tree.
+ * If a copy of the MPL was not distributed with this file, you can obtain one at
+ * http://mozilla.org/MPL/2.0/.
+ */
+package org.verapdf.pd;
+
+import org.verapdf.as.ASAtom;
+import org.verapdf.as.io.ASInputStream;
+import org.verapdf.as.io.ASMemoryInStream;
+import org.verapdf.cos.COSDictionary;
+import org.verapdf.cos.COSKey;
+import org.verapdf.cos.COSObjType;
+import org.verapdf.cos.COSObject;
+import org.verapdf.cos.COSStream;
+import org.verapdf.external.ICCProfile;
+import org.verapdf.factory.fonts.PDFontFactory;
+import org.verapdf.io.ReaderOptions;
+import org.verapdf.pd.font.FontProgram;
+import org.verapdf.pd.font.PDCIDFont;
+import org.verapdf.pd.font.PDFont;
+import org.verapdf.pd.font.PDType0Font;
+import org.verapdf.pd.font.cff.CFFFontProgram;
+import org.verapdf.pd.font.cmap.CMap;
+import org.verapdf.pd.font.cmap.PDCMap;
+import org.verapdf.pd.font.truetype.CIDFontType2Program;
+import org.verapdf.pd.font.type1.Type1FontProgram;
+import org.verapdf.tools.StaticResources;
+
+import java.io.IOException;
+import java.util.*;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Walks resources of all pages of document and parses embedded CMaps, ICC
+ * profiles and font programs referenced from them. Objects and stream data
+ * are read from the document sequentially in the calling thread, only parsing
+ * of decoded data is done by executor. Parsed objects are put into
+ * {@link StaticResources} caches of the calling thread, so that later
+ * traversal of document in this thread doesn't parse them again.
+ */
+final class ResourcesPreloader {
+
+	private static final Logger LOGGER = Logger.getLogger(ResourcesPreloader.class.getCanonicalName());
+
+	private final ExecutorService executor;
+	private final ReaderOptions readerOptions;
+
+	private final Set<COSKey> visited = new HashSet<>();
+	private final List<COSObject> fonts = new ArrayList<>();
+	private final Map<COSKey, COSObject> cMaps = new LinkedHashMap<>();
+	private final Map<COSKey, COSObject> iccProfiles = new LinkedHashMap<>();
+
+	ResourcesPreloader(ExecutorService executor, ReaderOptions readerOptions) {
+		this.executor = executor;
+		this.readerOptions = readerOptions;
+	}
+
+	void preload(List<PDPage> pages) {
+		for (PDPage page : pages) {
+			PDResources resources = page.getResources();
+			if (resources != null) {
+				collectResources(resources.getObject());
+			}
+		}
+		Map<COSKey, Future<ICCProfile>> iccTasks = submitICCProfiles();
+		Map<COSKey, Future<CMap>> cMapTasks = submitCMaps();
+		try {
+			for (Map.Entry<COSKey, Future<CMap>> task : cMapTasks.entrySet()) {
+				CMap cMap = getResult(task.getValue(), "CMap " + task.getKey());
+				if (cMap != null) {
+					PDCMap.cacheEmbeddedCMap(task.getKey(), cMap);
+				}
+			}
+			// CMaps are needed to create font programs of Type0 fonts
+			Map<FontProgram, Future<List<FontProgram>>> fontTasks = submitFontPrograms();
+			for (Map.Entry<COSKey, Future<ICCProfile>> task : iccTasks.entrySet()) {
+				ICCProfile iccProfile = getResult(task.getValue(), "ICC profile " + task.getKey());
+				if (iccProfile != null) {
+					StaticResources.cacheICCProfile(task.getKey(), iccProfile);
+				}
+			}
+			for (Map.Entry<FontProgram, Future<List<FontProgram>>> task : fontTasks.entrySet()) {
+				List<FontProgram> cachedFonts = getResult(task.getValue(), "Font program");
+				if (cachedFonts != null) {
+					for (FontProgram cachedFont : cachedFonts) {
+						StaticResources.cacheFontProgram(null, cachedFont);
+					}
+				}
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			LOGGER.log(Level.FINE, "Preloading of resources is interrupted", e);
+		}
+	}
+
+	private void collectResources(COSObject resources) {
+		if (!markVisited(resources) || resources.getType() != COSObjType.COS_DICT) {
+			return;
+		}
+		for (COSObject font : getValues(resources.getKey(ASAtom.FONT))) {
+			collectFont(font);
+		}
+		for (COSObject xObject : getValues(resources.getKey(ASAtom.XOBJECT))) {
+			collectXObject(xObject);
+		}
+		for (COSObject colorSpace : getValues(resources.getKey(ASAtom.COLORSPACE))) {
+			collectColorSpace(colorSpace);
+		}
+	}
+
+	private void collectFont(COSObject font) {
+		if (!markVisited(font) || font.getType() != COSObjType.COS_DICT) {
+			return;
+		}
+		this.fonts.add(font);
+		COSObject encoding = font.getKey(ASAtom.ENCODING);
+		if (encoding != null && encoding.getType() == COSObjType.COS_STREAM) {
+			addStream(this.cMaps, encoding);
+		}
+		if (font.getNameKey(ASAtom.SUBTYPE) == ASAtom.TYPE3) {
+			collectResources(font.getKey(ASAtom.RESOURCES));
+		}
+	}
+
+	private void collectXObject(COSObject xObject) {
+		if (!markVisited(xObject) || xObject.getType() != COSObjType.COS_STREAM) {
+			return;
+		}
+		ASAtom subtype = xObject.getNameKey(ASAtom.SUBTYPE);
+		if (subtype == ASAtom.FORM) {
+			collectResources(xObject.getKey(ASAtom.RESOURCES));
+		} else if (subtype == ASAtom.IMAGE) {
+			collectColorSpace(xObject.getKey(ASAtom.COLORSPACE));
+		}
+	}
+
+	private void collectColorSpace(COSObject colorSpace) {
+		if (colorSpace == null || colorSpace.getType() != COSObjType.COS_ARRAY
+				|| !markVisited(colorSpace)) {
+			return;
+		}
+		int size = colorSpace.size().intValue();
+		if (size > 1 && colorSpace.at(0).getType() == COSObjType.COS_NAME
+				&& colorSpace.at(0).getName() == ASAtom.ICCBASED) {
+			COSObject stream = colorSpace.at(1);
+			if (stream.getType() == COSObjType.COS_STREAM) {
+				addStream(this.iccProfiles, stream);
+			}
+			return;
+		}
+		// base and alternate color spaces of Indexed, Separation, DeviceN and Pattern
+		for (int i = 1; i < size; ++i) {
+			collectColorSpace(colorSpace.at(i));
+		}
+	}
+
+	private Map<COSKey, Future<ICCProfile>> submitICCProfiles() {
+		Map<COSKey, Future<ICCProfile>> res = new LinkedHashMap<>();
+		for (Map.Entry<COSKey, COSObject> entry : this.iccProfiles.entrySet()) {
+			final COSObject stream = entry.getValue();
+			final ASInputStream data = readDecodedData(stream);
+			if (data != null) {
+				res.put(entry.getKey(), this.executor.submit(new Callable<ICCProfile>() {
+					@Override
+					public ICCProfile call() {
+						return new ICCProfile(stream, data);
+					}
+				}));
+			}
+		}
+		return res;
+	}
+
+	private Map<COSKey, Future<CMap>> submitCMaps() {
+		Map<COSKey, Future<CMap>> res = new LinkedHashMap<>();
+		for (Map.Entry<COSKey, COSObject> entry : this.cMaps.entrySet()) {
+			if (PDCMap.isEmbeddedCMapCached(entry.getKey())) {
+				continue;
+			}
+			final ASInputStream data = readDecodedData(entry.getValue());
+			if (data != null) {
+				res.put(entry.getKey(), this.executor.submit(new Callable<CMap>() {
+					@Override
+					public CMap call() {
+						return PDCMap.parseEmbeddedCMap(data);
+					}
+				}));
+			}
+		}
+		return res;
+	}
+
+	/**
+	 * Font programs are created in the calling thread, as it reads font
+	 * dictionaries and font files. Programs whose parsing uses only font
+	 * data are parsed by executor, other programs are parsed right away.
+	 */
+	private Map<FontProgram, Future<List<FontProgram>>> submitFontPrograms() {
+		Map<FontProgram, Future<List<FontProgram>>> res = new IdentityHashMap<>();
+		for (COSObject fontObject : this.fonts) {
+			try {
+				submitFontProgram(fontObject, res, this.readerOptions);
+			} catch (RuntimeException e) {
+				LOGGER.log(Level.FINE, "Font " + fontObject.getObjectKey() + " can't be preloaded", e);
+			}
+		}
+		return res;
+	}
+
+	private void submitFontProgram(COSObject fontObject, Map<FontProgram, Future<List<FontProgram>>> tasks,
+								   final ReaderOptions readerOptions) {
+		PDFont font = PDFontFactory.getPDFont(fontObject);
+		if (font == null || font.getSubtype() == ASAtom.TYPE3) {
+			return;
+		}
+		if (font instanceof PDType0Font) {
+			// font program of Type0 font is the one of its descendant CIDFont
+			PDType0Font type0Font = (PDType0Font) font;
+			COSDictionary descendant = type0Font.getDescendantFont();
+			if (descendant == null) {
+				return;
+			}
+			PDCMap cMap = type0Font.getCMap();
+			font = new PDCIDFont(descendant, cMap == null ? null : cMap.getCMapFile());
+		}
+		final FontProgram fontProgram = font.getFontProgram();
+		if (fontProgram == null || tasks.containsKey(fontProgram)) {
+			return;
+		}
+		if (fontProgram instanceof Type1FontProgram || fontProgram instanceof CFFFontProgram
+				|| fontProgram instanceof CIDFontType2Program) {
+			tasks.put(fontProgram, this.executor.submit(new Callable<List<FontProgram>>() {
+				@Override
+				public List<FontProgram> call() {
+					return parseFontProgram(fontProgram, readerOptions);
+				}
+			}));
+		} else {
+			try {
+				fontProgram.parseFont();
+			} catch (IOException | RuntimeException e) {
+				LOGGER.log(Level.FINE, "Font program can't be preloaded", e);
+			}
+		}
+	}
+
+	/**
+	 * Parses font program in executor thread.
+	 *
+	 * @return font programs cached in {@link StaticResources} during parsing,
+	 * they should be cached in the calling thread.
+	 */
+	private static List<FontProgram> parseFontProgram(FontProgram fontProgram, ReaderOptions readerOptions) {
+		Map<String, FontProgram> previousCachedFonts = StaticResources.getCachedFonts();
+		ReaderOptions previousReaderOptions = StaticResources.getReaderOptions();
+		Map<String, FontProgram> cachedFonts = new HashMap<>();
+		StaticResources.setCachedFonts(cachedFonts);
+		StaticResources.setReaderOptions(readerOptions);
+		try {
+			fontProgram.parseFont();
+		} catch (IOException e) {
+			LOGGER.log(Level.FINE, "Font program can't be preloaded", e);
+		} finally {
+			StaticResources.setCachedFonts(previousCachedFonts);
+			StaticResources.setReaderOptions(previousReaderOptions);
+		}
+		return new ArrayList<>(cachedFonts.values());
+	}
+
+	private static <T> T getResult(Future<T> task, String description) throws InterruptedException {
+		try {
+			return task.get();
+		} catch (ExecutionException e) {
+			LOGGER.log(Level.FINE, description + " can't be preloaded", e.getCause());
+			return null;
+		}
+	}
+
+	private static ASInputStream readDecodedData(COSObject stream) {
+		try (ASInputStream data = stream.getData(COSStream.FilterFlags.DECODE)) {
+			return data == null ? null : new ASMemoryInStream(data);
+		} catch (IOException | RuntimeException e) {
+			LOGGER.log(Level.FINE, "Stream " + stream.getObjectKey() + " can't be preloaded", e);
+			return null;
+		}
+	}
+
+	private static void addStream(Map<COSKey, COSObject> streams, COSObject stream) {
+		COSKey key = stream.getObjectKey();
+		if (key != null && !streams.containsKey(key)) {
+			streams.put(key, stream);
+		}
+	}
+
+	/**
+	 * @return false if object is null or was already visited. Direct objects
+	 * can't be referenced twice, so only indirect ones are remembered.
+	 */
+	private boolean markVisited(COSObject object) {
+		if (object == null) {
+			return false;
+		}
+		COSKey key = object.getObjectKey();
+		return key == null || this.visited.add(key);
+	}
+
+	private static Collection<COSObject> getValues(COSObject dictionary) {
+		if (dictionary != null && dictionary.getType() == COSObjType.COS_DICT) {
+			return dictionary.getValues();
+		}
+		return Collections.emptyList();
+	}
+}
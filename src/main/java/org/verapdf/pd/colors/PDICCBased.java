@@ -23,10 +23,12 @@ package org.verapdf.pd.colors;
 import org.verapdf.as.ASAtom;
 import org.verapdf.as.io.ASInputStream;
 import org.verapdf.as.io.ASMemoryInStream;
+import org.verapdf.cos.COSKey;
 import org.verapdf.cos.COSObjType;
 import org.verapdf.cos.COSObject;
 import org.verapdf.cos.COSStream;
 import org.verapdf.external.ICCProfile;
+import org.verapdf.tools.StaticResources;
 
 import java.util.logging.Level;
 import java.util.logging.Logger;
@@ -59,7 +61,7 @@ public class PDICCBased extends PDColorSpace {
 		super(obj);
 		COSObject stream = obj.at(1);
 		if (stream != null && stream.getType() == COSObjType.COS_STREAM) {
-			this.iccProfile = new ICCProfile(stream);
+			this.iccProfile = loadICCProfile(stream);
 			Long n = this.iccProfile.getNumberOfColorants();
 			this.numberOfComponents = n == null ? -1 : n.intValue();
 		} else {
@@ -68,6 +70,19 @@ public class PDICCBased extends PDColorSpace {
 		}
 	}
 
+	private static ICCProfile loadICCProfile(COSObject stream) {
+		COSKey key = stream.getObjectKey();
+		if (key == null) {
+			return new ICCProfile(stream);
+		}
+		ICCProfile res = StaticResources.getICCProfile(key);
+		if (res == null) {
+			res = new ICCProfile(stream);
+			StaticResources.cacheICCProfile(key, res);
+		}
+		return res;
+	}
+
 	public ICCProfile getICCProfile() {
 		return this.iccProfile;
 	}
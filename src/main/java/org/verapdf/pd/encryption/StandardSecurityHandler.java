@@ -152,10 +152,10 @@ public class StandardSecurityHandler {
         ASInputStream filter;
         if (isRC4Decryption) {
             filter = new COSFilterRC4DecryptionDefault(stream, stringKey,
-                    this.encryptionKey);
+                    this.encryptionKey, getFilterBufferSize());
         } else {
             filter = new COSFilterAESDecryptionDefault(stream, stringKey,
-                    this.encryptionKey, false, method);
+                    this.encryptionKey, false, method, getFilterBufferSize());
         }
         byte[] buf = new byte[ASBufferedInFilter.BF_BUFFER_SIZE];
         byte[] res = new byte[0];
@@ -182,16 +182,21 @@ public class StandardSecurityHandler {
             ASInputStream filter;
             if (isRC4Decryption) {
                 filter = new COSFilterRC4DecryptionDefault(encStream, key,
-                        this.encryptionKey);
+                        this.encryptionKey, getFilterBufferSize());
             } else {
                 filter = new COSFilterAESDecryptionDefault(encStream, key,
-                        this.encryptionKey, true, method);
+                        this.encryptionKey, true, method, getFilterBufferSize());
             }
             document.addFileResource(new ASFileStreamCloser(filter));
             stream.setData(filter, COSStream.FilterFlags.RAW_DATA);
         }
     }
 
+    private int getFilterBufferSize() {
+        return this.document != null ? this.document.getReaderOptions().getFilterBufferSize()
+                : ASBufferedInFilter.getThreadBufferSize();
+    }
+
     private boolean decryptRequired(COSStream stream) {
         boolean res = true;
         List<ASAtom> filters = stream.getFilters().getFilters();
@@ -25,9 +25,7 @@ import org.verapdf.cos.COSObjType;
 import org.verapdf.cos.COSObject;
 
 import java.util.ArrayList;
-import java.util.HashMap;
 import java.util.List;
-import java.util.Map;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
@@ -40,7 +38,7 @@ public class CIDWArray {
 
     private static final Logger LOGGER = Logger.getLogger(CIDWArray.class.getCanonicalName());
 
-    private Map<Integer, Double> singleMappings;
+    private IntDoubleMap singleMappings;
     private List<CIDWArrayRange> ranges;
 
     /**
@@ -49,7 +47,7 @@ public class CIDWArray {
      * @param w is W array from CIDFont dictionary.
      */
     public CIDWArray(COSArray w) {
-        singleMappings = new HashMap<>();
+        singleMappings = new IntDoubleMap();
         ranges = new ArrayList<>();
         if (w != null) {
             for (int i = 0; i < w.size().intValue(); ++i) {
@@ -76,7 +74,7 @@ public class CIDWArray {
                 LOGGER.log(Level.SEVERE, "W array in CIDFont has invalid entry.");
                 continue;
             }
-            this.singleMappings.put(Integer.valueOf(cidBegin + i), arr.at(i).getReal());
+            this.singleMappings.put(cidBegin + i, arr.at(i).getReal().doubleValue());
         }
     }
 
@@ -86,16 +84,15 @@ public class CIDWArray {
      * @return width as it is specified in W array.
      */
     public Double getWidth(int cid) {
-        Double res = singleMappings.get(Integer.valueOf(cid));
-        if (res == null) {
-            for (CIDWArrayRange range : ranges) {
-                if (range.contains(cid)) {
-                    res = Double.valueOf(range.getWidth());
-                    break;
-                }
+        if (singleMappings.containsKey(cid)) {
+            return Double.valueOf(singleMappings.get(cid, 0));
+        }
+        for (CIDWArrayRange range : ranges) {
+            if (range.contains(cid)) {
+                return Double.valueOf(range.getWidth());
             }
         }
-        return res;
+        return null;
     }
 
 }
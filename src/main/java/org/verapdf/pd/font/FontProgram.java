@@ -94,6 +94,14 @@ public interface FontProgram {
      */
     String getGlyphName(int code);
 
+    /**
+     * @return approximate amount of memory in bytes used by glyph mappings and
+     * widths parsed from this font program or 0 if it is not known.
+     */
+    default long getMemoryUsage() {
+        return 0;
+    }
+
     /**
      * @return file stream closer that handles the closing of font program
      * stream or null if stream is memory stream.
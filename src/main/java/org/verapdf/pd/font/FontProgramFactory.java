@@ -0,0 +1,38 @@
+/**
+ * This file is part of veraPDF Parser, a module of the veraPDF project.
+ * Copyright (c) 2015, veraPDF Consortium <info@verapdf.org>
+ * All rights reserved.
+ *
+ * veraPDF Parser is free software: you can redistribute it and/or modify
+ * it under the terms of either:
+ *
+ * The GNU General public license GPLv3+.
+ * You should have received a copy of the GNU General Public License
+ * along with veraPDF Parser as the LICENSE.GPL file in the root of the source
+ * tree.  If not, see http://www.gnu.org/licenses/ or
+ * https://www.gnu.org/licenses/gpl-3.0.en.html.
+ *
+ * The Mozilla Public License MPLv2+.
+ * You should have received a copy of the Mozilla Public License along with
+ * veraPDF Parser as the LICENSE.MPL file in the root of the source tree.
+ * If a copy of the MPL was not distributed with this file, you can obtain one at
+ * http://mozilla.org/MPL/2.0/.
+ */
+package org.verapdf.pd.font;
+
+import org.verapdf.as.io.ASInputStream;
+
+import java.io.IOException;
+
+/**
+ * Creates font program of particular type from decoded font data.
+ */
+public interface FontProgramFactory {
+
+    /**
+     * @param fontData is decoded data of embedded font file.
+     * @return font program for given data.
+     * @throws IOException if font program can't be created from the data.
+     */
+    FontProgram createFontProgram(ASInputStream fontData) throws IOException;
+}
@@ -0,0 +1,73 @@
+/**
+ * This file is part of veraPDF Parser, a module of the veraPDF project.
+ * Copyright (c) 2015, veraPDF Consortium <info@verapdf.org>
+ * All rights reserved.
+ *
+ * veraPDF Parser is free software: you can redistribute it and/or modify
+ * it under the terms of either:
+ *
+ * The GNU General public license GPLv3+.
+ * You should have received a copy of the GNU General Public License
+ * along with veraPDF Parser as the LICENSE.GPL file in the root of the source
+ * tree.  If not, see http://www.gnu.org/licenses/ or
+ * https://www.gnu.org/licenses/gpl-3.0.en.html.
+ *
+ * The Mozilla Public License MPLv2+.
+ * You should have received a copy of the Mozilla Public License along with
+ * veraPDF Parser as the LICENSE.MPL file in the root of the source tree.
+ * If a copy of the MPL was not distributed with this file, you can obtain one at
+ * http://mozilla.org/MPL/2.0/.
+ */
+package org.verapdf.pd.font;
+
+/**
+ * Hash map from primitive int keys to primitive float values.
+ */
+public class IntFloatMap extends IntKeyMap {
+
+    private float[] values;
+
+    public IntFloatMap() {
+        this(0);
+    }
+
+    /**
+     * @param expectedSize is number of entries that can be added without
+     *                     resizing of the map.
+     */
+    public IntFloatMap(int expectedSize) {
+        super(expectedSize);
+        this.values = new float[capacity()];
+    }
+
+    public void put(int key, float value) {
+        // slot is found first, the table may be resized while inserting
+        int slot = insert(key);
+        this.values[slot] = value;
+    }
+
+    /**
+     * @return value for given key or defaultValue if map doesn't contain the
+     * key.
+     */
+    public float get(int key, float defaultValue) {
+        int slot = indexOf(key);
+        return slot >= 0 ? this.values[slot] : defaultValue;
+    }
+
+    @Override
+    protected void rehashValues(int[] newSlots, int capacity) {
+        float[] newValues = new float[capacity];
+        for (int slot = 0; slot < newSlots.length; ++slot) {
+            if (newSlots[slot] >= 0) {
+                newValues[newSlots[slot]] = this.values[slot];
+            }
+        }
+        this.values = newValues;
+    }
+
+    @Override
+    protected int getValueSize() {
+        return 4;
+    }
+}
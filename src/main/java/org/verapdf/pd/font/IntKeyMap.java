@@ -0,0 +1,180 @@
+/**
+ * This file is part of veraPDF Parser, a module of the veraPDF project.
+ * Copyright (c) 2015, veraPDF Consortium <info@verapdf.org>
+ * All rights reserved.
+ *
+ * veraPDF Parser is free software: you can redistribute it and/or modify
+ * it under the terms of either:
+ *
+ * The GNU General public license GPLv3+.
+ * You should have received a copy of the GNU General Public License
+ * along with veraPDF Parser as the LICENSE.GPL file in the root of the source
+ * tree.  If not, see http://www.gnu.org/licenses/ or
+ * https://www.gnu.org/licenses/gpl-3.0.en.html.
+ *
+ * The Mozilla Public License MPLv2+.
+ * You should have received a copy of the Mozilla Public License along with
+ * veraPDF Parser as the LICENSE.MPL file in the root of the source tree.
+ * If a copy of the MPL was not distributed with this file, you can obtain one at
+ * http://mozilla.org/MPL/2.0/.
+ */
+package org.verapdf.pd.font;
+
+/**
+ * Base class for hash maps with primitive int keys. Keys are kept in open
+ * addressing table with linear probing, values are kept by subclasses in
+ * primitive array of the same length. Entries can't be removed.
+ */
+public abstract class IntKeyMap {
+
+    private static final int MIN_CAPACITY = 16;
+    // 4 bytes of key and 1 byte of used flag for each slot
+    private static final int SLOT_OVERHEAD = 5;
+    private static final int ARRAY_HEADER_SIZE = 16;
+
+    private int[] keys;
+    private boolean[] used;
+    private int size;
+    private int threshold;
+
+    protected IntKeyMap(int expectedSize) {
+        int capacity = MIN_CAPACITY;
+        while (capacity * 2 / 3 < expectedSize && capacity < (1 << 30)) {
+            capacity <<= 1;
+        }
+        this.keys = new int[capacity];
+        this.used = new boolean[capacity];
+        this.threshold = capacity * 2 / 3;
+    }
+
+    /**
+     * Moves values into new array of given capacity after resizing of the
+     * table.
+     *
+     * @param newSlots is new slot for each old slot, or -1 for unused slots.
+     */
+    protected abstract void rehashValues(int[] newSlots, int capacity);
+
+    /**
+     * @return size of one value in bytes.
+     */
+    protected abstract int getValueSize();
+
+    /**
+     * @return number of entries in the map.
+     */
+    public int size() {
+        return this.size;
+    }
+
+    public boolean isEmpty() {
+        return this.size == 0;
+    }
+
+    public boolean containsKey(int key) {
+        return indexOf(key) >= 0;
+    }
+
+    /**
+     * @return all keys of the map in no particular order.
+     */
+    public int[] getKeys() {
+        int[] res = new int[this.size];
+        int i = 0;
+        for (int slot = 0; slot < this.keys.length; ++slot) {
+            if (this.used[slot]) {
+                res[i++] = this.keys[slot];
+            }
+        }
+        return res;
+    }
+
+    /**
+     * @return approximate amount of memory in bytes used by the map tables.
+     */
+    public long getMemoryUsage() {
+        return (long) this.keys.length * (SLOT_OVERHEAD + getValueSize()) + 3 * ARRAY_HEADER_SIZE;
+    }
+
+    protected int capacity() {
+        return this.keys.length;
+    }
+
+    protected boolean isUsed(int slot) {
+        return this.used[slot];
+    }
+
+    protected int getKey(int slot) {
+        return this.keys[slot];
+    }
+
+    /**
+     * @return slot of given key or -1 if map doesn't contain the key.
+     */
+    protected int indexOf(int key) {
+        int mask = this.keys.length - 1;
+        int slot = hash(key) & mask;
+        while (this.used[slot]) {
+            if (this.keys[slot] == key) {
+                return slot;
+            }
+            slot = (slot + 1) & mask;
+        }
+        return -1;
+    }
+
+    /**
+     * Finds slot for given key, adding the key to the map if it is absent.
+     *
+     * @return slot in which value for the key should be stored.
+     */
+    protected int insert(int key) {
+        int slot = findSlot(this.keys, this.used, key);
+        if (this.used[slot]) {
+            return slot;
+        }
+        if (this.size >= this.threshold) {
+            grow();
+            slot = findSlot(this.keys, this.used, key);
+        }
+        this.keys[slot] = key;
+        this.used[slot] = true;
+        this.size++;
+        return slot;
+    }
+
+    private void grow() {
+        int capacity = this.keys.length << 1;
+        int[] newKeys = new int[capacity];
+        boolean[] newUsed = new boolean[capacity];
+        int[] newSlots = new int[this.keys.length];
+        for (int slot = 0; slot < this.keys.length; ++slot) {
+            if (this.used[slot]) {
+                int newSlot = findSlot(newKeys, newUsed, this.keys[slot]);
+                newKeys[newSlot] = this.keys[slot];
+                newUsed[newSlot] = true;
+                newSlots[slot] = newSlot;
+            } else {
+                newSlots[slot] = -1;
+            }
+        }
+        this.keys = newKeys;
+        this.used = newUsed;
+        this.threshold = capacity * 2 / 3;
+        rehashValues(newSlots, capacity);
+    }
+
+    private static int findSlot(int[] keys, boolean[] used, int key) {
+        int mask = keys.length - 1;
+        int slot = hash(key) & mask;
+        while (used[slot] && keys[slot] != key) {
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+
+    private static int hash(int key) {
+        int h = key * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+}
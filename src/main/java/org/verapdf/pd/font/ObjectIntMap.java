@@ -0,0 +1,173 @@
+/**
+ * This file is part of veraPDF Parser, a module of the veraPDF project.
+ * Copyright (c) 2015, veraPDF Consortium <info@verapdf.org>
+ * All rights reserved.
+ *
+ * veraPDF Parser is free software: you can redistribute it and/or modify
+ * it under the terms of either:
+ *
+ * The GNU General public license GPLv3+.
+ * You should have received a copy of the GNU General Public License
+ * along with veraPDF Parser as the LICENSE.GPL file in the root of the source
+ * tree.  If not, see http://www.gnu.org/licenses/ or
+ * https://www.gnu.org/licenses/gpl-3.0.en.html.
+ *
+ * The Mozilla Public License MPLv2+.
+ * You should have received a copy of the Mozilla Public License along with
+ * veraPDF Parser as the LICENSE.MPL file in the root of the source tree.
+ * If a copy of the MPL was not distributed with this file, you can obtain one at
+ * http://mozilla.org/MPL/2.0/.
+ */
+package org.verapdf.pd.font;
+
+import java.util.AbstractSet;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+/**
+ * Hash map from object keys to primitive int values. Keys are kept in open
+ * addressing table with linear probing. Entries can't be removed, null keys
+ * are not allowed.
+ *
+ * @param <K> is type of keys.
+ */
+public class ObjectIntMap<K> {
+
+    private static final int MIN_CAPACITY = 16;
+    private static final int ARRAY_HEADER_SIZE = 16;
+    private static final int REFERENCE_SIZE = 4;
+
+    private Object[] keys;
+    private int[] values;
+    private int size;
+    private int threshold;
+
+    public ObjectIntMap() {
+        this.keys = new Object[MIN_CAPACITY];
+        this.values = new int[MIN_CAPACITY];
+        this.threshold = MIN_CAPACITY * 2 / 3;
+    }
+
+    public void put(K key, int value) {
+        int slot = findSlot(this.keys, key);
+        if (this.keys[slot] == null) {
+            if (this.size >= this.threshold) {
+                grow();
+                slot = findSlot(this.keys, key);
+            }
+            this.keys[slot] = key;
+            this.size++;
+        }
+        this.values[slot] = value;
+    }
+
+    /**
+     * @return value for given key or defaultValue if map doesn't contain the
+     * key.
+     */
+    public int get(Object key, int defaultValue) {
+        if (key == null) {
+            return defaultValue;
+        }
+        int slot = findSlot(this.keys, key);
+        return this.keys[slot] != null ? this.values[slot] : defaultValue;
+    }
+
+    public boolean containsKey(Object key) {
+        return key != null && this.keys[findSlot(this.keys, key)] != null;
+    }
+
+    public int size() {
+        return this.size;
+    }
+
+    /**
+     * @return unmodifiable view of keys of this map.
+     */
+    public Set<K> keySet() {
+        return new AbstractSet<K>() {
+            @Override
+            public Iterator<K> iterator() {
+                return new KeyIterator();
+            }
+
+            @Override
+            public int size() {
+                return ObjectIntMap.this.size;
+            }
+
+            @Override
+            public boolean contains(Object o) {
+                return containsKey(o);
+            }
+        };
+    }
+
+    /**
+     * @return approximate amount of memory in bytes used by the map tables,
+     * keys themselves are not counted.
+     */
+    public long getMemoryUsage() {
+        return (long) this.keys.length * (REFERENCE_SIZE + 4) + 2 * ARRAY_HEADER_SIZE;
+    }
+
+    private void grow() {
+        int capacity = this.keys.length << 1;
+        Object[] newKeys = new Object[capacity];
+        int[] newValues = new int[capacity];
+        for (int slot = 0; slot < this.keys.length; ++slot) {
+            if (this.keys[slot] != null) {
+                int newSlot = findSlot(newKeys, this.keys[slot]);
+                newKeys[newSlot] = this.keys[slot];
+                newValues[newSlot] = this.values[slot];
+            }
+        }
+        this.keys = newKeys;
+        this.values = newValues;
+        this.threshold = capacity * 2 / 3;
+    }
+
+    private static int findSlot(Object[] keys, Object key) {
+        int mask = keys.length - 1;
+        int h = key.hashCode() * 0x9E3779B9;
+        int slot = (h ^ (h >>> 16)) & mask;
+        while (keys[slot] != null && !keys[slot].equals(key)) {
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+
+    private class KeyIterator implements Iterator<K> {
+        private int next = advance(0);
+
+        @Override
+        public boolean hasNext() {
+            return this.next < keys.length;
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public K next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            K res = (K) keys[this.next];
+            this.next = advance(this.next + 1);
+            return res;
+        }
+
+        @Override
+        public void remove() {
+            throw new UnsupportedOperationException("Entries of ObjectIntMap can't be removed");
+        }
+
+        private int advance(int from) {
+            int slot = from;
+            while (slot < keys.length && keys[slot] == null) {
+                slot++;
+            }
+            return slot;
+        }
+    }
+}
@@ -160,48 +160,53 @@ public class PDCIDFont extends PDFont {
                     this.getSubtype() == ASAtom.CID_FONT_TYPE2) {
                 COSStream trueTypeFontFile = fontDescriptor.getFontFile2();
                 COSKey key = trueTypeFontFile.getObjectKey();
-                COSObject cidToGIDMap = this.getCIDToGIDMap();
-                String fontProgramID = FontProgramIDGenerator.getCIDFontType2ProgramID(key, this.cMap, cidToGIDMap);
-                this.fontProgram = StaticResources.getCachedFont(fontProgramID);
-                if (fontProgram == null) {
-                    try (ASInputStream fontData = trueTypeFontFile.getData(COSStream.FilterFlags.DECODE)) {
-                        this.fontProgram = new CIDFontType2Program(
-                                fontData, this.cMap, cidToGIDMap);
-                        StaticResources.cacheFontProgram(fontProgramID, this.fontProgram);
-                    } catch (IOException e) {
-                        LOGGER.log(Level.FINE, "Can't read TrueType font program.", e);
-                    }
+                final COSObject cidToGIDMap = this.getCIDToGIDMap();
+                final CMap cMap = this.cMap;
+                String fontProgramID = FontProgramIDGenerator.getCIDFontType2ProgramID(key, cMap, cidToGIDMap);
+                String sharedFontProgramID = FontProgramIDGenerator.getSharedCIDFontType2ProgramID(cMap, cidToGIDMap);
+                try {
+                    this.fontProgram = StaticResources.getFontProgram(fontProgramID, sharedFontProgramID,
+                            trueTypeFontFile, new FontProgramFactory() {
+                                @Override
+                                public FontProgram createFontProgram(ASInputStream fontData) throws IOException {
+                                    return new CIDFontType2Program(fontData, cMap, cidToGIDMap);
+                                }
+                            });
+                } catch (IOException e) {
+                    LOGGER.log(Level.FINE, "Can't read TrueType font program.", e);
                 }
             } else if (fontDescriptor.canParseFontFile(ASAtom.FONT_FILE3)) {
                 COSStream fontFile = fontDescriptor.getFontFile3();
                 COSName subtype = (COSName) fontFile.getKey(ASAtom.SUBTYPE).getDirectBase();
                 COSKey key = fontFile.getObjectKey();
                 try {
-                    boolean isSubset = this.isSubset();
+                    final boolean isSubset = this.isSubset();
+                    final CMap cMap = this.cMap;
                     if (ASAtom.CID_FONT_TYPE0C == subtype.getName()) {
-                        String fontProgramID = FontProgramIDGenerator.getCFFFontProgramID(key, this.cMap, isSubset);
-                        this.fontProgram = StaticResources.getCachedFont(fontProgramID);
-                        if (fontProgram == null) {
-                            try (ASInputStream fontData = fontFile.getData(COSStream.FilterFlags.DECODE)) {
-                                this.fontProgram = new CFFFontProgram(fontData, this.cMap, isSubset);
-                                StaticResources.cacheFontProgram(fontProgramID, this.fontProgram);
-                            }
-                        }
+                        String fontProgramID = FontProgramIDGenerator.getCFFFontProgramID(key, cMap, isSubset);
+                        String sharedFontProgramID = FontProgramIDGenerator.getSharedCFFFontProgramID(cMap, isSubset);
+                        this.fontProgram = StaticResources.getFontProgram(fontProgramID, sharedFontProgramID,
+                                fontFile, new FontProgramFactory() {
+                                    @Override
+                                    public FontProgram createFontProgram(ASInputStream fontData) throws IOException {
+                                        return new CFFFontProgram(fontData, cMap, isSubset);
+                                    }
+                                });
                     } else if (ASAtom.OPEN_TYPE == subtype.getName()) {
                         ASAtom fontName = ASAtom.getASAtom(this.getName());
-                        boolean isCFF = fontName != ASAtom.TRUE_TYPE && fontName != ASAtom.CID_FONT_TYPE2;
-                        boolean isSymbolic = this.isSymbolic();
-                        COSObject encoding = this.getEncoding();
-                        String fontProgramID = FontProgramIDGenerator.getOpenTypeFontProgramID(key, isCFF, isSymbolic, encoding, this.cMap, isSubset);
-                        this.fontProgram = StaticResources.getCachedFont(fontProgramID);
-                        if (fontProgram == null) {
-                            try (ASInputStream fontData = fontFile.getData(COSStream.FilterFlags.DECODE)) {
-                                this.fontProgram = new OpenTypeFontProgram(
-                                        fontData, isCFF, isSymbolic, encoding,
-                                        this.cMap, isSubset);
-                                StaticResources.cacheFontProgram(fontProgramID, this.fontProgram);
-                            }
-                        }
+                        final boolean isCFF = fontName != ASAtom.TRUE_TYPE && fontName != ASAtom.CID_FONT_TYPE2;
+                        final boolean isSymbolic = this.isSymbolic();
+                        final COSObject encoding = this.getEncoding();
+                        String fontProgramID = FontProgramIDGenerator.getOpenTypeFontProgramID(key, isCFF, isSymbolic, encoding, cMap, isSubset);
+                        String sharedFontProgramID = FontProgramIDGenerator.getSharedOpenTypeFontProgramID(isCFF, isSymbolic, encoding, cMap, isSubset);
+                        this.fontProgram = StaticResources.getFontProgram(fontProgramID, sharedFontProgramID,
+                                fontFile, new FontProgramFactory() {
+                                    @Override
+                                    public FontProgram createFontProgram(ASInputStream fontData) throws IOException {
+                                        return new OpenTypeFontProgram(fontData, isCFF, isSymbolic, encoding,
+                                                cMap, isSubset);
+                                    }
+                                });
                     } else {
                         LOGGER.warning("Invalid subtype of the embedded font stream");
                     }
@@ -22,6 +22,7 @@ package org.verapdf.pd.font.cff;
 
 import org.verapdf.io.SeekableInputStream;
 import org.verapdf.pd.font.FontProgram;
+import org.verapdf.pd.font.IntIntMap;
 import org.verapdf.pd.font.cmap.CMap;
 
 import java.io.IOException;
@@ -36,7 +37,7 @@ public class CFFCIDFontProgram extends CFFFontBaseParser implements FontProgram
 
     private long fdArrayOffset;
     private long fdSelectOffset;
-    private Map<Integer, Integer> charSet;  // mapping cid -> gid
+    private IntIntMap charSet;  // mapping cid -> gid
     private boolean isDefaultCharSet = false;
     private int[] fdSelect;     // array with mapping gid -> font dict
     private int[] nominalWidths;
@@ -117,7 +118,7 @@ public class CFFCIDFontProgram extends CFFFontBaseParser implements FontProgram
     }
 
     private void readCharSet() throws IOException {
-        this.charSet = new HashMap<>(nGlyphs);
+        this.charSet = new IntIntMap(nGlyphs);
         this.charSet.put(0, 0);
         int format = this.readCard8();
         switch (format) {
@@ -227,13 +228,13 @@ public class CFFCIDFontProgram extends CFFFontBaseParser implements FontProgram
      * Gets glyph ID for given character ID.
      *
      * @param cid is character ID.
-     * @return glyph ID or null if character is not in font.
+     * @return glyph ID or -1 if character is not in font.
      */
-    private Integer getGid(int cid) {
+    private int getGid(int cid) {
         if (isDefaultCharSet) {
             return cid;
         }
-        return this.charSet.get(cid);
+        return this.charSet.get(cid, -1);
     }
 
     /**
@@ -242,8 +243,8 @@ public class CFFCIDFontProgram extends CFFFontBaseParser implements FontProgram
     @Override
     public float getWidth(int code) {
         int cid = this.externalCMap.toCID(code);
-        Integer gid = getGid(cid);
-        return (gid == null || gid == 0) ? -1 : widths.getWidth(gid);
+        int gid = getGid(cid);
+        return (gid == -1 || gid == 0) ? -1 : widths.getWidth(gid);
     }
 
     /**
@@ -278,8 +279,8 @@ public class CFFCIDFontProgram extends CFFFontBaseParser implements FontProgram
 
     @Override
     public boolean containsCID(int cid) {
-        return this.charSet.get(cid) != null &&
-                this.charSet.get(cid) != 0;
+        int gid = this.charSet.get(cid, 0);
+        return gid != 0;
     }
 
     public int getSupplement() {
@@ -325,12 +326,29 @@ public class CFFCIDFontProgram extends CFFFontBaseParser implements FontProgram
 
     public List<Integer> getCIDList() {
         if (charSet != null) {
-            List<Integer> res = new ArrayList<>(this.charSet.size());
-            for (Map.Entry<Integer, Integer> entry : this.charSet.entrySet()) {
-                res.add(entry.getKey());
+            int[] cids = this.charSet.getKeys();
+            Arrays.sort(cids);
+            List<Integer> res = new ArrayList<>(cids.length);
+            for (int cid : cids) {
+                res.add(Integer.valueOf(cid));
             }
             return res;
         }
         return Collections.emptyList();
     }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public long getMemoryUsage() {
+        long res = this.widths == null ? 0 : this.widths.getMemoryUsage();
+        if (this.charSet != null) {
+            res += this.charSet.getMemoryUsage();
+        }
+        if (this.fdSelect != null) {
+            res += 4L * this.fdSelect.length;
+        }
+        return res;
+    }
 }
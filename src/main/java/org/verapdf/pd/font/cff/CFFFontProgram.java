@@ -196,4 +196,12 @@ public class CFFFontProgram extends CFFFileBaseParser implements FontProgram {
             return new ASFileStreamCloser(this.source);
         }
     }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public long getMemoryUsage() {
+        return this.font == null ? 0 : this.font.getMemoryUsage();
+    }
 }
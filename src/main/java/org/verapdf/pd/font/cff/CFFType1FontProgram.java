@@ -44,6 +44,8 @@ public class CFFType1FontProgram extends CFFFontBaseParser implements FontProgra
     private int[] encoding;     // array with mapping code -> gid
     private boolean isStandardEncoding = false;
     private boolean isExpertEncoding = false;
+    private static final int MAP_ENTRY_SIZE = 48;
+
     private Map<String, Integer> charSet;   // mappings glyphName -> gid
     private Map<Integer, String> inverseCharSet;    // mappings gid -> glyph name
     private String[] encodingStrings;
@@ -381,4 +383,20 @@ public class CFFType1FontProgram extends CFFFontBaseParser implements FontProgra
         }
         return null;
     }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public long getMemoryUsage() {
+        long res = this.widths == null ? 0 : this.widths.getMemoryUsage();
+        if (this.encoding != null) {
+            res += 4L * this.encoding.length;
+        }
+        if (this.charSet != null) {
+            // entries of both char set maps with boxed gids
+            res += 2L * MAP_ENTRY_SIZE * this.charSet.size();
+        }
+        return res;
+    }
 }
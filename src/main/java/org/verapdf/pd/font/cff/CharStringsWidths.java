@@ -23,12 +23,11 @@ package org.verapdf.pd.font.cff;
 import org.verapdf.as.io.ASInputStream;
 import org.verapdf.as.io.ASMemoryInStream;
 import org.verapdf.pd.font.CFFNumber;
+import org.verapdf.pd.font.IntFloatMap;
 import org.verapdf.pd.font.type1.Type1CharStringParser;
 
 import java.io.IOException;
 import java.util.Arrays;
-import java.util.HashMap;
-import java.util.Map;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
@@ -60,7 +59,7 @@ public class CharStringsWidths {
     private int[] fdSelect;
 
     private float[] subsetFontWidths;
-    private Map<Integer, Float> generalFontWidths;
+    private IntFloatMap generalFontWidths;
 
     /**
      * Initializes handler with given values.
@@ -94,7 +93,7 @@ public class CharStringsWidths {
         if (isSubset) {
             parseSubsetWidths();
         } else {
-            this.generalFontWidths = new HashMap<>();
+            this.generalFontWidths = new IntFloatMap();
         }
     }
 
@@ -120,18 +119,20 @@ public class CharStringsWidths {
     }
 
     /**
-     * Gets width for glyph with given gid from charstrings.
+     * Gets width for glyph with given gid from charstrings. Widths of not
+     * subset fonts are read from font stream on demand, so method is
+     * synchronized.
      *
      * @param gid is glyph id.
      * @return width for glyph with given gid.
      *
      */
-    public float getWidth(int gid) {
+    public synchronized float getWidth(int gid) {
         if (isSubset && gid >= 0 && gid < subsetFontWidths.length) {
             return subsetFontWidths[gid];
         } else if (!isSubset) {
-            Float res = generalFontWidths.get(gid);
-            if (res != null) {
+            float res = generalFontWidths.get(gid, Float.NaN);
+            if (!Float.isNaN(res)) {
                 return res;
             } else {
                 CFFNumber width = getWidthFromCharstring(gid);
@@ -276,4 +277,14 @@ public class CharStringsWidths {
         }
         return res;
     }
+
+    /**
+     * @return approximate amount of memory in bytes used by parsed widths.
+     */
+    public long getMemoryUsage() {
+        if (this.isSubset) {
+            return this.subsetFontWidths == null ? 0 : 4L * this.subsetFontWidths.length;
+        }
+        return this.generalFontWidths == null ? 0 : this.generalFontWidths.getMemoryUsage();
+    }
 }
@@ -0,0 +1,180 @@
+/**
+ * This file is part of veraPDF Parser, a module of the veraPDF project.
+ * Copyright (c) 2015, veraPDF Consortium <info@verapdf.org>
+ * All rights reserved.
+ *
+ * veraPDF Parser is free software: you can redistribute it and/or modify
+ * it under the terms of either:
+ *
+ * The GNU General public license GPLv3+.
+ * You should have received a copy of the GNU General Public License
+ * along with veraPDF Parser as the LICENSE.GPL file in the root of the source
+ * tree.  If not, see http://www.gnu.org/licenses/ or
+ * https://www.gnu.org/licenses/gpl-3.0.en.html.
+ *
+ * The Mozilla Public License MPLv2+.
+ * You should have received a copy of the Mozilla Public License along with
+ * veraPDF Parser as the LICENSE.MPL file in the root of the source tree.
+ * If a copy of the MPL was not distributed with this file, you can obtain one at
+ * http://mozilla.org/MPL/2.0/.
+ */
+package org.verapdf.pd.font.cmap;
+
+import java.util.*;
+
+/**
+ * Immutable index of CID mappings of CMap. Mappings that are checked one by
+ * one in CMap are turned into sorted array of not overlapping code ranges,
+ * each range taken from the mapping that has priority for its codes. CID
+ * lookup is done with binary search.
+ */
+final class CIDIndex {
+
+    private final int[] starts;
+    private final int[] ends;
+    private final int[] cids;
+    private final boolean[] isNotDef;
+
+    private CIDIndex(int[] starts, int[] ends, int[] cids, boolean[] isNotDef) {
+        this.starts = starts;
+        this.ends = ends;
+        this.cids = cids;
+        this.isNotDef = isNotDef;
+    }
+
+    /**
+     * Builds index for given mappings. For each code CID is taken from the
+     * first CID mapping containing this code or, if there is no such
+     * mapping, from the first notdef mapping containing it.
+     */
+    static CIDIndex build(List<CIDMappable> cidMappings, List<CIDMappable> notDefMappings) {
+        List<int[]> ranges = new ArrayList<>();
+        CIDRanges.addRanges(cidMappings, ranges);
+        CIDRanges.addRanges(notDefMappings, ranges);
+        return build(ranges);
+    }
+
+    /**
+     * Gets CID for given character code.
+     *
+     * @return CID or -1 if no mapping contains this code.
+     */
+    int getCID(int code) {
+        int low = 0;
+        int high = this.starts.length - 1;
+        while (low <= high) {
+            int middle = (low + high) >>> 1;
+            if (this.starts[middle] > code) {
+                high = middle - 1;
+            } else if (this.ends[middle] < code) {
+                low = middle + 1;
+            } else {
+                return this.isNotDef[middle] ? this.cids[middle] : this.cids[middle] + code - this.starts[middle];
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * @param ranges are arrays of range start, range end, CID of range start
+     *               and notdef flag (1 for notdef range) in priority order.
+     */
+    private static CIDIndex build(List<int[]> ranges) {
+        // sweep over range boundaries keeping ranges that contain current
+        // code, range with the lowest index has priority
+        int size = ranges.size();
+        long[] events = new long[2 * size];
+        int eventsNumber = 0;
+        for (int i = 0; i < size; ++i) {
+            int[] range = ranges.get(i);
+            if (range[0] > range[1]) {
+                continue;
+            }
+            events[eventsNumber++] = encodeEvent(range[0], i, true);
+            if (range[1] != Integer.MAX_VALUE) {
+                events[eventsNumber++] = encodeEvent((long) range[1] + 1, i, false);
+            }
+        }
+        Arrays.sort(events, 0, eventsNumber);
+
+        IntList starts = new IntList();
+        IntList ends = new IntList();
+        IntList cids = new IntList();
+        List<Boolean> notDefs = new ArrayList<>();
+        TreeSet<Integer> active = new TreeSet<>();
+        int current = -1;
+        long segmentStart = 0;
+        int i = 0;
+        while (i < eventsNumber) {
+            long position = getEventPosition(events[i]);
+            while (i < eventsNumber && getEventPosition(events[i]) == position) {
+                Integer index = Integer.valueOf(getEventRange(events[i]));
+                if (isStartEvent(events[i])) {
+                    active.add(index);
+                } else {
+                    active.remove(index);
+                }
+                i++;
+            }
+            int winner = active.isEmpty() ? -1 : active.first().intValue();
+            if (winner != current) {
+                if (current != -1) {
+                    addSegment(ranges.get(current), segmentStart, position - 1, starts, ends, cids, notDefs);
+                }
+                current = winner;
+                segmentStart = position;
+            }
+        }
+        if (current != -1) {
+            addSegment(ranges.get(current), segmentStart, Integer.MAX_VALUE, starts, ends, cids, notDefs);
+        }
+        boolean[] isNotDef = new boolean[notDefs.size()];
+        for (int j = 0; j < isNotDef.length; ++j) {
+            isNotDef[j] = notDefs.get(j).booleanValue();
+        }
+        return new CIDIndex(starts.toArray(), ends.toArray(), cids.toArray(), isNotDef);
+    }
+
+    private static void addSegment(int[] range, long start, long end, IntList starts,
+                                   IntList ends, IntList cids, List<Boolean> notDefs) {
+        boolean isNotDef = range[3] != 0;
+        starts.add((int) start);
+        ends.add((int) end);
+        cids.add(isNotDef ? range[2] : (int) (range[2] + start - range[0]));
+        notDefs.add(Boolean.valueOf(isNotDef));
+    }
+
+    // events are sorted by position, end events go before start events at
+    // the same position, order of ranges doesn't matter
+    private static long encodeEvent(long position, int range, boolean isStart) {
+        return ((position - Integer.MIN_VALUE) << 31) | ((isStart ? 1L : 0L) << 30) | range;
+    }
+
+    private static long getEventPosition(long event) {
+        return (event >>> 31) + Integer.MIN_VALUE;
+    }
+
+    private static int getEventRange(long event) {
+        return (int) (event & ((1L << 30) - 1));
+    }
+
+    private static boolean isStartEvent(long event) {
+        return (event & (1L << 30)) != 0;
+    }
+
+    private static final class IntList {
+        private int[] values = new int[16];
+        private int size = 0;
+
+        void add(int value) {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size << 1);
+            }
+            values[size++] = value;
+        }
+
+        int[] toArray() {
+            return Arrays.copyOf(values, size);
+        }
+    }
+}
@@ -0,0 +1,99 @@
+/**
+ * This file is part of veraPDF Parser, a module of the veraPDF project.
+ * Copyright (c) 2015, veraPDF Consortium <info@verapdf.org>
+ * All rights reserved.
+ *
+ * veraPDF Parser is free software: you can redistribute it and/or modify
+ * it under the terms of either:
+ *
+ * The GNU General public license GPLv3+.
+ * You should have received a copy of the GNU General Public License
+ * along with veraPDF Parser as the LICENSE.GPL file in the root of the source
+ * tree.  If not, see http://www.gnu.org/licenses/ or
+ * https://www.gnu.org/licenses/gpl-3.0.en.html.
+ *
+ * The Mozilla Public License MPLv2+.
+ * You should have received a copy of the Mozilla Public License along with
+ * veraPDF Parser as the LICENSE.MPL file in the root of the source tree.
+ * If a copy of the MPL was not distributed with this file, you can obtain one at
+ * http://mozilla.org/MPL/2.0/.
+ */
+package org.verapdf.pd.font.cmap;
+
+import java.util.List;
+
+/**
+ * Sequence of CID mappings kept in primitive arrays. Each mapping is range of
+ * character codes with CID of its first code, single character mappings are
+ * ranges of length one. Mappings are checked in order, so the first one that
+ * contains character code is used.
+ */
+class CIDRanges implements CIDMappable {
+
+    private final int[] starts;
+    private final int[] ends;
+    private final int[] cids;
+    private final boolean isNotDef;
+    private final int maxCID;
+
+    /**
+     * @param isNotDef is true if all codes of range are mapped into the same
+     *                 CID, like in notdef ranges.
+     */
+    CIDRanges(int[] starts, int[] ends, int[] cids, boolean isNotDef) {
+        this.starts = starts;
+        this.ends = ends;
+        this.cids = cids;
+        this.isNotDef = isNotDef;
+        int max = 0;
+        for (int i = 0; i < starts.length; ++i) {
+            max = Math.max(max, isNotDef ? cids[i] : cids[i] + ends[i] - starts[i]);
+        }
+        this.maxCID = max;
+    }
+
+    @Override
+    public int getCID(int character) {
+        for (int i = 0; i < this.starts.length; ++i) {
+            if (character >= this.starts[i] && character <= this.ends[i]) {
+                return this.isNotDef ? this.cids[i] : this.cids[i] + character - this.starts[i];
+            }
+        }
+        return -1;
+    }
+
+    @Override
+    public int getMaxCID() {
+        return this.maxCID;
+    }
+
+    /**
+     * Adds ranges of given mappings to the list in the same order. Each range
+     * is represented as array of range start, range end, CID of range start
+     * and notdef flag, which is 1 if all codes of range have the same CID.
+     */
+    static void addRanges(List<CIDMappable> mappings, List<int[]> ranges) {
+        for (CIDMappable mapping : mappings) {
+            if (mapping instanceof CIDRanges) {
+                CIDRanges cidRanges = (CIDRanges) mapping;
+                for (int i = 0; i < cidRanges.size(); ++i) {
+                    ranges.add(new int[]{cidRanges.starts[i], cidRanges.ends[i], cidRanges.cids[i],
+                            cidRanges.isNotDef ? 1 : 0});
+                }
+            } else if (mapping instanceof CIDInterval) {
+                CIDInterval interval = (CIDInterval) mapping;
+                ranges.add(new int[]{interval.getIntervalStart(), interval.getIntervalEnd(),
+                        interval.getStartingCID(), interval instanceof NotDefInterval ? 1 : 0});
+            } else if (mapping instanceof SingleCIDMapping) {
+                SingleCIDMapping single = (SingleCIDMapping) mapping;
+                ranges.add(new int[]{single.getFrom(), single.getFrom(), single.getTo(), 0});
+            } else {
+                throw new IllegalArgumentException("Unsupported CID mapping " + mapping.getClass().getName());
+            }
+        }
+    }
+
+    int size() {
+        return this.starts.length;
+    }
+}
@@ -23,8 +23,6 @@ package org.verapdf.pd.font.cmap;
 import java.io.IOException;
 import java.io.InputStream;
 import java.util.*;
-import java.util.logging.Level;
-import java.util.logging.Logger;
 
 /**
  * This class represents cmap.
@@ -33,13 +31,12 @@ import java.util.logging.Logger;
  */
 public class CMap {
 
-    private static final Logger LOGGER = Logger.getLogger(CMap.class.getCanonicalName());
-
     private int wMode;
     private String registry, ordering;
     private int supplement;
     private String name;
     private boolean usesNonPredefinedCMap;
+    private boolean isUnmodifiable;
     int shortestCodeSpaceLength;
 
     private List<CIDMappable> cidMappings;
@@ -48,6 +45,10 @@ public class CMap {
     private Map<Integer, String> toUnicode;
     private List<ToUnicodeInterval> unicodeIntervals;
 
+    // lookup structures built on first use and reset on changes of mappings
+    private volatile CIDIndex cidIndex;
+    private volatile CodeSpaceTable codeSpaceTable;
+
     public CMap() {
         this.cidMappings = new LinkedList<>();
         this.codeSpaces = new ArrayList<>();
@@ -66,40 +67,15 @@ public class CMap {
      * @return CID for given character or 0 if it cannot be obtained.
      */
     public int toCID(int character) {
-        for (CIDMappable cidMapping : cidMappings) {
-            int res = cidMapping.getCID(character);
-            if (res != -1) {
-                return res;
-            }
-        }
-
-        for (CIDMappable notDefMapping : notDefMappings) {
-            int res = notDefMapping.getCID(character);
-            if (res != -1) {
-                return res;
-            }
-        }
-        return 0;
+        int res = getCIDIndex().getCID(character);
+        return res == -1 ? 0 : res;
     }
 
     /**
      * @return true if this CMap can convert given code to CID.
      */
     public boolean containsCode(int character) {
-        for (CIDMappable cidMapping : cidMappings) {
-            int res = cidMapping.getCID(character);
-            if (res != -1) {
-                return true;
-            }
-        }
-
-        for (CIDMappable notDefMapping : notDefMappings) {
-            int res = notDefMapping.getCID(character);
-            if (res != -1) {
-                return true;
-            }
-        }
-        return false;
+        return getCIDIndex().getCID(character) != -1;
     }
 
     /**
@@ -111,46 +87,25 @@ public class CMap {
      * @return CID of read code.
      */
     public int getCodeFromStream(InputStream stream) throws IOException {
-        byte[] charCode = new byte[5];
-        byte[] temp = new byte[1];
-        int previousShortestMatchingCodeSpaceLength = this.shortestCodeSpaceLength;
-
-        for (int i = 0; i <= 4; ++i) {
-            temp[0] = (byte) stream.read();
-            System.arraycopy(temp, 0, charCode, i, 1);
-            byte[] currentCode = Arrays.copyOf(charCode, i + 1);
-            for (CodeSpace codeSpace : codeSpaces) {     // Looking for complete match
-                if (codeSpace.contains(currentCode)) {
-                    int res = (int) CMapParser.numberFromBytes(currentCode);
-                    if (res != -1) {
-                        return res;
-                    }
-					LOGGER.log(Level.FINE, "CMap " + this.name + " has invalid codespace information.");
-                }
-            }
-            int shortestMatchingCodeSpaceLength = Integer.MAX_VALUE;
-            for (CodeSpace codeSpace : codeSpaces) { // Looking for partial matches on bytes 0, ..., i
-                boolean partialMatch = true;
-                for (int j = 0; j <= i; ++j) {
-                    if (!codeSpace.isPartialMatch(charCode[j], j)) {
-                        partialMatch = false;
-                        break;
-                    }
-                }
-                if (partialMatch && shortestMatchingCodeSpaceLength >
-                        codeSpace.getLength()) {
-                    shortestMatchingCodeSpaceLength = codeSpace.getLength();    // Remembering length of shortest partially matching codespace
-                }
-            }
-            if (shortestMatchingCodeSpaceLength == Integer.MAX_VALUE && !codeSpaces.isEmpty()) {
-                byte[] tmp = new byte[previousShortestMatchingCodeSpaceLength - i - 1];
-                stream.read(tmp);
-                System.arraycopy(tmp, 0, charCode, 0, tmp.length);      // No described partial matching, reading necessary amount of bytes and returning 0
-                return 0;
-            }
-            previousShortestMatchingCodeSpaceLength = shortestMatchingCodeSpaceLength;
+        return getCodeSpaceTable().readCode(stream, this.name);
+    }
+
+    private CIDIndex getCIDIndex() {
+        CIDIndex res = this.cidIndex;
+        if (res == null) {
+            res = CIDIndex.build(this.cidMappings, this.notDefMappings);
+            this.cidIndex = res;
         }
-        return 0;
+        return res;
+    }
+
+    private CodeSpaceTable getCodeSpaceTable() {
+        CodeSpaceTable res = this.codeSpaceTable;
+        if (res == null) {
+            res = CodeSpaceTable.build(this.codeSpaces);
+            this.codeSpaceTable = res;
+        }
+        return res;
     }
 
     /**
@@ -159,6 +114,8 @@ public class CMap {
      * @param another is another CMap.
      */
     public void useCMap(CMap another) {
+        this.cidIndex = null;
+        this.codeSpaceTable = null;
         this.cidMappings.addAll(another.cidMappings);
         this.codeSpaces.addAll(another.codeSpaces);
         this.notDefMappings.addAll(another.notDefMappings);
@@ -238,6 +195,7 @@ public class CMap {
      */
     void setCodeSpaces(List<CodeSpace> codeSpaces) {
         this.codeSpaces = codeSpaces;
+        this.codeSpaceTable = null;
     }
 
     /**
@@ -277,6 +235,7 @@ public class CMap {
     }
 
     void addNotDefInterval(NotDefInterval interval) {
+        this.cidIndex = null;
         this.notDefMappings.add(interval);
     }
 
@@ -284,15 +243,26 @@ public class CMap {
         return codeSpaces;
     }
 
+    void addCodeSpace(CodeSpace codeSpace) {
+        this.codeSpaces.add(codeSpace);
+        this.codeSpaceTable = null;
+        if (codeSpace.getLength() < this.shortestCodeSpaceLength) {
+            this.shortestCodeSpaceLength = codeSpace.getLength();
+        }
+    }
+
     void addCidInterval(CIDInterval interval) {
+        this.cidIndex = null;
         this.cidMappings.add(0, interval);
     }
 
     void addSingleCidMapping(SingleCIDMapping mapping) {
+        this.cidIndex = null;
         this.cidMappings.add(0, mapping);
     }
 
     void addSingleNotDefMapping(SingleCIDMapping mapping) {
+        this.cidIndex = null;
         this.notDefMappings.add(mapping);
     }
 
@@ -303,4 +273,53 @@ public class CMap {
     public List<CIDMappable> getCidMappings() {
         return cidMappings;
     }
+
+    List<CIDMappable> getNotDefMappings() {
+        return notDefMappings;
+    }
+
+    Map<Integer, String> getToUnicode() {
+        return toUnicode;
+    }
+
+    List<ToUnicodeInterval> getUnicodeIntervals() {
+        return unicodeIntervals;
+    }
+
+    /**
+     * @return true if this CMap is predefined CMap that is shared between
+     * documents and threads.
+     */
+    public boolean isUnmodifiable() {
+        return this.isUnmodifiable;
+    }
+
+    /**
+     * Makes all mappings of this CMap unmodifiable, so that it can be shared
+     * between threads.
+     */
+    void setUnmodifiable() {
+        this.isUnmodifiable = true;
+        this.cidMappings = Collections.unmodifiableList(this.cidMappings);
+        this.codeSpaces = Collections.unmodifiableList(this.codeSpaces);
+        this.notDefMappings = Collections.unmodifiableList(this.notDefMappings);
+        this.toUnicode = Collections.unmodifiableMap(this.toUnicode);
+        this.unicodeIntervals = Collections.unmodifiableList(this.unicodeIntervals);
+    }
+
+    /**
+     * Adds CID mapping with the lowest priority.
+     */
+    void appendCIDMapping(CIDMappable mapping) {
+        this.cidIndex = null;
+        this.cidMappings.add(mapping);
+    }
+
+    /**
+     * Adds notdef mapping with the lowest priority.
+     */
+    void appendNotDefMapping(CIDMappable mapping) {
+        this.cidIndex = null;
+        this.notDefMappings.add(mapping);
+    }
 }
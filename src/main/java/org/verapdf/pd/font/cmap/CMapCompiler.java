@@ -0,0 +1,284 @@
+/**
+ * This file is part of veraPDF Parser, a module of the veraPDF project.
+ * Copyright (c) 2015, veraPDF Consortium <info@verapdf.org>
+ * All rights reserved.
+ *
+ * veraPDF Parser is free software: you can redistribute it and/or modify
+ * it under the terms of either:
+ *
+ * The GNU General public license GPLv3+.
+ * You should have received a copy of the GNU General Public License
+ * along with veraPDF Parser as the LICENSE.GPL file in the root of the source
+ * tree.  If not, see http://www.gnu.org/licenses/ or
+ * https://www.gnu.org/licenses/gpl-3.0.en.html.
+ *
+ * The Mozilla Public License MPLv2+.
+ * You should have received a copy of the Mozilla Public License along with
+ * veraPDF Parser as the LICENSE.MPL file in the root of the source tree.
+ * If a copy of the MPL was not distributed with this file, you can obtain one at
+ * http://mozilla.org/MPL/2.0/.
+ */
+package org.verapdf.pd.font.cmap;
+
+import org.verapdf.parser.postscript.PostScriptException;
+
+import java.io.*;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Converts CMaps into compact binary form and reads them back. Compiled CMap
+ * keeps all the data of parsed CMap, including data of CMaps referenced with
+ * usecmap operator, and CID mappings are stored as arrays of ranges.
+ * <p>
+ * Method {@link #main(String[])} is run during the build to compile all
+ * predefined CMaps, see {@link PredefinedCMaps}.
+ */
+public final class CMapCompiler {
+
+    private static final int MAGIC = 0x56434D50;    // "VCMP"
+    private static final int VERSION = 1;
+
+    private CMapCompiler() {
+        // Disable default constructor
+    }
+
+    /**
+     * Compiles all predefined CMaps.
+     *
+     * @param args are directory with text CMap files and output directory for
+     *             compiled CMaps.
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length != 2) {
+            throw new IllegalArgumentException("Usage: CMapCompiler <cmap directory> <output directory>");
+        }
+        File[] files = new File(args[0]).listFiles();
+        if (files == null) {
+            throw new IOException("Directory " + args[0] + " can't be read");
+        }
+        File output = new File(args[1]);
+        if (!output.isDirectory() && !output.mkdirs()) {
+            throw new IOException("Directory " + args[1] + " can't be created");
+        }
+        for (File file : files) {
+            if (!file.isFile()) {
+                continue;
+            }
+            CMap cMap;
+            try (InputStream stream = new FileInputStream(file)) {
+                cMap = PredefinedCMaps.parseCMap(stream);
+            } catch (PostScriptException e) {
+                throw new IOException("CMap " + file.getName() + " can't be parsed", e);
+            }
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(
+                    new FileOutputStream(new File(output, file.getName()))))) {
+                write(cMap, out);
+            }
+        }
+    }
+
+    /**
+     * Writes CMap in compiled form.
+     */
+    static void write(CMap cMap, DataOutputStream out) throws IOException {
+        out.writeInt(MAGIC);
+        out.writeInt(VERSION);
+        writeString(out, cMap.getName());
+        writeString(out, cMap.getRegistry());
+        writeString(out, cMap.getOrdering());
+        out.writeInt(cMap.getSupplement());
+        out.writeInt(cMap.getwMode());
+        out.writeBoolean(cMap.isUsesNonPredefinedCMap());
+        out.writeInt(cMap.shortestCodeSpaceLength);
+
+        List<CodeSpace> codeSpaces = cMap.getCodeSpaces();
+        out.writeInt(codeSpaces.size());
+        for (CodeSpace codeSpace : codeSpaces) {
+            out.writeByte(codeSpace.getLength());
+            out.write(codeSpace.getBegin());
+            out.write(codeSpace.getEnd());
+        }
+
+        writeRanges(out, cMap.getCidMappings(), false);
+        writeRanges(out, cMap.getNotDefMappings(), true);
+
+        Map<Integer, String> toUnicode = cMap.getToUnicode();
+        out.writeInt(toUnicode.size());
+        for (Map.Entry<Integer, String> entry : toUnicode.entrySet()) {
+            out.writeInt(entry.getKey().intValue());
+            out.writeUTF(entry.getValue());
+        }
+        List<ToUnicodeInterval> intervals = cMap.getUnicodeIntervals();
+        out.writeInt(intervals.size());
+        for (ToUnicodeInterval interval : intervals) {
+            out.writeLong(interval.getIntervalBegin());
+            out.writeLong(interval.getIntervalEnd());
+            byte[] value = interval.getStartingValue();
+            out.writeShort(value.length);
+            out.write(value);
+        }
+    }
+
+    /**
+     * Reads CMap in compiled form.
+     *
+     * @throws IOException if data is not compiled CMap or has different
+     *                     version.
+     */
+    static CMap read(DataInputStream in) throws IOException {
+        if (in.readInt() != MAGIC || in.readInt() != VERSION) {
+            throw new IOException("Unsupported compiled CMap format");
+        }
+        CMap cMap = new CMap();
+        cMap.setName(readString(in));
+        cMap.setRegistry(readString(in));
+        cMap.setOrdering(readString(in));
+        cMap.setSupplement(in.readInt());
+        cMap.setwMode(in.readInt());
+        cMap.setUsesNonPredefinedCMap(in.readBoolean());
+        cMap.shortestCodeSpaceLength = in.readInt();
+
+        int codeSpacesNumber = in.readInt();
+        List<CodeSpace> codeSpaces = new ArrayList<>(codeSpacesNumber);
+        for (int i = 0; i < codeSpacesNumber; ++i) {
+            int length = in.readUnsignedByte();
+            byte[] begin = new byte[length];
+            byte[] end = new byte[length];
+            in.readFully(begin);
+            in.readFully(end);
+            codeSpaces.add(new CodeSpace(begin, end));
+        }
+        cMap.setCodeSpaces(codeSpaces);
+
+        CIDRanges cidRanges = readRanges(in, false);
+        if (cidRanges.size() > 0) {
+            cMap.appendCIDMapping(cidRanges);
+        }
+        CIDRanges notDefRanges = readRanges(in, true);
+        if (notDefRanges.size() > 0) {
+            cMap.appendNotDefMapping(notDefRanges);
+        }
+
+        int toUnicodeSize = in.readInt();
+        for (int i = 0; i < toUnicodeSize; ++i) {
+            int code = in.readInt();
+            cMap.addUnicodeMapping(code, in.readUTF());
+        }
+        int intervalsNumber = in.readInt();
+        for (int i = 0; i < intervalsNumber; ++i) {
+            long begin = in.readLong();
+            long end = in.readLong();
+            byte[] value = new byte[in.readUnsignedShort()];
+            in.readFully(value);
+            cMap.addUnicodeInterval(new ToUnicodeInterval(begin, end, value));
+        }
+        return cMap;
+    }
+
+    private static void writeRanges(DataOutputStream out, List<CIDMappable> mappings,
+                                    boolean isNotDef) throws IOException {
+        List<int[]> ranges = new ArrayList<>();
+        CIDRanges.addRanges(mappings, ranges);
+        for (int[] range : ranges) {
+            // single code mappings are the same in both lists
+            if (range[0] != range[1] && (range[3] != 0) != isNotDef) {
+                throw new IOException("CID mapping can't be stored with " +
+                        (isNotDef ? "notdef" : "CID") + " mappings");
+            }
+        }
+        List<int[]> merged = mergeRanges(ranges, isNotDef);
+        out.writeInt(merged.size());
+        int previousStart = 0;
+        int previousCID = 0;
+        for (int[] range : merged) {
+            writeSignedVarInt(out, range[0] - previousStart);
+            writeVarInt(out, range[1] - range[0]);
+            writeSignedVarInt(out, range[2] - previousCID);
+            previousStart = range[0];
+            previousCID = range[2];
+        }
+    }
+
+    /**
+     * Joins neighbour ranges of the list that are adjacent both in codes and
+     * in CIDs. Order of mappings is kept, so CID lookup result doesn't change.
+     */
+    private static List<int[]> mergeRanges(List<int[]> ranges, boolean isNotDef) {
+        List<int[]> res = new ArrayList<>(ranges.size());
+        int[] last = null;
+        for (int[] range : ranges) {
+            if (last != null && !isNotDef && (long) range[0] == (long) last[1] + 1
+                    && (long) range[2] == (long) last[2] + last[1] - last[0] + 1) {
+                last[1] = range[1];
+            } else if (last != null && !isNotDef && (long) range[1] + 1 == (long) last[0]
+                    && (long) range[2] + range[1] - range[0] + 1 == (long) last[2]) {
+                last[0] = range[0];
+                last[2] = range[2];
+            } else {
+                last = range.clone();
+                res.add(last);
+            }
+        }
+        return res;
+    }
+
+    private static CIDRanges readRanges(DataInputStream in, boolean isNotDef) throws IOException {
+        int size = in.readInt();
+        int[] starts = new int[size];
+        int[] ends = new int[size];
+        int[] cids = new int[size];
+        int previousStart = 0;
+        int previousCID = 0;
+        for (int i = 0; i < size; ++i) {
+            starts[i] = previousStart + readSignedVarInt(in);
+            ends[i] = starts[i] + readVarInt(in);
+            cids[i] = previousCID + readSignedVarInt(in);
+            previousStart = starts[i];
+            previousCID = cids[i];
+        }
+        return new CIDRanges(starts, ends, cids, isNotDef);
+    }
+
+    private static void writeVarInt(DataOutputStream out, int value) throws IOException {
+        int rest = value;
+        while ((rest & ~0x7F) != 0) {
+            out.writeByte((rest & 0x7F) | 0x80);
+            rest >>>= 7;
+        }
+        out.writeByte(rest);
+    }
+
+    private static void writeSignedVarInt(DataOutputStream out, int value) throws IOException {
+        writeVarInt(out, (value << 1) ^ (value >> 31));
+    }
+
+    private static int readVarInt(DataInputStream in) throws IOException {
+        int res = 0;
+        for (int shift = 0; shift < 32; shift += 7) {
+            int b = in.readUnsignedByte();
+            res |= (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return res;
+            }
+        }
+        throw new IOException("Invalid number in compiled CMap");
+    }
+
+    private static int readSignedVarInt(DataInputStream in) throws IOException {
+        int value = readVarInt(in);
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        out.writeBoolean(value != null);
+        if (value != null) {
+            out.writeUTF(value);
+        }
+    }
+
+    private static String readString(DataInputStream in) throws IOException {
+        return in.readBoolean() ? in.readUTF() : null;
+    }
+}
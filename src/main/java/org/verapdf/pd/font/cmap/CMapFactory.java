@@ -55,6 +55,20 @@ class CMapFactory {
                 return res;
             }
         }
+        res = parseCMap(name, cMapStream);
+        StaticResources.cacheCMap(name, res);
+        return res;
+    }
+
+    /**
+     * Parses CMap from given stream without caching it.
+     *
+     * @param name is a string identifier of cMap that is used for logging.
+     * @param cMapStream is stream with cMap data.
+     * @return parsed cMap object or empty cMap if parsing failed.
+     */
+    static CMap parseCMap(String name, ASInputStream cMapStream) {
+        CMap res;
         try {
             CMapParser parser =
                     new CMapParser(cMapStream);
@@ -67,8 +81,6 @@ class CMapFactory {
             LOGGER.log(Level.FINE, "PostScript exception while parsing CMap " + name);
             res = new CMap();
         }
-
-        StaticResources.cacheCMap(name, res);
         return res;
     }
 }
@@ -120,4 +120,12 @@ class CodeSpace {
     int getLength() {
         return this.begin.length;
     }
+
+    byte[] getBegin() {
+        return begin;
+    }
+
+    byte[] getEnd() {
+        return end;
+    }
 }
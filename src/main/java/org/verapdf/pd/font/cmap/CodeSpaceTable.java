@@ -0,0 +1,177 @@
+/**
+ * This file is part of veraPDF Parser, a module of the veraPDF project.
+ * Copyright (c) 2015, veraPDF Consortium <info@verapdf.org>
+ * All rights reserved.
+ *
+ * veraPDF Parser is free software: you can redistribute it and/or modify
+ * it under the terms of either:
+ *
+ * The GNU General public license GPLv3+.
+ * You should have received a copy of the GNU General Public License
+ * along with veraPDF Parser as the LICENSE.GPL file in the root of the source
+ * tree.  If not, see http://www.gnu.org/licenses/ or
+ * https://www.gnu.org/licenses/gpl-3.0.en.html.
+ *
+ * The Mozilla Public License MPLv2+.
+ * You should have received a copy of the Mozilla Public License along with
+ * veraPDF Parser as the LICENSE.MPL file in the root of the source tree.
+ * If a copy of the MPL was not distributed with this file, you can obtain one at
+ * http://mozilla.org/MPL/2.0/.
+ */
+package org.verapdf.pd.font.cmap;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Immutable decision table for reading character codes with codespace ranges
+ * of CMap. For each value of the first byte of code it keeps codespace
+ * ranges that can match code starting with this byte, so each next byte is
+ * checked only against these ranges. Reading codes doesn't allocate memory.
+ */
+final class CodeSpaceTable {
+
+    private static final Logger LOGGER = Logger.getLogger(CodeSpaceTable.class.getCanonicalName());
+
+    private static final int MAX_CODE_LENGTH = 5;
+    private static final int[] NO_CANDIDATES = new int[0];
+
+    private final int[] lengths;
+    private final int[][] begins;
+    private final int[][] ends;
+    private final int[][] candidates;
+    private final int shortestLength;
+    private final boolean isEmpty;
+
+    private CodeSpaceTable(List<CodeSpace> codeSpaces) {
+        List<CodeSpace> valid = new ArrayList<>(codeSpaces.size());
+        for (CodeSpace codeSpace : codeSpaces) {
+            // invalid codespace ranges have zero length and match nothing
+            if (codeSpace.getLength() > 0) {
+                valid.add(codeSpace);
+            }
+        }
+        int size = valid.size();
+        this.lengths = new int[size];
+        this.begins = new int[size][];
+        this.ends = new int[size][];
+        int shortest = Integer.MAX_VALUE;
+        for (int i = 0; i < size; ++i) {
+            CodeSpace codeSpace = valid.get(i);
+            this.lengths[i] = codeSpace.getLength();
+            this.begins[i] = toUnsigned(codeSpace.getBegin());
+            this.ends[i] = toUnsigned(codeSpace.getEnd());
+            shortest = Math.min(shortest, this.lengths[i]);
+        }
+        this.shortestLength = shortest;
+        this.isEmpty = size == 0;
+
+        this.candidates = new int[256][];
+        int[] buffer = new int[size];
+        for (int b = 0; b < 256; ++b) {
+            int number = 0;
+            for (int i = 0; i < size; ++i) {
+                if (b >= this.begins[i][0] && b <= this.ends[i][0]) {
+                    buffer[number++] = i;
+                }
+            }
+            this.candidates[b] = number == 0 ? NO_CANDIDATES : copy(buffer, number);
+        }
+    }
+
+    static CodeSpaceTable build(List<CodeSpace> codeSpaces) {
+        return new CodeSpaceTable(codeSpaces);
+    }
+
+    /**
+     * Reads character code from stream. Details are described in PDF32000 in
+     * 9.7.6.2 "CMap Mapping".
+     *
+     * @param stream    is stream from which character codes will be read.
+     * @param cMapName  is name of CMap used for logging.
+     * @return read code or 0 if bytes don't match any codespace range.
+     */
+    int readCode(InputStream stream, String cMapName) throws IOException {
+        long code = 0;
+        int[] matching = NO_CANDIDATES;
+        int previousShortestMatchingLength = this.shortestLength;
+        for (int i = 0; i < MAX_CODE_LENGTH; ++i) {
+            int currentByte = stream.read() & 0xFF;
+            code = (code << 8) | currentByte;
+            if (i == 0) {
+                matching = this.candidates[currentByte];
+            }
+            for (int candidate : matching) {     // Looking for complete match
+                if (this.lengths[candidate] == i + 1 && matches(candidate, code, i)) {
+                    int res = (int) numberFromCode(code, i + 1);
+                    if (res != -1) {
+                        return res;
+                    }
+                    LOGGER.log(Level.FINE, "CMap " + cMapName + " has invalid codespace information.");
+                }
+            }
+            int shortestMatchingLength = Integer.MAX_VALUE;
+            for (int candidate : matching) {     // Looking for partial matches on bytes 0, ..., i
+                int length = this.lengths[candidate];
+                if (length > i && length < shortestMatchingLength && matches(candidate, code, i)) {
+                    shortestMatchingLength = length;
+                }
+            }
+            if (shortestMatchingLength == Integer.MAX_VALUE && !this.isEmpty) {
+                // No described partial matching, skipping necessary amount of bytes
+                for (int j = i + 1; j < previousShortestMatchingLength; ++j) {
+                    stream.read();
+                }
+                return 0;
+            }
+            previousShortestMatchingLength = shortestMatchingLength;
+        }
+        return 0;
+    }
+
+    /**
+     * Checks that bytes 0, ..., lastByte of code lie in codespace range.
+     */
+    private boolean matches(int candidate, long code, int lastByte) {
+        int[] begin = this.begins[candidate];
+        int[] end = this.ends[candidate];
+        for (int j = 0; j <= lastByte; ++j) {
+            int value = (int) (code >>> ((lastByte - j) << 3)) & 0xFF;
+            if (value < begin[j] || value > end[j]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Converts code into number in the same way as
+     * {@link CMapParser#numberFromBytes(byte[])} does for its bytes.
+     */
+    private static long numberFromCode(long code, int length) {
+        long res = 0;
+        for (int i = 0; i < length; ++i) {
+            int value = (int) (code >>> ((length - i - 1) << 3)) & 0xFF;
+            res += value << ((length - i - 1) * 8);
+        }
+        return res;
+    }
+
+    private static int[] toUnsigned(byte[] bytes) {
+        int[] res = new int[bytes.length];
+        for (int i = 0; i < bytes.length; ++i) {
+            res[i] = bytes[i] & 0xFF;
+        }
+        return res;
+    }
+
+    private static int[] copy(int[] buffer, int length) {
+        int[] res = new int[length];
+        System.arraycopy(buffer, 0, res, 0, length);
+        return res;
+    }
+}
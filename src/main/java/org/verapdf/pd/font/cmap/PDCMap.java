@@ -23,12 +23,14 @@ package org.verapdf.pd.font.cmap;
 import org.verapdf.as.ASAtom;
 import org.verapdf.as.io.ASInputStream;
 import org.verapdf.cos.COSDictionary;
+import org.verapdf.cos.COSKey;
 import org.verapdf.cos.COSObjType;
 import org.verapdf.cos.COSObject;
 import org.verapdf.cos.COSStream;
 import org.verapdf.io.InternalInputStream;
 import org.verapdf.io.SeekableInputStream;
 import org.verapdf.pd.PDObject;
+import org.verapdf.tools.StaticResources;
 
 import java.io.File;
 import java.io.IOException;
@@ -78,9 +80,44 @@ public class PDCMap extends PDObject {
         return "";
     }
 
+    /**
+     * Parses embedded CMap from given decoded stream data. Nothing is read
+     * from the document and nothing is cached, so this method can be called
+     * in any thread.
+     *
+     * @param cMapStream is decoded data of embedded CMap stream.
+     * @return parsed CMap or empty CMap if parsing failed.
+     */
+    public static CMap parseEmbeddedCMap(ASInputStream cMapStream) {
+        return CMapFactory.parseCMap("", cMapStream);
+    }
+
+    /**
+     * Caches CMap parsed from embedded CMap stream, so that
+     * {@link #getCMapFile()} of PDCMap for this stream doesn't parse it again.
+     *
+     * @param key  is COSKey of embedded CMap stream.
+     * @param cMap is CMap parsed from this stream.
+     */
+    public static void cacheEmbeddedCMap(COSKey key, CMap cMap) {
+        StaticResources.cacheCMap(getEmbeddedCMapID(key), cMap);
+    }
+
+    /**
+     * @param key is COSKey of embedded CMap stream.
+     * @return true if CMap parsed from this stream is already cached.
+     */
+    public static boolean isEmbeddedCMapCached(COSKey key) {
+        return StaticResources.getCMap(getEmbeddedCMapID(key)) != null;
+    }
+
+    private static String getEmbeddedCMapID(COSKey key) {
+        return "CMap " + key.toString();
+    }
+
     private String getCMapID() {
         if (this.getObject().getType() == COSObjType.COS_STREAM) {
-            return "CMap " + getObject().getObjectKey().toString();
+            return getEmbeddedCMapID(getObject().getObjectKey());
         } else if (this.getObject().getType() == COSObjType.COS_NAME) {
             return getObject().getString();
         }
@@ -109,11 +146,14 @@ public class PDCMap extends PDObject {
                 }
             } else if (this.getObject().getType() == COSObjType.COS_NAME) {
                 String name = this.getObject().getString();
-                String cMapPath = "/font/cmap/" + name;
-                try (ASInputStream cMapStream = loadCMap(cMapPath)) {
-                    this.cMapFile = CMapFactory.getCMap(getCMapID(), cMapStream);
-                } catch (IOException e) {
-                    LOGGER.log(Level.FINE, "Can't close stream", e);
+                this.cMapFile = PredefinedCMaps.getCMap(name);
+                if (this.cMapFile == null) {
+                    String cMapPath = "/font/cmap/" + name;
+                    try (ASInputStream cMapStream = loadCMap(cMapPath)) {
+                        this.cMapFile = CMapFactory.getCMap(getCMapID(), cMapStream);
+                    } catch (IOException e) {
+                        LOGGER.log(Level.FINE, "Can't close stream", e);
+                    }
                 }
             } else {
                 return null;
@@ -0,0 +1,107 @@
+/**
+ * This file is part of veraPDF Parser, a module of the veraPDF project.
+ * Copyright (c) 2015, veraPDF Consortium <info@verapdf.org>
+ * All rights reserved.
+ *
+ * veraPDF Parser is free software: you can redistribute it and/or modify
+ * it under the terms of either:
+ *
+ * The GNU General public license GPLv3+.
+ * You should have received a copy of the GNU General Public License
+ * along with veraPDF Parser as the LICENSE.GPL file in the root of the source
+ * tree.  If not, see http://www.gnu.org/licenses/ or
+ * https://www.gnu.org/licenses/gpl-3.0.en.html.
+ *
+ * The Mozilla Public License MPLv2+.
+ * You should have received a copy of the Mozilla Public License along with
+ * veraPDF Parser as the LICENSE.MPL file in the root of the source tree.
+ * If a copy of the MPL was not distributed with this file, you can obtain one at
+ * http://mozilla.org/MPL/2.0/.
+ */
+package org.verapdf.pd.font.cmap;
+
+import org.verapdf.as.io.ASMemoryInStream;
+import org.verapdf.parser.postscript.PostScriptException;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * JVM-wide cache of predefined CMaps shared by all threads. CMaps are loaded
+ * lazily on first request, from compiled form if it is available (see
+ * {@link CMapCompiler}) or by parsing CMap file otherwise. Cached CMaps are
+ * unmodifiable.
+ */
+final class PredefinedCMaps {
+
+    private static final Logger LOGGER = Logger.getLogger(PredefinedCMaps.class.getCanonicalName());
+
+    private static final String CMAP_PATH = "/font/cmap/";
+    private static final String COMPILED_CMAP_PATH = "/font/cmap-compiled/";
+
+    private static final ConcurrentMap<String, CMap> CMAPS = new ConcurrentHashMap<>();
+
+    private PredefinedCMaps() {
+        // Disable default constructor
+    }
+
+    /**
+     * Gets predefined CMap with given name.
+     *
+     * @return shared CMap object or null if there is no predefined CMap with
+     * this name.
+     */
+    static CMap getCMap(String name) {
+        CMap res = CMAPS.get(name);
+        if (res == null) {
+            res = loadCMap(name);
+            if (res == null) {
+                return null;
+            }
+            res.setUnmodifiable();
+            CMap previous = CMAPS.putIfAbsent(name, res);
+            if (previous != null) {
+                res = previous;
+            }
+        }
+        return res;
+    }
+
+    /**
+     * Parses predefined CMap file. CMaps referenced from it with usecmap
+     * operator are taken from this cache.
+     */
+    static CMap parseCMap(InputStream stream) throws IOException, PostScriptException {
+        CMapParser parser = new CMapParser(new ASMemoryInStream(stream));
+        parser.parse();
+        return parser.getCMap();
+    }
+
+    private static CMap loadCMap(String name) {
+        try (InputStream compiled = PredefinedCMaps.class.getResourceAsStream(COMPILED_CMAP_PATH + name)) {
+            if (compiled != null) {
+                return CMapCompiler.read(new DataInputStream(new BufferedInputStream(compiled)));
+            }
+        } catch (IOException e) {
+            LOGGER.log(Level.FINE, "Can't read compiled CMap " + name + ", parsing CMap file", e);
+        }
+        try (InputStream stream = PredefinedCMaps.class.getResourceAsStream(CMAP_PATH + name)) {
+            if (stream == null) {
+                return null;
+            }
+            return parseCMap(stream);
+        } catch (IOException e) {
+            LOGGER.log(Level.FINE, "Can't parse CMap " + name + ", using default", e);
+        } catch (PostScriptException e) {
+            LOGGER.log(Level.FINE, "PostScript exception while parsing CMap " + name);
+        }
+        return new CMap();
+    }
+
+}
@@ -45,4 +45,12 @@ class SingleCIDMapping implements CIDMappable {
     public int getMaxCID() {
         return to;
     }
+
+    int getFrom() {
+        return from;
+    }
+
+    int getTo() {
+        return to;
+    }
 }
@@ -74,6 +74,18 @@ public class ToUnicodeInterval {
         return getUnicodeNameFromLong(unicode);
     }
 
+    long getIntervalBegin() {
+        return intervalBegin;
+    }
+
+    long getIntervalEnd() {
+        return intervalEnd;
+    }
+
+    byte[] getStartingValue() {
+        return startingValue;
+    }
+
     private static String getUnicodeNameFromLong(byte[] unicode) {
         String fffe = getFFFEFromUnicode(unicode);
         if (fffe == null) {
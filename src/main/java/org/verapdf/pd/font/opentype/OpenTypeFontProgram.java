@@ -198,4 +198,12 @@ public class OpenTypeFontProgram implements FontProgram {
             return new ASFileStreamCloser(this.source);
         }
     }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public long getMemoryUsage() {
+        return this.font == null ? 0 : this.font.getMemoryUsage();
+    }
 }
@@ -34,10 +34,10 @@ import java.io.IOException;
  */
 public abstract class BaseTrueTypeProgram implements FontProgram {
 
-    protected float[] widths;
+    protected volatile float[] widths;
 
     protected TrueTypeFontParser parser;
-    protected String[] encodingMappingArray;
+    protected volatile String[] encodingMappingArray;
     private boolean attemptedParsing = false;
     private boolean successfullyParsed = false;
 
@@ -53,30 +53,49 @@ public abstract class BaseTrueTypeProgram implements FontProgram {
     }
 
     /**
-     * Parses True Type font from given stream and extracts all the data needed.
+     * Parses True Type font table directory from given stream. Tables are read
+     * from the stream when their data is needed, so stream is kept open until
+     * font program resource is closed.
      *
      * @throws IOException if stream-reading error occurs.
      */
     @Override
     public void parseFont() throws IOException {
         if (!attemptedParsing) {
+            attemptedParsing = true;
             try {
-                attemptedParsing = true;
                 this.parser.readHeader();
                 this.parser.readTableDirectory();
                 this.parser.readTables();
+                this.successfullyParsed = true;
+            } finally {
+                if (!this.successfullyParsed) {
+                    this.parser.source.close();
+                }
+            }
+        }
+    }
 
+    /**
+     * @return glyph widths in thousandths of text space unit indexed by glyph
+     * ID. Widths are read from hmtx table on first call.
+     */
+    protected float[] getWidths() {
+        if (this.widths == null) {
+            TrueTypeHmtxTable hmtxTable = this.parser.getHmtxParser();
+            if (hmtxTable == null) {
+                this.widths = new float[0];
+            } else {
                 float quotient = 1000f / this.parser.getHeadParser().getUnitsPerEm();
-                int[] unconvertedWidths = this.parser.getHmtxParser().getLongHorMetrics();
-                widths = new float[unconvertedWidths.length];
+                int[] unconvertedWidths = hmtxTable.getLongHorMetrics();
+                float[] res = new float[unconvertedWidths.length];
                 for (int i = 0; i < unconvertedWidths.length; ++i) {
-                    widths[i] = unconvertedWidths[i] * quotient;
+                    res[i] = unconvertedWidths[i] * quotient;
                 }
-                this.successfullyParsed = true;
-            } finally {
-                this.parser.source.close();    // We close stream after first reading attempt
+                this.widths = res;
             }
         }
+        return this.widths;
     }
 
     /**
@@ -84,8 +103,9 @@ public abstract class BaseTrueTypeProgram implements FontProgram {
      * this True Type font.
      */
     public int getNrOfCMaps() {
-        if(this.parser.getCmapParser() != null) {
-            return this.parser.getCmapParser().getCmapInfos().length;
+        TrueTypeCmapTable cmapTable = this.parser.getCmapParser();
+        if(cmapTable != null) {
+            return cmapTable.getCmapInfos().length;
         } else {
             return 0;
         }
@@ -111,6 +131,10 @@ public abstract class BaseTrueTypeProgram implements FontProgram {
     }
 
     protected float getWidthWithCheck(int gid) {
+        float[] widths = getWidths();
+        if (widths.length == 0) {
+            return -1;
+        }
         if (gid < widths.length) {
             return widths[gid];
         } else {
@@ -140,4 +164,21 @@ public abstract class BaseTrueTypeProgram implements FontProgram {
             return new ASFileStreamCloser(this.parser.source);
         }
     }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public long getMemoryUsage() {
+        // widths and hmtx metrics have the same length, both are read on first
+        // width request
+        long res = this.widths == null ? 0 : 8L * this.widths.length;
+        TrueTypeCmapTable cmapTable = this.parser.getCmapParser();
+        if (cmapTable != null) {
+            for (TrueTypeCmapSubtable cmap : cmapTable.getCmapInfos()) {
+                res += cmap.getMemoryUsage();
+            }
+        }
+        return res;
+    }
 }
@@ -119,7 +119,7 @@ public class CIDFontType2Program extends BaseTrueTypeProgram implements FontProg
             return res;
         } else {
             // CIDToGID is identity, so we check which glyphs are present
-            int size = this.widths.length;
+            int size = this.getWidths().length;
             List<Integer> res = new ArrayList<>(size);
             for (int i = 0; i < size; ++i) {
                 res.add(i);
@@ -127,4 +127,16 @@ public class CIDFontType2Program extends BaseTrueTypeProgram implements FontProg
             return res;
         }
     }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public long getMemoryUsage() {
+        long res = super.getMemoryUsage();
+        if (this.cidToGID != null) {
+            res += 4L * this.cidToGID.getMappingSize();
+        }
+        return res;
+    }
 }
@@ -27,6 +27,7 @@ import org.verapdf.cos.COSKey;
 import org.verapdf.cos.COSObject;
 import org.verapdf.cos.COSStream;
 import org.verapdf.pd.font.FontProgram;
+import org.verapdf.pd.font.FontProgramFactory;
 import org.verapdf.pd.font.PDSimpleFont;
 import org.verapdf.pd.font.opentype.OpenTypeFontProgram;
 import org.verapdf.tools.FontProgramIDGenerator;
@@ -80,34 +81,35 @@ public class PDTrueTypeFont extends PDSimpleFont {
         }
         if (trueTypeFontFile != null) {
             COSKey key = trueTypeFontFile.getObjectKey();
-            boolean isSymbolic = this.isSymbolic();
-            COSObject encoding = this.getEncoding();
+            final boolean isSymbolic = this.isSymbolic();
+            final COSObject encoding = this.getEncoding();
             try {
                 if (fontFileType == ASAtom.FONT_FILE2) {
                     String fontProgramID = FontProgramIDGenerator.getTrueTypeFontProgramID(key, isSymbolic, encoding);
-                    this.fontProgram = StaticResources.getCachedFont(fontProgramID);
-                    if (fontProgram == null) {
-                        try (ASInputStream fontData = trueTypeFontFile.getData(COSStream.FilterFlags.DECODE)) {
-                            this.fontProgram = new TrueTypeFontProgram(fontData, isSymbolic,
-                                    encoding);
-                            StaticResources.cacheFontProgram(fontProgramID, this.fontProgram);
-                        }
-                    }
+                    String sharedFontProgramID = FontProgramIDGenerator.getSharedTrueTypeFontProgramID(isSymbolic, encoding);
+                    this.fontProgram = StaticResources.getFontProgram(fontProgramID, sharedFontProgramID,
+                            trueTypeFontFile, new FontProgramFactory() {
+                                @Override
+                                public FontProgram createFontProgram(ASInputStream fontData) throws IOException {
+                                    return new TrueTypeFontProgram(fontData, isSymbolic, encoding);
+                                }
+                            });
                 } else {    // fontFile3
                     ASAtom subType = trueTypeFontFile.getNameKey(ASAtom.SUBTYPE);
                     if (subType != null && subType != ASAtom.OPEN_TYPE) {
                         LOGGER.warning("Invalid subtype of the embedded font stream");
                     }
-                    boolean isSubset = this.isSubset();
+                    final boolean isSubset = this.isSubset();
                     String fontProgramID = FontProgramIDGenerator.getOpenTypeFontProgramID(key, false, isSymbolic, encoding, null, isSubset);
-                    this.fontProgram = StaticResources.getCachedFont(fontProgramID);
-                    if (fontProgram == null) {
-                        try (ASInputStream fontData = trueTypeFontFile.getData(COSStream.FilterFlags.DECODE)) {
-                            this.fontProgram = new OpenTypeFontProgram(fontData, false,
-                                    isSymbolic, encoding, null, isSubset);
-                            StaticResources.cacheFontProgram(fontProgramID, this.fontProgram);
-                        }
-                    }
+                    String sharedFontProgramID = FontProgramIDGenerator.getSharedOpenTypeFontProgramID(false, isSymbolic, encoding, null, isSubset);
+                    this.fontProgram = StaticResources.getFontProgram(fontProgramID, sharedFontProgramID,
+                            trueTypeFontFile, new FontProgramFactory() {
+                                @Override
+                                public FontProgram createFontProgram(ASInputStream fontData) throws IOException {
+                                    return new OpenTypeFontProgram(fontData, false,
+                                            isSymbolic, encoding, null, isSubset);
+                                }
+                            });
                 }
             } catch (IOException e) {
                 LOGGER.log(Level.FINE, "Can't read TrueType font program.", e);
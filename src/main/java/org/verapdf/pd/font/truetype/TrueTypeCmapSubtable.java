@@ -20,10 +20,13 @@
  */
 package org.verapdf.pd.font.truetype;
 
+import org.verapdf.pd.font.IntIntMap;
+
+import java.io.IOException;
 import java.util.ArrayList;
-import java.util.HashMap;
 import java.util.List;
-import java.util.Map;
+import java.util.logging.Level;
+import java.util.logging.Logger;
 
 /**
  * Instance of this class represents CMap subtable of Type 1 font.
@@ -32,11 +35,14 @@ import java.util.Map;
  */
 public class TrueTypeCmapSubtable {
 
+    private static final Logger LOGGER = Logger.getLogger(TrueTypeCmapSubtable.class.getCanonicalName());
+
     private int platformID;
     private int encodingID;
     private long offset;
-    private Map<Integer, Integer> mapping;
+    private IntIntMap mapping;
     private int sampleCode;
+    private volatile TrueTypeCmapTable cmapTable;
 
     private static List<PlatformEncodingPair> standardEncodingCMaps = new ArrayList<>();
 
@@ -56,10 +62,19 @@ public class TrueTypeCmapSubtable {
         this.platformID = platformID;
         this.encodingID = encodingID;
         this.offset = offset;
-        this.mapping = new HashMap<>();
+        this.mapping = new IntIntMap();
         this.sampleCode = -1;
     }
 
+    /**
+     * Constructor of subtable which mapping is read from given cmap table on
+     * first access.
+     */
+    TrueTypeCmapSubtable(int platformID, int encodingID, long offset, TrueTypeCmapTable cmapTable) {
+        this(platformID, encodingID, offset);
+        this.cmapTable = cmapTable;
+    }
+
     int getPlatformID() {
         return platformID;
     }
@@ -81,7 +96,7 @@ public class TrueTypeCmapSubtable {
      * @param key   is CID.
      * @param value is GID.
      */
-    public void put(Integer key, Integer value) {
+    public void put(int key, int value) {
         if (sampleCode == -1) {
             sampleCode = key;
         }
@@ -95,14 +110,12 @@ public class TrueTypeCmapSubtable {
      * @return glyph ID for this character code.
      */
     public int getGlyph(int code) {
-        if (!mapping.containsKey(code)) {
-            return 0;
-        } else {
-            return mapping.get(code);
-        }
+        readMappingIfNeeded();
+        return mapping.get(code, 0);
     }
 
     int getSampleCharCode() {
+        readMappingIfNeeded();
         return this.sampleCode;
     }
 
@@ -113,6 +126,7 @@ public class TrueTypeCmapSubtable {
      * @return true if glyph is present in this CMap.
      */
     public boolean containsGlyph(int glyphCode) {
+        readMappingIfNeeded();
         return this.mapping.containsValue(glyphCode);
     }
 
@@ -123,9 +137,17 @@ public class TrueTypeCmapSubtable {
      * @return true if this CID is present.
      */
     public boolean containsCID(int cid) {
+        readMappingIfNeeded();
         return this.mapping.containsKey(cid);
     }
 
+    /**
+     * @return approximate amount of memory in bytes used by the mapping.
+     */
+    public long getMemoryUsage() {
+        return this.mapping.getMemoryUsage();
+    }
+
     public boolean isStandardEncodingCMap() {
         for (PlatformEncodingPair pair : standardEncodingCMaps) {
             if (this.platformID == pair.getPlatformID() &&
@@ -135,4 +157,27 @@ public class TrueTypeCmapSubtable {
         }
         return false;
     }
+
+    /**
+     * @return true if mapping of this subtable is already read.
+     */
+    boolean isMappingRead() {
+        return this.cmapTable == null;
+    }
+
+    private void readMappingIfNeeded() {
+        TrueTypeCmapTable table = this.cmapTable;
+        if (table != null) {
+            synchronized (this) {
+                if (this.cmapTable != null) {
+                    try {
+                        table.readSubtable(this);
+                    } catch (IOException e) {
+                        LOGGER.log(Level.FINE, "Can't read True Type cmap subtable", e);
+                    }
+                    this.cmapTable = null;
+                }
+            }
+        }
+    }
 }
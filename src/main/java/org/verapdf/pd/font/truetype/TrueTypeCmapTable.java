@@ -26,7 +26,8 @@ import java.io.IOException;
 
 /**
  * This class does parsing of True Type "cmap" table and extracts all the data
- * needed.
+ * needed. Table itself contains only list of subtables, mapping of each
+ * subtable is read on first access to it.
  *
  * @author Sergey Shemyakov
  */
@@ -52,9 +53,20 @@ class TrueTypeCmapTable extends TrueTypeTable {
         for (int i = 0; i < numberOfTables; ++i) {
             this.cmapInfos[i] =
                     new TrueTypeCmapSubtable(this.readUShort(), this.readUShort(),
-                            this.readULong());
+                            this.readULong(), this);
         }
-        for (TrueTypeCmapSubtable cmap : cmapInfos) {
+        this.source.seek(startingOffset);
+    }
+
+    /**
+     * Reads mapping of given subtable of this cmap table.
+     *
+     * @param cmap is subtable to read.
+     * @throws IOException if stream-reading error occurs.
+     */
+    void readSubtable(TrueTypeCmapSubtable cmap) throws IOException {
+        synchronized (this.source) {
+            long startingOffset = this.source.getOffset();
             this.source.seek(cmap.getOffset() + this.offset);
             int format = this.readUShort();
             switch (format) {
@@ -71,8 +83,8 @@ class TrueTypeCmapTable extends TrueTypeTable {
                     readTrimmedTableMapping(cmap);
                     break;
             }
+            this.source.seek(startingOffset);
         }
-        this.source.seek(startingOffset);
     }
 
     private void readByteEncodingTable(TrueTypeCmapSubtable cmap) throws IOException {
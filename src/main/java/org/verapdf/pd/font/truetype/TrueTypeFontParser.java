@@ -27,7 +27,9 @@ import java.util.logging.Level;
 import java.util.logging.Logger;
 
 /**
- * This class does high-level parsing of True Type Font file.
+ * This class does high-level parsing of True Type Font file. Only table
+ * directory and small fixed-size tables are read when font is parsed, other
+ * tables are read from the font stream on first access.
  *
  * @author Sergey Shemyakov
  */
@@ -60,12 +62,23 @@ class TrueTypeFontParser extends TrueTypeBaseParser {
         this.source.skip(6);
     }
 
+    /**
+     * Reads table directory. Tables used by parser are checked to lie within
+     * font data, so that truncated fonts are detected before lazy reading.
+     *
+     * @throws IOException if used table is out of font data bounds.
+     */
     void readTableDirectory() throws IOException {
+        long streamLength = this.source.getStreamLength();
         for (int i = 0; i < numTables; ++i) {
             long tabName = this.readULong();
             this.readULong();   // checksum
             long offset = this.readULong();
             long length = this.readULong();   // length
+            if (isUsedTable(tabName) && offset + length > streamLength) {
+                throw new IOException("True type font table " + getTableName(tabName) +
+                        " is out of font data bounds.");
+            }
             if (tabName == TrueTypeFontParser.CMAP) {
                 this.cmapParser = new TrueTypeCmapTable(this.source, offset);
             } else if (tabName == TrueTypeFontParser.HHEA) {
@@ -82,6 +95,13 @@ class TrueTypeFontParser extends TrueTypeBaseParser {
         }
     }
 
+    /**
+     * Reads head, hhea and maxp tables and list of cmap subtables, and checks
+     * that all required tables are present. Tables hmtx and post and mappings
+     * of cmap subtables are read on first access.
+     *
+     * @throws IOException if required table is missing or can't be read.
+     */
     void readTables() throws IOException {
         if (headParser != null) {
             this.headParser.readTable();
@@ -98,47 +118,80 @@ class TrueTypeFontParser extends TrueTypeBaseParser {
 
         if (hmtxParser != null) {
             this.hmtxParser.setNumberOfHMetrics(hheaParser.getNumberOfHMetrics());
-            this.hmtxParser.readTable();
         } else {
             throw new IOException("True type font doesn't contain hmtx table.");
         }
 
-        if (cmapParser != null) {
-            this.cmapParser.readTable();
-        } else {
+        if (cmapParser == null) {
             LOGGER.log(Level.FINE, "True type font doesn't contain cmap table.");
+        } else {
+            readCmapSubtablesList();
         }
 
         if (this.maxpParser != null) {
             this.maxpParser.readTable();
         } else {
-            this.maxpParser = new TrueTypeMaxpTable(
-                    this.hmtxParser.getLongHorMetrics().length);
+            this.maxpParser = new TrueTypeMaxpTable(hheaParser.getNumberOfHMetrics());
             LOGGER.log(Level.FINE, "True type font doesn't contain maxp table. Default value for numGlyphs used.");
         }
 
         if (this.postParser != null) {
             this.postParser.setNumGlyphs(maxpParser.getNumGlyphs());
-            this.postParser.readTable();
         } else {
             LOGGER.log(Level.FINE, "True type font doesn't contain post table.");
         }
     }
 
+    private void readCmapSubtablesList() throws IOException {
+        this.cmapParser.readTable();
+        this.cmapParser.setRead();
+        long streamLength = this.source.getStreamLength();
+        for (TrueTypeCmapSubtable subtable : this.cmapParser.getCmapInfos()) {
+            // at least format of subtable should be present
+            if (this.cmapParser.offset + subtable.getOffset() + 2 > streamLength) {
+                throw new IOException("True type font cmap subtable is out of font data bounds.");
+            }
+        }
+    }
+
+    private static boolean isUsedTable(long tabName) {
+        return tabName == CMAP || tabName == HHEA || tabName == HMTX ||
+                tabName == HEAD || tabName == POST || tabName == MAXP;
+    }
+
+    private static String getTableName(long tabName) {
+        char[] res = new char[4];
+        for (int i = 0; i < 4; ++i) {
+            res[i] = (char) ((tabName >> ((3 - i) * 8)) & 0xFF);
+        }
+        return new String(res);
+    }
+
     TrueTypeHeadTable getHeadParser() {
         return headParser;
     }
 
+    /**
+     * @return hmtx table or null if it can't be read.
+     */
     TrueTypeHmtxTable getHmtxParser() {
-        return hmtxParser;
+        return readIfNeeded(hmtxParser);
     }
 
+    /**
+     * @return cmap table or null if font doesn't contain it or it can't be
+     * read. Mappings of cmap subtables are read on first access.
+     */
     TrueTypeCmapTable getCmapParser() {
-        return cmapParser;
+        return readIfNeeded(cmapParser);
     }
 
+    /**
+     * @return post table or null if font doesn't contain it or it can't be
+     * read.
+     */
     TrueTypePostTable getPostParser() {
-        return postParser;
+        return readIfNeeded(postParser);
     }
 
     TrueTypeMaxpTable getMaxpParser() {
@@ -146,6 +199,7 @@ class TrueTypeFontParser extends TrueTypeBaseParser {
     }
 
     TrueTypeCmapSubtable getCmapTable(int platformID, int encodingID) {
+        TrueTypeCmapTable cmapParser = getCmapParser();
         if (cmapParser != null) {
             for (TrueTypeCmapSubtable ttci : cmapParser.getCmapInfos()) {
                 if (ttci.getPlatformID() == platformID &&
@@ -156,4 +210,8 @@ class TrueTypeFontParser extends TrueTypeBaseParser {
         }
         return null;
     }
+
+    private static <T extends TrueTypeTable> T readIfNeeded(T table) {
+        return table != null && table.readTableIfNeeded() ? table : null;
+    }
 }
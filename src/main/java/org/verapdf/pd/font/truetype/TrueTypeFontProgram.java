@@ -104,7 +104,8 @@ public class TrueTypeFontProgram extends BaseTrueTypeProgram implements FontProg
             return getWidthSymbolic(code);
         } else {
             if (encodingMappingArray == null) {  // no external encoding
-                int gid = this.parser.getCmapParser().getGID(code);
+                TrueTypeCmapTable cmapTable = this.parser.getCmapParser();
+                int gid = cmapTable == null ? 0 : cmapTable.getGID(code);
                 return getWidthWithCheck(gid);
             }
             if (code < 256) {
@@ -237,61 +238,68 @@ public class TrueTypeFontProgram extends BaseTrueTypeProgram implements FontProg
     }
 
     private void createCIDToNameTable() throws IOException {
-        this.encodingMappingArray = new String[256];
-        if (this.encoding.getType() == COSObjType.COS_NAME) {
-            if (ASAtom.MAC_ROMAN_ENCODING.getValue().equals(this.encoding.getString())) {
-                System.arraycopy(TrueTypePredefined.MAC_ROMAN_ENCODING, 0,
-                        encodingMappingArray, 0, 256);
-            } else if (ASAtom.WIN_ANSI_ENCODING.getValue().equals(this.encoding.getString())) {
-                System.arraycopy(TrueTypePredefined.WIN_ANSI_ENCODING, 0,
-                        encodingMappingArray, 0, 256);
+        // array is filled before it is published, as font program can be
+        // shared between threads
+        String[] mappingArray = new String[256];
+        try {
+            if (this.encoding.getType() == COSObjType.COS_NAME) {
+                if (ASAtom.MAC_ROMAN_ENCODING.getValue().equals(this.encoding.getString())) {
+                    System.arraycopy(TrueTypePredefined.MAC_ROMAN_ENCODING, 0,
+                            mappingArray, 0, 256);
+                } else if (ASAtom.WIN_ANSI_ENCODING.getValue().equals(this.encoding.getString())) {
+                    System.arraycopy(TrueTypePredefined.WIN_ANSI_ENCODING, 0,
+                            mappingArray, 0, 256);
+                } else {
+                    throw new IOException("Error in reading /Encoding entry in font dictionary");
+                }
+            } else if (this.encoding.getType() == COSObjType.COS_DICT) {
+                createCIDToNameTableFromDict((COSDictionary) this.encoding.getDirectBase(), mappingArray);
             } else {
                 throw new IOException("Error in reading /Encoding entry in font dictionary");
             }
-        } else if (this.encoding.getType() == COSObjType.COS_DICT) {
-            createCIDToNameTableFromDict((COSDictionary) this.encoding.getDirectBase());
-        } else {
-            throw new IOException("Error in reading /Encoding entry in font dictionary");
+        } finally {
+            this.encodingMappingArray = mappingArray;
         }
     }
 
-    private void createCIDToNameTableFromDict(COSDictionary encoding) throws IOException {
+    private static void createCIDToNameTableFromDict(COSDictionary encoding,
+                                                     String[] mappingArray) throws IOException {
         if (encoding.knownKey(ASAtom.BASE_ENCODING)) {
             ASAtom baseEncoding = encoding.getNameKey(ASAtom.BASE_ENCODING);
             if (ASAtom.WIN_ANSI_ENCODING.equals(baseEncoding)) {
                 System.arraycopy(TrueTypePredefined.WIN_ANSI_ENCODING, 0,
-                        encodingMappingArray, 0, 256);
+                        mappingArray, 0, 256);
             } else if (ASAtom.MAC_ROMAN_ENCODING.equals(baseEncoding)) {
                 System.arraycopy(TrueTypePredefined.MAC_ROMAN_ENCODING, 0,
-                        encodingMappingArray, 0, 256);
+                        mappingArray, 0, 256);
             } else if (ASAtom.getASAtom(
                     TrueTypePredefined.MAC_EXPERT_ENCODING_STRING).equals(baseEncoding)) {
                 System.arraycopy(TrueTypePredefined.MAC_EXPERT_ENCODING, 0,
-                        encodingMappingArray, 0, 256);
+                        mappingArray, 0, 256);
             } else {
                 throw new IOException("Error in reading /Encoding entry in font dictionary");
             }
         } else {
             System.arraycopy(TrueTypePredefined.STANDARD_ENCODING, 0,
-                    encodingMappingArray, 0, 256);
+                    mappingArray, 0, 256);
         }
 
-        applyDiffsToEncoding(encoding);
+        applyDiffsToEncoding(encoding, mappingArray);
 
         for (int i = 0; i < 256; ++i) {
-            if (TrueTypePredefined.NOTDEF_STRING.equals(encodingMappingArray[i])) {
-                encodingMappingArray[i] = TrueTypePredefined.STANDARD_ENCODING[i];
+            if (TrueTypePredefined.NOTDEF_STRING.equals(mappingArray[i])) {
+                mappingArray[i] = TrueTypePredefined.STANDARD_ENCODING[i];
             }
         }
     }
 
-    private void applyDiffsToEncoding(COSDictionary encoding) throws IOException {
+    private static void applyDiffsToEncoding(COSDictionary encoding, String[] mappingArray) throws IOException {
         Map<Integer, String> differences = PDFont.getDifferencesFromCosEncoding(new COSObject(encoding));
         if (differences != null) {
             for (Map.Entry<Integer, String> entry : differences.entrySet()) {
                 int key = entry.getKey();
-                if (key < encodingMappingArray.length) {
-                    encodingMappingArray[key] = entry.getValue();
+                if (key < mappingArray.length) {
+                    mappingArray[key] = entry.getValue();
                 }
             }
         } else {
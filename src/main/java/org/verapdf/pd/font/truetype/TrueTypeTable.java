@@ -23,6 +23,8 @@ package org.verapdf.pd.font.truetype;
 import org.verapdf.io.SeekableInputStream;
 
 import java.io.IOException;
+import java.util.logging.Level;
+import java.util.logging.Logger;
 
 /**
  * This is base class for all True Type table parsers.
@@ -31,7 +33,11 @@ import java.io.IOException;
  */
 abstract class TrueTypeTable extends TrueTypeBaseParser {
 
+    private static final Logger LOGGER = Logger.getLogger(TrueTypeTable.class.getCanonicalName());
+
     protected long offset;
+    private volatile boolean isRead;
+    private boolean isReadSuccessfully;
 
     protected TrueTypeTable(SeekableInputStream source, long offset) {
         super(source);
@@ -42,7 +48,10 @@ abstract class TrueTypeTable extends TrueTypeBaseParser {
      * Empty constructor for inherited classes. Should be used to set Table
      * values to default if table is not present in font program.
      */
-    protected TrueTypeTable() {}
+    protected TrueTypeTable() {
+        this.isRead = true;
+        this.isReadSuccessfully = true;
+    }
 
     /**
      * This method extracts all the data needed from table.
@@ -50,4 +59,43 @@ abstract class TrueTypeTable extends TrueTypeBaseParser {
      * @throws IOException if stream-reading error occurs.
      */
     abstract void readTable() throws IOException;
+
+    /**
+     * @return true if table was already read.
+     */
+    boolean isRead() {
+        return this.isRead;
+    }
+
+    /**
+     * Marks table as read, used when table is read during font parsing.
+     */
+    void setRead() {
+        this.isReadSuccessfully = true;
+        this.isRead = true;
+    }
+
+    /**
+     * Reads table on first call, so that tables are parsed only when their
+     * data is needed. Font programs can be shared between threads, so reading
+     * is synchronized on font stream.
+     *
+     * @return true if table was read successfully.
+     */
+    boolean readTableIfNeeded() {
+        if (!this.isRead) {
+            synchronized (this.source) {
+                if (!this.isRead) {
+                    try {
+                        readTable();
+                        this.isReadSuccessfully = true;
+                    } catch (IOException e) {
+                        LOGGER.log(Level.FINE, "Can't read True Type table", e);
+                    }
+                    this.isRead = true;
+                }
+            }
+        }
+        return this.isReadSuccessfully;
+    }
 }
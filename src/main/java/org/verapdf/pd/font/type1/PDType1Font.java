@@ -27,6 +27,7 @@ import org.verapdf.cos.*;
 import org.verapdf.parser.COSParser;
 import org.verapdf.pd.font.Encoding;
 import org.verapdf.pd.font.FontProgram;
+import org.verapdf.pd.font.FontProgramFactory;
 import org.verapdf.pd.font.PDFontDescriptor;
 import org.verapdf.pd.font.PDSimpleFont;
 import org.verapdf.pd.font.cff.CFFFontProgram;
@@ -144,37 +145,40 @@ public class PDType1Font extends PDSimpleFont {
                 try {
                     if (fontFileType == ASAtom.FONT_FILE) {
                         String fontProgramID = FontProgramIDGenerator.getType1FontProgramID(key);
-                        this.fontProgram = StaticResources.getCachedFont(fontProgramID);
-                        if (fontProgram == null) {
-                            try (ASInputStream fontData = type1FontFile.getData(COSStream.FilterFlags.DECODE)) {
-                                this.fontProgram = new Type1FontProgram(fontData);
-                                StaticResources.cacheFontProgram(fontProgramID, this.fontProgram);
-                            }
-                        }
+                        String sharedFontProgramID = FontProgramIDGenerator.getSharedType1FontProgramID();
+                        this.fontProgram = StaticResources.getFontProgram(fontProgramID, sharedFontProgramID,
+                                type1FontFile, new FontProgramFactory() {
+                                    @Override
+                                    public FontProgram createFontProgram(ASInputStream fontData) throws IOException {
+                                        return new Type1FontProgram(fontData);
+                                    }
+                                });
                     } else {    // fontFile3
                         ASAtom subtype = type1FontFile.getNameKey(ASAtom.SUBTYPE);
-                        boolean isSubset = this.isSubset();
+                        final boolean isSubset = this.isSubset();
                         if (subtype == ASAtom.TYPE1C) {
                             String fontProgramID = FontProgramIDGenerator.getCFFFontProgramID(key, null, isSubset);
-                            this.fontProgram = StaticResources.getCachedFont(fontProgramID);
-                            if (fontProgram == null) {
-                                try (ASInputStream fontData = type1FontFile.getData(COSStream.FilterFlags.DECODE)) {
-                                    this.fontProgram = new CFFFontProgram(fontData, null, isSubset);
-                                    StaticResources.cacheFontProgram(fontProgramID, this.fontProgram);
-                                }
-                            }
+                            String sharedFontProgramID = FontProgramIDGenerator.getSharedCFFFontProgramID(null, isSubset);
+                            this.fontProgram = StaticResources.getFontProgram(fontProgramID, sharedFontProgramID,
+                                    type1FontFile, new FontProgramFactory() {
+                                        @Override
+                                        public FontProgram createFontProgram(ASInputStream fontData) throws IOException {
+                                            return new CFFFontProgram(fontData, null, isSubset);
+                                        }
+                                    });
                         } else if (subtype == ASAtom.OPEN_TYPE) {
-                            boolean isSymbolic = this.isSymbolic();
-                            COSObject encoding = this.getEncoding();
+                            final boolean isSymbolic = this.isSymbolic();
+                            final COSObject encoding = this.getEncoding();
                             String fontProgramID = FontProgramIDGenerator.getOpenTypeFontProgramID(key, true, isSymbolic, encoding, null, isSubset);
-                            this.fontProgram = StaticResources.getCachedFont(fontProgramID);
-                            if (fontProgram == null) {
-                                try (ASInputStream fontData = type1FontFile.getData(COSStream.FilterFlags.DECODE)) {
-                                    this.fontProgram = new OpenTypeFontProgram(fontData, true, isSymbolic,
-                                            encoding, null, isSubset);
-                                    StaticResources.cacheFontProgram(fontProgramID, this.fontProgram);
-                                }
-                            }
+                            String sharedFontProgramID = FontProgramIDGenerator.getSharedOpenTypeFontProgramID(true, isSymbolic, encoding, null, isSubset);
+                            this.fontProgram = StaticResources.getFontProgram(fontProgramID, sharedFontProgramID,
+                                    type1FontFile, new FontProgramFactory() {
+                                        @Override
+                                        public FontProgram createFontProgram(ASInputStream fontData) throws IOException {
+                                            return new OpenTypeFontProgram(fontData, true, isSymbolic,
+                                                    encoding, null, isSubset);
+                                        }
+                                    });
                         } else {
                             LOGGER.warning("Invalid subtype of the embedded font stream");
                         }
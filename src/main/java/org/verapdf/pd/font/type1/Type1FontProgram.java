@@ -30,11 +30,11 @@ import org.verapdf.parser.postscript.PSObject;
 import org.verapdf.parser.postscript.PSParser;
 import org.verapdf.parser.postscript.PostScriptException;
 import org.verapdf.pd.font.FontProgram;
+import org.verapdf.pd.font.ObjectIntMap;
 import org.verapdf.pd.font.truetype.TrueTypePredefined;
 import org.verapdf.tools.resource.ASFileStreamCloser;
 
 import java.io.IOException;
-import java.util.Map;
 import java.util.Set;
 import java.util.logging.Level;
 import java.util.logging.Logger;
@@ -51,7 +51,7 @@ public class Type1FontProgram extends PSParser implements FontProgram {
     static final double[] DEFAULT_FONT_MATRIX = {0.001, 0, 0, 0.001, 0, 0};
 
     private String[] encoding;
-    private Map<String, Integer> glyphWidths;
+    private ObjectIntMap<String> glyphWidths;
     private static final byte[] CLEAR_TO_MARK_BYTES =
             Type1StringConstants.CLEARTOMARK_STRING.getBytes();
     private boolean attemptedParsing = false;
@@ -136,10 +136,7 @@ public class Type1FontProgram extends PSParser implements FontProgram {
     public float getWidth(int charCode) {
         try {
             if (this.glyphWidths != null) {
-                Integer res = this.glyphWidths.get(getGlyph(charCode));
-                if (res != null) {
-                    return res;
-                }
+                return this.glyphWidths.get(getGlyph(charCode), -1);
             }
             return -1;
         } catch (ArrayIndexOutOfBoundsException e) {
@@ -149,8 +146,7 @@ public class Type1FontProgram extends PSParser implements FontProgram {
 
     @Override
     public float getWidth(String glyphName) {
-        Integer res = this.glyphWidths.get(glyphName);
-        return res == null ? -1 : res;
+        return this.glyphWidths.get(glyphName, -1);
     }
 
     @Override
@@ -162,7 +158,7 @@ public class Type1FontProgram extends PSParser implements FontProgram {
     @Override
     public boolean containsGlyph(String glyphName) {
         return this.glyphWidths != null &&
-                this.glyphWidths.keySet().contains(glyphName) &&
+                this.glyphWidths.containsKey(glyphName) &&
                 !glyphName.equals(TrueTypePredefined.NOTDEF_STRING);
     }
 
@@ -252,9 +248,21 @@ public class Type1FontProgram extends PSParser implements FontProgram {
 
     /**
      * @return the closeable object that closes source stream of this font
-     * program.
+     * program or null if stream was already closed after parsing.
      */
     public ASFileStreamCloser getFontProgramResource() {
-        return new ASFileStreamCloser(this.source);
+        return this.attemptedParsing ? null : new ASFileStreamCloser(this.source);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public long getMemoryUsage() {
+        long res = 4L * this.encoding.length;
+        if (this.glyphWidths != null) {
+            res += this.glyphWidths.getMemoryUsage();
+        }
+        return res;
     }
 }
@@ -25,12 +25,11 @@ import org.verapdf.as.io.ASInputStream;
 import org.verapdf.as.io.ASMemoryInStream;
 import org.verapdf.parser.BaseParser;
 import org.verapdf.parser.Token;
+import org.verapdf.pd.font.ObjectIntMap;
 
 import java.io.IOException;
 import java.io.InputStream;
 import java.util.Arrays;
-import java.util.HashMap;
-import java.util.Map;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
@@ -49,7 +48,7 @@ class Type1PrivateParser extends BaseParser {
      * of charstrings for charstring encryption
      */
     private int lenIV;
-    private Map<String, Integer> glyphWidths;
+    private ObjectIntMap<String> glyphWidths;
     private double[] fontMatrix;
     private boolean isDefaultFontMatrix;
 
@@ -144,7 +143,7 @@ class Type1PrivateParser extends BaseParser {
 
     private void decodeCharString() throws IOException {
         if (glyphWidths == null) {
-            this.glyphWidths = new HashMap<>();
+            this.glyphWidths = new ObjectIntMap<>();
         }
         this.nextToken();
         try {
@@ -193,7 +192,7 @@ class Type1PrivateParser extends BaseParser {
         return (int) (width * (fontMatrix[0] * 1000));
     }
 
-    Map<String, Integer> getGlyphWidths() {
+    ObjectIntMap<String> getGlyphWidths() {
         return glyphWidths;
     }
 
@@ -89,7 +89,7 @@ public class PDInlineImage extends PDResource {
 			cs = getKey(ASAtom.COLORSPACE);
 		}
 		if (cs != null && cs.getType() == COSObjType.COS_NAME) {
-			replaceAbbreviation((COSName) cs.getDirectBase());
+			replaceAbbreviation(cs);
 			PDColorSpace result = getDefaultColorSpace(cs.getName());
 			if (result != null) {
 				return result;
@@ -133,13 +133,13 @@ public class PDInlineImage extends PDResource {
 				ASAtom.DEVICEGRAY.equals(name) || ASAtom.DEVICECMYK.equals(name);
 	}
 
-	private static void replaceAbbreviation(final COSName abbreviation) {
+	private static void replaceAbbreviation(final COSObject abbreviation) {
 		if (abbreviation.getName() == ASAtom.CMYK) {
-			abbreviation.set(ASAtom.DEVICECMYK);
+			abbreviation.setName(ASAtom.DEVICECMYK);
 		} else if (abbreviation.getName() == ASAtom.RGB) {
-			abbreviation.set(ASAtom.DEVICERGB);
+			abbreviation.setName(ASAtom.DEVICERGB);
 		} else if (abbreviation.getName() == ASAtom.G) {
-			abbreviation.set(ASAtom.DEVICEGRAY);
+			abbreviation.setName(ASAtom.DEVICEGRAY);
 		}
 	}
 
@@ -17,6 +17,8 @@ import java.util.*;
  */
 public class PDNumberTreeNode extends PDObject {
 
+    private volatile Index index;
+
     /**
      * Constructor from number tree node dictionary.
      *
@@ -34,10 +36,11 @@ public class PDNumberTreeNode extends PDObject {
         COSObject limits = this.getKey(ASAtom.LIMITS);
         if (limits != null && !limits.empty() && limits.getType() == COSObjType.COS_ARRAY
                 && limits.size() >= 2) {
-            long[] res = new long[2];
-            res[0] = limits.at(0).getInteger();
-            res[1] = limits.at(1).getInteger();
-            return res;
+            Long lower = limits.at(0).getInteger();
+            Long upper = limits.at(1).getInteger();
+            if (lower != null && upper != null) {
+                return new long[]{lower, upper};
+            }
         }
         return null;
     }
@@ -81,18 +84,94 @@ public class PDNumberTreeNode extends PDObject {
 
     /**
      * Gets object with given key from this node and it's kids recursively.
+     * On the first call all entries of the tree are collected into sorted
+     * index, further calls use binary search in it. Index is not updated if
+     * nodes of the tree are modified in place, {@link #setObject(COSObject)}
+     * drops it in this case.
      *
      * @param key is integer that is a key for COSObject.
      * @return object for given key from this number tree node and it's kids or
      * null if object can't be found.
+     * @throws LoopedException if the tree contains loop in the part of it that
+     * may contain given key according to Limits of nodes.
      */
     public COSObject getObject(Long key) {
-        HashSet<COSKey> visitedKeys = new HashSet<>();
+        if (key == null) {
+            return null;
+        }
+        Index index = this.index;
+        if (index == null) {
+            index = buildIndex();
+            this.index = index;
+        }
+        return index.get(key);
+    }
+
+    protected void updateFromObject() {
+        this.index = null;
+    }
+
+    private Index buildIndex() {
+        Set<COSKey> visitedKeys = new HashSet<>();
         COSKey objectKey = getObject().getObjectKey();
         if (objectKey != null) {
             visitedKeys.add(objectKey);
         }
-        return getObject(key, visitedKeys);
+        Index index = new Index();
+        addEntries(this, Long.MIN_VALUE, Long.MAX_VALUE, visitedKeys, index);
+        index.sort();
+        return index;
+    }
+
+    /**
+     * Adds entries of given node and it's kids that are within limits of the
+     * node and all it's ancestors, so that index gives the same results as
+     * search from the root.
+     */
+    private static void addEntries(PDNumberTreeNode node, long lower, long upper,
+                                   Set<COSKey> visitedKeys, Index index) {
+        long[] limits = node.getLimitsArray();
+        if (limits != null) {
+            lower = Math.max(lower, limits[0]);
+            upper = Math.min(upper, limits[1]);
+            if (lower > upper) {
+                return;
+            }
+        }
+
+        if (node.knownKey(ASAtom.NUMS)) {
+            COSObject nums = node.getKey(ASAtom.NUMS);
+            if (nums != null && !nums.empty() && nums.getType() == COSObjType.COS_ARRAY) {
+                index.startNode();
+                for (int i = 0; i < nums.size() - 1; i += 2) {
+                    COSObject key = nums.at(i);
+                    if (key.getType() == COSObjType.COS_INTEGER) {
+                        long value = key.getInteger();
+                        if (value >= lower && value <= upper) {
+                            index.add(value, nums.at(i + 1));
+                        }
+                    }
+                }
+            }
+            return;
+        }
+
+        COSObject kids = node.getKey(ASAtom.KIDS);
+        if (kids != null && !kids.empty() && kids.getType() == COSObjType.COS_ARRAY) {
+            for (COSObject kid : (COSArray) kids.getDirectBase()) {
+                if (kid == null || !kid.getType().isDictionaryBased()) {
+                    continue;
+                }
+                COSKey kidObjectKey = kid.getObjectKey();
+                if (kidObjectKey != null && !visitedKeys.add(kidObjectKey)) {
+                    // lookups of keys within these limits fail as in search
+                    // from the root
+                    index.addLoop(lower, upper);
+                    continue;
+                }
+                addEntries(new PDNumberTreeNode(kid), lower, upper, visitedKeys, index);
+            }
+        }
     }
 
     public COSObject getObject(Long key, Set<COSKey> visitedKeys) {
@@ -132,4 +211,101 @@ public class PDNumberTreeNode extends PDObject {
 
         return null;
     }
+
+    /**
+     * Sorted keys of number tree with corresponding values. If the same key
+     * appears in several leaves, the first leaf in tree order is used, and
+     * within one leaf the last entry is used, as in search from the root.
+     */
+    private static final class Index {
+        private long[] keys = new long[16];
+        private COSObject[] values = new COSObject[16];
+        private int[] nodes = new int[16];
+        private int size = 0;
+        private int node = 0;
+        private boolean sorted = true;
+        private List<long[]> loops = null;
+
+        private void startNode() {
+            this.node++;
+        }
+
+        /**
+         * Adds loop found after the current leaf in tree order. Keys within
+         * given limits that are not found in this or previous leaves can't be
+         * looked up.
+         */
+        private void addLoop(long lower, long upper) {
+            if (this.loops == null) {
+                this.loops = new ArrayList<>();
+            }
+            this.loops.add(new long[]{lower, upper, this.node});
+        }
+
+        private void add(long key, COSObject value) {
+            if (this.size == this.keys.length) {
+                this.keys = Arrays.copyOf(this.keys, this.size << 1);
+                this.values = Arrays.copyOf(this.values, this.size << 1);
+                this.nodes = Arrays.copyOf(this.nodes, this.size << 1);
+            }
+            if (this.size > 0 && this.keys[this.size - 1] >= key) {
+                this.sorted = false;
+            }
+            this.keys[this.size] = key;
+            this.values[this.size] = value;
+            this.nodes[this.size] = this.node;
+            this.size++;
+        }
+
+        private void sort() {
+            if (!this.sorted) {
+                Integer[] order = new Integer[this.size];
+                for (int i = 0; i < this.size; ++i) {
+                    order[i] = i;
+                }
+                // the entry to use goes first among equal keys
+                Arrays.sort(order, new Comparator<Integer>() {
+                    @Override
+                    public int compare(Integer o1, Integer o2) {
+                        int res = Long.compare(keys[o1], keys[o2]);
+                        if (res == 0) {
+                            res = Integer.compare(nodes[o1], nodes[o2]);
+                        }
+                        return res != 0 ? res : Integer.compare(o2, o1);
+                    }
+                });
+                long[] sortedKeys = new long[this.size];
+                COSObject[] sortedValues = new COSObject[this.size];
+                int[] sortedNodes = new int[this.size];
+                int count = 0;
+                for (Integer i : order) {
+                    if (count == 0 || sortedKeys[count - 1] != this.keys[i]) {
+                        sortedKeys[count] = this.keys[i];
+                        sortedValues[count] = this.values[i];
+                        sortedNodes[count] = this.nodes[i];
+                        count++;
+                    }
+                }
+                this.keys = sortedKeys;
+                this.values = sortedValues;
+                this.nodes = sortedNodes;
+                this.size = count;
+                this.sorted = true;
+            }
+        }
+
+        private COSObject get(long key) {
+            int i = Arrays.binarySearch(this.keys, 0, this.size, key);
+            if (this.loops != null) {
+                // search from the root returns keys found before the loop
+                int node = i >= 0 ? this.nodes[i] : Integer.MAX_VALUE;
+                for (long[] loop : this.loops) {
+                    if (key >= loop[0] && key <= loop[1] && node > loop[2]) {
+                        throw new LoopedException("Loop inside number tree");
+                    }
+                }
+            }
+            return i >= 0 ? this.values[i] : null;
+        }
+    }
 }
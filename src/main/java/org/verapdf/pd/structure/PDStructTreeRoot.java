@@ -21,6 +21,7 @@
 package org.verapdf.pd.structure;
 
 import org.verapdf.as.ASAtom;
+import org.verapdf.cos.COSBase;
 import org.verapdf.cos.COSObjType;
 import org.verapdf.cos.COSObject;
 import org.verapdf.tools.TaggedPDFHelper;
@@ -28,10 +29,18 @@ import org.verapdf.tools.TaggedPDFHelper;
 import java.util.*;
 
 /**
+ * Role map and parent tree are cached until RoleMap or ParentTree entry is
+ * replaced. They are not updated if these dictionaries or number tree nodes
+ * are modified in place, {@link #setObject(COSObject)} drops them in this
+ * case.
+ *
  * @author Maksim Bezrukov
  */
 public class PDStructTreeRoot extends PDStructTreeNode {
 
+	private volatile PDNumberTreeNode parentTree;
+	private volatile CachedRoleMap roleMap;
+
 	public PDStructTreeRoot(COSObject obj) {
 		super(obj);
 	}
@@ -41,8 +50,23 @@ public class PDStructTreeRoot extends PDStructTreeNode {
 		return TaggedPDFHelper.getStructTreeRootChildren(getObject(), getRoleMap());
 	}
 
+	/**
+	 * @return role map of this structure tree root. It is computed on the
+	 * first call, further calls return the same {@link RoleMap} while RoleMap
+	 * entry holds the same dictionary.
+	 */
 	public Map<ASAtom, ASAtom> getRoleMap() {
 		COSObject roleMap = getKey(ASAtom.ROLE_MAP);
+		COSBase base = roleMap != null ? roleMap.getDirectBase() : null;
+		CachedRoleMap res = this.roleMap;
+		if (res == null || res.base != base) {
+			res = new CachedRoleMap(base, new RoleMap(parseRoleMap(roleMap)));
+			this.roleMap = res;
+		}
+		return res.roleMap;
+	}
+
+	private static Map<ASAtom, ASAtom> parseRoleMap(COSObject roleMap) {
 		if (roleMap != null && roleMap.getType() == COSObjType.COS_DICT && roleMap.size() > 0) {
 			Map<ASAtom, ASAtom> res = new HashMap<>();
 			Set<ASAtom> keys = roleMap.getKeySet();
@@ -52,16 +76,41 @@ public class PDStructTreeRoot extends PDStructTreeNode {
 					res.put(key, value);
 				}
 			}
-			return Collections.unmodifiableMap(res);
+			return res;
 		}
 		return Collections.emptyMap();
 	}
 
+	/**
+	 * @return parent tree of this structure tree root. The same object is
+	 * returned while ParentTree entry holds the same dictionary, so lookups
+	 * in it reuse its index.
+	 */
 	public PDNumberTreeNode getParentTree() {
 		COSObject parentTree = getKey(ASAtom.PARENT_TREE);
-		if (parentTree != null && parentTree.getType().isDictionaryBased()) {
-			return new PDNumberTreeNode(parentTree);
+		if (parentTree == null || !parentTree.getType().isDictionaryBased()) {
+			return null;
+		}
+		PDNumberTreeNode res = this.parentTree;
+		if (res == null || res.getObject().getDirectBase() != parentTree.getDirectBase()) {
+			res = new PDNumberTreeNode(parentTree);
+			this.parentTree = res;
+		}
+		return res;
+	}
+
+	protected void updateFromObject() {
+		this.parentTree = null;
+		this.roleMap = null;
+	}
+
+	private static final class CachedRoleMap {
+		private final COSBase base;
+		private final RoleMap roleMap;
+
+		private CachedRoleMap(COSBase base, RoleMap roleMap) {
+			this.base = base;
+			this.roleMap = roleMap;
 		}
-		return null;
 	}
 }
@@ -0,0 +1,125 @@
+/**
+ * This file is part of veraPDF Parser, a module of the veraPDF project.
+ * Copyright (c) 2015, veraPDF Consortium <info@verapdf.org>
+ * All rights reserved.
+ *
+ * veraPDF Parser is free software: you can redistribute it and/or modify
+ * it under the terms of either:
+ *
+ * The GNU General public license GPLv3+.
+ * You should have received a copy of the GNU General Public License
+ * along with veraPDF Parser as the LICENSE.GPL file in the root of the source
+ * tree.  If not, see http://www.gnu.org/licenses/ or
+ * https://www.gnu.org/licenses/gpl-3.0.en.html.
+ *
+ * The Mozilla Public License MPLv2+.
+ * You should have received a copy of the Mozilla Public License along with
+ * veraPDF Parser as the LICENSE.MPL file in the root of the source tree.
+ * If a copy of the MPL was not distributed with this file, you can obtain one at
+ * http://mozilla.org/MPL/2.0/.
+ */
+package org.verapdf.pd.structure;
+
+import org.verapdf.as.ASAtom;
+import org.verapdf.cos.COSBase;
+import org.verapdf.cos.COSKey;
+import org.verapdf.tools.TaggedPDFHelper;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Unmodifiable role map of structure tree root. It also caches default
+ * standard structure types resolved through it, so that role map chain is
+ * walked only once for each pair of structure type and namespace. Instances
+ * are thread-safe.
+ */
+public final class RoleMap extends AbstractMap<ASAtom, ASAtom> {
+
+	// value for structure types that can't be resolved to standard type
+	private static final Object NO_DEFAULT_TYPE = new Object();
+
+	private final Map<ASAtom, ASAtom> mapping;
+	private final ConcurrentMap<Key, Object> defaultTypes = new ConcurrentHashMap<>();
+
+	public RoleMap(Map<ASAtom, ASAtom> mapping) {
+		this.mapping = Collections.unmodifiableMap(new HashMap<>(mapping));
+	}
+
+	@Override
+	public ASAtom get(Object key) {
+		return this.mapping.get(key);
+	}
+
+	@Override
+	public boolean containsKey(Object key) {
+		return this.mapping.containsKey(key);
+	}
+
+	@Override
+	public int size() {
+		return this.mapping.size();
+	}
+
+	@Override
+	public Set<Entry<ASAtom, ASAtom>> entrySet() {
+		return this.mapping.entrySet();
+	}
+
+	/**
+	 * Gets standard structure type for given structure type.
+	 *
+	 * @param type is structure type.
+	 * @return standard structure type or null if type can't be mapped to
+	 * standard one.
+	 */
+	public StructureType getDefaultStructureType(StructureType type) {
+		Key key = new Key(type.getType(), type.getNameSpace());
+		Object res = this.defaultTypes.get(key);
+		if (res == null) {
+			res = TaggedPDFHelper.resolveDefaultStructureType(type, this);
+			if (res == null) {
+				res = NO_DEFAULT_TYPE;
+			}
+			this.defaultTypes.putIfAbsent(key, res);
+		}
+		return res == NO_DEFAULT_TYPE ? null : (StructureType) res;
+	}
+
+	/**
+	 * Indirect namespaces are compared by object key, direct ones by identity
+	 * of their dictionaries.
+	 */
+	private static final class Key {
+		private final ASAtom type;
+		private final COSKey nameSpaceKey;
+		private final COSBase nameSpace;
+
+		private Key(ASAtom type, PDStructureNameSpace nameSpace) {
+			this.type = type;
+			COSKey nameSpaceKey = nameSpace == null ? null : nameSpace.getObject().getObjectKey();
+			this.nameSpaceKey = nameSpaceKey;
+			this.nameSpace = nameSpace == null || nameSpaceKey != null ? null : nameSpace.getObject().getDirectBase();
+		}
+
+		@Override
+		public boolean equals(Object o) {
+			if (this == o) {
+				return true;
+			}
+			if (!(o instanceof Key)) {
+				return false;
+			}
+			Key that = (Key) o;
+			return Objects.equals(this.type, that.type) && Objects.equals(this.nameSpaceKey, that.nameSpaceKey)
+					&& this.nameSpace == that.nameSpace;
+		}
+
+		@Override
+		public int hashCode() {
+			return 31 * (31 * Objects.hashCode(this.type) + Objects.hashCode(this.nameSpaceKey))
+					+ System.identityHashCode(this.nameSpace);
+		}
+	}
+}
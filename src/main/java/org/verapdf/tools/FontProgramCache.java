@@ -0,0 +1,180 @@
+/**
+ * This file is part of veraPDF Parser, a module of the veraPDF project.
+ * Copyright (c) 2015, veraPDF Consortium <info@verapdf.org>
+ * All rights reserved.
+ *
+ * veraPDF Parser is free software: you can redistribute it and/or modify
+ * it under the terms of either:
+ *
+ * The GNU General public license GPLv3+.
+ * You should have received a copy of the GNU General Public License
+ * along with veraPDF Parser as the LICENSE.GPL file in the root of the source
+ * tree.  If not, see http://www.gnu.org/licenses/ or
+ * https://www.gnu.org/licenses/gpl-3.0.en.html.
+ *
+ * The Mozilla Public License MPLv2+.
+ * You should have received a copy of the Mozilla Public License along with
+ * veraPDF Parser as the LICENSE.MPL file in the root of the source tree.
+ * If a copy of the MPL was not distributed with this file, you can obtain one at
+ * http://mozilla.org/MPL/2.0/.
+ */
+package org.verapdf.tools;
+
+import org.verapdf.pd.font.FontProgram;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Process-wide cache of parsed font programs that can be shared between
+ * documents and threads. Font programs are keyed by digest of decoded font
+ * data together with parameters of font program that don't depend on
+ * document. Cache is bounded by total weight of font programs, least recently
+ * used font programs are evicted first.
+ * <p>
+ * The same instance of cache should be set into reader options of all
+ * documents that should share font programs.
+ */
+public class FontProgramCache {
+
+	/**
+	 * Default maximal total weight of cached font programs.
+	 */
+	public static final long DEFAULT_MAX_WEIGHT = 64L * 1024 * 1024;
+
+	private final long maxWeight;
+	private final LinkedHashMap<String, Entry> fontPrograms;
+	private long weight;
+
+	private long hitCount;
+	private long missCount;
+	private long evictionCount;
+
+	public FontProgramCache() {
+		this(DEFAULT_MAX_WEIGHT);
+	}
+
+	/**
+	 * @param maxWeight is maximal total weight of cached font programs in
+	 *                  bytes. Weight of font program is size of its font data
+	 *                  plus memory used by its parsed mappings. The most
+	 *                  recently added font program is kept even if it is
+	 *                  heavier.
+	 */
+	public FontProgramCache(long maxWeight) {
+		this.maxWeight = maxWeight;
+		this.fontPrograms = new LinkedHashMap<>(16, 0.75f, true);
+	}
+
+	/**
+	 * Gets font program with given key.
+	 *
+	 * @return font program or null if there is no such font program in the
+	 * cache.
+	 */
+	public synchronized FontProgram get(String key) {
+		Entry entry = this.fontPrograms.get(key);
+		if (entry == null) {
+			this.missCount++;
+			return null;
+		}
+		this.hitCount++;
+		return entry.fontProgram;
+	}
+
+	/**
+	 * Adds parsed font program with given key unless the cache already
+	 * contains font program with this key. Least recently used font programs
+	 * are evicted if total weight exceeds the limit.
+	 *
+	 * @param dataSize is size of font data of font program.
+	 * @return font program that is associated with the key in the cache.
+	 */
+	public synchronized FontProgram putIfAbsent(String key, FontProgram fontProgram, long dataSize) {
+		Entry existing = this.fontPrograms.get(key);
+		if (existing != null) {
+			return existing.fontProgram;
+		}
+		Entry entry = new Entry(fontProgram, dataSize + fontProgram.getMemoryUsage());
+		this.fontPrograms.put(key, entry);
+		this.weight += entry.weight;
+		evict(entry);
+		return fontProgram;
+	}
+
+	/**
+	 * Removes all font programs from the cache. Statistics are not reset.
+	 */
+	public synchronized void clear() {
+		this.fontPrograms.clear();
+		this.weight = 0;
+	}
+
+	/**
+	 * @return number of font programs in the cache.
+	 */
+	public synchronized int size() {
+		return this.fontPrograms.size();
+	}
+
+	/**
+	 * @return total weight of cached font programs.
+	 */
+	public synchronized long getWeight() {
+		return weight;
+	}
+
+	/**
+	 * @return number of font program requests served from the cache.
+	 */
+	public synchronized long getHitCount() {
+		return hitCount;
+	}
+
+	/**
+	 * @return number of font program requests that required parsing.
+	 */
+	public synchronized long getMissCount() {
+		return missCount;
+	}
+
+	/**
+	 * @return ratio of requests served from the cache to all requests or 0 if
+	 * there were no requests.
+	 */
+	public synchronized double getHitRatio() {
+		long requests = hitCount + missCount;
+		return requests == 0 ? 0 : (double) hitCount / requests;
+	}
+
+	/**
+	 * @return number of font programs evicted to fit into the weight limit.
+	 */
+	public synchronized long getEvictionCount() {
+		return evictionCount;
+	}
+
+	private void evict(Entry current) {
+		Iterator<Map.Entry<String, Entry>> iterator = this.fontPrograms.entrySet().iterator();
+		while (this.weight > this.maxWeight && iterator.hasNext()) {
+			Entry entry = iterator.next().getValue();
+			if (entry == current) {
+				continue;
+			}
+			iterator.remove();
+			this.weight -= entry.weight;
+			this.evictionCount++;
+		}
+	}
+
+	private static final class Entry {
+		private final FontProgram fontProgram;
+		private final long weight;
+
+		private Entry(FontProgram fontProgram, long weight) {
+			this.fontProgram = fontProgram;
+			this.weight = weight;
+		}
+	}
+}
@@ -1,6 +1,7 @@
 package org.verapdf.tools;
 
 import org.verapdf.cos.COSKey;
+import org.verapdf.cos.COSObjType;
 import org.verapdf.cos.COSObject;
 import org.verapdf.pd.font.cmap.CMap;
 
@@ -51,6 +52,63 @@ public class FontProgramIDGenerator {
 		return "Type1FontProgram " + key.toString();
 	}
 
+	/*
+	 * IDs of font programs in FontProgramCache shared between documents.
+	 * They contain only parameters that can be compared between documents,
+	 * null is returned if font program depends on document-specific object.
+	 */
+
+	public static String getSharedCIDFontType2ProgramID(CMap cMap, COSObject cidToGIDMap) {
+		return concatenate("CIDFontType2Program", getSharedCMapID(cMap), getSharedCOSObjectID(cidToGIDMap));
+	}
+
+	public static String getSharedCFFFontProgramID(CMap cMap, boolean isSubset) {
+		return concatenate("CFFFontProgram", getSharedCMapID(cMap), String.valueOf(isSubset));
+	}
+
+	public static String getSharedOpenTypeFontProgramID(boolean isCFF, boolean isSymbolic, COSObject encoding,
+	                                                     CMap cMap, boolean isSubset) {
+		return concatenate("OpenTypeFontProgram", getSharedCMapID(cMap), String.valueOf(isCFF),
+				String.valueOf(isSymbolic), getSharedCOSObjectID(encoding), String.valueOf(isSubset));
+	}
+
+	public static String getSharedTrueTypeFontProgramID(boolean isSymbolic, COSObject encoding) {
+		return concatenate("TrueTypeFontProgram", String.valueOf(isSymbolic), getSharedCOSObjectID(encoding));
+	}
+
+	public static String getSharedType1FontProgramID() {
+		return "Type1FontProgram";
+	}
+
+	private static String getSharedCMapID(CMap cMap) {
+		if (cMap == null) {
+			return NULL;
+		}
+		// predefined CMaps are the same objects in all documents
+		return cMap.isUnmodifiable() ? cMap.getName() : null;
+	}
+
+	private static String getSharedCOSObjectID(COSObject cosObject) {
+		if (cosObject == null || cosObject.empty()) {
+			return NULL;
+		}
+		return cosObject.getType() == COSObjType.COS_NAME ? "/" + cosObject.getString() : null;
+	}
+
+	private static String concatenate(String... parts) {
+		StringBuilder builder = new StringBuilder();
+		for (String part : parts) {
+			if (part == null) {
+				return null;
+			}
+			if (builder.length() != 0) {
+				builder.append(' ');
+			}
+			builder.append(part);
+		}
+		return builder.toString();
+	}
+
 	private static String getBaseFontProgramID(String type, COSKey key, CMap cMap) {
 		if (key == null) {
 			return null;
@@ -1,12 +1,21 @@
 package org.verapdf.tools;
 
+import org.verapdf.as.io.ASInputStream;
+import org.verapdf.as.io.ASMemoryInStream;
 import org.verapdf.cos.COSKey;
+import org.verapdf.cos.COSStream;
+import org.verapdf.external.ICCProfile;
+import org.verapdf.io.ReaderOptions;
 import org.verapdf.pd.font.FontProgram;
+import org.verapdf.pd.font.FontProgramFactory;
 import org.verapdf.pd.font.cmap.CMap;
+import org.verapdf.pd.font.opentype.OpenTypeFontProgram;
 import org.verapdf.pd.structure.PDStructureNameSpace;
 import org.verapdf.tools.resource.ASFileStreamCloser;
 
 import java.io.IOException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.logging.Level;
@@ -25,6 +34,8 @@ public class StaticResources {
 	private static ThreadLocal<Map<String, CMap>> cMapCache = new ThreadLocal<>();
 	private static ThreadLocal<Map<COSKey, PDStructureNameSpace>> structureNameSpaceCache = new ThreadLocal<>();
 	private static ThreadLocal<Map<String, FontProgram>> cachedFonts = new ThreadLocal<>();
+	private static ThreadLocal<Map<COSKey, ICCProfile>> iccProfileCache = new ThreadLocal<>();
+	private static ThreadLocal<ReaderOptions> readerOptions = new ThreadLocal<>();
 
 	private StaticResources() {
 	}
@@ -76,6 +87,30 @@ public class StaticResources {
 		return StaticResources.structureNameSpaceCache.get().get(key);
 	}
 
+	/**
+	 * Caches ICC profile. Key is chosen to be indirect reference key of ICC
+	 * profile stream.
+	 *
+	 * @param key        is COSKey of ICC profile stream.
+	 * @param iccProfile is ICC profile to cache.
+	 */
+	public static void cacheICCProfile(COSKey key, ICCProfile iccProfile) {
+		checkForNull(iccProfileCache);
+		StaticResources.iccProfileCache.get().put(key, iccProfile);
+	}
+
+	/**
+	 * Gets cached ICC profile.
+	 *
+	 * @param key is COSKey of ICC profile stream.
+	 * @return cached ICC profile with this COSKey or null if no profile
+	 * available.
+	 */
+	public static ICCProfile getICCProfile(COSKey key) {
+		checkForNull(iccProfileCache);
+		return StaticResources.iccProfileCache.get().get(key);
+	}
+
 	public static void cacheFontProgram(String key, FontProgram font) {
 		checkForNull(cachedFonts);
 		if (key != null) {
@@ -93,6 +128,135 @@ public class StaticResources {
 		return StaticResources.cachedFonts.get().get(key);
 	}
 
+	/**
+	 * Gets font program for given embedded font file from the cache or
+	 * creates it. If font program cache is set in reader options, font
+	 * programs are shared between documents by digest of decoded font data,
+	 * such font programs are parsed before they are added to the cache.
+	 *
+	 * @param fontProgramID       is ID of font program within document.
+	 * @param sharedFontProgramID is ID of font program parameters that don't
+	 *                            depend on document or null if font program
+	 *                            can't be shared between documents.
+	 * @param fontFile            is embedded font file.
+	 * @param factory             creates font program from decoded font data.
+	 * @return font program for given font file.
+	 * @throws IOException if font data can't be read or font program can't be
+	 *                     created.
+	 */
+	public static FontProgram getFontProgram(String fontProgramID, String sharedFontProgramID,
+	                                         COSStream fontFile, FontProgramFactory factory) throws IOException {
+		FontProgram res = getCachedFont(fontProgramID);
+		if (res != null) {
+			return res;
+		}
+		FontProgramCache sharedCache = fontFile.getReaderOptions().getFontProgramCache();
+		if (sharedCache != null && sharedFontProgramID != null) {
+			res = getSharedFontProgram(sharedCache, sharedFontProgramID, fontFile, factory);
+		} else {
+			try (ASInputStream fontData = fontFile.getData(COSStream.FilterFlags.DECODE)) {
+				res = factory.createFontProgram(fontData);
+			}
+		}
+		cacheFontProgram(fontProgramID, res);
+		return res;
+	}
+
+	private static FontProgram getSharedFontProgram(FontProgramCache sharedCache, String sharedFontProgramID,
+	                                                COSStream fontFile, FontProgramFactory factory) throws IOException {
+		try (ASInputStream fontData = fontFile.getData(COSStream.FilterFlags.DECODE);
+		     ASMemoryInStream memoryData = new ASMemoryInStream(fontData)) {
+			String key = getDigest(memoryData) + " " + sharedFontProgramID;
+			FontProgram res = sharedCache.get(key);
+			if (res != null) {
+				return res;
+			}
+			memoryData.reset();
+			res = factory.createFontProgram(memoryData);
+			try {
+				res.parseFont();
+			} catch (IOException e) {
+				LOGGER.log(Level.FINE, "Can't parse font program, it is not shared between documents", e);
+				return res;
+			}
+			if (res.isSuccessfulParsing() && isMemoryResident(res)) {
+				res = sharedCache.putIfAbsent(key, res, memoryData.getStreamLength());
+			}
+			return res;
+		}
+	}
+
+	private static String getDigest(ASInputStream stream) throws IOException {
+		MessageDigest digest;
+		try {
+			digest = MessageDigest.getInstance("SHA-256");
+		} catch (NoSuchAlgorithmException e) {
+			throw new IOException("Can't compute digest of font data", e);
+		}
+		byte[] buffer = new byte[8192];
+		int read;
+		while ((read = stream.read(buffer)) != -1) {
+			digest.update(buffer, 0, read);
+		}
+		StringBuilder res = new StringBuilder();
+		for (byte b : digest.digest()) {
+			res.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+		}
+		return res.toString();
+	}
+
+	/**
+	 * Font programs shared between documents can't hold file resources, as
+	 * they are closed in {@link #clear()} of thread that created the program.
+	 */
+	private static boolean isMemoryResident(FontProgram fontProgram) {
+		if (fontProgram.getFontProgramResource() != null) {
+			return false;
+		}
+		if (fontProgram instanceof OpenTypeFontProgram) {
+			FontProgram font = ((OpenTypeFontProgram) fontProgram).getFont();
+			return font == null || font.getFontProgramResource() == null;
+		}
+		return true;
+	}
+
+	/**
+	 * Sets reader options of document processed in this thread.
+	 *
+	 * @param options is reader options of document.
+	 */
+	public static void setReaderOptions(ReaderOptions options) {
+		StaticResources.readerOptions.set(options);
+	}
+
+	/**
+	 * Gets reader options of document processed in this thread.
+	 *
+	 * @return reader options of document or default options if no options were
+	 * set.
+	 */
+	public static ReaderOptions getReaderOptions() {
+		ReaderOptions res = StaticResources.readerOptions.get();
+		if (res == null) {
+			res = new ReaderOptions();
+			StaticResources.readerOptions.set(res);
+		}
+		return res;
+	}
+
+	/**
+	 * @return approximate amount of memory in bytes used by glyph mappings and
+	 * widths of each font program cached for current thread.
+	 */
+	public static Map<String, Long> getCachedFontsMemoryUsage() {
+		checkForNull(cachedFonts);
+		Map<String, Long> res = new HashMap<>();
+		for (Map.Entry<String, FontProgram> entry : cachedFonts.get().entrySet()) {
+			res.put(entry.getKey(), entry.getValue().getMemoryUsage());
+		}
+		return res;
+	}
+
 	/**
 	 * Clears all cached static resources.
 	 */
@@ -111,6 +275,8 @@ public class StaticResources {
 		StaticResources.cMapCache.set(new HashMap<>());
 		StaticResources.structureNameSpaceCache.set(new HashMap<>());
 		StaticResources.cachedFonts.set(new HashMap<>());
+		StaticResources.iccProfileCache.set(new HashMap<>());
+		StaticResources.readerOptions.remove();
 	}
 
 	private static void checkForNull(ThreadLocal variable) {
@@ -27,6 +27,7 @@ import org.verapdf.cos.COSObject;
 import org.verapdf.pd.structure.PDNameSpaceRoleMapping;
 import org.verapdf.pd.structure.PDStructElem;
 import org.verapdf.pd.structure.PDStructureNameSpace;
+import org.verapdf.pd.structure.RoleMap;
 import org.verapdf.pd.structure.StructureType;
 
 import java.util.*;
@@ -120,26 +121,46 @@ public class TaggedPDFHelper {
 	}
 
 	private static final int MAX_NUMBER_OF_ELEMENTS = 1;
-	private static Map<ASAtom, Set<COSKey>> visitedWithNS = new HashMap<>();
-	private static Set<ASAtom> visitedWithoutNS = new HashSet<>();
 
 	private TaggedPDFHelper() {
 		// disable default constructor
 	}
 
+	/**
+	 * Gets standard structure type for given structure type. If role map is
+	 * {@link RoleMap}, result is taken from its cache.
+	 *
+	 * @param type is structure type.
+	 * @param rootRoleMap is role map of structure tree root.
+	 * @return standard structure type or null if type can't be mapped to
+	 * standard one.
+	 */
 	public static StructureType getDefaultStructureType(StructureType type, Map<ASAtom, ASAtom> rootRoleMap) {
-		visitedWithNS.clear();
-		visitedWithoutNS.clear();
-		addVisited(type);
+		if (type == null) {
+			return null;
+		}
+		if (rootRoleMap instanceof RoleMap) {
+			return ((RoleMap) rootRoleMap).getDefaultStructureType(type);
+		}
+		return resolveDefaultStructureType(type, rootRoleMap);
+	}
+
+	/**
+	 * Gets standard structure type for given structure type walking the role
+	 * map chain without any caching. Can be used from several threads.
+	 */
+	public static StructureType resolveDefaultStructureType(StructureType type, Map<ASAtom, ASAtom> rootRoleMap) {
+		VisitedTypes visited = new VisitedTypes();
+		visited.add(type);
 		StructureType curr = getEquivalent(type, rootRoleMap);
-		if (curr == null || isVisited(curr)) {
+		if (curr == null || visited.contains(curr)) {
 			return isStandardType(type) ? type : null;
 		}
-		while (curr != null && !isVisited(curr)) {
+		while (curr != null && !visited.contains(curr)) {
 			if (isStandardType(curr)) {
 				return curr;
 			}
-			addVisited(curr);
+			visited.add(curr);
 			curr = getEquivalent(curr, rootRoleMap);
 		}
 		return null;
@@ -167,7 +188,7 @@ public class TaggedPDFHelper {
 				case PDF_NAMESPACE:
 					return PDF_1_7_STANDART_ROLE_TYPES.contains(structureType);
 				case PDF2_NAMESPACE:
-					return PDF_2_0_STANDART_ROLE_TYPES.contains(structureType) || structureType.matches("^H[1-9][0-9]*$");
+					return PDF_2_0_STANDART_ROLE_TYPES.contains(structureType) || isNumberedHeading(structureType);
 				case MATH_ML_NAMESPACE:
 					return true;
 				default:
@@ -178,37 +199,59 @@ public class TaggedPDFHelper {
 		}
 	}
 
-	private static void addVisited(StructureType type) {
-		ASAtom structType = type.getType();
-		PDStructureNameSpace nameSpace = type.getNameSpace();
-		if (nameSpace != null) {
-			COSKey key = nameSpace.getObject().getObjectKey();
-			Set<COSKey> nameSpaces;
-			if (visitedWithNS.containsKey(structType)) {
-				nameSpaces = visitedWithNS.get(structType);
-			} else {
-				nameSpaces = new HashSet<>();
-				visitedWithNS.put(structType, nameSpaces);
+	/**
+	 * Checks that structure type is Hn heading, that is matches
+	 * "^H[1-9][0-9]*$".
+	 */
+	private static boolean isNumberedHeading(String structureType) {
+		int length = structureType.length();
+		if (length < 2 || structureType.charAt(0) != 'H') {
+			return false;
+		}
+		char first = structureType.charAt(1);
+		if (first < '1' || first > '9') {
+			return false;
+		}
+		for (int i = 2; i < length; ++i) {
+			char c = structureType.charAt(i);
+			if (c < '0' || c > '9') {
+				return false;
 			}
-			nameSpaces.add(key);
-		} else {
-			visitedWithoutNS.add(structType);
 		}
+		return true;
 	}
 
-	private static boolean isVisited(StructureType type) {
-		ASAtom structType = type.getType();
-		PDStructureNameSpace nameSpace = type.getNameSpace();
-		if (nameSpace != null) {
-			if (visitedWithNS.containsKey(structType)) {
-				Set<COSKey> nameSpaces = visitedWithNS.get(structType);
-				COSKey key = nameSpace.getObject().getObjectKey();
-				return nameSpaces.contains(key);
+	/**
+	 * Structure types visited during one resolution of role map chain.
+	 */
+	private static final class VisitedTypes {
+		private final Map<ASAtom, Set<COSKey>> withNS = new HashMap<>();
+		private final Set<ASAtom> withoutNS = new HashSet<>();
+
+		private void add(StructureType type) {
+			ASAtom structType = type.getType();
+			PDStructureNameSpace nameSpace = type.getNameSpace();
+			if (nameSpace != null) {
+				Set<COSKey> nameSpaces = this.withNS.get(structType);
+				if (nameSpaces == null) {
+					nameSpaces = new HashSet<>();
+					this.withNS.put(structType, nameSpaces);
+				}
+				nameSpaces.add(nameSpace.getObject().getObjectKey());
 			} else {
-				return false;
+				this.withoutNS.add(structType);
+			}
+		}
+
+		private boolean contains(StructureType type) {
+			ASAtom structType = type.getType();
+			PDStructureNameSpace nameSpace = type.getNameSpace();
+			if (nameSpace != null) {
+				Set<COSKey> nameSpaces = this.withNS.get(structType);
+				return nameSpaces != null && nameSpaces.contains(nameSpace.getObject().getObjectKey());
+			} else {
+				return this.withoutNS.contains(structType);
 			}
-		} else {
-			return visitedWithoutNS.contains(structType);
 		}
 	}
 
@@ -0,0 +1,123 @@
+/**
+ * This file is part of veraPDF Parser, a module of the veraPDF project.
+ * Copyright (c) 2015, veraPDF Consortium <info@verapdf.org>
+ * All rights reserved.
+ *
+ * veraPDF Parser is free software: you can redistribute it and/or modify
+ * it under the terms of either:
+ *
+ * The GNU General public license GPLv3+.
+ * You should have received a copy of the GNU General Public License
+ * along with veraPDF Parser as the LICENSE.GPL file in the root of the source
+ * tree.  If not, see http://www.gnu.org/licenses/ or
+ * https://www.gnu.org/licenses/gpl-3.0.en.html.
+ *
+ * The Mozilla Public License MPLv2+.
+ * You should have received a copy of the Mozilla Public License along with
+ * veraPDF Parser as the LICENSE.MPL file in the root of the source tree.
+ * If a copy of the MPL was not distributed with this file, you can obtain one at
+ * http://mozilla.org/MPL/2.0/.
+ */
+package org.verapdf.as;
+
+import org.junit.Test;
+
+import java.lang.ref.WeakReference;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+
+import static org.junit.Assert.*;
+import static org.junit.Assume.assumeTrue;
+
+public class ASAtomTableTest {
+
+    @Test
+    public void testInterning() {
+        assertSame(ASAtom.TYPE, ASAtom.getASAtom("Type"));
+        ASAtom custom = ASAtom.getASAtom("InterningTestName");
+        assertSame(custom, ASAtom.getASAtom("InterningTestName"));
+        assertFalse(custom.isPredefined());
+        assertTrue(ASAtom.TYPE.isPredefined());
+
+        ASAtomTable table = new ASAtomTable();
+        ASAtom[] atoms = new ASAtom[5000];
+        for (int i = 0; i < atoms.length; ++i) {
+            atoms[i] = table.get("Name" + i);
+        }
+        // table is resized several times, all names stay interned
+        for (int i = 0; i < atoms.length; ++i) {
+            assertSame(atoms[i], table.get("Name" + i));
+            byte[] bytes = ("Name" + i).getBytes(Charset.forName("US-ASCII"));
+            assertSame(atoms[i], table.get(bytes, 0, bytes.length));
+        }
+    }
+
+    @Test
+    public void testByteRange() {
+        byte[] bytes = "xx/Type yy/ByteRangeTestName zz".getBytes(Charset.forName("US-ASCII"));
+        assertSame(ASAtom.TYPE, ASAtom.getASAtom(bytes, 3, 4));
+        ASAtom custom = ASAtom.getASAtom(bytes, 11, 17);
+        assertEquals("ByteRangeTestName", custom.getValue());
+        assertSame(custom, ASAtom.getASAtom("ByteRangeTestName"));
+        assertSame(custom, ASAtom.getASAtom(bytes, 11, 17));
+    }
+
+    @Test
+    public void testNonASCIIName() {
+        byte[] bytes = {'A', (byte) 0xE9, 'b', (byte) 0xFF};
+        ASAtom atom = ASAtom.getASAtom(bytes, 0, bytes.length);
+        String expected = new String(bytes);
+        assertEquals(expected, atom.getValue());
+        assertSame(atom, ASAtom.getASAtom(expected));
+        assertSame(atom, ASAtom.getASAtom(bytes, 0, bytes.length));
+    }
+
+    @Test
+    public void testNotUsedNameIsRemoved() throws InterruptedException {
+        ASAtomTable table = new ASAtomTable();
+        WeakReference<ASAtom> reference = new WeakReference<>(table.get("WeakTestName"));
+        for (int i = 0; i < 50 && reference.get() != null; ++i) {
+            System.gc();
+            Thread.sleep(10);
+        }
+        // garbage collection is not guaranteed by System.gc()
+        assumeTrue(reference.get() == null);
+        // stale entry is replaced by a new atom
+        ASAtom atom = table.get("WeakTestName");
+        assertEquals("WeakTestName", atom.getValue());
+        assertSame(atom, table.get("WeakTestName"));
+    }
+
+    @Test
+    public void testConcurrentInterning() throws Exception {
+        final ASAtomTable table = new ASAtomTable();
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<ASAtom[]>> futures = new ArrayList<>();
+            for (int t = 0; t < 4; ++t) {
+                futures.add(executor.submit(new Callable<ASAtom[]>() {
+                    @Override
+                    public ASAtom[] call() {
+                        ASAtom[] res = new ASAtom[2000];
+                        for (int i = 0; i < res.length; ++i) {
+                            byte[] bytes = ("Concurrent" + i).getBytes(Charset.forName("US-ASCII"));
+                            res[i] = i % 2 == 0 ? table.get("Concurrent" + i) : table.get(bytes, 0, bytes.length);
+                        }
+                        return res;
+                    }
+                }));
+            }
+            ASAtom[] first = futures.get(0).get();
+            for (Future<ASAtom[]> future : futures) {
+                ASAtom[] atoms = future.get();
+                for (int i = 0; i < atoms.length; ++i) {
+                    assertSame(first[i], atoms[i]);
+                }
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
+}
@@ -0,0 +1,68 @@
+/**
+ * This file is part of veraPDF Parser, a module of the veraPDF project.
+ * Copyright (c) 2015, veraPDF Consortium <info@verapdf.org>
+ * All rights reserved.
+ *
+ * veraPDF Parser is free software: you can redistribute it and/or modify
+ * it under the terms of either:
+ *
+ * The GNU General public license GPLv3+.
+ * You should have received a copy of the GNU General Public License
+ * along with veraPDF Parser as the LICENSE.GPL file in the root of the source
+ * tree.  If not, see http://www.gnu.org/licenses/ or
+ * https://www.gnu.org/licenses/gpl-3.0.en.html.
+ *
+ * The Mozilla Public License MPLv2+.
+ * You should have received a copy of the Mozilla Public License along with
+ * veraPDF Parser as the LICENSE.MPL file in the root of the source tree.
+ * If a copy of the MPL was not distributed with this file, you can obtain one at
+ * http://mozilla.org/MPL/2.0/.
+ */
+package org.verapdf.cos;
+
+import org.junit.Test;
+
+import java.util.Iterator;
+import java.util.Map;
+
+import static org.junit.Assert.*;
+
+public class ArrayMapTest {
+
+    @Test
+    public void testPutGetRemove() {
+        Map<String, Integer> map = new ArrayMap<>();
+        for (int i = 0; i < ArrayMap.MAX_ARRAY_SIZE * 2; ++i) {
+            assertNull(map.put("k" + i, i));
+            assertEquals(i + 1, map.size());
+        }
+        for (int i = 0; i < ArrayMap.MAX_ARRAY_SIZE * 2; ++i) {
+            assertEquals(Integer.valueOf(i), map.get("k" + i));
+        }
+        assertEquals(Integer.valueOf(3), map.put("k3", 30));
+        assertEquals(Integer.valueOf(30), map.remove("k3"));
+        assertFalse(map.containsKey("k3"));
+        assertEquals(ArrayMap.MAX_ARRAY_SIZE * 2 - 1, map.size());
+    }
+
+    @Test
+    public void testIteratorRemove() {
+        Map<String, Integer> map = new ArrayMap<>();
+        for (int i = 0; i < 5; ++i) {
+            map.put("k" + i, i);
+        }
+        Iterator<Map.Entry<String, Integer>> iterator = map.entrySet().iterator();
+        while (iterator.hasNext()) {
+            Map.Entry<String, Integer> entry = iterator.next();
+            if (entry.getValue() % 2 == 0) {
+                iterator.remove();
+            } else {
+                entry.setValue(entry.getValue() * 10);
+            }
+        }
+        assertEquals(2, map.size());
+        assertEquals(Integer.valueOf(10), map.get("k1"));
+        assertEquals(Integer.valueOf(30), map.get("k3"));
+        assertNull(map.get("k0"));
+    }
+}
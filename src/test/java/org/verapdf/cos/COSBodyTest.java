@@ -0,0 +1,72 @@
+/**
+ * This file is part of veraPDF Parser, a module of the veraPDF project.
+ * Copyright (c) 2015, veraPDF Consortium <info@verapdf.org>
+ * All rights reserved.
+ *
+ * veraPDF Parser is free software: you can redistribute it and/or modify
+ * it under the terms of either:
+ *
+ * The GNU General public license GPLv3+.
+ * You should have received a copy of the GNU General Public License
+ * along with veraPDF Parser as the LICENSE.GPL file in the root of the source
+ * tree.  If not, see http://www.gnu.org/licenses/ or
+ * https://www.gnu.org/licenses/gpl-3.0.en.html.
+ *
+ * The Mozilla Public License MPLv2+.
+ * You should have received a copy of the Mozilla Public License along with
+ * veraPDF Parser as the LICENSE.MPL file in the root of the source tree.
+ * If a copy of the MPL was not distributed with this file, you can obtain one at
+ * http://mozilla.org/MPL/2.0/.
+ */
+package org.verapdf.cos;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class COSBodyTest {
+
+    @Test
+    public void testRereadableObjectsAreEvicted() {
+        COSBody body = new COSBody(100, 2);
+        assertTrue(body.isBounded());
+        COSObject first = COSInteger.construct(1);
+        body.setRereadable(new COSKey(1, 0), first);
+        body.setRereadable(new COSKey(2, 0), COSInteger.construct(2));
+        COSBody.RereadableObject second = body.getRereadable(new COSKey(2, 0));
+        // access makes object 1 the most recently used one
+        assertSame(first, body.get(new COSKey(1, 0)));
+        body.setRereadable(new COSKey(3, 0), COSInteger.construct(3));
+        assertSame(first, body.get(new COSKey(1, 0)));
+        assertTrue(body.get(new COSKey(2, 0)).empty());
+        assertNull(second.getObject());
+        assertEquals(2, body.getAll().size());
+    }
+
+    @Test
+    public void testPinnedObjectsAreKept() {
+        COSBody body = new COSBody(100, 1);
+        COSObject pinned = COSInteger.construct(1);
+        body.setRereadable(new COSKey(1, 0), pinned);
+        body.pin(pinned);
+        body.setRereadable(new COSKey(2, 0), COSInteger.construct(2));
+        body.setRereadable(new COSKey(3, 0), COSInteger.construct(3));
+        assertSame(pinned, body.get(new COSKey(1, 0)));
+        assertEquals(new COSKey(1, 0), body.getKeyForObject(pinned));
+        assertEquals(2, body.getAll().size());
+    }
+
+    @Test
+    public void testUnboundedBodyKeepsAllObjects() {
+        COSBody body = new COSBody(100);
+        assertFalse(body.isBounded());
+        for (int i = 1; i <= 10; ++i) {
+            body.setRereadable(new COSKey(i, 0), COSInteger.construct(i));
+        }
+        assertEquals(10, body.getAll().size());
+    }
+}
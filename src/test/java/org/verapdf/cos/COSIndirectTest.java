@@ -0,0 +1,142 @@
+/**
+ * This file is part of veraPDF Parser, a module of the veraPDF project.
+ * Copyright (c) 2015, veraPDF Consortium <info@verapdf.org>
+ * All rights reserved.
+ *
+ * veraPDF Parser is free software: you can redistribute it and/or modify
+ * it under the terms of either:
+ *
+ * The GNU General public license GPLv3+.
+ * You should have received a copy of the GNU General Public License
+ * along with veraPDF Parser as the LICENSE.GPL file in the root of the source
+ * tree.  If not, see http://www.gnu.org/licenses/ or
+ * https://www.gnu.org/licenses/gpl-3.0.en.html.
+ *
+ * The Mozilla Public License MPLv2+.
+ * You should have received a copy of the Mozilla Public License along with
+ * veraPDF Parser as the LICENSE.MPL file in the root of the source tree.
+ * If a copy of the MPL was not distributed with this file, you can obtain one at
+ * http://mozilla.org/MPL/2.0/.
+ */
+package org.verapdf.cos;
+
+import org.junit.Test;
+import org.verapdf.as.ASAtom;
+import org.verapdf.io.ReaderOptions;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.lang.ref.WeakReference;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+public class COSIndirectTest {
+
+    @Test
+    public void testResolvedObjectIsReplaced() {
+        COSDocument document = new COSDocument(null);
+        COSKey key = new COSKey(1, 0);
+        COSObject first = COSInteger.construct(1);
+        document.setObject(key, first);
+        COSObject reference = COSIndirect.construct(key, document);
+        assertSame(first, reference.getDirect());
+        assertSame(first, reference.getDirect());
+
+        COSObject second = COSInteger.construct(2);
+        document.setObject(key, second);
+        assertSame(second, reference.getDirect());
+        assertEquals(Long.valueOf(2), reference.getInteger());
+    }
+
+    @Test
+    public void testSetDirect() {
+        COSDocument document = new COSDocument(null);
+        COSKey key = new COSKey(1, 0);
+        document.setObject(key, COSInteger.construct(1));
+        COSObject reference = COSIndirect.construct(key, document);
+        assertEquals(Long.valueOf(1), reference.getInteger());
+        ((COSIndirect) reference.get()).setDirect(COSInteger.construct(3));
+        assertEquals(Long.valueOf(3), reference.getInteger());
+    }
+
+    @Test
+    public void testEvictedObjectIsReread() throws IOException {
+        COSDocument document = createBoundedDocument();
+        COSObject reference = COSIndirect.construct(new COSKey(1, 0), document);
+        COSObject first = reference.getDirect();
+        assertSame(first, reference.getDirect());
+        // reading of other object evicts object 1 from the body
+        document.getObject(new COSKey(2, 0));
+        COSObject reread = reference.getDirect();
+        assertNotSame(first, reread);
+        assertSame(document.getObject(new COSKey(1, 0)), reread);
+        assertEquals(Long.valueOf(1), reread.getIntegerKey(ASAtom.N));
+        document.getResourceHandler().close();
+    }
+
+    @Test
+    public void testEvictedObjectIsCollected() throws IOException, InterruptedException {
+        COSDocument document = createBoundedDocument();
+        COSObject reference = COSIndirect.construct(new COSKey(1, 0), document);
+        WeakReference<COSObject> target = new WeakReference<>(reference.getDirect());
+        document.getObject(new COSKey(2, 0));
+        for (int i = 0; i < 50 && target.get() != null; ++i) {
+            System.gc();
+            Thread.sleep(10);
+        }
+        assertNull(target.get());
+        assertEquals(Long.valueOf(1), reference.getIntegerKey(ASAtom.N));
+        document.getResourceHandler().close();
+    }
+
+    @Test
+    public void testResolvedObjectIsRecentlyUsed() throws IOException {
+        COSDocument document = createBoundedDocument(2, 3);
+        COSObject reference = COSIndirect.construct(new COSKey(1, 0), document);
+        COSObject first = reference.getDirect();
+        document.getObject(new COSKey(2, 0));
+        // object 1 is accessed through reference after object 2 is read
+        assertSame(first, reference.getDirect());
+        document.getObject(new COSKey(3, 0));
+        assertNull(document.getRereadableObject(new COSKey(2, 0)));
+        assertSame(first, reference.getDirect());
+        assertSame(first, document.getObject(new COSKey(1, 0)));
+        document.getResourceHandler().close();
+    }
+
+    private static COSDocument createBoundedDocument() throws IOException {
+        return createBoundedDocument(1, 2);
+    }
+
+    private static COSDocument createBoundedDocument(int objectsCacheSize, int objects) throws IOException {
+        ReaderOptions options = new ReaderOptions();
+        options.setObjectsCacheSize(objectsCacheSize);
+        return new COSDocument(new ByteArrayInputStream(createPDF(objects)), null, options);
+    }
+
+    private static byte[] createPDF(int objects) throws IOException {
+        ByteArrayOutputStream res = new ByteArrayOutputStream();
+        write(res, "%PDF-1.7\n");
+        long[] offsets = new long[objects + 1];
+        for (int i = 1; i < offsets.length; ++i) {
+            offsets[i] = res.size();
+            write(res, i + " 0 obj\n<< /N " + i + " >>\nendobj\n");
+        }
+        long xref = res.size();
+        write(res, "xref\n0 " + offsets.length + "\n0000000000 65535 f \n");
+        for (int i = 1; i < offsets.length; ++i) {
+            write(res, String.format("%010d 00000 n \n", offsets[i]));
+        }
+        write(res, "trailer\n<< /Size " + offsets.length + " /Root 1 0 R >>\nstartxref\n" + xref + "\n%%EOF\n");
+        return res.toByteArray();
+    }
+
+    private static void write(ByteArrayOutputStream stream, String data) throws IOException {
+        stream.write(data.getBytes(StandardCharsets.US_ASCII));
+    }
+}
@@ -0,0 +1,142 @@
+/**
+ * This file is part of veraPDF Parser, a module of the veraPDF project.
+ * Copyright (c) 2015, veraPDF Consortium <info@verapdf.org>
+ * All rights reserved.
+ *
+ * veraPDF Parser is free software: you can redistribute it and/or modify
+ * it under the terms of either:
+ *
+ * The GNU General public license GPLv3+.
+ * You should have received a copy of the GNU General Public License
+ * along with veraPDF Parser as the LICENSE.GPL file in the root of the source
+ * tree.  If not, see http://www.gnu.org/licenses/ or
+ * https://www.gnu.org/licenses/gpl-3.0.en.html.
+ *
+ * The Mozilla Public License MPLv2+.
+ * You should have received a copy of the Mozilla Public License along with
+ * veraPDF Parser as the LICENSE.MPL file in the root of the source tree.
+ * If a copy of the MPL was not distributed with this file, you can obtain one at
+ * http://mozilla.org/MPL/2.0/.
+ */
+package org.verapdf.cos;
+
+import org.junit.Test;
+import org.verapdf.as.ASAtom;
+
+import static org.junit.Assert.*;
+
+public class COSObjectTest {
+
+    @Test
+    public void testSharedPrimitivesAreNotModified() {
+        COSObject first = COSInteger.construct(5);
+        COSObject second = COSInteger.construct(5);
+        assertSame(first.get(), second.get());
+        first.setInteger(6);
+        assertEquals(Long.valueOf(6), first.getInteger());
+        assertEquals(Long.valueOf(5), second.getInteger());
+
+        COSObject name = COSName.construct(ASAtom.TYPE);
+        COSObject otherName = COSName.construct(ASAtom.TYPE);
+        name.setObjectKey(new COSKey(1, 0));
+        name.setName(ASAtom.SUBTYPE);
+        assertEquals(ASAtom.TYPE, otherName.getName());
+        assertNull(otherName.getObjectKey());
+    }
+
+    @Test
+    public void testComplianceFlags() {
+        COSObject object = COSInteger.construct(1);
+        COSObject other = COSInteger.construct(1);
+        assertTrue(object.isEndOfObjectComplyPDFA());
+        object.setIsEndOfObjectComplyPDFA(Boolean.FALSE);
+        object.setIsHeaderFormatComplyPDFA(null);
+        assertFalse(object.isEndOfObjectComplyPDFA());
+        assertNull(object.isHeaderFormatComplyPDFA());
+        assertTrue(object.isHeaderOfObjectComplyPDFA());
+        assertTrue(other.isEndOfObjectComplyPDFA());
+        object.setIsEndOfObjectComplyPDFA(Boolean.TRUE);
+        assertTrue(object.isEndOfObjectComplyPDFA());
+    }
+
+    @Test
+    public void testFlagsOfCollectedObjects() throws InterruptedException {
+        COSObject[] objects = new COSObject[1000];
+        for (int i = 0; i < objects.length; ++i) {
+            objects[i] = COSInteger.construct(i);
+            objects[i].setIsHeaderOfObjectComplyPDFA(Boolean.FALSE);
+        }
+        for (COSObject object : objects) {
+            assertFalse(object.isHeaderOfObjectComplyPDFA());
+        }
+        objects = null;
+        COSObject other = COSInteger.construct(1);
+        for (int i = 0; i < 50 && COSObjectFlags.size() != 0; ++i) {
+            System.gc();
+            Thread.sleep(10);
+            // entries of collected objects are removed on reading
+            assertTrue(other.isHeaderOfObjectComplyPDFA());
+        }
+        assertEquals(0, COSObjectFlags.size());
+    }
+
+    @Test
+    public void testConcurrentFlagsReading() throws InterruptedException {
+        final COSObject[] objects = new COSObject[100];
+        for (int i = 0; i < objects.length; ++i) {
+            objects[i] = COSInteger.construct(i);
+            objects[i].setIsEndOfObjectComplyPDFA(Boolean.FALSE);
+        }
+        final boolean[] failed = new boolean[1];
+        Thread reader = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                for (int i = 0; i < 200000; ++i) {
+                    if (objects[i % objects.length].isEndOfObjectComplyPDFA() != Boolean.FALSE) {
+                        failed[0] = true;
+                    }
+                }
+            }
+        });
+        reader.start();
+        // other objects are added while flags are read, table is resized
+        COSObject[] others = new COSObject[20000];
+        for (int i = 0; i < others.length; ++i) {
+            others[i] = COSInteger.construct(i);
+            others[i].setIsHeaderFormatComplyPDFA(null);
+        }
+        reader.join();
+        assertFalse(failed[0]);
+        assertNull(others[others.length - 1].isHeaderFormatComplyPDFA());
+    }
+
+    @Test
+    public void testConcurrentFlagsWriting() throws InterruptedException {
+        final COSObject[][] objects = new COSObject[4][5000];
+        Thread[] writers = new Thread[objects.length];
+        for (int i = 0; i < writers.length; ++i) {
+            final COSObject[] threadObjects = objects[i];
+            writers[i] = new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    for (int j = 0; j < threadObjects.length; ++j) {
+                        threadObjects[j] = COSInteger.construct(j);
+                        threadObjects[j].setIsHeaderOfObjectComplyPDFA(Boolean.FALSE);
+                        threadObjects[j].setIsEndOfObjectComplyPDFA(j % 2 == 0 ? null : Boolean.FALSE);
+                    }
+                }
+            });
+            writers[i].start();
+        }
+        for (Thread writer : writers) {
+            writer.join();
+        }
+        for (COSObject[] threadObjects : objects) {
+            for (int j = 0; j < threadObjects.length; ++j) {
+                assertFalse(threadObjects[j].isHeaderOfObjectComplyPDFA());
+                assertEquals(j % 2 == 0 ? null : Boolean.FALSE, threadObjects[j].isEndOfObjectComplyPDFA());
+                assertTrue(threadObjects[j].isHeaderFormatComplyPDFA());
+            }
+        }
+    }
+}
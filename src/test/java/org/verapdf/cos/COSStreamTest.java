@@ -22,11 +22,19 @@ package org.verapdf.cos;
 
 import org.junit.Test;
 import org.verapdf.as.ASAtom;
+import org.verapdf.as.filters.io.ASBufferedInFilter;
 import org.verapdf.as.io.ASInputStream;
 import org.verapdf.as.io.ASMemoryInStream;
+import org.verapdf.io.ReaderOptions;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
 import java.util.Arrays;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 import static org.junit.Assert.assertEquals;
 
@@ -50,4 +58,57 @@ public class COSStreamTest {
         assertEquals(message, SAMPLE_DATA);
     }
 
+    @Test
+    public void testFilterBufferSizeOfDocument() throws Exception {
+        ReaderOptions options = new ReaderOptions();
+        options.setFilterBufferSize(4096);
+        final COSDocument document = new COSDocument(new ByteArrayInputStream(createPDF()), null, options);
+        // options of the last opened document don't apply to other documents
+        COSDocument other = new COSDocument(new ByteArrayInputStream(createPDF()), null, new ReaderOptions());
+        assertEquals(4096, getFilterBufferSize(document));
+
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            int bufferSize = executor.submit(new Callable<Integer>() {
+                @Override
+                public Integer call() throws IOException {
+                    return getFilterBufferSize(document);
+                }
+            }).get();
+            assertEquals(4096, bufferSize);
+        } finally {
+            executor.shutdown();
+        }
+        assertEquals(new ReaderOptions().getFilterBufferSize(), getFilterBufferSize(other));
+        document.getResourceHandler().close();
+        other.getResourceHandler().close();
+    }
+
+    private static int getFilterBufferSize(COSDocument document) throws IOException {
+        COSObject stream = document.getObject(new COSKey(1, 0));
+        try (ASInputStream data = stream.getData(COSStream.FilterFlags.DECODE)) {
+            byte[] buf = new byte[100];
+            int read = data.read(buf, buf.length);
+            assertEquals(SAMPLE_DATA, new String(buf, 0, read, StandardCharsets.US_ASCII));
+            return ((ASBufferedInFilter) data).getBufferCapacity();
+        }
+    }
+
+    private static byte[] createPDF() throws IOException {
+        byte[] data = "4a75737420736f6d652067656e657269632064617461>".getBytes(StandardCharsets.US_ASCII);
+        ByteArrayOutputStream res = new ByteArrayOutputStream();
+        write(res, "%PDF-1.7\n");
+        long offset = res.size();
+        write(res, "1 0 obj\n<< /Length " + data.length + " /Filter /ASCIIHexDecode >>\nstream\n");
+        res.write(data);
+        write(res, "\nendstream\nendobj\n");
+        long xref = res.size();
+        write(res, "xref\n0 2\n0000000000 65535 f \n" + String.format("%010d 00000 n \n", offset));
+        write(res, "trailer\n<< /Size 2 /Root 1 0 R >>\nstartxref\n" + xref + "\n%%EOF\n");
+        return res.toByteArray();
+    }
+
+    private static void write(ByteArrayOutputStream stream, String data) throws IOException {
+        stream.write(data.getBytes(StandardCharsets.US_ASCII));
+    }
 }
@@ -47,4 +47,23 @@ public class COSFilterLZWDecodeTest {
         assertEquals(buf[50], 46);
     }
 
+    @Test
+    public void testSmallBuffer() throws IOException {
+        COSDictionary decodeParams = (COSDictionary) COSDictionary.construct().get();
+        COSFilterLZWDecode lzwDecode = new COSFilterLZWDecode(
+                SeekableInputStream.getSeekableStream(new FileInputStream(lzwPath)), decodeParams);
+        byte[] expected = new byte[2048];
+        assertEquals(102, lzwDecode.read(expected, 2048));
+        lzwDecode.reset();
+        byte[] buf = new byte[3];
+        int position = 0;
+        int read;
+        while ((read = lzwDecode.read(buf, buf.length)) != -1) {
+            for (int i = 0; i < read; ++i) {
+                assertEquals(expected[position++], buf[i]);
+            }
+        }
+        assertEquals(102, position);
+    }
+
 }
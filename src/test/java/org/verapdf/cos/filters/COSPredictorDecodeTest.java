@@ -0,0 +1,89 @@
+/**
+ * This file is part of veraPDF Parser, a module of the veraPDF project.
+ * Copyright (c) 2015, veraPDF Consortium <info@verapdf.org>
+ * All rights reserved.
+ *
+ * veraPDF Parser is free software: you can redistribute it and/or modify
+ * it under the terms of either:
+ *
+ * The GNU General public license GPLv3+.
+ * You should have received a copy of the GNU General Public License
+ * along with veraPDF Parser as the LICENSE.GPL file in the root of the source
+ * tree.  If not, see http://www.gnu.org/licenses/ or
+ * https://www.gnu.org/licenses/gpl-3.0.en.html.
+ *
+ * The Mozilla Public License MPLv2+.
+ * You should have received a copy of the Mozilla Public License along with
+ * veraPDF Parser as the LICENSE.MPL file in the root of the source tree.
+ * If a copy of the MPL was not distributed with this file, you can obtain one at
+ * http://mozilla.org/MPL/2.0/.
+ */
+package org.verapdf.cos.filters;
+
+import org.junit.Test;
+import org.verapdf.as.ASAtom;
+import org.verapdf.as.io.ASMemoryInStream;
+import org.verapdf.cos.COSDictionary;
+
+import java.io.IOException;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+public class COSPredictorDecodeTest {
+
+    // rows of 3 pixels with 2 components each, filtered with Sub, Average
+    // and Paeth PNG filters
+    private static final byte[] ENCODED = toBytes(
+            1, 200, 10, 50, 249, 136, 252,
+            3, 0, 215, 86, 235, 113, 144,
+            4, 155, 36, 28, 64, 108, 212);
+    private static final byte[] DECODED = toBytes(
+            200, 10, 250, 3, 130, 255,
+            100, 220, 5, 90, 180, 60,
+            255, 0, 128, 64, 32, 16);
+
+    @Test
+    public void testPNGFilters() throws IOException {
+        COSPredictorDecode decode = new COSPredictorDecode(
+                new ASMemoryInStream(ENCODED), getDecodeParams());
+        byte[] buf = new byte[100];
+        assertEquals(DECODED.length, decode.read(buf, buf.length));
+        assertEquals(-1, decode.read(buf, buf.length));
+        byte[] res = new byte[DECODED.length];
+        System.arraycopy(buf, 0, res, 0, res.length);
+        assertArrayEquals(DECODED, res);
+    }
+
+    @Test
+    public void testReadsSmallerThanRow() throws IOException {
+        COSPredictorDecode decode = new COSPredictorDecode(
+                new ASMemoryInStream(ENCODED), getDecodeParams());
+        byte[] res = new byte[DECODED.length];
+        byte[] buf = new byte[4];
+        int position = 0;
+        int read;
+        while ((read = decode.read(buf, buf.length)) != -1) {
+            System.arraycopy(buf, 0, res, position, read);
+            position += read;
+        }
+        assertEquals(DECODED.length, position);
+        assertArrayEquals(DECODED, res);
+    }
+
+    private static COSDictionary getDecodeParams() {
+        COSDictionary decodeParams = (COSDictionary) COSDictionary.construct().get();
+        decodeParams.setIntegerKey(ASAtom.PREDICTOR, 15);
+        decodeParams.setIntegerKey(ASAtom.COLORS, 2);
+        decodeParams.setIntegerKey(ASAtom.COLUMNS, 3);
+        return decodeParams;
+    }
+
+    private static byte[] toBytes(int... values) {
+        byte[] res = new byte[values.length];
+        for (int i = 0; i < values.length; ++i) {
+            res[i] = (byte) values[i];
+        }
+        return res;
+    }
+}
@@ -0,0 +1,128 @@
+/**
+ * This file is part of veraPDF Parser, a module of the veraPDF project.
+ * Copyright (c) 2015, veraPDF Consortium <info@verapdf.org>
+ * All rights reserved.
+ *
+ * veraPDF Parser is free software: you can redistribute it and/or modify
+ * it under the terms of either:
+ *
+ * The GNU General public license GPLv3+.
+ * You should have received a copy of the GNU General Public License
+ * along with veraPDF Parser as the LICENSE.GPL file in the root of the source
+ * tree.  If not, see http://www.gnu.org/licenses/ or
+ * https://www.gnu.org/licenses/gpl-3.0.en.html.
+ *
+ * The Mozilla Public License MPLv2+.
+ * You should have received a copy of the Mozilla Public License along with
+ * veraPDF Parser as the LICENSE.MPL file in the root of the source tree.
+ * If a copy of the MPL was not distributed with this file, you can obtain one at
+ * http://mozilla.org/MPL/2.0/.
+ */
+package org.verapdf.cos.filters;
+
+import org.junit.Test;
+import org.verapdf.as.io.ASMemoryInStream;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+public class FlateCodecPoolTest {
+
+    @Test
+    public void testInflaterIsReused() {
+        FlateCodecPool.clear();
+        Inflater inflater = FlateCodecPool.getInflater();
+        FlateCodecPool.returnInflater(inflater);
+        assertEquals(1, FlateCodecPool.getIdleInflatersNumber());
+        assertSame(inflater, FlateCodecPool.getInflater());
+        assertEquals(0, FlateCodecPool.getIdleInflatersNumber());
+        FlateCodecPool.returnInflater(inflater);
+        FlateCodecPool.clear();
+        assertEquals(0, FlateCodecPool.getIdleInflatersNumber());
+    }
+
+    @Test
+    public void testPoolIsBounded() {
+        FlateCodecPool.clear();
+        Inflater[] inflaters = new Inflater[FlateCodecPool.MAX_IDLE_SIZE + 5];
+        for (int i = 0; i < inflaters.length; ++i) {
+            inflaters[i] = FlateCodecPool.getInflater();
+        }
+        for (Inflater inflater : inflaters) {
+            FlateCodecPool.returnInflater(inflater);
+        }
+        assertEquals(FlateCodecPool.MAX_IDLE_SIZE, FlateCodecPool.getIdleInflatersNumber());
+        FlateCodecPool.clear();
+    }
+
+    @Test
+    public void testIdleCodecsCloser() throws IOException {
+        FlateCodecPool.clear();
+        Inflater[] inflaters = new Inflater[FlateCodecPool.MIN_IDLE_SIZE + 5];
+        Deflater[] deflaters = new Deflater[FlateCodecPool.MIN_IDLE_SIZE + 5];
+        for (int i = 0; i < inflaters.length; ++i) {
+            inflaters[i] = FlateCodecPool.getInflater();
+            deflaters[i] = FlateCodecPool.getDeflater();
+        }
+        for (int i = 0; i < inflaters.length; ++i) {
+            FlateCodecPool.returnInflater(inflaters[i]);
+            FlateCodecPool.returnDeflater(deflaters[i]);
+        }
+        FlateCodecPool.getIdleCodecsCloser().close();
+        assertEquals(FlateCodecPool.MIN_IDLE_SIZE, FlateCodecPool.getIdleInflatersNumber());
+        assertEquals(FlateCodecPool.MIN_IDLE_SIZE, FlateCodecPool.getIdleDeflatersNumber());
+        // the most recently returned objects are kept
+        assertSame(inflaters[inflaters.length - 1], FlateCodecPool.getInflater());
+        assertSame(deflaters[deflaters.length - 1], FlateCodecPool.getDeflater());
+
+        // pool with a few idle objects is not changed
+        FlateCodecPool.getIdleCodecsCloser().close();
+        assertEquals(FlateCodecPool.MIN_IDLE_SIZE - 1, FlateCodecPool.getIdleInflatersNumber());
+        FlateCodecPool.clear();
+        assertEquals(0, FlateCodecPool.getIdleInflatersNumber());
+        assertEquals(0, FlateCodecPool.getIdleDeflatersNumber());
+    }
+
+    @Test
+    public void testManySmallStreams() throws IOException {
+        FlateCodecPool.clear();
+        Inflater inflater = FlateCodecPool.getInflater();
+        FlateCodecPool.returnInflater(inflater);
+        byte[] buffer = new byte[256];
+        for (int i = 0; i < 1000; ++i) {
+            byte[] data = ("BT /F1 12 Tf 100 " + i + " Td (text " + i + ") Tj ET").getBytes();
+            byte[] encoded = encode(data);
+            ByteArrayOutputStream decoded = new ByteArrayOutputStream();
+            try (COSFilterFlateDecode decoder = new COSFilterFlateDecode(new ASMemoryInStream(encoded))) {
+                int read;
+                while ((read = decoder.read(buffer, buffer.length)) > 0) {
+                    decoded.write(buffer, 0, read);
+                }
+            }
+            assertArrayEquals(data, decoded.toByteArray());
+        }
+        // each stream takes the only idle Inflater and returns it back
+        assertEquals(1, FlateCodecPool.getIdleInflatersNumber());
+        assertSame(inflater, FlateCodecPool.getInflater());
+        FlateCodecPool.returnInflater(inflater);
+        FlateCodecPool.clear();
+    }
+
+    private static byte[] encode(byte[] data) {
+        Deflater deflater = new Deflater();
+        deflater.setInput(data);
+        deflater.finish();
+        byte[] buffer = new byte[data.length + 64];
+        int length = deflater.deflate(buffer);
+        deflater.end();
+        byte[] res = new byte[length];
+        System.arraycopy(buffer, 0, res, 0, length);
+        return res;
+    }
+}
@@ -0,0 +1,81 @@
+/**
+ * This file is part of veraPDF Parser, a module of the veraPDF project.
+ * Copyright (c) 2015, veraPDF Consortium <info@verapdf.org>
+ * All rights reserved.
+ *
+ * veraPDF Parser is free software: you can redistribute it and/or modify
+ * it under the terms of either:
+ *
+ * The GNU General public license GPLv3+.
+ * You should have received a copy of the GNU General Public License
+ * along with veraPDF Parser as the LICENSE.GPL file in the root of the source
+ * tree.  If not, see http://www.gnu.org/licenses/ or
+ * https://www.gnu.org/licenses/gpl-3.0.en.html.
+ *
+ * The Mozilla Public License MPLv2+.
+ * You should have received a copy of the Mozilla Public License along with
+ * veraPDF Parser as the LICENSE.MPL file in the root of the source tree.
+ * If a copy of the MPL was not distributed with this file, you can obtain one at
+ * http://mozilla.org/MPL/2.0/.
+ */
+package org.verapdf.cos.xref;
+
+import org.junit.Test;
+import org.verapdf.cos.COSKey;
+
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class COSXRefOffsetsTest {
+
+    @Test
+    public void test() {
+        COSXRefOffsets offsets = new COSXRefOffsets(4);
+        offsets.put(1, 0, 15);
+        offsets.put(2, 0, -7);
+        offsets.put(1, 1, 1000);
+        offsets.put(100000, 0, 2000);
+        offsets.put(20, 0, 3000);
+
+        assertEquals(5, offsets.size());
+        assertEquals(15, offsets.getOffset(new COSKey(1, 0)));
+        assertEquals(1000, offsets.getOffset(new COSKey(1, 1)));
+        assertEquals(-7, offsets.getOffset(new COSKey(2, 0)));
+        assertEquals(2000, offsets.getOffset(new COSKey(100000, 0)));
+        assertEquals(3000, offsets.getOffset(new COSKey(20, 0)));
+        assertEquals(0, offsets.getOffset(new COSKey(3, 0)));
+        assertFalse(offsets.containsKey(new COSKey(2, 1)));
+        assertEquals(100000, offsets.getGreatestNumber());
+
+        offsets.remove(1, 0);
+        assertFalse(offsets.containsKey(new COSKey(1, 0)));
+        assertTrue(offsets.containsKey(new COSKey(1, 1)));
+
+        List<COSKey> keys = offsets.getKeys();
+        assertEquals(4, keys.size());
+        assertTrue(keys.contains(new COSKey(1, 1)));
+        assertTrue(keys.contains(new COSKey(100000, 0)));
+    }
+
+    @Test
+    public void testGenerationMovedFromOverflow() {
+        COSXRefOffsets offsets = new COSXRefOffsets(4);
+        offsets.put(1, 0, 15);
+        offsets.put(1, 1, 1000);
+        offsets.remove(1, 0);
+        offsets.put(1, 1, 2000);
+        assertEquals(1, offsets.size());
+        assertEquals(2000, offsets.getOffset(new COSKey(1, 1)));
+        List<COSKey> keys = offsets.getKeys();
+        assertEquals(1, keys.size());
+        assertEquals(new COSKey(1, 1), keys.get(0));
+
+        offsets.remove(1, 1);
+        assertEquals(0, offsets.size());
+        assertFalse(offsets.containsKey(new COSKey(1, 1)));
+        assertTrue(offsets.getKeys().isEmpty());
+    }
+}
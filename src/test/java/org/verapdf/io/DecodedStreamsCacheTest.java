@@ -0,0 +1,202 @@
+/**
+ * This file is part of veraPDF Parser, a module of the veraPDF project.
+ * Copyright (c) 2015, veraPDF Consortium <info@verapdf.org>
+ * All rights reserved.
+ *
+ * veraPDF Parser is free software: you can redistribute it and/or modify
+ * it under the terms of either:
+ *
+ * The GNU General public license GPLv3+.
+ * You should have received a copy of the GNU General Public License
+ * along with veraPDF Parser as the LICENSE.GPL file in the root of the source
+ * tree.  If not, see http://www.gnu.org/licenses/ or
+ * https://www.gnu.org/licenses/gpl-3.0.en.html.
+ *
+ * The Mozilla Public License MPLv2+.
+ * You should have received a copy of the Mozilla Public License along with
+ * veraPDF Parser as the LICENSE.MPL file in the root of the source tree.
+ * If a copy of the MPL was not distributed with this file, you can obtain one at
+ * http://mozilla.org/MPL/2.0/.
+ */
+package org.verapdf.io;
+
+import org.junit.Test;
+import org.verapdf.as.ASAtom;
+import org.verapdf.as.io.ASInputStream;
+import org.verapdf.as.io.ASMemoryInStream;
+import org.verapdf.cos.COSObject;
+import org.verapdf.cos.COSStream;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.zip.Deflater;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class DecodedStreamsCacheTest {
+
+    @Test
+    public void testCachedData() throws IOException {
+        DecodedStreamsCache cache = new DecodedStreamsCache(1 << 20, 1 << 10);
+        byte[] data = getData(100);
+        COSStream stream = createFlateStream(data, cache);
+        assertArrayEquals(data, readDecoded(stream));
+        assertArrayEquals(data, readDecoded(stream));
+        assertEquals(1, cache.getMissCount());
+        assertEquals(1, cache.getHitCount());
+        assertEquals(data.length, cache.getDecodedSize());
+        cache.close();
+    }
+
+    @Test
+    public void testSpilledData() throws IOException {
+        DecodedStreamsCache cache = new DecodedStreamsCache(1 << 20, 1 << 10);
+        byte[] data = getData(20000);
+        COSStream stream = createFlateStream(data, cache);
+        assertArrayEquals(data, readDecoded(stream));
+        assertArrayEquals(data, readDecoded(stream));
+        assertEquals(1, cache.getHitCount());
+        cache.close();
+    }
+
+    @Test
+    public void testInvalidation() throws IOException {
+        DecodedStreamsCache cache = new DecodedStreamsCache(1 << 20, 1 << 10);
+        COSStream stream = createFlateStream(getData(100), cache);
+        readDecoded(stream);
+        byte[] newData = getData(200);
+        stream.setData(new ASMemoryInStream(newData));
+        assertEquals(0, cache.getDecodedSize());
+        assertArrayEquals(newData, readDecoded(stream));
+        stream.setNameKey(ASAtom.FILTER, ASAtom.FLATE_DECODE);
+        assertArrayEquals(newData, readDecoded(stream));
+        assertEquals(3, cache.getMissCount());
+        cache.close();
+    }
+
+    @Test
+    public void testEviction() throws IOException {
+        DecodedStreamsCache cache = new DecodedStreamsCache(250, 1 << 10);
+        COSStream first = createFlateStream(getData(100), cache);
+        COSStream second = createFlateStream(getData(100), cache);
+        COSStream third = createFlateStream(getData(100), cache);
+        readDecoded(first);
+        readDecoded(second);
+        readDecoded(third);
+        assertEquals(1, cache.getEvictionCount());
+        assertTrue(cache.getDecodedSize() <= 250);
+        readDecoded(first);
+        assertEquals(4, cache.getMissCount());
+        cache.close();
+    }
+
+    @Test
+    public void testLargeData() throws IOException {
+        byte[] data = getData(50000);
+        DecodedStreamsCache memoryCache = new DecodedStreamsCache(1000, 1 << 16);
+        COSStream stream = createFlateStream(data, memoryCache);
+        assertArrayEquals(data, readDecoded(stream));
+        assertArrayEquals(data, readDecoded(stream));
+        assertEquals(0, memoryCache.getDecodedSize());
+        assertEquals(2, memoryCache.getMissCount());
+        memoryCache.close();
+
+        DecodedStreamsCache fileCache = new DecodedStreamsCache(5000, 1 << 10);
+        stream = createFlateStream(data, fileCache);
+        assertArrayEquals(data, readDecoded(stream));
+        assertEquals(0, fileCache.getDecodedSize());
+        fileCache.close();
+    }
+
+    @Test
+    public void testLargeDataIsNotCopied() throws IOException {
+        DecodedStreamsCache cache = new DecodedStreamsCache(1000, 1 << 16);
+        byte[] data = getData(100000);
+        ASMemoryInStream decoded = new ASMemoryInStream(data);
+        try (ASInputStream res = cache.put(createFlateStream(data, cache), decoded)) {
+            assertTrue(decoded.getOffset() < 10000);
+            assertArrayEquals(data, read(res));
+        }
+        cache.close();
+    }
+
+    @Test
+    public void testDecodingError() throws IOException {
+        DecodedStreamsCache cache = new DecodedStreamsCache(1 << 20, 1 << 10);
+        for (int length : new int[]{100, 5000}) {
+            byte[] data = getData(length);
+            ASInputStream decoded = new ASMemoryInStream(data) {
+                @Override
+                public int read(byte[] buffer, int size) throws IOException {
+                    int res = super.read(buffer, size);
+                    if (res == -1) {
+                        throw new IOException("Broken data");
+                    }
+                    return res;
+                }
+            };
+            ByteArrayOutputStream res = new ByteArrayOutputStream();
+            try (ASInputStream stream = cache.put(createFlateStream(data, cache), decoded)) {
+                byte[] buffer = new byte[1000];
+                int read;
+                while ((read = stream.read(buffer, buffer.length)) != -1) {
+                    res.write(buffer, 0, read);
+                }
+                fail("Decoding error is not reported");
+            } catch (IOException e) {
+                assertEquals("Broken data", e.getMessage());
+            }
+            assertArrayEquals(data, res.toByteArray());
+            assertEquals(0, cache.getDecodedSize());
+        }
+        cache.close();
+    }
+
+    private static COSStream createFlateStream(byte[] data, DecodedStreamsCache cache) throws IOException {
+        COSObject object = COSStream.construct(new ASMemoryInStream(encode(data)));
+        object.setNameKey(ASAtom.FILTER, ASAtom.FLATE_DECODE);
+        COSStream stream = (COSStream) object.getDirectBase();
+        stream.setDecodedStreamsCache(cache);
+        return stream;
+    }
+
+    private static byte[] readDecoded(COSStream stream) throws IOException {
+        try (ASInputStream decoded = stream.getData(COSStream.FilterFlags.DECODE)) {
+            return read(decoded);
+        }
+    }
+
+    private static byte[] read(ASInputStream stream) throws IOException {
+        ByteArrayOutputStream res = new ByteArrayOutputStream();
+        byte[] buffer = new byte[1000];
+        int read;
+        while ((read = stream.read(buffer, buffer.length)) != -1) {
+            res.write(buffer, 0, read);
+        }
+        return res.toByteArray();
+    }
+
+    private static byte[] getData(int length) {
+        byte[] res = new byte[length];
+        for (int i = 0; i < length; ++i) {
+            res[i] = (byte) (i * 31 + i / 7);
+        }
+        return res;
+    }
+
+    private static byte[] encode(byte[] data) {
+        Deflater deflater = new Deflater();
+        deflater.setInput(data);
+        deflater.finish();
+        ByteArrayOutputStream res = new ByteArrayOutputStream();
+        byte[] buffer = new byte[1000];
+        while (!deflater.finished()) {
+            res.write(buffer, 0, deflater.deflate(buffer));
+        }
+        deflater.end();
+        return res.toByteArray();
+    }
+}
@@ -0,0 +1,75 @@
+/**
+ * This file is part of veraPDF Parser, a module of the veraPDF project.
+ * Copyright (c) 2015, veraPDF Consortium <info@verapdf.org>
+ * All rights reserved.
+ *
+ * veraPDF Parser is free software: you can redistribute it and/or modify
+ * it under the terms of either:
+ *
+ * The GNU General public license GPLv3+.
+ * You should have received a copy of the GNU General Public License
+ * along with veraPDF Parser as the LICENSE.GPL file in the root of the source
+ * tree.  If not, see http://www.gnu.org/licenses/ or
+ * https://www.gnu.org/licenses/gpl-3.0.en.html.
+ *
+ * The Mozilla Public License MPLv2+.
+ * You should have received a copy of the Mozilla Public License along with
+ * veraPDF Parser as the LICENSE.MPL file in the root of the source tree.
+ * If a copy of the MPL was not distributed with this file, you can obtain one at
+ * http://mozilla.org/MPL/2.0/.
+ */
+package org.verapdf.io;
+
+import org.junit.Test;
+import org.verapdf.as.io.ASInputStream;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+
+/**
+ * Tests reading of memory mapped file that is split into several chunks.
+ */
+public class MappedSeekableInputStreamTest {
+
+    private static final int CHUNK_SHIFT = 4;   // 16 bytes chunks
+
+    @Test
+    public void test() throws IOException {
+        byte[] data = new byte[100];
+        for (int i = 0; i < data.length; ++i) {
+            data[i] = (byte) i;
+        }
+        File file = File.createTempFile("tmp_pdf_file", ".pdf");
+        try (FileOutputStream output = new FileOutputStream(file)) {
+            output.write(data);
+        }
+
+        MappedSeekableInputStream stream = new MappedSeekableInputStream(file, 0, true, CHUNK_SHIFT);
+        assertEquals(data.length, stream.getStreamLength());
+
+        byte[] buf = new byte[data.length];
+        assertEquals(data.length, stream.read(buf, buf.length));
+        assertArrayEquals(data, buf);
+        assertEquals(-1, stream.read());
+
+        stream.seek(31);
+        assertEquals(31, stream.read());
+        assertEquals(32, stream.peek());
+
+        ASInputStream substream = stream.getStream(10, 30);
+        byte[] subBuf = new byte[50];
+        assertEquals(30, substream.read(subBuf, subBuf.length));
+        assertArrayEquals(Arrays.copyOfRange(data, 10, 40), Arrays.copyOf(subBuf, 30));
+        assertEquals(-1, substream.read());
+
+        substream.close();
+        stream.close();
+        assertFalse(file.exists());
+    }
+}
@@ -0,0 +1,117 @@
+/**
+ * This file is part of veraPDF Parser, a module of the veraPDF project.
+ * Copyright (c) 2015, veraPDF Consortium <info@verapdf.org>
+ * All rights reserved.
+ *
+ * veraPDF Parser is free software: you can redistribute it and/or modify
+ * it under the terms of either:
+ *
+ * The GNU General public license GPLv3+.
+ * You should have received a copy of the GNU General Public License
+ * along with veraPDF Parser as the LICENSE.GPL file in the root of the source
+ * tree.  If not, see http://www.gnu.org/licenses/ or
+ * https://www.gnu.org/licenses/gpl-3.0.en.html.
+ *
+ * The Mozilla Public License MPLv2+.
+ * You should have received a copy of the Mozilla Public License along with
+ * veraPDF Parser as the LICENSE.MPL file in the root of the source tree.
+ * If a copy of the MPL was not distributed with this file, you can obtain one at
+ * http://mozilla.org/MPL/2.0/.
+ */
+package org.verapdf.io;
+
+import org.junit.Test;
+import org.verapdf.as.ASAtom;
+import org.verapdf.as.io.ASMemoryInStream;
+import org.verapdf.cos.COSDocument;
+import org.verapdf.cos.COSKey;
+import org.verapdf.cos.COSObject;
+import org.verapdf.cos.COSStream;
+import org.verapdf.parser.DecodedObjectStreamParser;
+
+import java.io.IOException;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class ObjectStreamsCacheTest {
+
+    private static final String DATA = "10 0 11 4 (a) (b)";
+
+    @Test
+    public void testLeastRecentlyUsedEviction() throws IOException {
+        COSDocument document = new COSDocument(null);
+        ObjectStreamsCache cache = new ObjectStreamsCache(2 * DATA.length());
+        DecodedObjectStreamParser first = createParser(1, document);
+        DecodedObjectStreamParser second = createParser(2, document);
+        DecodedObjectStreamParser third = createParser(3, document);
+        cache.put(1, first);
+        cache.put(2, second);
+        assertEquals(2 * DATA.length(), cache.getDecodedSize());
+        // first becomes the most recently used, so second is evicted
+        assertSame(first, cache.get(1));
+        cache.put(3, third);
+        assertEquals(1, cache.getEvictionCount());
+        assertEquals(2 * DATA.length(), cache.getDecodedSize());
+        assertTrue(second.isDataReleased());
+        assertFalse(first.isDataReleased());
+        assertNull(cache.get(2));
+        assertSame(third, cache.get(3));
+        assertEquals(2, cache.getHitCount());
+        assertEquals(1, cache.getMissCount());
+        cache.clear();
+        assertEquals(0, cache.getDecodedSize());
+        assertTrue(first.isDataReleased());
+        assertTrue(third.isDataReleased());
+    }
+
+    @Test
+    public void testLargeStreamIsKept() throws IOException {
+        COSDocument document = new COSDocument(null);
+        ObjectStreamsCache cache = new ObjectStreamsCache(DATA.length() / 2);
+        DecodedObjectStreamParser first = createParser(1, document);
+        DecodedObjectStreamParser second = createParser(2, document);
+        cache.put(1, first);
+        assertSame(first, cache.get(1));
+        cache.put(2, second);
+        assertTrue(first.isDataReleased());
+        assertSame(second, cache.get(2));
+        assertEquals(DATA.length(), cache.getDecodedSize());
+        cache.clear();
+    }
+
+    @Test
+    public void testReleaseIfMaterialized() throws IOException {
+        COSDocument document = new COSDocument(null);
+        ObjectStreamsCache cache = new ObjectStreamsCache(1 << 20);
+        DecodedObjectStreamParser parser = createParser(1, document);
+        cache.put(1, parser);
+        COSObject object = parser.getObject(new COSKey(10, 0));
+        assertEquals("a", object.getString());
+        cache.releaseIfMaterialized(parser);
+        assertFalse(parser.isDataReleased());
+        assertEquals(DATA.length(), cache.getDecodedSize());
+
+        object = parser.getObject(new COSKey(11, 0));
+        assertEquals("b", object.getString());
+        cache.releaseIfMaterialized(parser);
+        assertTrue(parser.isDataReleased());
+        assertEquals(0, cache.getDecodedSize());
+        assertNull(cache.get(1));
+        // released parser still knows which objects it contains
+        assertTrue(parser.containsObject(11));
+        cache.clear();
+    }
+
+    private static DecodedObjectStreamParser createParser(int number, COSDocument document) throws IOException {
+        COSObject object = COSStream.construct();
+        object.setIntegerKey(ASAtom.N, 2);
+        object.setIntegerKey(ASAtom.FIRST, 10);
+        COSStream stream = (COSStream) object.getDirectBase();
+        return new DecodedObjectStreamParser(new ASMemoryInStream(DATA.getBytes()),
+                stream, new COSKey(number, 0), document);
+    }
+}
@@ -0,0 +1,261 @@
+/**
+ * This file is part of veraPDF Parser, a module of the veraPDF project.
+ * Copyright (c) 2015, veraPDF Consortium <info@verapdf.org>
+ * All rights reserved.
+ *
+ * veraPDF Parser is free software: you can redistribute it and/or modify
+ * it under the terms of either:
+ *
+ * The GNU General public license GPLv3+.
+ * You should have received a copy of the GNU General Public License
+ * along with veraPDF Parser as the LICENSE.GPL file in the root of the source
+ * tree.  If not, see http://www.gnu.org/licenses/ or
+ * https://www.gnu.org/licenses/gpl-3.0.en.html.
+ *
+ * The Mozilla Public License MPLv2+.
+ * You should have received a copy of the Mozilla Public License along with
+ * veraPDF Parser as the LICENSE.MPL file in the root of the source tree.
+ * If a copy of the MPL was not distributed with this file, you can obtain one at
+ * http://mozilla.org/MPL/2.0/.
+ */
+package org.verapdf.io;
+
+import org.junit.Test;
+import org.verapdf.as.ASAtom;
+import org.verapdf.cos.COSDocument;
+import org.verapdf.cos.COSKey;
+import org.verapdf.pd.PDDocument;
+import org.verapdf.tools.StaticResources;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.Deflater;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+public class ReaderTest {
+
+    private static final int OBJECT_STREAMS = 6;
+    private static final int STRING_LENGTH = 500;
+    private static final long BROKEN_OFFSET = 99999;
+
+    @Test
+    public void testPreloadWithinCacheSize() throws IOException {
+        byte[] pdf = createDocument();
+        final AtomicInteger submitted = new AtomicInteger();
+        ExecutorService executor = new ThreadPoolExecutor(2, 2, 0, TimeUnit.MILLISECONDS,
+                new LinkedBlockingQueue<Runnable>()) {
+            @Override
+            public void execute(Runnable command) {
+                submitted.incrementAndGet();
+                super.execute(command);
+            }
+        };
+        try {
+            ReaderOptions options = new ReaderOptions();
+            options.setObjectStreamsPreloadExecutor(executor);
+            // each object stream is decoded into a bit more than 2 * STRING_LENGTH bytes
+            options.setObjectStreamsCacheSize(5 * STRING_LENGTH);
+            checkObjects(pdf, options);
+            assertEquals(3, submitted.get());
+
+            submitted.set(0);
+            options.setObjectStreamsCacheSize(1 << 20);
+            checkObjects(pdf, options);
+            assertEquals(OBJECT_STREAMS, submitted.get());
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    public void testPreloadReaderOptions() throws IOException, InterruptedException, ExecutionException {
+        final ReaderOptions executorOptions = new ReaderOptions();
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            executor.submit(new Runnable() {
+                @Override
+                public void run() {
+                    StaticResources.setReaderOptions(executorOptions);
+                }
+            }).get();
+            ReaderOptions options = new ReaderOptions();
+            options.setObjectStreamsPreloadExecutor(executor);
+            checkObjects(createDocument(), options);
+            ReaderOptions restored = executor.submit(new Callable<ReaderOptions>() {
+                @Override
+                public ReaderOptions call() {
+                    return StaticResources.getReaderOptions();
+                }
+            }).get();
+            assertSame(executorOptions, restored);
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    public void testRepairedOffset() throws IOException {
+        long[] offsets = new long[3];
+        byte[] pdf = createClassicDocument(offsets, false);
+        COSDocument document = openWithRecovery(pdf);
+        try {
+            assertEquals(0, document.getRepairedOffsets().size());
+            assertEquals(Long.valueOf(2), document.getObject(new COSKey(2, 0)).getIntegerKey(ASAtom.N));
+            assertEquals(1, document.getRepairedOffsets().size());
+            assertEquals(Long.valueOf(offsets[2]), document.getRepairedOffsets().get(new COSKey(2, 0)));
+            assertEquals(Long.valueOf(BROKEN_OFFSET), document.getOriginalOffset(new COSKey(2, 0)));
+        } finally {
+            document.getResourceHandler().close();
+        }
+    }
+
+    @Test
+    public void testRepairedOffsetsFromScan() throws IOException {
+        long[] offsets = new long[3];
+        byte[] pdf = createClassicDocument(offsets, true);
+        COSDocument document = openWithRecovery(pdf);
+        try {
+            assertEquals(2, document.getRepairedOffsets().size());
+            for (int i = 1; i < offsets.length; ++i) {
+                COSKey key = new COSKey(i, 0);
+                assertEquals(Long.valueOf(offsets[i]), document.getRepairedOffsets().get(key));
+                assertNull(document.getOriginalOffset(key));
+                assertEquals(Long.valueOf(i), document.getObject(key).getIntegerKey(ASAtom.N));
+            }
+        } finally {
+            document.getResourceHandler().close();
+        }
+    }
+
+    private static COSDocument openWithRecovery(byte[] pdf) throws IOException {
+        ReaderOptions options = new ReaderOptions();
+        options.setXRefRecovery(true);
+        return new COSDocument(new ByteArrayInputStream(pdf), null, options);
+    }
+
+    /**
+     * Creates document with two objects and cross reference table, where
+     * offset of the second object is broken. If brokenStartXRef is true, then
+     * cross reference table can't be found by startxref.
+     */
+    private static byte[] createClassicDocument(long[] offsets, boolean brokenStartXRef) throws IOException {
+        ByteArrayOutputStream res = new ByteArrayOutputStream();
+        write(res, "%PDF-1.7\n");
+        for (int i = 1; i < offsets.length; ++i) {
+            offsets[i] = res.size();
+            write(res, i + " 0 obj\n<< /N " + i + " >>\nendobj\n");
+        }
+        long xref = res.size();
+        write(res, "xref\n0 3\n0000000000 65535 f \n");
+        write(res, String.format("%010d 00000 n \n", offsets[1]));
+        write(res, String.format("%010d 00000 n \n", BROKEN_OFFSET));
+        write(res, "trailer\n<< /Size 3 /Root 1 0 R >>\nstartxref\n" +
+                (brokenStartXRef ? BROKEN_OFFSET : xref) + "\n%%EOF\n");
+        return res.toByteArray();
+    }
+
+    private static void checkObjects(byte[] pdf, ReaderOptions options) throws IOException {
+        PDDocument document = new PDDocument(new ByteArrayInputStream(pdf), options);
+        try {
+            COSDocument cosDocument = document.getDocument();
+            for (int i = 0; i < 2 * OBJECT_STREAMS; ++i) {
+                assertEquals(getString(i), cosDocument.getObject(new COSKey(100 + i, 0)).getString());
+            }
+        } finally {
+            document.close();
+        }
+    }
+
+    /**
+     * Creates document with object streams, each one contains two strings,
+     * and cross reference stream.
+     */
+    private static byte[] createDocument() throws IOException {
+        ByteArrayOutputStream res = new ByteArrayOutputStream();
+        int xrefNumber = 3 + OBJECT_STREAMS;
+        long[] offsets = new long[xrefNumber];
+        write(res, "%PDF-1.5\n");
+        offsets[1] = res.size();
+        write(res, "1 0 obj\n<< /Type /Catalog /Pages 2 0 R >>\nendobj\n");
+        offsets[2] = res.size();
+        write(res, "2 0 obj\n<< /Type /Pages /Kids [] /Count 0 >>\nendobj\n");
+        for (int i = 0; i < OBJECT_STREAMS; ++i) {
+            String first = "(" + getString(2 * i) + ")\n";
+            String header = (100 + 2 * i) + " 0 " + (101 + 2 * i) + " " + first.length() + "\n";
+            byte[] decoded = (header + first + "(" + getString(2 * i + 1) + ")\n").getBytes(StandardCharsets.ISO_8859_1);
+            byte[] encoded = encode(decoded);
+            offsets[3 + i] = res.size();
+            write(res, (3 + i) + " 0 obj\n<< /Type /ObjStm /N 2 /First " + header.length() +
+                    " /Filter /FlateDecode /DL " + decoded.length + " /Length " + encoded.length + " >>\nstream\n");
+            res.write(encoded);
+            write(res, "\nendstream\nendobj\n");
+        }
+
+        int size = 100 + 2 * OBJECT_STREAMS;
+        ByteArrayOutputStream entries = new ByteArrayOutputStream();
+        for (int i = 0; i < size; ++i) {
+            if (i == 0 || (i >= xrefNumber && i < 100)) {
+                writeEntry(entries, 0, 0, i == 0 ? 0xFFFF : 0);
+            } else if (i < xrefNumber) {
+                writeEntry(entries, 1, offsets[i], 0);
+            } else {
+                writeEntry(entries, 2, 3 + (i - 100) / 2, (i - 100) % 2);
+            }
+        }
+        long xrefOffset = res.size();
+        write(res, xrefNumber + " 0 obj\n<< /Type /XRef /Size " + size + " /W [1 4 2] /Root 1 0 R /Index [0 " +
+                xrefNumber + " 100 " + (size - 100) + "] /Length " + (entries.size() - 7 * (100 - xrefNumber)) +
+                " >>\nstream\n");
+        byte[] data = entries.toByteArray();
+        res.write(data, 0, 7 * xrefNumber);
+        res.write(data, 7 * 100, data.length - 7 * 100);
+        write(res, "\nendstream\nendobj\nstartxref\n" + xrefOffset + "\n%%EOF\n");
+        return res.toByteArray();
+    }
+
+    private static String getString(int index) {
+        char[] res = new char[STRING_LENGTH];
+        Arrays.fill(res, (char) ('a' + index % 26));
+        return new String(res);
+    }
+
+    private static void writeEntry(ByteArrayOutputStream out, int type, long field, int generation) {
+        out.write(type);
+        for (int shift = 24; shift >= 0; shift -= 8) {
+            out.write((int) (field >> shift));
+        }
+        out.write(generation >> 8);
+        out.write(generation);
+    }
+
+    private static void write(ByteArrayOutputStream out, String value) throws IOException {
+        out.write(value.getBytes(StandardCharsets.ISO_8859_1));
+    }
+
+    private static byte[] encode(byte[] data) {
+        Deflater deflater = new Deflater();
+        deflater.setInput(data);
+        deflater.finish();
+        ByteArrayOutputStream res = new ByteArrayOutputStream();
+        byte[] buffer = new byte[1000];
+        while (!deflater.finished()) {
+            res.write(buffer, 0, deflater.deflate(buffer));
+        }
+        deflater.end();
+        return res.toByteArray();
+    }
+}
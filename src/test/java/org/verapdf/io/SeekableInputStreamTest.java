@@ -24,9 +24,13 @@ import org.junit.Test;
 import org.verapdf.as.io.ASMemoryInStream;
 
 import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertTrue;
 
 /**
@@ -52,4 +56,53 @@ public class SeekableInputStreamTest {
         assertTrue(ssThree instanceof InternalInputStream);
     }
 
+    @Test
+    public void testOffHeap() throws IOException {
+        ReaderOptions options = new ReaderOptions();
+        options.setOffHeapStreamLimit(150000);
+        byte[] one = new byte[100000];
+        for (int i = 0; i < one.length; ++i) {
+            one[i] = (byte) i;
+        }
+        byte[] two = new byte[200000];
+        SeekableInputStream ssOne = SeekableInputStream.getSeekableStream(new ByteArrayInputStream(one), options);
+        SeekableInputStream ssTwo = SeekableInputStream.getSeekableStream(new ByteArrayInputStream(two), options);
+        assertTrue(ssOne instanceof OffHeapSeekableInputStream);
+        assertTrue(ssTwo instanceof InternalInputStream);
+        assertEquals(one.length, ssOne.getStreamLength());
+        assertEquals(two.length, ssTwo.getStreamLength());
+
+        byte[] buf = new byte[one.length];
+        assertEquals(one.length, ssOne.read(buf, buf.length));
+        assertArrayEquals(one, buf);
+        ssOne.close();
+        ssTwo.close();
+    }
+
+    @Test
+    public void testAdaptiveBuffer() throws IOException {
+        byte[] data = new byte[1000];
+        for (int i = 0; i < data.length; ++i) {
+            data[i] = (byte) i;
+        }
+        File file = File.createTempFile("tmp_pdf_file", ".pdf");
+        try (FileOutputStream output = new FileOutputStream(file)) {
+            output.write(data);
+        }
+        InternalInputStream stream = new InternalInputStream(file, 0, true, 4, 64);
+        for (int i = 0; i < data.length; ++i) {
+            assertEquals(data[i] & 0xFF, stream.read());
+        }
+        assertEquals(-1, stream.read());
+        // random access after buffer has grown
+        for (int i = 0; i < 50; ++i) {
+            int offset = (i * 397) % data.length;
+            stream.seek(offset);
+            assertEquals(data[offset] & 0xFF, stream.read());
+            if (offset + 1 < data.length) {
+                assertEquals(data[offset + 1] & 0xFF, stream.read());
+            }
+        }
+        stream.close();
+    }
 }
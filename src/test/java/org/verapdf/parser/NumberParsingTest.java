@@ -0,0 +1,154 @@
+/**
+ * This file is part of veraPDF Parser, a module of the veraPDF project.
+ * Copyright (c) 2015, veraPDF Consortium <info@verapdf.org>
+ * All rights reserved.
+ *
+ * veraPDF Parser is free software: you can redistribute it and/or modify
+ * it under the terms of either:
+ *
+ * The GNU General public license GPLv3+.
+ * You should have received a copy of the GNU General Public License
+ * along with veraPDF Parser as the LICENSE.GPL file in the root of the source
+ * tree.  If not, see http://www.gnu.org/licenses/ or
+ * https://www.gnu.org/licenses/gpl-3.0.en.html.
+ *
+ * The Mozilla Public License MPLv2+.
+ * You should have received a copy of the Mozilla Public License along with
+ * veraPDF Parser as the LICENSE.MPL file in the root of the source tree.
+ * If a copy of the MPL was not distributed with this file, you can obtain one at
+ * http://mozilla.org/MPL/2.0/.
+ */
+package org.verapdf.parser;
+
+import org.junit.Test;
+import org.verapdf.as.io.ASMemoryInStream;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Compares numbers accumulated by parsers while scanning with values that
+ * are obtained by parsing of token text.
+ */
+public class NumberParsingTest {
+
+    private static List<String> getNumbers() {
+        List<String> res = new ArrayList<>();
+        String[] fixed = {"0", "7", "-7", "0.5", ".5", "-.5", "5.", "123.456", "-0.0",
+                "9223372036854775807", "0.1", "0.3", "1.7976931348623157",
+                "12345678901234567890.5", "9007199254740993.0", "0.00000000000000000000000001",
+                "3.14159265358979323846264338327950288"};
+        for (String number : fixed) {
+            res.add(number);
+        }
+        Random random = new Random(42);
+        for (int i = 0; i < 5000; ++i) {
+            StringBuilder builder = new StringBuilder();
+            if (random.nextBoolean()) {
+                builder.append('-');
+            }
+            int intDigits = random.nextInt(12);
+            for (int j = 0; j < intDigits; ++j) {
+                builder.append((char) ('0' + random.nextInt(10)));
+            }
+            if (intDigits == 0 || random.nextBoolean()) {
+                builder.append('.');
+                int fractionDigits = 1 + random.nextInt(random.nextBoolean() ? 6 : 25);
+                for (int j = 0; j < fractionDigits; ++j) {
+                    builder.append((char) ('0' + random.nextInt(10)));
+                }
+            }
+            res.add(builder.toString());
+        }
+        return res;
+    }
+
+    private static byte[] getText(List<String> numbers) {
+        StringBuilder builder = new StringBuilder();
+        for (String number : numbers) {
+            builder.append(number).append(' ');
+        }
+        return builder.toString().getBytes();
+    }
+
+    private static void checkToken(String number, Token token) {
+        boolean isNegative = number.startsWith("-");
+        String text = isNegative ? number.substring(1) : number;
+        long expectedInteger;
+        double expectedReal;
+        if (text.indexOf('.') >= 0) {
+            assertEquals(number, Token.Type.TT_REAL, token.type);
+            expectedReal = Double.parseDouble(text);
+            expectedInteger = Math.round(expectedReal);
+        } else {
+            assertEquals(number, Token.Type.TT_INTEGER, token.type);
+            expectedInteger = Long.parseLong(text);
+            expectedReal = expectedInteger;
+        }
+        if (isNegative) {
+            expectedInteger = -expectedInteger;
+            expectedReal = -expectedReal;
+        }
+        assertEquals(number, expectedInteger, token.integer);
+        assertEquals(number, Double.doubleToLongBits(expectedReal), Double.doubleToLongBits(token.real));
+        assertEquals(number, text, token.getValue());
+    }
+
+    @Test
+    public void testBaseParser() throws IOException {
+        List<String> numbers = getNumbers();
+        BaseParser parser = new BaseParser(new ASMemoryInStream(getText(numbers)));
+        parser.initializeToken();
+        for (String number : numbers) {
+            parser.nextToken();
+            checkToken(number, parser.getToken());
+        }
+        parser.closeInputStream();
+    }
+
+    @Test
+    public void testNotSeekableBaseParser() throws IOException {
+        List<String> numbers = getNumbers();
+        NotSeekableBaseParser parser = new NotSeekableBaseParser(new ASMemoryInStream(getText(numbers)));
+        parser.initializeToken();
+        for (String number : numbers) {
+            parser.nextToken();
+            checkToken(number, parser.getToken());
+        }
+        parser.close();
+    }
+
+    @Test
+    public void testToReal() {
+        Token token = new Token();
+        String[] values = {"1.5", "0.1", "123456.789", "9007199254740993.1", "1.00000000000000000000000001"};
+        for (String value : values) {
+            token.clearValue();
+            long mantissa = 0;
+            int fractionDigits = 0;
+            boolean isOverflowed = false;
+            boolean isFraction = false;
+            for (char c : value.toCharArray()) {
+                token.append(c);
+                if (c == '.') {
+                    isFraction = true;
+                    continue;
+                }
+                if (mantissa > (Long.MAX_VALUE - 9) / 10) {
+                    isOverflowed = true;
+                } else {
+                    mantissa = mantissa * 10 + (c - '0');
+                }
+                if (isFraction) {
+                    fractionDigits++;
+                }
+            }
+            assertEquals(value, Double.doubleToLongBits(Double.parseDouble(value)),
+                         Double.doubleToLongBits(token.toReal(mantissa, fractionDigits, isOverflowed)));
+        }
+    }
+}
@@ -0,0 +1,57 @@
+/**
+ * This file is part of veraPDF Parser, a module of the veraPDF project.
+ * Copyright (c) 2015, veraPDF Consortium <info@verapdf.org>
+ * All rights reserved.
+ *
+ * veraPDF Parser is free software: you can redistribute it and/or modify
+ * it under the terms of either:
+ *
+ * The GNU General public license GPLv3+.
+ * You should have received a copy of the GNU General Public License
+ * along with veraPDF Parser as the LICENSE.GPL file in the root of the source
+ * tree.  If not, see http://www.gnu.org/licenses/ or
+ * https://www.gnu.org/licenses/gpl-3.0.en.html.
+ *
+ * The Mozilla Public License MPLv2+.
+ * You should have received a copy of the Mozilla Public License along with
+ * veraPDF Parser as the LICENSE.MPL file in the root of the source tree.
+ * If a copy of the MPL was not distributed with this file, you can obtain one at
+ * http://mozilla.org/MPL/2.0/.
+ */
+package org.verapdf.parser;
+
+import org.junit.Test;
+import org.verapdf.as.io.ASMemoryInStream;
+import org.verapdf.cos.COSKey;
+import org.verapdf.cos.xref.COSXRefSection;
+
+import java.io.IOException;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+public class XRefScannerTest {
+
+    private static final String DOCUMENT = "%PDF-1.4\n" +
+            "1 0 obj\n<< /Type /Catalog /Pages 2 0 R >>\nendobj\n" +
+            "2 0 obj <</Type/Pages/Kids[]/Count 0>> endobj\n" +
+            "3 12obj\n" +
+            "1 0 obj\n<< /Type/Catalog /Pages 2 0 R >>\nendobj\n" +
+            "trailer\n<< /Root 1 0 R >>\n%%EOF";
+
+    @Test
+    public void test() throws IOException {
+        XRefScanner scanner = new XRefScanner(new ASMemoryInStream(DOCUMENT.getBytes()));
+        scanner.scan();
+        COSXRefSection objects = scanner.getObjects();
+        assertEquals(DOCUMENT.lastIndexOf("1 0 obj"), objects.getEntry(1).offset);
+        assertEquals(DOCUMENT.indexOf("2 0 obj"), objects.getEntry(2).offset);
+        assertNull(objects.getEntry(3));
+        assertNull(objects.getEntry(12));
+        assertEquals(1, scanner.getTrailerOffsets().size());
+        assertEquals(DOCUMENT.indexOf("trailer") + 7, scanner.getTrailerOffsets().get(0).longValue());
+        assertEquals(1, scanner.getCatalogKeys().size());
+        assertEquals(new COSKey(1, 0), scanner.getCatalogKeys().get(0));
+        assertEquals(0, scanner.getXRefStreamOffsets().size());
+    }
+}
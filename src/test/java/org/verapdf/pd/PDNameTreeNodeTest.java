@@ -0,0 +1,75 @@
+/**
+ * This file is part of veraPDF Parser, a module of the veraPDF project.
+ * Copyright (c) 2015, veraPDF Consortium <info@verapdf.org>
+ * All rights reserved.
+ *
+ * veraPDF Parser is free software: you can redistribute it and/or modify
+ * it under the terms of either:
+ *
+ * The GNU General public license GPLv3+.
+ * You should have received a copy of the GNU General Public License
+ * along with veraPDF Parser as the LICENSE.GPL file in the root of the source
+ * tree.  If not, see http://www.gnu.org/licenses/ or
+ * https://www.gnu.org/licenses/gpl-3.0.en.html.
+ *
+ * The Mozilla Public License MPLv2+.
+ * You should have received a copy of the Mozilla Public License along with
+ * veraPDF Parser as the LICENSE.MPL file in the root of the source tree.
+ * If a copy of the MPL was not distributed with this file, you can obtain one at
+ * http://mozilla.org/MPL/2.0/.
+ */
+package org.verapdf.pd;
+
+import org.junit.Test;
+import org.verapdf.as.ASAtom;
+import org.verapdf.cos.*;
+
+import static org.junit.Assert.*;
+
+public class PDNameTreeNodeTest {
+
+    private static COSObject string(String value) {
+        return COSString.construct(value.getBytes());
+    }
+
+    private static COSObject leaf(String... keys) {
+        COSObject names = COSArray.construct();
+        for (String key : keys) {
+            names.add(string(key));
+            names.add(string(key + "-value"));
+        }
+        COSObject res = COSDictionary.construct(ASAtom.NAMES, names);
+        COSObject limits = COSArray.construct();
+        limits.add(string(keys[0]));
+        limits.add(string(keys[keys.length - 1]));
+        res.setKey(ASAtom.LIMITS, limits);
+        return res;
+    }
+
+    private static PDNameTreeNode tree(COSObject... leaves) {
+        COSObject kids = COSArray.construct();
+        for (COSObject leaf : leaves) {
+            kids.add(leaf);
+        }
+        return PDNameTreeNode.create(COSDictionary.construct(ASAtom.KIDS, kids));
+    }
+
+    @Test
+    public void testSortedKids() {
+        PDNameTreeNode tree = tree(leaf("a", "c"), leaf("d", "f"), leaf("m", "x"));
+        assertEquals("a-value", tree.getObject("a").getString());
+        assertEquals("f-value", tree.getObject("f").getString());
+        assertEquals("x-value", tree.getObject("x").getString());
+        assertNull(tree.getObject("b"));
+        assertNull(tree.getObject("z"));
+    }
+
+    @Test
+    public void testUnsortedKids() {
+        PDNameTreeNode tree = tree(leaf("m", "x"), leaf("a", "c"), leaf("b", "n"));
+        assertEquals("a-value", tree.getObject("a").getString());
+        assertEquals("n-value", tree.getObject("n").getString());
+        assertEquals("x-value", tree.getObject("x").getString());
+        assertNull(tree.getObject("c-"));
+    }
+}
@@ -0,0 +1,148 @@
+/**
+ * This file is part of veraPDF Parser, a module of the veraPDF project.
+ * Copyright (c) 2015, veraPDF Consortium <info@verapdf.org>
+ * All rights reserved.
+ *
+ * veraPDF Parser is free software: you can redistribute it and/or modify
+ * it under the terms of either:
+ *
+ * The GNU General public license GPLv3+.
+ * You should have received a copy of the GNU General Public License
+ * along with veraPDF Parser as the LICENSE.GPL file in the root of the source
+ * tree.  If not, see http://www.gnu.org/licenses/ or
+ * https://www.gnu.org/licenses/gpl-3.0.en.html.
+ *
+ * The Mozilla Public License MPLv2+.
+ * You should have received a copy of the Mozilla Public License along with
+ * veraPDF Parser as the LICENSE.MPL file in the root of the source tree.
+ * If a copy of the MPL was not distributed with this file, you can obtain one at
+ * http://mozilla.org/MPL/2.0/.
+ */
+package org.verapdf.pd;
+
+import org.junit.Test;
+import org.verapdf.cos.COSKey;
+import org.verapdf.external.ICCProfile;
+import org.verapdf.pd.font.FontProgram;
+import org.verapdf.pd.font.cmap.PDCMap;
+import org.verapdf.pd.font.truetype.CIDFontType2Program;
+import org.verapdf.tools.StaticResources;
+
+import java.awt.color.ColorSpace;
+import java.awt.color.ICC_Profile;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+public class ResourcesPreloaderTest {
+
+    private static final String FONT_PATH = "src/test/resources/org/verapdf/pd/font/truetype/LiberationSans-Regular.ttf";
+
+    private static final String CMAP = "/CIDInit /ProcSet findresource begin\n12 dict begin\nbegincmap\n" +
+            "/CIDSystemInfo << /Registry (Adobe) /Ordering (Identity) /Supplement 0 >> def\n" +
+            "/CMapName /Test-H def\n/CMapType 1 def\n1 begincodespacerange\n<0000> <FFFF>\n" +
+            "endcodespacerange\n1 begincidrange\n<0000> <FFFF> 0\nendcidrange\nendcmap\n" +
+            "CMapName currentdict /CMap defineresource pop\nend\nend\n";
+
+    @Test
+    public void testPreloadedResources() throws IOException {
+        StaticResources.clear();
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        PDDocument document = new PDDocument(new ByteArrayInputStream(createDocument()));
+        try {
+            // Type0 font without Encoding is skipped, other resources are preloaded
+            document.preloadResources(executor);
+
+            assertTrue(PDCMap.isEmbeddedCMapCached(new COSKey(9, 0)));
+            ICCProfile pageProfile = StaticResources.getICCProfile(new COSKey(12, 0));
+            assertNotNull(pageProfile);
+            assertEquals(Long.valueOf(3), pageProfile.getNumberOfColorants());
+            // profile from resources of Type3 font
+            assertNotNull(StaticResources.getICCProfile(new COSKey(13, 0)));
+
+            List<FontProgram> fontPrograms = new ArrayList<>(StaticResources.getCachedFonts().values());
+            assertEquals(1, fontPrograms.size());
+            FontProgram fontProgram = fontPrograms.get(0);
+            assertTrue(fontProgram instanceof CIDFontType2Program);
+            assertTrue(fontProgram.isSuccessfulParsing());
+            assertFalse(fontProgram.containsCID(1000000));
+        } finally {
+            document.close();
+            executor.shutdown();
+            StaticResources.clear();
+        }
+    }
+
+    private static byte[] createDocument() throws IOException {
+        byte[] profile = ICC_Profile.getInstance(ColorSpace.CS_sRGB).getData();
+        byte[] font = Files.readAllBytes(Paths.get(FONT_PATH));
+        byte[] cMap = CMAP.getBytes(StandardCharsets.ISO_8859_1);
+        List<byte[]> objects = new ArrayList<>();
+        objects.add(getBytes("<< /Type /Catalog /Pages 2 0 R >>"));
+        objects.add(getBytes("<< /Type /Pages /Kids [3 0 R] /Count 1 >>"));
+        objects.add(getBytes("<< /Type /Page /Parent 2 0 R /MediaBox [0 0 612 792] /Resources 4 0 R >>"));
+        objects.add(getBytes("<< /Font << /F1 5 0 R /F2 6 0 R /F3 10 0 R >> " +
+                "/ColorSpace << /CS1 [/ICCBased 12 0 R] >> >>"));
+        objects.add(getBytes("<< /Type /Font /Subtype /Type0 /BaseFont /LiberationSans " +
+                "/DescendantFonts [7 0 R] >>"));
+        objects.add(getBytes("<< /Type /Font /Subtype /Type0 /BaseFont /LiberationSans /Encoding 9 0 R " +
+                "/DescendantFonts [7 0 R] >>"));
+        objects.add(getBytes("<< /Type /Font /Subtype /CIDFontType2 /BaseFont /LiberationSans " +
+                "/CIDSystemInfo << /Registry (Adobe) /Ordering (Identity) /Supplement 0 >> " +
+                "/FontDescriptor 8 0 R /CIDToGIDMap /Identity >>"));
+        objects.add(getBytes("<< /Type /FontDescriptor /FontName /LiberationSans /Flags 32 " +
+                "/FontBBox [0 0 1000 1000] /ItalicAngle 0 /Ascent 900 /Descent -200 /CapHeight 700 " +
+                "/StemV 80 /FontFile2 11 0 R >>"));
+        objects.add(getStream("/Type /CMap /CMapName /Test-H", cMap));
+        objects.add(getBytes("<< /Type /Font /Subtype /Type3 /FontBBox [0 0 0 0] " +
+                "/FontMatrix [0.001 0 0 0.001 0 0] /CharProcs << >> /Encoding << /Differences [] >> " +
+                "/FirstChar 0 /LastChar 0 /Widths [0] " +
+                "/Resources << /ColorSpace << /CS2 [/ICCBased 13 0 R] >> >> >>"));
+        objects.add(getStream("/Length1 " + font.length, font));
+        objects.add(getStream("/N 3", profile));
+        objects.add(getStream("/N 3", profile));
+
+        ByteArrayOutputStream res = new ByteArrayOutputStream();
+        res.write(getBytes("%PDF-1.4\n"));
+        long[] offsets = new long[objects.size()];
+        for (int i = 0; i < objects.size(); ++i) {
+            offsets[i] = res.size();
+            res.write(getBytes((i + 1) + " 0 obj\n"));
+            res.write(objects.get(i));
+            res.write(getBytes("\nendobj\n"));
+        }
+        long xrefOffset = res.size();
+        StringBuilder xref = new StringBuilder("xref\n0 " + (objects.size() + 1) + "\n0000000000 65535 f \n");
+        for (long offset : offsets) {
+            xref.append(String.format("%010d 00000 n \n", offset));
+        }
+        xref.append("trailer\n<< /Size ").append(objects.size() + 1).append(" /Root 1 0 R >>\nstartxref\n")
+                .append(xrefOffset).append("\n%%EOF\n");
+        res.write(getBytes(xref.toString()));
+        return res.toByteArray();
+    }
+
+    private static byte[] getStream(String dictionary, byte[] data) throws IOException {
+        ByteArrayOutputStream res = new ByteArrayOutputStream();
+        res.write(getBytes("<< " + dictionary + " /Length " + data.length + " >>\nstream\n"));
+        res.write(data);
+        res.write(getBytes("\nendstream"));
+        return res.toByteArray();
+    }
+
+    private static byte[] getBytes(String value) {
+        return value.getBytes(StandardCharsets.ISO_8859_1);
+    }
+}
@@ -0,0 +1,143 @@
+/**
+ * This file is part of veraPDF Parser, a module of the veraPDF project.
+ * Copyright (c) 2015, veraPDF Consortium <info@verapdf.org>
+ * All rights reserved.
+ *
+ * veraPDF Parser is free software: you can redistribute it and/or modify
+ * it under the terms of either:
+ *
+ * The GNU General public license GPLv3+.
+ * You should have received a copy of the GNU General Public License
+ * along with veraPDF Parser as the LICENSE.GPL file in the root of the source
+ * tree.  If not, see http://www.gnu.org/licenses/ or
+ * https://www.gnu.org/licenses/gpl-3.0.en.html.
+ *
+ * The Mozilla Public License MPLv2+.
+ * You should have received a copy of the Mozilla Public License along with
+ * veraPDF Parser as the LICENSE.MPL file in the root of the source tree.
+ * If a copy of the MPL was not distributed with this file, you can obtain one at
+ * http://mozilla.org/MPL/2.0/.
+ */
+package org.verapdf.pd.font;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class IntKeyMapTest {
+
+    @Test
+    public void testIntIntMap() {
+        Random random = new Random(42);
+        IntIntMap map = new IntIntMap();
+        Map<Integer, Integer> expected = new HashMap<>();
+        assertTrue(map.isEmpty());
+        for (int i = 0; i < 20000; ++i) {
+            int key = getKey(random);
+            int value = random.nextInt();
+            map.put(key, value);
+            expected.put(key, value);
+        }
+        assertEquals(expected.size(), map.size());
+        for (Map.Entry<Integer, Integer> entry : expected.entrySet()) {
+            assertTrue(map.containsKey(entry.getKey()));
+            assertEquals(entry.getValue().intValue(), map.get(entry.getKey(), -1));
+            assertTrue(map.containsValue(entry.getValue()));
+        }
+        for (int i = 0; i < 1000; ++i) {
+            int key = getKey(random);
+            if (!expected.containsKey(key)) {
+                assertFalse(map.containsKey(key));
+                assertEquals(-1, map.get(key, -1));
+            }
+        }
+        checkKeys(expected.keySet().toArray(new Integer[0]), map.getKeys());
+    }
+
+    @Test
+    public void testIntFloatMap() {
+        Random random = new Random(42);
+        IntFloatMap map = new IntFloatMap(3);
+        Map<Integer, Float> expected = new HashMap<>();
+        for (int i = 0; i < 20000; ++i) {
+            int key = getKey(random);
+            float value = random.nextFloat();
+            map.put(key, value);
+            expected.put(key, value);
+        }
+        assertEquals(expected.size(), map.size());
+        for (Map.Entry<Integer, Float> entry : expected.entrySet()) {
+            assertEquals(entry.getValue().floatValue(), map.get(entry.getKey(), -1), 0);
+        }
+        assertEquals(-1, map.get(Integer.MIN_VALUE, -1), 0);
+        checkKeys(expected.keySet().toArray(new Integer[0]), map.getKeys());
+    }
+
+    @Test
+    public void testIntDoubleMap() {
+        Random random = new Random(42);
+        IntDoubleMap map = new IntDoubleMap();
+        Map<Integer, Double> expected = new HashMap<>();
+        for (int i = 0; i < 20000; ++i) {
+            int key = getKey(random);
+            double value = random.nextDouble();
+            map.put(key, value);
+            expected.put(key, value);
+        }
+        assertEquals(expected.size(), map.size());
+        for (Map.Entry<Integer, Double> entry : expected.entrySet()) {
+            assertEquals(entry.getValue().doubleValue(), map.get(entry.getKey(), -1), 0);
+        }
+        checkKeys(expected.keySet().toArray(new Integer[0]), map.getKeys());
+    }
+
+    @Test
+    public void testExpectedSize() {
+        IntIntMap map = new IntIntMap(100);
+        long memoryUsage = map.getMemoryUsage();
+        for (int i = 0; i < 100; ++i) {
+            map.put(i * 1024, i);
+        }
+        assertEquals(memoryUsage, map.getMemoryUsage());
+        for (int i = 1; i <= 100; ++i) {
+            map.put(-i, i);
+        }
+        assertTrue(map.getMemoryUsage() > memoryUsage);
+        assertEquals(200, map.size());
+        assertEquals(99, map.get(99 * 1024, -1));
+        assertEquals(100, map.get(-100, -1));
+
+        IntDoubleMap doubleMap = new IntDoubleMap(100);
+        assertTrue(doubleMap.getMemoryUsage() > memoryUsage);
+    }
+
+    private static int getKey(Random random) {
+        // keys with collisions in low bits and negative keys
+        switch (random.nextInt(3)) {
+            case 0:
+                return random.nextInt(5000) << 16;
+            case 1:
+                return -random.nextInt(5000);
+            default:
+                return random.nextInt();
+        }
+    }
+
+    private static void checkKeys(Integer[] expected, int[] actual) {
+        int[] sortedExpected = new int[expected.length];
+        for (int i = 0; i < expected.length; ++i) {
+            sortedExpected[i] = expected[i];
+        }
+        Arrays.sort(sortedExpected);
+        int[] sortedActual = actual.clone();
+        Arrays.sort(sortedActual);
+        assertTrue(Arrays.equals(sortedExpected, sortedActual));
+    }
+}
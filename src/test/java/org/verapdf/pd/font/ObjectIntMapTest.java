@@ -0,0 +1,82 @@
+/**
+ * This file is part of veraPDF Parser, a module of the veraPDF project.
+ * Copyright (c) 2015, veraPDF Consortium <info@verapdf.org>
+ * All rights reserved.
+ *
+ * veraPDF Parser is free software: you can redistribute it and/or modify
+ * it under the terms of either:
+ *
+ * The GNU General public license GPLv3+.
+ * You should have received a copy of the GNU General Public License
+ * along with veraPDF Parser as the LICENSE.GPL file in the root of the source
+ * tree.  If not, see http://www.gnu.org/licenses/ or
+ * https://www.gnu.org/licenses/gpl-3.0.en.html.
+ *
+ * The Mozilla Public License MPLv2+.
+ * You should have received a copy of the Mozilla Public License along with
+ * veraPDF Parser as the LICENSE.MPL file in the root of the source tree.
+ * If a copy of the MPL was not distributed with this file, you can obtain one at
+ * http://mozilla.org/MPL/2.0/.
+ */
+package org.verapdf.pd.font;
+
+import org.junit.Test;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class ObjectIntMapTest {
+
+    @Test
+    public void testMap() {
+        Random random = new Random(42);
+        ObjectIntMap<String> map = new ObjectIntMap<>();
+        Map<String, Integer> expected = new HashMap<>();
+        for (int i = 0; i < 20000; ++i) {
+            String key = "glyph" + random.nextInt(8000);
+            int value = random.nextInt();
+            map.put(key, value);
+            expected.put(key, value);
+        }
+        assertEquals(expected.size(), map.size());
+        for (Map.Entry<String, Integer> entry : expected.entrySet()) {
+            assertTrue(map.containsKey(entry.getKey()));
+            assertEquals(entry.getValue().intValue(), map.get(entry.getKey(), -1));
+        }
+        assertFalse(map.containsKey("absent"));
+        assertFalse(map.containsKey(null));
+        assertEquals(-1, map.get(null, -1));
+        assertEquals(-1, map.get("absent", -1));
+    }
+
+    @Test
+    public void testKeySet() {
+        ObjectIntMap<String> map = new ObjectIntMap<>();
+        Set<String> expected = new HashSet<>();
+        for (int i = 0; i < 100; ++i) {
+            map.put("a" + i, i);
+            expected.add("a" + i);
+        }
+        Set<String> keys = map.keySet();
+        assertEquals(100, keys.size());
+        assertTrue(keys.contains("a50"));
+        assertFalse(keys.contains("b"));
+        assertEquals(expected, new HashSet<>(keys));
+        Iterator<String> iterator = keys.iterator();
+        iterator.next();
+        try {
+            iterator.remove();
+            assertTrue(false);
+        } catch (UnsupportedOperationException e) {
+            assertEquals(100, map.size());
+        }
+    }
+}
@@ -0,0 +1,127 @@
+/**
+ * This file is part of veraPDF Parser, a module of the veraPDF project.
+ * Copyright (c) 2015, veraPDF Consortium <info@verapdf.org>
+ * All rights reserved.
+ *
+ * veraPDF Parser is free software: you can redistribute it and/or modify
+ * it under the terms of either:
+ *
+ * The GNU General public license GPLv3+.
+ * You should have received a copy of the GNU General Public License
+ * along with veraPDF Parser as the LICENSE.GPL file in the root of the source
+ * tree.  If not, see http://www.gnu.org/licenses/ or
+ * https://www.gnu.org/licenses/gpl-3.0.en.html.
+ *
+ * The Mozilla Public License MPLv2+.
+ * You should have received a copy of the Mozilla Public License along with
+ * veraPDF Parser as the LICENSE.MPL file in the root of the source tree.
+ * If a copy of the MPL was not distributed with this file, you can obtain one at
+ * http://mozilla.org/MPL/2.0/.
+ */
+package org.verapdf.pd.font.cmap;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+
+public class CIDIndexTest {
+
+    @Test
+    public void testPriority() {
+        List<CIDMappable> cidMappings = new ArrayList<>();
+        cidMappings.add(new SingleCIDMapping(15, 100));
+        cidMappings.add(new CIDInterval(10, 20, 1));
+        cidMappings.add(new CIDInterval(18, 30, 50));
+        List<CIDMappable> notDefMappings = new ArrayList<>();
+        notDefMappings.add(new NotDefInterval(0, 40, 7));
+        CIDIndex index = CIDIndex.build(cidMappings, notDefMappings);
+        assertEquals(7, index.getCID(0));
+        assertEquals(1, index.getCID(10));
+        assertEquals(100, index.getCID(15));
+        assertEquals(7, index.getCID(16));
+        assertEquals(9, index.getCID(18));
+        assertEquals(53, index.getCID(21));
+        assertEquals(7, index.getCID(40));
+        assertEquals(-1, index.getCID(41));
+        assertEquals(-1, index.getCID(-1));
+    }
+
+    @Test
+    public void testEmpty() {
+        CIDIndex index = CIDIndex.build(Collections.<CIDMappable>emptyList(),
+                Collections.<CIDMappable>emptyList());
+        assertEquals(-1, index.getCID(0));
+    }
+
+    /**
+     * Compares index with linear scan of mappings, which was used for CID
+     * lookup before.
+     */
+    @Test
+    public void testLinearScanResults() {
+        Random random = new Random(42);
+        for (int test = 0; test < 200; ++test) {
+            int maxCode = 1 + random.nextInt(test < 100 ? 300 : 70000);
+            List<CIDMappable> cidMappings = createMappings(random, maxCode, false);
+            List<CIDMappable> notDefMappings = createMappings(random, maxCode, true);
+            CIDIndex index = CIDIndex.build(cidMappings, notDefMappings);
+            int step = Math.max(1, maxCode / 2000);
+            for (int code = -2; code <= maxCode + 2; code += step) {
+                assertEquals(getCIDLinear(cidMappings, notDefMappings, code), index.getCID(code));
+            }
+            for (int i = 0; i < 1000; ++i) {
+                int code = random.nextInt(maxCode + 1);
+                assertEquals(getCIDLinear(cidMappings, notDefMappings, code), index.getCID(code));
+            }
+        }
+    }
+
+    private static int getCIDLinear(List<CIDMappable> cidMappings, List<CIDMappable> notDefMappings, int code) {
+        for (CIDMappable cidMapping : cidMappings) {
+            int res = cidMapping.getCID(code);
+            if (res != -1) {
+                return res;
+            }
+        }
+        for (CIDMappable notDefMapping : notDefMappings) {
+            int res = notDefMapping.getCID(code);
+            if (res != -1) {
+                return res;
+            }
+        }
+        return -1;
+    }
+
+    private static List<CIDMappable> createMappings(Random random, int maxCode, boolean isNotDef) {
+        List<CIDMappable> res = new ArrayList<>();
+        int size = random.nextInt(isNotDef ? 4 : 30);
+        for (int i = 0; i < size; ++i) {
+            int kind = random.nextInt(3);
+            if (kind == 0 && !isNotDef) {
+                res.add(new SingleCIDMapping(random.nextInt(maxCode + 1), random.nextInt(10000)));
+            } else if (kind == 1) {
+                int rangesNumber = 1 + random.nextInt(5);
+                int[] starts = new int[rangesNumber];
+                int[] ends = new int[rangesNumber];
+                int[] cids = new int[rangesNumber];
+                for (int j = 0; j < rangesNumber; ++j) {
+                    starts[j] = random.nextInt(maxCode + 1);
+                    ends[j] = Math.min(maxCode, starts[j] + random.nextInt(Math.max(1, maxCode / 4)));
+                    cids[j] = random.nextInt(10000);
+                }
+                res.add(new CIDRanges(starts, ends, cids, isNotDef));
+            } else {
+                int start = random.nextInt(maxCode + 1);
+                int end = Math.min(maxCode, start + random.nextInt(Math.max(1, maxCode / 3)));
+                int cid = random.nextInt(10000);
+                res.add(isNotDef ? new NotDefInterval(start, end, cid) : new CIDInterval(start, end, cid));
+            }
+        }
+        return res;
+    }
+}
@@ -0,0 +1,57 @@
+/**
+ * This file is part of veraPDF Parser, a module of the veraPDF project.
+ * Copyright (c) 2015, veraPDF Consortium <info@verapdf.org>
+ * All rights reserved.
+ *
+ * veraPDF Parser is free software: you can redistribute it and/or modify
+ * it under the terms of either:
+ *
+ * The GNU General public license GPLv3+.
+ * You should have received a copy of the GNU General Public License
+ * along with veraPDF Parser as the LICENSE.GPL file in the root of the source
+ * tree.  If not, see http://www.gnu.org/licenses/ or
+ * https://www.gnu.org/licenses/gpl-3.0.en.html.
+ *
+ * The Mozilla Public License MPLv2+.
+ * You should have received a copy of the Mozilla Public License along with
+ * veraPDF Parser as the LICENSE.MPL file in the root of the source tree.
+ * If a copy of the MPL was not distributed with this file, you can obtain one at
+ * http://mozilla.org/MPL/2.0/.
+ */
+package org.verapdf.pd.font.cmap;
+
+import org.junit.Test;
+import org.verapdf.parser.postscript.PostScriptException;
+
+import java.io.*;
+
+import static org.junit.Assert.assertEquals;
+
+public class CMapCompilerTest {
+    private String cMapPath = "src/test/resources/org/verapdf/pd/font/cmap/83pv-RKSJ-H";
+
+    @Test
+    public void testCompiledCMapMapsCodesAsParsed() throws IOException, PostScriptException {
+        CMap parsed;
+        try (InputStream stream = new FileInputStream(cMapPath)) {
+            parsed = PredefinedCMaps.parseCMap(stream);
+        }
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            CMapCompiler.write(parsed, out);
+        }
+        CMap compiled = CMapCompiler.read(new DataInputStream(new ByteArrayInputStream(bytes.toByteArray())));
+
+        assertEquals(parsed.getName(), compiled.getName());
+        assertEquals(parsed.getRegistry(), compiled.getRegistry());
+        assertEquals(parsed.getOrdering(), compiled.getOrdering());
+        assertEquals(parsed.getSupplement(), compiled.getSupplement());
+        assertEquals(parsed.getwMode(), compiled.getwMode());
+        assertEquals(parsed.getCodeSpaces().size(), compiled.getCodeSpaces().size());
+        for (int code = 0; code <= 0xFFFF; ++code) {
+            assertEquals(parsed.toCID(code), compiled.toCID(code));
+            assertEquals(parsed.getUnicode(code), compiled.getUnicode(code));
+        }
+        assertEquals(7516, compiled.toCID(0x84bc));
+    }
+}
@@ -0,0 +1,153 @@
+/**
+ * This file is part of veraPDF Parser, a module of the veraPDF project.
+ * Copyright (c) 2015, veraPDF Consortium <info@verapdf.org>
+ * All rights reserved.
+ *
+ * veraPDF Parser is free software: you can redistribute it and/or modify
+ * it under the terms of either:
+ *
+ * The GNU General public license GPLv3+.
+ * You should have received a copy of the GNU General Public License
+ * along with veraPDF Parser as the LICENSE.GPL file in the root of the source
+ * tree.  If not, see http://www.gnu.org/licenses/ or
+ * https://www.gnu.org/licenses/gpl-3.0.en.html.
+ *
+ * The Mozilla Public License MPLv2+.
+ * You should have received a copy of the Mozilla Public License along with
+ * veraPDF Parser as the LICENSE.MPL file in the root of the source tree.
+ * If a copy of the MPL was not distributed with this file, you can obtain one at
+ * http://mozilla.org/MPL/2.0/.
+ */
+package org.verapdf.pd.font.cmap;
+
+import org.junit.Test;
+import org.verapdf.as.io.ASMemoryInStream;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+public class CodeSpaceTableTest {
+
+    private static final String CMAP_DIRECTORY = "src/main/resources/font/cmap";
+
+    /**
+     * Compares reading of codes from bundled CMaps with the algorithm used
+     * before.
+     */
+    @Test
+    public void testBundledCMaps() throws IOException {
+        String[] names = new File(CMAP_DIRECTORY).list();
+        assertNotNull(names);
+        Arrays.sort(names);
+        Random random = new Random(42);
+        int checked = 0;
+        for (String name : names) {
+            CMap cMap = PredefinedCMaps.getCMap(name);
+            if (cMap == null || cMap.getCodeSpaces().isEmpty()) {
+                continue;
+            }
+            CodeSpaceTable table = CodeSpaceTable.build(cMap.getCodeSpaces());
+            // two byte code followed by bytes that are read if code is incomplete
+            byte[] data = new byte[8];
+            for (int code = 0; code <= 0xFFFF; ++code) {
+                data[0] = (byte) (code >> 8);
+                data[1] = (byte) code;
+                compare(cMap.getCodeSpaces(), table, data, 1);
+            }
+            compare(cMap.getCodeSpaces(), table, randomBytes(random, 5000), Integer.MAX_VALUE);
+            checked++;
+        }
+        assertTrue(checked > 50);
+    }
+
+    @Test
+    public void testRandomCodeSpaces() throws IOException {
+        Random random = new Random(42);
+        for (int test = 0; test < 300; ++test) {
+            List<CodeSpace> codeSpaces = new ArrayList<>();
+            int size = 1 + random.nextInt(5);
+            for (int i = 0; i < size; ++i) {
+                int length = 1 + random.nextInt(4);
+                byte[] begin = new byte[length];
+                byte[] end = new byte[length];
+                for (int j = 0; j < length; ++j) {
+                    int first = random.nextInt(256);
+                    int second = random.nextInt(256);
+                    begin[j] = (byte) Math.min(first, second);
+                    end[j] = (byte) Math.max(first, second);
+                }
+                codeSpaces.add(new CodeSpace(begin, end));
+            }
+            compare(codeSpaces, CodeSpaceTable.build(codeSpaces), randomBytes(random, 1000), Integer.MAX_VALUE);
+        }
+    }
+
+    private static void compare(List<CodeSpace> codeSpaces, CodeSpaceTable table, byte[] data,
+                                int codesNumber) throws IOException {
+        int shortestLength = Integer.MAX_VALUE;
+        for (CodeSpace codeSpace : codeSpaces) {
+            shortestLength = Math.min(shortestLength, codeSpace.getLength());
+        }
+        ASMemoryInStream expectedStream = new ASMemoryInStream(data);
+        ASMemoryInStream actualStream = new ASMemoryInStream(data);
+        // both algorithms read past the end of data in different ways
+        for (int i = 0; i < codesNumber && expectedStream.available() >= 5; ++i) {
+            int expected = readCodeLinear(codeSpaces, shortestLength, expectedStream);
+            assertEquals(expected, table.readCode(actualStream, "test"));
+            assertEquals(expectedStream.available(), actualStream.available());
+        }
+    }
+
+    /**
+     * Reads code in the way CMap did before codespace table.
+     */
+    private static int readCodeLinear(List<CodeSpace> codeSpaces, int shortestLength,
+                                      InputStream stream) throws IOException {
+        byte[] charCode = new byte[5];
+        int previousShortestMatchingCodeSpaceLength = shortestLength;
+        for (int i = 0; i <= 4; ++i) {
+            charCode[i] = (byte) stream.read();
+            byte[] currentCode = Arrays.copyOf(charCode, i + 1);
+            for (CodeSpace codeSpace : codeSpaces) {
+                if (codeSpace.contains(currentCode)) {
+                    int res = (int) CMapParser.numberFromBytes(currentCode);
+                    if (res != -1) {
+                        return res;
+                    }
+                }
+            }
+            int shortestMatchingCodeSpaceLength = Integer.MAX_VALUE;
+            for (CodeSpace codeSpace : codeSpaces) {
+                boolean partialMatch = codeSpace.getLength() > i;
+                for (int j = 0; j <= i && partialMatch; ++j) {
+                    partialMatch = codeSpace.isPartialMatch(charCode[j], j);
+                }
+                if (partialMatch && shortestMatchingCodeSpaceLength > codeSpace.getLength()) {
+                    shortestMatchingCodeSpaceLength = codeSpace.getLength();
+                }
+            }
+            if (shortestMatchingCodeSpaceLength == Integer.MAX_VALUE && !codeSpaces.isEmpty()) {
+                byte[] tmp = new byte[previousShortestMatchingCodeSpaceLength - i - 1];
+                stream.read(tmp);
+                return 0;
+            }
+            previousShortestMatchingCodeSpaceLength = shortestMatchingCodeSpaceLength;
+        }
+        return 0;
+    }
+
+    private static byte[] randomBytes(Random random, int length) {
+        byte[] res = new byte[length];
+        random.nextBytes(res);
+        return res;
+    }
+}
@@ -26,8 +26,23 @@ import org.verapdf.cos.COSName;
 import org.verapdf.cos.COSObject;
 import org.verapdf.io.InternalInputStream;
 
+import org.verapdf.as.io.ASMemoryInStream;
+
 import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertTrue;
 
 /**
@@ -59,4 +74,122 @@ public class TrueTypeParserTest {
         assertTrue((int) font.getWidth("zero") == 556);
         assertTrue((int) font.getWidth("yakute") == 365);
     }
+
+    @Test
+    public void testLazyTables() throws IOException {
+        TrueTypeFontProgram font = new TrueTypeFontProgram(new InternalInputStream(REGULAR_FONT_PATH, 2),
+                true, null);
+        font.parseFont();
+        assertTrue(font.isSuccessfulParsing());
+        TrueTypeFontParser parser = font.parser;
+        assertTrue(font.isCmapPresent(3, 1));
+        TrueTypeCmapSubtable subtable = parser.getCmapTable(3, 1);
+        assertNotNull(subtable);
+        assertFalse(subtable.isMappingRead());
+        assertEquals(36, subtable.getGlyph('A'));
+        assertTrue(subtable.isMappingRead());
+        assertEquals(93, subtable.getGlyph('z'));
+        assertTrue(subtable.containsCID('z'));
+        assertFalse(subtable.containsCID(0xF8FF));
+
+        TrueTypeCmapSubtable macSubtable = parser.getCmapTable(1, 0);
+        assertNotNull(macSubtable);
+        assertFalse(macSubtable.isMappingRead());
+        assertEquals(36, macSubtable.getGlyph('A'));
+
+        assertTrue(font.widths == null);
+        assertEquals(500, (int) font.getWidthWithCheck(93));
+        assertNotNull(font.widths);
+        font.getFontProgramResource().close();
+    }
+
+    @Test
+    public void testConcurrentLazyReads() throws Exception {
+        final byte[] data = Files.readAllBytes(Paths.get(REGULAR_FONT_PATH));
+        final float[] expected = readWidthsAndGlyphs(parseFont(data));
+        final int threads = 8;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            for (int round = 0; round < 20; ++round) {
+                final TrueTypeFontProgram font = parseFont(data);
+                final CountDownLatch ready = new CountDownLatch(threads);
+                List<Future<float[]>> results = new ArrayList<>();
+                for (int i = 0; i < threads; ++i) {
+                    results.add(executor.submit(new Callable<float[]>() {
+                        @Override
+                        public float[] call() throws Exception {
+                            ready.countDown();
+                            ready.await();
+                            return readWidthsAndGlyphs(font);
+                        }
+                    }));
+                }
+                for (Future<float[]> result : results) {
+                    assertTrue(Arrays.equals(expected, result.get()));
+                }
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    private static TrueTypeFontProgram parseFont(byte[] data) throws IOException {
+        TrueTypeFontProgram font = new TrueTypeFontProgram(new ASMemoryInStream(data), IS_SYMBOLIC, ENCODING);
+        font.parseFont();
+        return font;
+    }
+
+    /**
+     * Reads data from lazily parsed tables: widths of glyphs, cmap subtables
+     * and glyph names from post table.
+     */
+    private static float[] readWidthsAndGlyphs(TrueTypeFontProgram font) {
+        float[] res = new float[3 * 256];
+        TrueTypeCmapSubtable subtable = font.parser.getCmapTable(3, 1);
+        for (int code = 0; code < 256; ++code) {
+            res[code] = font.getWidth(code);
+            res[256 + code] = subtable.getGlyph(code);
+            res[512 + code] = font.containsGlyph(font.getGlyphName(code)) ? 1 : 0;
+        }
+        return res;
+    }
+
+    @Test
+    public void testTruncatedFont() throws IOException {
+        byte[] data = Files.readAllBytes(Paths.get(REGULAR_FONT_PATH));
+        long[] hmtx = findTable(data, "hmtx");
+        assertNotNull(hmtx);
+        byte[] truncated = Arrays.copyOf(data, (int) (hmtx[0] + hmtx[1] / 2));
+        TrueTypeFontProgram font = new TrueTypeFontProgram(new ASMemoryInStream(truncated),
+                IS_SYMBOLIC, ENCODING);
+        try {
+            font.parseFont();
+        } catch (IOException e) {
+            // expected, parsing is marked as failed
+        }
+        assertTrue(font.isAttemptedParsing());
+        assertFalse(font.isSuccessfulParsing());
+    }
+
+    /**
+     * @return offset and length of table with given tag or null.
+     */
+    private static long[] findTable(byte[] data, String tag) {
+        int numTables = readNumber(data, 4, 2);
+        for (int i = 0; i < numTables; ++i) {
+            int entry = 12 + 16 * i;
+            if (new String(data, entry, 4).equals(tag)) {
+                return new long[]{readNumber(data, entry + 8, 4), readNumber(data, entry + 12, 4)};
+            }
+        }
+        return null;
+    }
+
+    private static int readNumber(byte[] data, int offset, int length) {
+        int res = 0;
+        for (int i = 0; i < length; ++i) {
+            res = (res << 8) | (data[offset + i] & 0xFF);
+        }
+        return res;
+    }
 }
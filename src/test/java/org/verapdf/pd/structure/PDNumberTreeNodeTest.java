@@ -0,0 +1,170 @@
+/**
+ * This file is part of veraPDF Parser, a module of the veraPDF project.
+ * Copyright (c) 2015, veraPDF Consortium <info@verapdf.org>
+ * All rights reserved.
+ *
+ * veraPDF Parser is free software: you can redistribute it and/or modify
+ * it under the terms of either:
+ *
+ * The GNU General public license GPLv3+.
+ * You should have received a copy of the GNU General Public License
+ * along with veraPDF Parser as the LICENSE.GPL file in the root of the source
+ * tree.  If not, see http://www.gnu.org/licenses/ or
+ * https://www.gnu.org/licenses/gpl-3.0.en.html.
+ *
+ * The Mozilla Public License MPLv2+.
+ * You should have received a copy of the Mozilla Public License along with
+ * veraPDF Parser as the LICENSE.MPL file in the root of the source tree.
+ * If a copy of the MPL was not distributed with this file, you can obtain one at
+ * http://mozilla.org/MPL/2.0/.
+ */
+package org.verapdf.pd.structure;
+
+import org.junit.Test;
+import org.verapdf.as.ASAtom;
+import org.verapdf.cos.*;
+import org.verapdf.exceptions.LoopedException;
+
+import static org.junit.Assert.*;
+
+public class PDNumberTreeNodeTest {
+
+    private static COSObject leaf(long... keys) {
+        COSObject nums = COSArray.construct();
+        for (long key : keys) {
+            nums.add(COSInteger.construct(key));
+            nums.add(COSInteger.construct(key * 10));
+        }
+        return COSDictionary.construct(ASAtom.NUMS, nums);
+    }
+
+    private static COSObject limits(long lower, long upper) {
+        return COSArray.construct(2, new double[]{lower, upper});
+    }
+
+    @Test
+    public void testLookupInKids() {
+        COSObject first = leaf(1, 5, 3);
+        first.setKey(ASAtom.LIMITS, limits(1, 3));
+        COSObject second = leaf(4, 3, 8);
+        COSObject kids = COSArray.construct();
+        kids.add(first);
+        kids.add(second);
+        PDNumberTreeNode tree = new PDNumberTreeNode(COSDictionary.construct(ASAtom.KIDS, kids));
+
+        assertEquals(Long.valueOf(10), tree.getObject(1L).getInteger());
+        // 3 is present in both kids, the first one is used
+        assertEquals(Long.valueOf(30), tree.getObject(3L).getInteger());
+        // 5 is outside of limits of the first kid
+        assertNull(tree.getObject(5L));
+        assertEquals(Long.valueOf(80), tree.getObject(8L).getInteger());
+        assertNull(tree.getObject(2L));
+        assertNull(tree.getObject(null));
+    }
+
+    @Test(expected = LoopedException.class)
+    public void testLoop() {
+        COSDocument document = new COSDocument(null);
+        COSKey key = new COSKey(1, 0);
+        COSObject kids = COSArray.construct();
+        kids.add(COSIndirect.construct(key, document));
+        document.setObject(key, COSDictionary.construct(ASAtom.KIDS, kids));
+        new PDNumberTreeNode(COSIndirect.construct(key, document)).getObject(1L);
+    }
+
+    @Test
+    public void testDuplicateKeys() {
+        COSObject nums = COSArray.construct();
+        nums.add(COSInteger.construct(1));
+        nums.add(COSInteger.construct(10));
+        nums.add(COSInteger.construct(1));
+        nums.add(COSInteger.construct(11));
+        COSObject first = COSDictionary.construct(ASAtom.NUMS, nums);
+        COSObject second = COSDictionary.construct(ASAtom.NUMS, COSArray.construct());
+        second.getKey(ASAtom.NUMS).add(COSInteger.construct(1));
+        second.getKey(ASAtom.NUMS).add(COSInteger.construct(12));
+        COSObject kids = COSArray.construct();
+        kids.add(first);
+        kids.add(second);
+
+        // the last entry of one leaf is used, as in getNums()
+        assertEquals(Long.valueOf(11), new PDNumberTreeNode(first).getObject(1L).getInteger());
+        assertEquals(Long.valueOf(11), new PDNumberTreeNode(first).getNums().get(1L).getInteger());
+        // the first leaf is used
+        PDNumberTreeNode tree = new PDNumberTreeNode(COSDictionary.construct(ASAtom.KIDS, kids));
+        assertEquals(Long.valueOf(11), tree.getObject(1L).getInteger());
+    }
+
+    @Test
+    public void testLoopOutsideOfLimits() {
+        COSDocument document = new COSDocument(null);
+        COSKey loopKey = new COSKey(2, 0);
+        COSObject loopKids = COSArray.construct();
+        loopKids.add(COSIndirect.construct(loopKey, document));
+        COSObject loop = COSDictionary.construct(ASAtom.KIDS, loopKids);
+        loop.setKey(ASAtom.LIMITS, limits(10, 20));
+        document.setObject(loopKey, loop);
+
+        COSObject leaf = leaf(1, 2);
+        leaf.setKey(ASAtom.LIMITS, limits(1, 2));
+        COSObject kids = COSArray.construct();
+        kids.add(leaf);
+        kids.add(COSIndirect.construct(loopKey, document));
+        PDNumberTreeNode tree = new PDNumberTreeNode(COSDictionary.construct(ASAtom.KIDS, kids));
+
+        assertEquals(Long.valueOf(20), tree.getObject(2L).getInteger());
+        assertNull(tree.getObject(5L));
+        try {
+            tree.getObject(15L);
+            fail("Loop inside number tree is not reported");
+        } catch (LoopedException e) {
+            // loop is within limits of the key
+        }
+    }
+
+    @Test
+    public void testKeyFoundBeforeLoop() {
+        COSDocument document = new COSDocument(null);
+        COSKey loopKey = new COSKey(2, 0);
+        COSObject loopKids = COSArray.construct();
+        loopKids.add(COSIndirect.construct(loopKey, document));
+        COSObject loop = COSDictionary.construct(ASAtom.KIDS, loopKids);
+        loop.setKey(ASAtom.LIMITS, limits(10, 20));
+        document.setObject(loopKey, loop);
+
+        COSObject before = leaf(15);
+        before.setKey(ASAtom.LIMITS, limits(15, 15));
+        COSObject after = leaf(16);
+        after.setKey(ASAtom.LIMITS, limits(16, 16));
+        COSObject kids = COSArray.construct();
+        kids.add(before);
+        kids.add(COSIndirect.construct(loopKey, document));
+        kids.add(after);
+        PDNumberTreeNode tree = new PDNumberTreeNode(COSDictionary.construct(ASAtom.KIDS, kids));
+
+        // search from the root finds 15 before it reaches the loop
+        assertEquals(Long.valueOf(150), tree.getObject(15L).getInteger());
+        for (long key : new long[]{12, 16}) {
+            try {
+                tree.getObject(key);
+                fail("Loop inside number tree is not reported for key " + key);
+            } catch (LoopedException e) {
+                // key is not found before the loop
+            }
+        }
+    }
+
+    @Test
+    public void testIndexIsDroppedOnSetObject() {
+        COSObject nums = leaf(1).getKey(ASAtom.NUMS);
+        COSObject root = COSDictionary.construct(ASAtom.NUMS, nums);
+        PDNumberTreeNode tree = new PDNumberTreeNode(root);
+        assertEquals(Long.valueOf(10), tree.getObject(1L).getInteger());
+        nums.add(COSInteger.construct(2));
+        nums.add(COSInteger.construct(20));
+        // index reflects the tree as of the first lookup
+        assertNull(tree.getObject(2L));
+        tree.setObject(root);
+        assertEquals(Long.valueOf(20), tree.getObject(2L).getInteger());
+    }
+}
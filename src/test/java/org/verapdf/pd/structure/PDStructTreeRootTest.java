@@ -0,0 +1,96 @@
+/**
+ * This file is part of veraPDF Parser, a module of the veraPDF project.
+ * Copyright (c) 2015, veraPDF Consortium <info@verapdf.org>
+ * All rights reserved.
+ *
+ * veraPDF Parser is free software: you can redistribute it and/or modify
+ * it under the terms of either:
+ *
+ * The GNU General public license GPLv3+.
+ * You should have received a copy of the GNU General Public License
+ * along with veraPDF Parser as the LICENSE.GPL file in the root of the source
+ * tree.  If not, see http://www.gnu.org/licenses/ or
+ * https://www.gnu.org/licenses/gpl-3.0.en.html.
+ *
+ * The Mozilla Public License MPLv2+.
+ * You should have received a copy of the Mozilla Public License along with
+ * veraPDF Parser as the LICENSE.MPL file in the root of the source tree.
+ * If a copy of the MPL was not distributed with this file, you can obtain one at
+ * http://mozilla.org/MPL/2.0/.
+ */
+package org.verapdf.pd.structure;
+
+import org.junit.Test;
+import org.verapdf.as.ASAtom;
+import org.verapdf.cos.COSArray;
+import org.verapdf.cos.COSDictionary;
+import org.verapdf.cos.COSInteger;
+import org.verapdf.cos.COSName;
+import org.verapdf.cos.COSObject;
+import org.verapdf.pd.PDCatalog;
+
+import static org.junit.Assert.*;
+
+public class PDStructTreeRootTest {
+
+    private static final ASAtom HEADING = ASAtom.getASAtom("Heading");
+
+    private static COSObject roleMap(String type) {
+        return COSDictionary.construct(HEADING, COSName.construct(ASAtom.getASAtom(type)));
+    }
+
+    private static COSObject parentTree(long key, long value) {
+        COSObject nums = COSArray.construct();
+        nums.add(COSInteger.construct(key));
+        nums.add(COSInteger.construct(value));
+        return COSDictionary.construct(ASAtom.NUMS, nums);
+    }
+
+    @Test
+    public void testReplacedEntries() {
+        COSObject root = COSDictionary.construct(ASAtom.ROLE_MAP, roleMap("H1"));
+        root.setKey(ASAtom.PARENT_TREE, parentTree(1, 10));
+        PDStructTreeRoot structTreeRoot = new PDStructTreeRoot(root);
+        Object roleMap = structTreeRoot.getRoleMap();
+        assertSame(roleMap, structTreeRoot.getRoleMap());
+        assertEquals(ASAtom.getASAtom("H1"), structTreeRoot.getRoleMap().get(HEADING));
+        PDNumberTreeNode parentTree = structTreeRoot.getParentTree();
+        assertSame(parentTree, structTreeRoot.getParentTree());
+        assertEquals(Long.valueOf(10), structTreeRoot.getParentTree().getObject(1L).getInteger());
+
+        structTreeRoot.setKey(ASAtom.ROLE_MAP, roleMap("H2"));
+        root.setKey(ASAtom.PARENT_TREE, parentTree(1, 11));
+        assertEquals(ASAtom.getASAtom("H2"), structTreeRoot.getRoleMap().get(HEADING));
+        assertEquals(Long.valueOf(11), structTreeRoot.getParentTree().getObject(1L).getInteger());
+
+        structTreeRoot.removeKey(ASAtom.ROLE_MAP);
+        structTreeRoot.removeKey(ASAtom.PARENT_TREE);
+        assertTrue(structTreeRoot.getRoleMap().isEmpty());
+        assertNull(structTreeRoot.getParentTree());
+    }
+
+    @Test
+    public void testRoleMapModifiedInPlace() {
+        COSObject roleMap = roleMap("H1");
+        PDStructTreeRoot structTreeRoot = new PDStructTreeRoot(COSDictionary.construct(ASAtom.ROLE_MAP, roleMap));
+        assertEquals(ASAtom.getASAtom("H1"), structTreeRoot.getRoleMap().get(HEADING));
+        roleMap.setNameKey(HEADING, ASAtom.getASAtom("H2"));
+        structTreeRoot.setObject(structTreeRoot.getObject());
+        assertEquals(ASAtom.getASAtom("H2"), structTreeRoot.getRoleMap().get(HEADING));
+    }
+
+    @Test
+    public void testReplacedStructTreeRoot() {
+        PDCatalog catalog = new PDCatalog(COSDictionary.construct(ASAtom.STRUCT_TREE_ROOT,
+                COSDictionary.construct(ASAtom.ROLE_MAP, roleMap("H1"))));
+        PDStructTreeRoot structTreeRoot = catalog.getStructTreeRoot();
+        assertSame(structTreeRoot, catalog.getStructTreeRoot());
+
+        catalog.setKey(ASAtom.STRUCT_TREE_ROOT, COSDictionary.construct(ASAtom.ROLE_MAP, roleMap("H2")));
+        assertNotSame(structTreeRoot, catalog.getStructTreeRoot());
+        assertEquals(ASAtom.getASAtom("H2"), catalog.getStructTreeRoot().getRoleMap().get(HEADING));
+
+        catalog.removeKey(ASAtom.STRUCT_TREE_ROOT);
+        assertNull(catalog.getStructTreeRoot());
+    }
+}
@@ -0,0 +1,120 @@
+/**
+ * This file is part of veraPDF Parser, a module of the veraPDF project.
+ * Copyright (c) 2015, veraPDF Consortium <info@verapdf.org>
+ * All rights reserved.
+ *
+ * veraPDF Parser is free software: you can redistribute it and/or modify
+ * it under the terms of either:
+ *
+ * The GNU General public license GPLv3+.
+ * You should have received a copy of the GNU General Public License
+ * along with veraPDF Parser as the LICENSE.GPL file in the root of the source
+ * tree.  If not, see http://www.gnu.org/licenses/ or
+ * https://www.gnu.org/licenses/gpl-3.0.en.html.
+ *
+ * The Mozilla Public License MPLv2+.
+ * You should have received a copy of the Mozilla Public License along with
+ * veraPDF Parser as the LICENSE.MPL file in the root of the source tree.
+ * If a copy of the MPL was not distributed with this file, you can obtain one at
+ * http://mozilla.org/MPL/2.0/.
+ */
+package org.verapdf.pd.structure;
+
+import org.junit.Test;
+import org.verapdf.as.ASAtom;
+import org.verapdf.cos.COSDictionary;
+import org.verapdf.cos.COSObject;
+import org.verapdf.tools.TaggedPDFHelper;
+
+import java.lang.reflect.Constructor;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.*;
+
+import static org.junit.Assert.*;
+
+public class RoleMapTest {
+
+    private static final ASAtom HEADING = ASAtom.getASAtom("Heading");
+    private static final ASAtom FIRST = ASAtom.getASAtom("First");
+    private static final ASAtom SECOND = ASAtom.getASAtom("Second");
+
+    private static RoleMap createRoleMap() {
+        Map<ASAtom, ASAtom> mapping = new HashMap<>();
+        mapping.put(HEADING, ASAtom.getASAtom("H1"));
+        mapping.put(FIRST, SECOND);
+        mapping.put(SECOND, FIRST);
+        return new RoleMap(mapping);
+    }
+
+    private static ASAtom resolve(Map<ASAtom, ASAtom> roleMap, ASAtom type) {
+        StructureType res = TaggedPDFHelper.getDefaultStructureType(StructureType.createStructureType(type), roleMap);
+        return res == null ? null : res.getType();
+    }
+
+    @Test
+    public void testResolution() {
+        RoleMap roleMap = createRoleMap();
+        assertEquals(ASAtom.getASAtom("H1"), resolve(roleMap, HEADING));
+        assertEquals(ASAtom.getASAtom("P"), resolve(roleMap, ASAtom.getASAtom("P")));
+        assertNull(resolve(roleMap, FIRST));
+        assertNull(resolve(roleMap, ASAtom.getASAtom("Unknown")));
+        StructureType type = StructureType.createStructureType(HEADING);
+        assertSame(roleMap.getDefaultStructureType(type), roleMap.getDefaultStructureType(type));
+        assertEquals(ASAtom.getASAtom("H1"), resolve(new HashMap<>(roleMap), HEADING));
+    }
+
+    @Test
+    public void testConcurrentResolution() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            Future<?>[] futures = new Future<?>[8];
+            for (int i = 0; i < futures.length; ++i) {
+                futures[i] = executor.submit(new Callable<Void>() {
+                    @Override
+                    public Void call() {
+                        for (int j = 0; j < 1000; ++j) {
+                            Map<ASAtom, ASAtom> roleMap = new HashMap<>(createRoleMap());
+                            assertEquals(ASAtom.getASAtom("H1"), resolve(roleMap, HEADING));
+                            assertNull(resolve(roleMap, SECOND));
+                        }
+                        return null;
+                    }
+                });
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    public void testDirectNameSpace() throws Exception {
+        RoleMap roleMap = createRoleMap();
+        StructureType type = StructureType.createStructureType(HEADING);
+        assertEquals(ASAtom.getASAtom("H1"), roleMap.getDefaultStructureType(type).getType());
+        // direct namespace has no object key, it is not the same as no namespace
+        COSObject nameSpace = COSDictionary.construct(ASAtom.NS, "http://example.com/ns");
+        nameSpace.setKey(ASAtom.ROLE_MAP_NS, COSDictionary.construct());
+        StructureType nameSpaceType = createStructureType(HEADING, nameSpace);
+        assertNull(nameSpaceType.getNameSpace().getObject().getObjectKey());
+        assertNull(roleMap.getDefaultStructureType(nameSpaceType));
+        assertEquals(ASAtom.getASAtom("H1"), roleMap.getDefaultStructureType(type).getType());
+    }
+
+    /**
+     * Creates structure type with direct namespace, that is rejected by
+     * PDStructureNameSpace.createNameSpace().
+     */
+    private static StructureType createStructureType(ASAtom type, COSObject nameSpace) throws Exception {
+        Constructor<PDStructureNameSpace> nameSpaceConstructor =
+                PDStructureNameSpace.class.getDeclaredConstructor(COSObject.class);
+        nameSpaceConstructor.setAccessible(true);
+        Constructor<StructureType> typeConstructor =
+                StructureType.class.getDeclaredConstructor(ASAtom.class, PDStructureNameSpace.class);
+        typeConstructor.setAccessible(true);
+        return typeConstructor.newInstance(type, nameSpaceConstructor.newInstance(nameSpace));
+    }
+}
@@ -0,0 +1,309 @@
+/**
+ * This file is part of veraPDF Parser, a module of the veraPDF project.
+ * Copyright (c) 2015, veraPDF Consortium <info@verapdf.org>
+ * All rights reserved.
+ *
+ * veraPDF Parser is free software: you can redistribute it and/or modify
+ * it under the terms of either:
+ *
+ * The GNU General public license GPLv3+.
+ * You should have received a copy of the GNU General Public License
+ * along with veraPDF Parser as the LICENSE.GPL file in the root of the source
+ * tree.  If not, see http://www.gnu.org/licenses/ or
+ * https://www.gnu.org/licenses/gpl-3.0.en.html.
+ *
+ * The Mozilla Public License MPLv2+.
+ * You should have received a copy of the Mozilla Public License along with
+ * veraPDF Parser as the LICENSE.MPL file in the root of the source tree.
+ * If a copy of the MPL was not distributed with this file, you can obtain one at
+ * http://mozilla.org/MPL/2.0/.
+ */
+package org.verapdf.tools;
+
+import org.junit.Test;
+import org.verapdf.as.io.ASInputStream;
+import org.verapdf.as.io.ASMemoryInStream;
+import org.verapdf.cos.COSKey;
+import org.verapdf.cos.COSObject;
+import org.verapdf.cos.COSStream;
+import org.verapdf.io.ReaderOptions;
+import org.verapdf.pd.font.FontProgram;
+import org.verapdf.pd.font.FontProgramFactory;
+import org.verapdf.pd.font.truetype.TrueTypeFontProgram;
+import org.verapdf.pd.font.type1.Type1FontProgram;
+import org.verapdf.tools.resource.ASFileStreamCloser;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class FontProgramCacheTest {
+
+    private static final String TRUE_TYPE_FONT_PATH = "src/test/resources/org/verapdf/pd/font/truetype/LiberationSans-Regular.ttf";
+
+    @Test
+    public void testWeightEviction() {
+        FontProgramCache cache = new FontProgramCache(100);
+        FontProgram first = new TestFontProgram(10);
+        FontProgram second = new TestFontProgram(10);
+        FontProgram third = new TestFontProgram(10);
+        assertSame(first, cache.putIfAbsent("first", first, 30));
+        assertSame(second, cache.putIfAbsent("second", second, 30));
+        assertEquals(80, cache.getWeight());
+        // first becomes the most recently used, so second is evicted
+        assertSame(first, cache.get("first"));
+        assertSame(third, cache.putIfAbsent("third", third, 30));
+        assertEquals(1, cache.getEvictionCount());
+        assertEquals(2, cache.size());
+        assertEquals(80, cache.getWeight());
+        assertNull(cache.get("second"));
+        assertSame(third, cache.get("third"));
+
+        FontProgram heavy = new TestFontProgram(200);
+        assertSame(heavy, cache.putIfAbsent("heavy", heavy, 300));
+        assertEquals(1, cache.size());
+        assertEquals(500, cache.getWeight());
+        assertEquals(3, cache.getEvictionCount());
+        assertSame(heavy, cache.get("heavy"));
+
+        cache.clear();
+        assertEquals(0, cache.size());
+        assertEquals(0, cache.getWeight());
+    }
+
+    @Test
+    public void testHitRatio() {
+        FontProgramCache cache = new FontProgramCache();
+        assertEquals(0, cache.getHitRatio(), 0);
+        assertNull(cache.get("font"));
+        FontProgram font = new TestFontProgram(0);
+        cache.putIfAbsent("font", font, 10);
+        // existing font program is returned and not replaced
+        assertSame(font, cache.putIfAbsent("font", new TestFontProgram(0), 10));
+        assertEquals(10, cache.getWeight());
+        assertSame(font, cache.get("font"));
+        assertSame(font, cache.get("font"));
+        assertEquals(2, cache.getHitCount());
+        assertEquals(1, cache.getMissCount());
+        assertEquals(2.0 / 3, cache.getHitRatio(), 1e-9);
+    }
+
+    @Test
+    public void testPutIfAbsentRace() throws Exception {
+        final FontProgramCache cache = new FontProgramCache();
+        final int threads = 8;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            for (int round = 0; round < 50; ++round) {
+                final String key = "font" + round;
+                List<Future<FontProgram>> results = new ArrayList<>();
+                final CountDownLatch ready = new CountDownLatch(threads);
+                for (int i = 0; i < threads; ++i) {
+                    results.add(executor.submit(new Callable<FontProgram>() {
+                        @Override
+                        public FontProgram call() throws InterruptedException {
+                            FontProgram font = new TestFontProgram(1);
+                            ready.countDown();
+                            ready.await();
+                            return cache.putIfAbsent(key, font, 1);
+                        }
+                    }));
+                }
+                FontProgram expected = results.get(0).get();
+                for (Future<FontProgram> result : results) {
+                    assertSame(expected, result.get());
+                }
+                assertSame(expected, cache.get(key));
+            }
+            assertEquals(50, cache.size());
+            assertEquals(100, cache.getWeight());
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    public void testSharedTrueTypeFontProgram() throws IOException {
+        final byte[] data = Files.readAllBytes(Paths.get(TRUE_TYPE_FONT_PATH));
+        FontProgramFactory factory = new FontProgramFactory() {
+            @Override
+            public FontProgram createFontProgram(ASInputStream fontData) throws IOException {
+                return new TrueTypeFontProgram(fontData, true, null);
+            }
+        };
+        FontProgramCache cache = new FontProgramCache();
+        FontProgram first = getFontProgram(cache, data, "TrueTypeFontProgram", factory);
+        FontProgram second = getFontProgram(cache, data, "TrueTypeFontProgram", factory);
+        assertSame(first, second);
+        assertEquals(1, cache.size());
+        assertEquals(1, cache.getHitCount());
+        assertTrue(first.isSuccessfulParsing());
+        assertEquals(556, (int) first.getWidth('$'));
+
+        // different parameters of font program give different entries
+        FontProgram other = getFontProgram(cache, data, "TrueTypeFontProgram other", factory);
+        assertNotSame(first, other);
+        assertEquals(2, cache.size());
+    }
+
+    @Test
+    public void testSharedType1FontProgram() throws IOException {
+        byte[] data = createType1Font();
+        FontProgramFactory factory = new FontProgramFactory() {
+            @Override
+            public FontProgram createFontProgram(ASInputStream fontData) throws IOException {
+                return new Type1FontProgram(fontData);
+            }
+        };
+        FontProgramCache cache = new FontProgramCache();
+        String sharedID = FontProgramIDGenerator.getSharedType1FontProgramID();
+        FontProgram first = getFontProgram(cache, data, sharedID, factory);
+        assertTrue(first.isSuccessfulParsing());
+        assertNull(first.getFontProgramResource());
+        FontProgram second = getFontProgram(cache, data, sharedID, factory);
+        assertSame(first, second);
+        assertEquals(1, cache.size());
+        assertEquals(500, (int) first.getWidth("A"));
+        assertEquals(500, (int) first.getWidth('A'));
+    }
+
+    /**
+     * Gets font program in the same way as it is done for separate documents.
+     */
+    private static FontProgram getFontProgram(FontProgramCache cache, byte[] data, String sharedFontProgramID,
+                                              FontProgramFactory factory) throws IOException {
+        ReaderOptions options = new ReaderOptions();
+        options.setFontProgramCache(cache);
+        StaticResources.setReaderOptions(options);
+        try {
+            COSObject fontFile = COSStream.construct(new ASMemoryInStream(data));
+            COSKey key = new COSKey(1, 0);
+            return StaticResources.getFontProgram(key.toString(), sharedFontProgramID,
+                    (COSStream) fontFile.getDirectBase(), factory);
+        } finally {
+            StaticResources.clear();
+        }
+    }
+
+    /**
+     * Creates Type 1 font with glyphs .notdef and A of width 500.
+     */
+    private static byte[] createType1Font() throws IOException {
+        // 0 500 hsbw endchar
+        byte[] charString = encrypt(new byte[]{0, 0, 0, 0, (byte) 139, (byte) 248, (byte) 136, 13, 14}, 4330);
+        ByteArrayOutputStream privateData = new ByteArrayOutputStream();
+        privateData.write(new byte[]{0, 0, 0, 0});
+        write(privateData, "dup /Private 8 dict dup begin\n/lenIV 4 def\n/CharStrings 2 dict dup begin\n");
+        for (String glyph : new String[]{".notdef", "A"}) {
+            write(privateData, "/" + glyph + " " + charString.length + " RD ");
+            privateData.write(charString);
+            write(privateData, " ND\n");
+        }
+        write(privateData, "end\nend\nmark currentfile closefile\n");
+
+        ByteArrayOutputStream res = new ByteArrayOutputStream();
+        write(res, "%!PS-AdobeFont-1.0: Test 001\n11 dict begin\n/FontName /Test def\n" +
+                "/FontMatrix [0.001 0 0 0.001 0 0] readonly def\n/Encoding StandardEncoding def\n" +
+                "currentdict end\ncurrentfile eexec\n");
+        res.write(encrypt(privateData.toByteArray(), 55665));
+        write(res, "\n");
+        for (int i = 0; i < 8; ++i) {
+            write(res, "0000000000000000000000000000000000000000000000000000000000000000\n");
+        }
+        write(res, "cleartomark\n");
+        return res.toByteArray();
+    }
+
+    private static byte[] encrypt(byte[] data, int key) {
+        byte[] res = new byte[data.length];
+        int r = key;
+        for (int i = 0; i < data.length; ++i) {
+            int cipher = (data[i] & 0xFF) ^ (r >> 8);
+            res[i] = (byte) cipher;
+            r = ((cipher + r) * 52845 + 22719) & 0xFFFF;
+        }
+        return res;
+    }
+
+    private static void write(ByteArrayOutputStream out, String value) throws IOException {
+        out.write(value.getBytes(StandardCharsets.ISO_8859_1));
+    }
+
+    private static class TestFontProgram implements FontProgram {
+
+        private final long memoryUsage;
+
+        private TestFontProgram(long memoryUsage) {
+            this.memoryUsage = memoryUsage;
+        }
+
+        @Override
+        public float getWidth(int code) {
+            return 0;
+        }
+
+        @Override
+        public float getWidth(String glyphName) {
+            return 0;
+        }
+
+        @Override
+        public void parseFont() {
+        }
+
+        @Override
+        public boolean containsCode(int code) {
+            return false;
+        }
+
+        @Override
+        public boolean containsCID(int cid) {
+            return false;
+        }
+
+        @Override
+        public boolean containsGlyph(String glyphName) {
+            return false;
+        }
+
+        @Override
+        public boolean isAttemptedParsing() {
+            return true;
+        }
+
+        @Override
+        public boolean isSuccessfulParsing() {
+            return true;
+        }
+
+        @Override
+        public String getGlyphName(int code) {
+            return null;
+        }
+
+        @Override
+        public long getMemoryUsage() {
+            return this.memoryUsage;
+        }
+
+        @Override
+        public ASFileStreamCloser getFontProgramResource() {
+            return null;
+        }
+    }
+}